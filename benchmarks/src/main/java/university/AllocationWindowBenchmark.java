@@ -0,0 +1,89 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AllocationWindowBenchmark gives seats to students who want six courses
+ * each, where a few courses are wanted by many and there are fewer seats
+ * than wishes. It compares one allocation window with enrolling every
+ * student in the order of its wishes, where the engine stops a student at
+ * its limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AllocationWindowBenchmark {
+    private static final int WISHES = 6;
+
+    @Param({"10000", "100000"})
+    private int students;
+
+    private EnrollmentEngine engine;
+    private int[] memberIds;
+    private CourseLevel[] levels;
+    private int[][] wishes;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        Random random = new Random(BenchmarkData.SEED);
+        int courses = students / 2;
+        for (int i = 0; i < courses; i++) {
+            engine.addCourse(BenchmarkData.courseName(i), i % 4 == 0 ? CourseLevel.MASTER : CourseLevel.BACHELOR);
+        }
+        memberIds = new int[students];
+        levels = new CourseLevel[students];
+        wishes = new int[students][WISHES];
+        for (int i = 0; i < students; i++) {
+            memberIds[i] = engine.addStudent(BenchmarkData.letters(i)).getMemberId();
+            levels[i] = i % 3 == 0 ? CourseLevel.MASTER : CourseLevel.BACHELOR;
+            for (int k = 0; k < WISHES; k++) {
+                // squaring a uniform value makes courses with small IDs popular
+                double value = random.nextDouble();
+                wishes[i][k] = 1 + (int) (courses * value * value);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<AllocationWindow.Allocation> window() {
+        AllocationWindow window = AllocationWindow.open(engine, AllocationWindow.Priority.MASTERS_FIRST,
+                BenchmarkData.SEED);
+        for (int i = 0; i < students; i++) {
+            window.request(memberIds[i], levels[i], wishes[i]);
+        }
+        return window.close();
+    }
+
+    @Benchmark
+    public int firstComeFirstServed() {
+        int enrolled = 0;
+        for (int i = 0; i < students; i++) {
+            for (int courseId : wishes[i]) {
+                if (engine.enroll(memberIds[i], courseId) == Outcome.ENROLLED) {
+                    enrolled++;
+                }
+            }
+        }
+        return enrolled;
+    }
+}
@@ -0,0 +1,78 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BatchEnrollmentBenchmark compares a batch of enrollments and drops with
+ * the same entries applied by single engine calls. The first half of the
+ * entries enrolls random pairs and the second half drops them, so every
+ * invocation leaves the state as it was.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BatchEnrollmentBenchmark {
+    private static final int MEMBERS = 1_000_000;
+
+    @Param({"1000", "100000"})
+    private int entries;
+
+    private EnrollmentEngine engine;
+    private EnrollmentBatch batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(MEMBERS);
+        engine = UniversityCourseManagementSystem.getEngine();
+        List<Student> students = Registry.getInstance().getStudents();
+        List<Course> courses = Registry.getInstance().getCourses();
+        Random random = new Random(BenchmarkData.SEED);
+        int pairs = entries / 2;
+        batch = new EnrollmentBatch(pairs * 2);
+        int[] memberIds = new int[pairs];
+        int[] courseIds = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            memberIds[i] = students.get(random.nextInt(students.size())).getMemberId();
+            courseIds[i] = courses.get(random.nextInt(courses.size())).getCourseId();
+            batch.add(memberIds[i], courseIds[i], EnrollmentBatch.Operation.ENROLL);
+        }
+        for (int i = 0; i < pairs; i++) {
+            batch.add(memberIds[i], courseIds[i], EnrollmentBatch.Operation.DROP);
+        }
+    }
+
+    @Benchmark
+    public Outcome[] batch() {
+        return engine.apply(batch);
+    }
+
+    @Benchmark
+    public void singleCalls(Blackhole blackhole) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.operationAt(i) == EnrollmentBatch.Operation.ENROLL) {
+                blackhole.consume(engine.enroll(batch.memberIdAt(i), batch.courseIdAt(i)));
+            } else {
+                blackhole.consume(engine.drop(batch.memberIdAt(i), batch.courseIdAt(i)));
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BenchmarkData fills the model with generated members and courses and
+ * builds command streams for benchmarks. Everything depends only on the
+ * given seed, so all runs work with the same data.
+ */
+final class BenchmarkData {
+    static final long SEED = 20231120L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * populate replaces the whole state with generated data. Every tenth
+     * member is a professor, and there is one course for every ten members.
+     * @param members amount of members
+     */
+    static void populate(int members) {
+        UniversityCourseManagementSystem.resetState();
+        Registry registry = Registry.getInstance();
+        int courses = Math.max(1, members / 10);
+        for (int i = 0; i < courses; i++) {
+            CourseLevel level = i % 2 == 0 ? CourseLevel.BACHELOR : CourseLevel.MASTER;
+            registry.addCourse(new Course(courseName(i), level));
+        }
+        for (int i = 0; i < members; i++) {
+            if (i % 10 == 9) {
+                registry.addProfessor(new Professor(letters(i)));
+            } else {
+                registry.addStudent(new Student(letters(i)));
+            }
+        }
+    }
+
+    /**
+     * courseName returns a valid course name which is unique for the index
+     * @param index index of a course
+     * @return name of a course
+     */
+    static String courseName(int index) {
+        return "course_" + letters(index);
+    }
+
+    /**
+     * letters returns a non-empty string of english letters which is unique
+     * for the index
+     * @param index non-negative index
+     * @return this string
+     */
+    static String letters(int index) {
+        StringBuilder builder = new StringBuilder();
+        int value = index;
+        do {
+            builder.append((char) ('a' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return builder.toString();
+    }
+
+    /**
+     * commandStream generates commands which do not change the state after
+     * they all are processed: every enroll is followed by a drop of the same
+     * pair and every teach by an exempt, mixed with wrong inputs and attempts
+     * to create existing courses
+     * @param commands amount of commands
+     * @return lines of all commands
+     */
+    static String[] commandStream(int commands) {
+        Registry registry = Registry.getInstance();
+        List<Student> students = registry.getStudents();
+        List<Professor> professors = registry.getProfessors();
+        List<Course> courses = registry.getCourses();
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>();
+        int generated = 0;
+        while (generated < commands) {
+            int kind = commands - generated == 1 ? 9 : random.nextInt(10);
+            String courseId = Integer.toString(courses.get(random.nextInt(courses.size())).getCourseId());
+            if (kind < 6) {
+                String memberId = Integer.toString(students.get(random.nextInt(students.size())).getMemberId());
+                addCommand(lines, "enroll", memberId, courseId);
+                addCommand(lines, "drop", memberId, courseId);
+                generated += 2;
+            } else if (kind < 8 && !professors.isEmpty()) {
+                String memberId = Integer.toString(professors.get(random.nextInt(professors.size())).getMemberId());
+                addCommand(lines, "teach", memberId, courseId);
+                addCommand(lines, "exempt", memberId, courseId);
+                generated += 2;
+            } else if (kind == 8) {
+                addCommand(lines, "course", courseName(random.nextInt(courses.size())), "master");
+                generated++;
+            } else {
+                addCommand(lines, "enroll", "x" + random.nextInt(100));
+                generated++;
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    private static void addCommand(List<String> lines, String... command) {
+        for (String line : command) {
+            lines.add(line);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package university;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner runs benchmarks with the GC profiler, so every result also
+ * shows allocation rate and bytes allocated per operation. It accepts the
+ * usual JMH command line options, for example a benchmark name pattern or
+ * "-p members=1000".
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * main runs benchmarks
+     * @param args JMH command line options
+     * @throws RunnerException            in case a benchmark fails
+     * @throws CommandLineOptionException in case options are wrong
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,28 @@
+package university;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BlackholeCommandOutput consumes results of commands, so the JIT cannot
+ * remove the work which produced them
+ */
+final class BlackholeCommandOutput implements CommandOutput {
+    private final Blackhole blackhole;
+
+    /**
+     * creates an output
+     * @param blackhole blackhole which consumes results
+     */
+    BlackholeCommandOutput(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void println(String line) {
+        blackhole.consume(line);
+    }
+
+    @Override
+    public void flush() {
+    }
+}
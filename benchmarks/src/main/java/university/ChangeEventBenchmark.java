@@ -0,0 +1,97 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ChangeEventBenchmark measures enroll and drop through the engine without
+ * an event bus, with a bus without subscribers, which is the cost of
+ * publishing, with a subscriber which keeps up and with one which needs a
+ * millisecond for every event and skips what it misses. Enroll and drop
+ * must not get slower because a subscriber is slow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ChangeEventBenchmark {
+    private static final int PAIRS = 1 << 12;
+
+    @Param({"100000"})
+    private int members;
+
+    @Param({"none", "idle", "fast", "slow"})
+    private String subscriber;
+
+    private EnrollmentEngine engine;
+    private ChangeEventBus bus;
+    private ChangeEventBus.Subscription subscription;
+    private final int[] memberIds = new int[PAIRS];
+    private final int[] courseIds = new int[PAIRS];
+    private int position;
+    private long received;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        engine = UniversityCourseManagementSystem.getEngine();
+        List<Student> students = Registry.getInstance().getStudents();
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < PAIRS; i++) {
+            memberIds[i] = students.get(random.nextInt(students.size())).getMemberId();
+            courseIds[i] = 1 + random.nextInt(Course.getNumberOfCourses());
+        }
+        if (subscriber.equals("none")) {
+            return;
+        }
+        bus = ChangeEventBus.attach(engine, 1 << 16);
+        if (subscriber.equals("idle")) {
+            return;
+        }
+        boolean slow = subscriber.equals("slow");
+        subscription = bus.subscribe(subscriber, ChangeEventBus.Overflow.SKIP, event -> {
+            received += event.getMemberId();
+            if (slow) {
+                LockSupport.parkNanos(1_000_000);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (bus != null) {
+            bus.detach();
+        }
+    }
+
+    @Benchmark
+    public Outcome enrollDrop() {
+        int i = position = (position + 1) & (PAIRS - 1);
+        Outcome enrolled = engine.enroll(memberIds[i], courseIds[i]);
+        if (enrolled.isSuccess()) {
+            return engine.drop(memberIds[i], courseIds[i]);
+        }
+        return enrolled;
+    }
+}
@@ -0,0 +1,94 @@
+package university;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CommandDispatchBenchmark replays the command stream of
+ * CommandReplayBenchmark into a target which answers at once, so only the
+ * command loop is measured: looking up the line in the command table,
+ * reading and checking arguments and printing results. Results are given
+ * per command.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CommandDispatchBenchmark {
+    private static final int COMMANDS = 10_000;
+
+    private String[] lines;
+    private final CommandTarget target = new AnsweringTarget();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(1000);
+        lines = BenchmarkData.commandStream(COMMANDS);
+        UniversityCourseManagementSystem.setMetrics(null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public void dispatch(Blackhole blackhole) {
+        UniversityCourseManagementSystem.processCommands(new LinesCommandInput(lines),
+                new BlackholeCommandOutput(blackhole), target);
+    }
+
+    // answers every command with its usual success and changes nothing
+    private static final class AnsweringTarget implements CommandTarget {
+        @Override
+        public Outcome addCourse(String courseName, CourseLevel courseLevel) {
+            return Outcome.COURSE_EXISTS;
+        }
+
+        @Override
+        public Outcome addStudent(String memberName) {
+            return Outcome.ADDED;
+        }
+
+        @Override
+        public Outcome addProfessor(String memberName) {
+            return Outcome.ADDED;
+        }
+
+        @Override
+        public Outcome enroll(int memberId, int courseId) {
+            return Outcome.ENROLLED;
+        }
+
+        @Override
+        public Outcome enrollOrWaitlist(int memberId, int courseId) {
+            return Outcome.ENROLLED;
+        }
+
+        @Override
+        public Outcome drop(int memberId, int courseId) {
+            return Outcome.DROPPED;
+        }
+
+        @Override
+        public Outcome teach(int memberId, int courseId) {
+            return Outcome.ASSIGNED;
+        }
+
+        @Override
+        public Outcome exempt(int memberId, int courseId) {
+            return Outcome.EXEMPTED;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package university;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CommandReplayBenchmark replays a stream of commands through the command
+ * loop. The stream leaves the state as it was, so every invocation does the
+ * same work. Results are given per command. With metrics the loop also
+ * counts commands and outcomes and times every 64th command, which shows
+ * the overhead of metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CommandReplayBenchmark {
+    private static final int COMMANDS = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int members;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        lines = BenchmarkData.commandStream(COMMANDS);
+        CommandMetrics commandMetrics = null;
+        if (metrics) {
+            commandMetrics = new CommandMetrics();
+            commandMetrics.attach(UniversityCourseManagementSystem.getEngine(), Registry.getInstance(),
+                    EnrollmentStore.getInstance());
+        }
+        UniversityCourseManagementSystem.setMetrics(commandMetrics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public void replay(Blackhole blackhole) {
+        UniversityCourseManagementSystem.processCommands(new LinesCommandInput(lines),
+                new BlackholeCommandOutput(blackhole));
+    }
+}
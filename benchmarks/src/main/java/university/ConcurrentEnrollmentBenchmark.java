@@ -0,0 +1,94 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConcurrentEnrollmentBenchmark measures throughput of enroll and drop
+ * through the engine when several threads work with random courses at once,
+ * with and without EnrollmentAggregates following the changes. Run it with
+ * "-t" to change the amount of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class ConcurrentEnrollmentBenchmark {
+    private static final int PAIRS = 1 << 12;
+
+    @Param({"1000", "100000"})
+    private int members;
+
+    @Param({"false", "true"})
+    private boolean aggregates;
+
+    private EnrollmentEngine engine;
+    private int[] memberIds;
+    private int[] courseIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        engine = UniversityCourseManagementSystem.getEngine();
+        if (aggregates) {
+            EnrollmentAggregates.attach(engine, Registry.getInstance(), EnrollmentStore.getInstance());
+        }
+        List<Student> students = Registry.getInstance().getStudents();
+        List<Course> courses = Registry.getInstance().getCourses();
+        memberIds = new int[students.size()];
+        for (int i = 0; i < memberIds.length; i++) {
+            memberIds[i] = students.get(i).getMemberId();
+        }
+        courseIds = new int[courses.size()];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseIds[i] = courses.get(i).getCourseId();
+        }
+    }
+
+    /**
+     * Cursor keeps random pairs of a thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final int[] members = new int[PAIRS];
+        private final int[] courses = new int[PAIRS];
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentEnrollmentBenchmark benchmark) {
+            Random random = new Random(Thread.currentThread().getId());
+            for (int i = 0; i < PAIRS; i++) {
+                members[i] = benchmark.memberIds[random.nextInt(benchmark.memberIds.length)];
+                courses[i] = benchmark.courseIds[random.nextInt(benchmark.courseIds.length)];
+            }
+        }
+    }
+
+    @Benchmark
+    public Outcome enrollDrop(Cursor cursor) {
+        int i = cursor.position = (cursor.position + 1) & (PAIRS - 1);
+        Outcome enrolled = engine.enroll(cursor.members[i], cursor.courses[i]);
+        if (enrolled.isSuccess()) {
+            return engine.drop(cursor.members[i], cursor.courses[i]);
+        }
+        return enrolled;
+    }
+}
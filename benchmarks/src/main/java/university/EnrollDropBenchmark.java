@@ -0,0 +1,64 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * EnrollDropBenchmark measures a Student.enroll followed by a Course.drop
+ * of the same pair, together with the checks which the command loop does
+ * before enrolling
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EnrollDropBenchmark {
+    private static final int PAIRS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000"})
+    private int members;
+
+    private final Student[] students = new Student[PAIRS];
+    private final Course[] courses = new Course[PAIRS];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        List<Student> allStudents = Registry.getInstance().getStudents();
+        List<Course> allCourses = Registry.getInstance().getCourses();
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < PAIRS; i++) {
+            students[i] = allStudents.get(random.nextInt(allStudents.size()));
+            courses[i] = allCourses.get(random.nextInt(allCourses.size()));
+        }
+    }
+
+    @Benchmark
+    public void enrollDrop(Blackhole blackhole) {
+        cursor = (cursor + 1) & (PAIRS - 1);
+        Student student = students[cursor];
+        Course course = courses[cursor];
+        blackhole.consume(student.isEnrolled(course));
+        blackhole.consume(course.isFull());
+        blackhole.consume(student.enroll(course));
+        blackhole.consume(course.drop(student));
+    }
+}
@@ -0,0 +1,88 @@
+package university;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JournalBenchmark measures enroll and drop through the engine while every
+ * change is appended to the journal. With fsync every change waits for the
+ * disk, group commit lets concurrent threads share one force.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class JournalBenchmark {
+    private static final int PAIRS = 1 << 12;
+
+    @Param({"false", "true"})
+    private boolean fsync;
+
+    private Path file;
+    private Journal journal;
+    private EnrollmentEngine engine;
+    private final int[] memberIds = new int[PAIRS];
+    private final int[] courseIds = new int[PAIRS];
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.populate(10_000);
+        engine = UniversityCourseManagementSystem.getEngine();
+        file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+        journal = Journal.open(file, fsync, engine, 0);
+        List<Student> students = Registry.getInstance().getStudents();
+        List<Course> courses = Registry.getInstance().getCourses();
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < PAIRS; i++) {
+            memberIds[i] = students.get(random.nextInt(students.size())).getMemberId();
+            courseIds[i] = courses.get(random.nextInt(courses.size())).getCourseId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Cursor keeps the position of a thread in the list of pairs
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position = (int) Thread.currentThread().getId() * 31;
+    }
+
+    @Benchmark
+    public Outcome enrollDrop(Cursor cursor) {
+        int i = cursor.position = (cursor.position + 1) & (PAIRS - 1);
+        Outcome enrolled = engine.enroll(memberIds[i], courseIds[i]);
+        if (enrolled.isSuccess()) {
+            return engine.drop(memberIds[i], courseIds[i]);
+        }
+        return enrolled;
+    }
+}
@@ -0,0 +1,64 @@
+package university;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LevelTotalsBenchmark reads taken seats and full courses of every level.
+ * It compares a read of EnrollmentAggregates with counting them by walking
+ * all courses while changes wait, as metrics did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LevelTotalsBenchmark {
+    @Param({"1000", "100000"})
+    private int members;
+
+    private EnrollmentEngine engine;
+    private EnrollmentAggregates aggregates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        engine = UniversityCourseManagementSystem.getEngine();
+        aggregates = EnrollmentAggregates.attach(engine, Registry.getInstance(), EnrollmentStore.getInstance());
+    }
+
+    @Benchmark
+    public EnrollmentAggregates.Totals aggregates() {
+        return aggregates.read();
+    }
+
+    @Benchmark
+    public long[] scan() {
+        long[] seats = new long[4];
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        engine.exclusive(() -> {
+            for (Course course : Registry.getInstance().getCourses()) {
+                int students = store.countStudents(course.getCourseId());
+                int level = course.getCourseLevel().ordinal();
+                seats[level] += students;
+                if (students == Course.getCapacity()) {
+                    seats[2 + level]++;
+                }
+            }
+        });
+        return seats;
+    }
+}
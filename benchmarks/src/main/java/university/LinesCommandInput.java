@@ -0,0 +1,40 @@
+package university;
+
+import java.util.NoSuchElementException;
+
+/**
+ * LinesCommandInput gives prepared lines to the command loop
+ */
+final class LinesCommandInput implements CommandInput {
+    private final String[] lines;
+    private int position;
+
+    /**
+     * creates an input over lines
+     * @param lines lines which must be given
+     */
+    LinesCommandInput(String[] lines) {
+        this.lines = lines;
+    }
+
+    @Override
+    public boolean hasNextLine() {
+        return position < lines.length;
+    }
+
+    @Override
+    public String nextLine() {
+        if (position == lines.length) {
+            throw new NoSuchElementException("No line found");
+        }
+        return lines[position++];
+    }
+
+    /**
+     * position returns the index of the next line
+     * @return this index, the amount of lines in case all were given
+     */
+    int position() {
+        return position;
+    }
+}
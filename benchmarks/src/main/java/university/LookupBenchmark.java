@@ -0,0 +1,76 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LookupBenchmark measures lookups of members and courses by ID and of
+ * courses by name
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LookupBenchmark {
+    private static final int KEYS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000"})
+    private int members;
+
+    private final int[] studentIds = new int[KEYS];
+    private final int[] courseIds = new int[KEYS];
+    private final String[] courseNames = new String[KEYS];
+    private Registry registry;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        registry = Registry.getInstance();
+        List<Student> students = registry.getStudents();
+        List<Course> courses = registry.getCourses();
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < KEYS; i++) {
+            studentIds[i] = students.get(random.nextInt(students.size())).getMemberId();
+            Course course = courses.get(random.nextInt(courses.size()));
+            courseIds[i] = course.getCourseId();
+            courseNames[i] = course.getCourseName();
+        }
+    }
+
+    @Benchmark
+    public Student findStudent() {
+        return registry.findStudent(studentIds[next()]);
+    }
+
+    @Benchmark
+    public Course findCourse() {
+        return registry.findCourse(courseIds[next()]);
+    }
+
+    @Benchmark
+    public Course findCourseByName() {
+        return registry.findCourseByName(courseNames[next()]);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (KEYS - 1);
+        return cursor;
+    }
+}
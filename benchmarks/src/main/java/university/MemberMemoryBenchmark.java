@@ -0,0 +1,74 @@
+package university;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MemberMemoryBenchmark builds the model with generated members, fills the
+ * seats of courses and assigns professors, and reports how much of the heap
+ * is kept per member after a full GC. The time of building is reported as
+ * the primary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g", "-XX:+UseParallelGC"})
+public class MemberMemoryBenchmark {
+    @Param({"100000", "1000000"})
+    private int members;
+
+    /**
+     * Heap keeps the amount of heap which is used per member
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public double bytesPerMember;
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Benchmark
+    public void build(Heap heap) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        BenchmarkData.populate(members);
+        Registry registry = Registry.getInstance();
+        List<Course> courses = registry.getCourses();
+        List<Student> students = registry.getStudents();
+        for (int i = 0; i < students.size(); i++) {
+            Course course = courses.get(i % courses.size());
+            if (!course.isFull()) {
+                course.enroll(students.get(i));
+            }
+        }
+        List<Professor> professors = registry.getProfessors();
+        for (int i = 0; i < professors.size(); i++) {
+            professors.get(i).teach(courses.get(i % courses.size()));
+        }
+        System.gc();
+        heap.bytesPerMember = (double) (memory.getHeapMemoryUsage().getUsed() - before) / members;
+    }
+}
@@ -0,0 +1,121 @@
+package university;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ModelVersionsBenchmark runs enroll and drop through the engine while
+ * another thread exports rosters of all courses from views. Without
+ * versions the exporter copies rosters under the exclusive lock of the
+ * engine, with versions it reads a view and changes are not stopped.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ModelVersionsBenchmark {
+    private static final int PAIRS = 1 << 12;
+
+    @Param({"100000"})
+    private int members;
+
+    @Param({"false", "true"})
+    private boolean versioned;
+
+    private EnrollmentEngine engine;
+    private ModelVersions versions;
+    private int courses;
+    private int[] memberIds;
+    private int[] courseIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.populate(members);
+        engine = UniversityCourseManagementSystem.getEngine();
+        List<Student> students = Registry.getInstance().getStudents();
+        courses = Course.getNumberOfCourses();
+        Random random = new Random(1);
+        memberIds = new int[PAIRS];
+        courseIds = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            memberIds[i] = students.get(random.nextInt(students.size())).getMemberId();
+            courseIds[i] = 1 + random.nextInt(courses);
+        }
+        if (versioned) {
+            versions = ModelVersions.attach(engine, Registry.getInstance(), EnrollmentStore.getInstance());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (versions != null) {
+            versions.detach();
+        }
+    }
+
+    /**
+     * Cursor keeps the position of a writer thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+    }
+
+    @Benchmark
+    @Group("export")
+    @GroupThreads(3)
+    public Outcome enrollDrop(Cursor cursor) {
+        int i = cursor.position = (cursor.position + 1) & (PAIRS - 1);
+        Outcome enrolled = engine.enroll(memberIds[i], courseIds[i]);
+        if (enrolled.isSuccess()) {
+            return engine.drop(memberIds[i], courseIds[i]);
+        }
+        return enrolled;
+    }
+
+    @Benchmark
+    @Group("export")
+    @GroupThreads(1)
+    public long exportRosters() {
+        if (!versioned) {
+            long[] seats = new long[1];
+            engine.exclusive(() -> {
+                EnrollmentStore store = EnrollmentStore.getInstance();
+                for (int courseId = 1; courseId <= courses; courseId++) {
+                    for (int i = 0; i < store.countStudents(courseId); i++) {
+                        seats[0] += store.studentAt(courseId, i);
+                    }
+                }
+            });
+            return seats[0];
+        }
+        long seats = 0;
+        try (ModelVersions.View view = versions.open()) {
+            for (int courseId = 1; courseId <= view.getNumberOfCourses(); courseId++) {
+                for (int memberId : view.getStudents(courseId)) {
+                    seats += memberId;
+                }
+            }
+        }
+        return seats;
+    }
+}
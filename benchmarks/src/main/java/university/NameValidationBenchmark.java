@@ -0,0 +1,69 @@
+package university;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * NameValidationBenchmark measures checks of course and member names, and
+ * lines of commands in any case, which are lowercased and checked in one go
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameValidationBenchmark {
+    private final String[] courseNames = {
+        "java_beginner", "advanced_programming", "mathematical_analysis", "algorithms",
+        "a", "_java", "java_", "java__beginner", "java_2", "", "computer_vision_and_graphics",
+    };
+    private final String[] memberNames = {
+        "alice", "bob", "alex", "ahmed", "andrey", "a1", "", "ksenia_k", "verylongmembername",
+    };
+    private final String[] courseLines = {
+        "java_beginner", "Advanced_Programming", "MATHEMATICAL_ANALYSIS", "Algorithms",
+        "A", "_Java", "java_", "Java__Beginner", "java_2", "", "computer_vision_and_graphics",
+    };
+    private final String[] memberLines = {
+        "alice", "Bob", "ALEX", "Ahmed", "andrey", "A1", "", "Ksenia_K", "VeryLongMemberName",
+    };
+
+    @Benchmark
+    public void courseNames(Blackhole blackhole) {
+        for (String name : courseNames) {
+            blackhole.consume(UniversityCourseManagementSystem.isValidCourseName(name));
+        }
+    }
+
+    @Benchmark
+    public void memberNames(Blackhole blackhole) {
+        for (String name : memberNames) {
+            blackhole.consume(UniversityCourseManagementSystem.isEnglishAlphabet(name));
+        }
+    }
+
+    @Benchmark
+    public void courseLines(Blackhole blackhole) {
+        for (String line : courseLines) {
+            blackhole.consume(UniversityCourseManagementSystem.allowedCourseName(line));
+        }
+    }
+
+    @Benchmark
+    public void memberLines(Blackhole blackhole) {
+        for (String line : memberLines) {
+            blackhole.consume(UniversityCourseManagementSystem.allowedMemberName(line));
+        }
+    }
+}
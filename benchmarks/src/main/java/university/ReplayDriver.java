@@ -0,0 +1,273 @@
+package university;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReplayDriver replays a command stream, a generated one or lines which
+ * were sent to the program for real, and reports throughput, latency
+ * percentiles of every command and how often every result was given.
+ * Commands are replayed in the same process by the command loop, which
+ * starts from the initial data, or one by one over TCP to a running
+ * server or router, every command waits for its result.
+ * The stream is split into commands by the command loop itself with
+ * changes turned off, so a wrong line takes exactly as many lines as in
+ * the program. The latency of a command in the same process is the time
+ * between its result and the result before it.
+ */
+public final class ReplayDriver {
+    private static final List<String> COMMANDS = Arrays.asList("course", "student", "professor", "enroll", "drop",
+            "teach", "exempt");
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private final String[] lines;
+    private final int[] ends;
+    private final int[] commandIndexes;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[COMMANDS.size() + 2];
+    private final Map<String, Long> results = new LinkedHashMap<>();
+    private final List<String> resultLines = new ArrayList<>();
+
+    private ReplayDriver(String[] lines) {
+        this.lines = lines;
+        ends = split(lines);
+        commandIndexes = new int[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            int index = COMMANDS.indexOf(lines[i == 0 ? 0 : ends[i - 1]]);
+            commandIndexes[i] = index < 0 ? COMMANDS.size() : index;
+        }
+    }
+
+    /**
+     * main replays a stream. Options: "--connect host:port" replays over TCP
+     * instead of the same process, "--warmup N" replays the stream N times
+     * in the same process before the measured run and "--results file"
+     * writes the result of every command like the program does.
+     * @param args the file of the stream and options
+     * @throws IOException in case the stream cannot be read or the server
+     *                     cannot be reached
+     */
+    public static void main(String[] args) throws IOException {
+        String trace = null;
+        String connect = null;
+        int warmup = 0;
+        String resultsFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--connect":
+                        connect = args[++i];
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(args[++i]);
+                        break;
+                    case "--results":
+                        resultsFile = args[++i];
+                        break;
+                    default:
+                        if (trace != null || args[i].startsWith("--")) {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                        trace = args[i];
+                }
+            }
+            if (trace == null || (connect != null && warmup > 0)) {
+                throw new IllegalArgumentException("trace");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: ReplayDriver trace [--connect host:port | --warmup N] [--results file]");
+            System.exit(1);
+            return;
+        }
+        ReplayDriver driver = new ReplayDriver(Files.readAllLines(Paths.get(trace), StandardCharsets.UTF_8)
+                .toArray(new String[0]));
+        for (int i = 0; i < warmup; i++) {
+            driver.replayLocally();
+        }
+        long elapsed = connect == null ? driver.replayLocally()
+                : driver.replayRemotely(new InetSocketAddress(connect.substring(0, connect.lastIndexOf(':')),
+                        Integer.parseInt(connect.substring(connect.lastIndexOf(':') + 1))));
+        System.out.print(driver.report(elapsed));
+        if (resultsFile != null) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(resultsFile), StandardCharsets.UTF_8)) {
+                for (String result : driver.resultLines) {
+                    writer.write(result);
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * split finds where every command ends by running the command loop
+     * without changes
+     * @param lines lines of a stream
+     * @return index after the last line of every command, in order
+     */
+    static int[] split(String[] lines) {
+        LinesCommandInput input = new LinesCommandInput(lines);
+        int[][] ends = {new int[1024]};
+        int[] count = new int[1];
+        UniversityCourseManagementSystem.processCommands(input, new CommandOutput() {
+            @Override
+            public void println(String line) {
+                if (count[0] == ends[0].length) {
+                    ends[0] = Arrays.copyOf(ends[0], count[0] << 1);
+                }
+                ends[0][count[0]++] = input.position();
+            }
+
+            @Override
+            public void flush() {
+            }
+        }, new DryCommandTarget());
+        return Arrays.copyOf(ends[0], count[0]);
+    }
+
+    // replays in this process from the initial data, returns nanoseconds of the whole run
+    private long replayLocally() {
+        UniversityCourseManagementSystem.resetState();
+        UniversityCourseManagementSystem.fillInitialData();
+        reset();
+        long[] last = {System.nanoTime()};
+        int[] command = new int[1];
+        long start = last[0];
+        UniversityCourseManagementSystem.processCommands(new LinesCommandInput(lines), new CommandOutput() {
+            @Override
+            public void println(String line) {
+                long now = System.nanoTime();
+                record(command[0]++, now - last[0], line);
+                last[0] = now;
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+        return last[0] - start;
+    }
+
+    // sends commands one by one and waits for every result
+    private long replayRemotely(InetSocketAddress address) throws IOException {
+        reset();
+        try (Socket socket = new Socket()) {
+            socket.connect(address);
+            socket.setTcpNoDelay(true);
+            ChannelCommandInput input = new ChannelCommandInput(Channels.newChannel(socket.getInputStream()),
+                    StandardCharsets.UTF_8, 1 << 13);
+            BatchedCommandOutput output = new BatchedCommandOutput(socket.getOutputStream(), StandardCharsets.UTF_8, 0);
+            long start = System.nanoTime();
+            int line = 0;
+            for (int i = 0; i < ends.length; i++) {
+                long sent = System.nanoTime();
+                for (; line < ends[i]; line++) {
+                    output.println(lines[line]);
+                }
+                output.flush();
+                if (i == ends.length - 1) {
+                    // the last command may miss lines, the server sees the end of input like the program
+                    socket.shutdownOutput();
+                }
+                if (!input.hasNextLine()) {
+                    throw new IOException("Server closed the connection after " + i + " commands");
+                }
+                record(i, System.nanoTime() - sent, input.nextLine());
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        results.clear();
+        resultLines.clear();
+    }
+
+    private void record(int command, long nanos, String result) {
+        latencies[commandIndexes[command]].record(nanos);
+        latencies[latencies.length - 1].record(nanos);
+        results.merge(result, 1L, Long::sum);
+        resultLines.add(result);
+    }
+
+    private String report(long elapsed) {
+        StringBuilder report = new StringBuilder();
+        long count = latencies[latencies.length - 1].getCount();
+        report.append(String.format("%d commands in %.3f s, %.0f commands/s%n", count, elapsed / 1e9,
+                count * 1e9 / Math.max(1, elapsed)));
+        report.append(String.format("%-10s %10s %10s %10s %10s %10s %10s%n", "command", "count", "p50 us", "p90 us",
+                "p99 us", "p99.9 us", "max us"));
+        for (int i = 0; i < latencies.length; i++) {
+            LatencyHistogram latency = latencies[i];
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            String name = i < COMMANDS.size() ? COMMANDS.get(i) : i == COMMANDS.size() ? "other" : "all";
+            report.append(String.format("%-10s %10d", name, latency.getCount()));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(" %10.2f", latency.valueAtPercentile(percentile) / 1000.0));
+            }
+            report.append(System.lineSeparator());
+        }
+        report.append(String.format("%-60s %10s %7s%n", "result", "count", "share"));
+        results.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> report.append(String.format("%-60s %10d %6.2f%%%n", entry.getKey(),
+                        entry.getValue(), entry.getValue() * 100.0 / count)));
+        return report.toString();
+    }
+
+    // accepts every checked command without any change
+    private static final class DryCommandTarget implements CommandTarget {
+        @Override
+        public Outcome addCourse(String courseName, CourseLevel courseLevel) {
+            return Outcome.ADDED;
+        }
+
+        @Override
+        public Outcome addStudent(String memberName) {
+            return Outcome.ADDED;
+        }
+
+        @Override
+        public Outcome addProfessor(String memberName) {
+            return Outcome.ADDED;
+        }
+
+        @Override
+        public Outcome enroll(int memberId, int courseId) {
+            return Outcome.ENROLLED;
+        }
+
+        @Override
+        public Outcome enrollOrWaitlist(int memberId, int courseId) {
+            return Outcome.ENROLLED;
+        }
+
+        @Override
+        public Outcome drop(int memberId, int courseId) {
+            return Outcome.DROPPED;
+        }
+
+        @Override
+        public Outcome teach(int memberId, int courseId) {
+            return Outcome.ASSIGNED;
+        }
+
+        @Override
+        public Outcome exempt(int memberId, int courseId) {
+            return Outcome.EXEMPTED;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package university;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SnapshotBenchmark compares startup from a snapshot with building the same
+ * members and courses object by object. Students fill the seats of courses
+ * and professors teach, so the snapshot has enrollments and assignments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SnapshotBenchmark {
+    @Param({"100000", "1000000"})
+    private int members;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Registry registry = build(members);
+        file = Files.createTempFile("snapshot", ".bin");
+        Snapshot.write(file, registry, 0);
+    }
+
+    // generated members and courses with filled seats and assigned professors
+    private static Registry build(int members) {
+        BenchmarkData.populate(members);
+        Registry registry = Registry.getInstance();
+        List<Course> courses = registry.getCourses();
+        List<Student> students = registry.getStudents();
+        for (int i = 0; i < students.size(); i++) {
+            Course course = courses.get(i % courses.size());
+            if (!course.isFull()) {
+                course.enroll(students.get(i));
+            }
+        }
+        List<Professor> professors = registry.getProfessors();
+        for (int i = 0; i < professors.size(); i++) {
+            professors.get(i).teach(courses.get(i % courses.size()));
+        }
+        return registry;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Snapshot load() throws IOException {
+        UniversityCourseManagementSystem.resetState();
+        return Snapshot.load(file, Registry.getInstance(), EnrollmentStore.getInstance());
+    }
+
+    @Benchmark
+    public Registry rebuild() {
+        return build(members);
+    }
+}
@@ -0,0 +1,96 @@
+package university;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StaffingBenchmark staffs courses without professors, where professors
+ * together could take a bit more courses than there are and every
+ * professor is qualified for a few random courses. It compares the
+ * matching of StaffingSolver with teach calls which give every course the
+ * first qualified professor with free load. The amount of staffed courses
+ * is reported in the staffedCourses counter, summed over iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StaffingBenchmark {
+    private static final int QUALIFICATIONS = 4;
+
+    @Param({"10000", "100000"})
+    private int courses;
+
+    private EnrollmentEngine engine;
+    private StaffingSolver.Qualifications qualifications;
+    private IntList[] professorsByCourse;
+
+    /**
+     * Staffed keeps the amount of courses which got a professor
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Staffed {
+        public int staffedCourses;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < courses; i++) {
+            engine.addCourse(BenchmarkData.courseName(i), CourseLevel.BACHELOR);
+        }
+        qualifications = new StaffingSolver.Qualifications();
+        professorsByCourse = new IntList[courses + 1];
+        for (int courseId = 1; courseId <= courses; courseId++) {
+            professorsByCourse[courseId] = new IntList();
+        }
+        int professors = courses * 3 / 5;
+        for (int i = 0; i < professors; i++) {
+            int memberId = engine.addProfessor(BenchmarkData.letters(i)).getMemberId();
+            for (int k = 0; k < QUALIFICATIONS; k++) {
+                int courseId = 1 + random.nextInt(courses);
+                qualifications.add(memberId, courseId);
+                professorsByCourse[courseId].add(memberId);
+            }
+        }
+    }
+
+    @Benchmark
+    public void matching(Staffed staffed) {
+        staffed.staffedCourses = StaffingSolver.staff(engine, qualifications).getAssigned();
+    }
+
+    @Benchmark
+    public void firstQualified(Staffed staffed) {
+        int assigned = 0;
+        for (int courseId = 1; courseId <= courses; courseId++) {
+            IntList professors = professorsByCourse[courseId];
+            for (int i = 0; i < professors.size(); i++) {
+                if (engine.teach(professors.get(i), courseId) == Outcome.ASSIGNED) {
+                    assigned++;
+                    break;
+                }
+            }
+        }
+        staffed.staffedCourses = assigned;
+    }
+}
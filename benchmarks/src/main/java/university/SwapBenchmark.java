@@ -0,0 +1,139 @@
+package university;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SwapBenchmark moves students between random courses from several threads
+ * at once while two thirds of all seats are taken. It compares a swap in
+ * one transaction with a drop followed by an enroll, where a student whose
+ * new course is full and whose old seat was taken in between is left
+ * without a course. Done swaps are counted in swaps and such students in
+ * lostSeats. Run it with "-t" to change the amount of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class SwapBenchmark {
+    private static final int COURSES = 3000;
+    private static final int SLICES = 64;
+    private static final int MOVES = 1 << 12;
+
+    private EnrollmentEngine engine;
+    private int[] memberIds;
+    private int[] courseIds;
+    private final AtomicInteger slices = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        for (int i = 0; i < COURSES; i++) {
+            engine.addCourse(BenchmarkData.courseName(i), CourseLevel.BACHELOR);
+        }
+        memberIds = new int[COURSES * 2];
+        courseIds = new int[memberIds.length];
+        for (int i = 0; i < memberIds.length; i++) {
+            memberIds[i] = engine.addStudent(BenchmarkData.letters(i)).getMemberId();
+            courseIds[i] = 1 + i % COURSES;
+            engine.enroll(memberIds[i], courseIds[i]);
+        }
+    }
+
+    /**
+     * Mover keeps the students of a thread, the course of each of them and
+     * the counters of the thread
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Mover {
+        public long swaps;
+        public long lostSeats;
+
+        private int[] members;
+        private int[] courses;
+        private final int[] targets = new int[MOVES];
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp(SwapBenchmark benchmark) {
+            int slice = benchmark.slices.getAndIncrement() % SLICES;
+            int size = (benchmark.memberIds.length - slice + SLICES - 1) / SLICES;
+            members = new int[size];
+            courses = new int[size];
+            for (int i = 0; i < size; i++) {
+                members[i] = benchmark.memberIds[slice + i * SLICES];
+                courses[i] = benchmark.courseIds[slice + i * SLICES];
+            }
+            Random random = new Random(BenchmarkData.SEED + slice);
+            for (int i = 0; i < MOVES; i++) {
+                targets[i] = 1 + random.nextInt(COURSES);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            swaps = 0;
+            lostSeats = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean transaction(Mover mover) {
+        int i = next(mover);
+        int target = mover.targets[mover.position];
+        int memberId = mover.members[i];
+        if (!engine.commit(EnrollmentTransaction.swap(memberId, mover.courses[i], target)).isCommitted()) {
+            return false;
+        }
+        mover.courses[i] = target;
+        mover.swaps++;
+        return true;
+    }
+
+    @Benchmark
+    public boolean dropThenEnroll(Mover mover) {
+        int i = next(mover);
+        int target = mover.targets[mover.position];
+        int memberId = mover.members[i];
+        int current = mover.courses[i];
+        if (current != 0) {
+            engine.drop(memberId, current);
+        }
+        if (engine.enroll(memberId, target) == Outcome.ENROLLED) {
+            mover.courses[i] = target;
+            mover.swaps++;
+            return true;
+        }
+        if (current != 0 && engine.enroll(memberId, current) != Outcome.ENROLLED) {
+            mover.courses[i] = 0;
+            mover.lostSeats++;
+        }
+        return false;
+    }
+
+    // moves to the next target and returns the index of the next student of the thread
+    private static int next(Mover mover) {
+        mover.position = (mover.position + 1) & (MOVES - 1);
+        return mover.position % mover.members.length;
+    }
+}
@@ -0,0 +1,94 @@
+package university;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TimetableBenchmark measures enroll and drop through the engine when every
+ * course meets at a random time of the week, so every enrollment is checked
+ * for conflicts, and the parallel report of all conflicts. Students already
+ * attend two courses when the measurement starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TimetableBenchmark {
+    private static final int PAIRS = 1 << 12;
+
+    @Param({"100000"})
+    private int members;
+
+    @Param({"false", "true"})
+    private boolean scheduled;
+
+    private EnrollmentEngine engine;
+    private final int[] memberIds = new int[PAIRS];
+    private final int[] courseIds = new int[PAIRS];
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        Random random = new Random(BenchmarkData.SEED);
+        int courses = members / 10;
+        for (int i = 0; i < courses; i++) {
+            engine.addCourse(BenchmarkData.courseName(i), CourseLevel.BACHELOR,
+                    scheduled ? randomSlot(random) : Collections.emptyList());
+        }
+        int[] students = new int[members];
+        for (int i = 0; i < members; i++) {
+            students[i] = engine.addStudent(BenchmarkData.letters(i)).getMemberId();
+            for (int k = 0; k < 2; k++) {
+                engine.enroll(students[i], 1 + random.nextInt(courses));
+            }
+        }
+        for (int i = 0; i < PAIRS; i++) {
+            memberIds[i] = students[random.nextInt(members)];
+            courseIds[i] = 1 + random.nextInt(courses);
+        }
+    }
+
+    // one meeting of an hour and a half on a working day
+    private static List<TimeSlot> randomSlot(Random random) {
+        LocalTime start = LocalTime.of(8 + random.nextInt(10), 15 * random.nextInt(4));
+        return Collections.singletonList(new TimeSlot(DayOfWeek.of(1 + random.nextInt(5)), start,
+                start.plusMinutes(90)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Outcome enrollDrop() {
+        int i = position = (position + 1) & (PAIRS - 1);
+        Outcome enrolled = engine.enroll(memberIds[i], courseIds[i]);
+        if (enrolled.isSuccess()) {
+            return engine.drop(memberIds[i], courseIds[i]);
+        }
+        return enrolled;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Timetable.Conflict> findConflicts() {
+        return engine.findConflicts();
+    }
+}
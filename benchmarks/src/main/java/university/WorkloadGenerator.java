@@ -0,0 +1,299 @@
+package university;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator writes a command stream which looks like a
+ * registration day. It first adds courses, students and professors, then
+ * mixes enrollments into courses whose popularity follows Zipf's law, drops
+ * of taken courses and enrollments back into dropped ones, bursts of teach
+ * and exempt by one professor and wrong inputs of every kind: bad course
+ * and member names, unknown levels, command words used as names, IDs which
+ * are not numbers or do not exist and unknown commands.
+ * The generator applies every command to its own engine, so drops and
+ * exempts hit courses which are really taken. The stream is meant for a
+ * fresh program with the initial data and depends only on the settings,
+ * the same seed always gives the same stream.
+ */
+public final class WorkloadGenerator {
+    private static final int MAX_DROPPED = 1 << 14;
+    private static final String[] BAD_COURSE_NAMES = {"_%s", "%s_", "%s__%s", "%s1", "%s-%s", "enroll", "%s %s"};
+    private static final String[] BAD_MEMBER_NAMES = {"%s1", "o'%s", "teach", "%s_%s", "%s %s"};
+    private static final String[] BAD_LEVELS = {"phd", "doctoral", "bachelors", "1"};
+    private static final String[] UNKNOWN_COMMANDS = {"register", "list", "swap", "Enroll"};
+
+    private final Random random;
+    private final Writer out;
+    private final EnrollmentEngine engine;
+    private final int firstCourseId;
+    private final int firstStudentId;
+    private final int firstProfessorId;
+    private final int courses;
+    private final int students;
+    private final int professors;
+    private final double[] popularity;
+    private final int[] courseOfRank;
+    private final List<long[]> dropped = new ArrayList<>();
+    private long written;
+
+    private WorkloadGenerator(Writer out, long seed, int courses, int students, int professors, double zipf) {
+        this.out = out;
+        this.courses = courses;
+        this.students = students;
+        this.professors = professors;
+        random = new Random(seed);
+        UniversityCourseManagementSystem.resetState();
+        UniversityCourseManagementSystem.fillInitialData();
+        engine = UniversityCourseManagementSystem.getEngine();
+        firstCourseId = Course.getNumberOfCourses() + 1;
+        firstStudentId = UniversityMember.getNumberOfMembers() + 1;
+        firstProfessorId = firstStudentId + students;
+        popularity = new double[courses];
+        double total = 0;
+        for (int rank = 0; rank < courses; rank++) {
+            total += 1 / Math.pow(rank + 1, zipf);
+            popularity[rank] = total;
+        }
+        courseOfRank = new int[courses];
+        for (int i = 0; i < courses; i++) {
+            int j = random.nextInt(i + 1);
+            courseOfRank[i] = courseOfRank[j];
+            courseOfRank[j] = firstCourseId + i;
+        }
+    }
+
+    /**
+     * main writes a stream. Options: "--seed N", "--courses N",
+     * "--students N", "--professors N", "--commands N" for the amount of
+     * commands after members and courses are added, "--zipf exponent" for
+     * the skew of popular courses, "--churn share" of drops and
+     * enrollments back, "--bursts share" of commands which start a burst of
+     * teach and exempt, "--noise share" of wrong inputs and "--output file",
+     * the stream goes to System.out without it.
+     * @param args command line arguments
+     * @throws IOException in case the stream cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = BenchmarkData.SEED;
+        int courses = 10_000;
+        int students = 20_000;
+        int professors = 2_000;
+        long commands = 1_000_000;
+        double zipf = 1.1;
+        double churn = 0.2;
+        double bursts = 0.01;
+        double noise = 0.05;
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--courses":
+                        courses = Integer.parseInt(args[++i]);
+                        break;
+                    case "--students":
+                        students = Integer.parseInt(args[++i]);
+                        break;
+                    case "--professors":
+                        professors = Integer.parseInt(args[++i]);
+                        break;
+                    case "--commands":
+                        commands = Long.parseLong(args[++i]);
+                        break;
+                    case "--zipf":
+                        zipf = Double.parseDouble(args[++i]);
+                        break;
+                    case "--churn":
+                        churn = Double.parseDouble(args[++i]);
+                        break;
+                    case "--bursts":
+                        bursts = Double.parseDouble(args[++i]);
+                        break;
+                    case "--noise":
+                        noise = Double.parseDouble(args[++i]);
+                        break;
+                    case "--output":
+                        output = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (courses < 1 || students < 1 || professors < 1 || noise + bursts + churn > 1) {
+                throw new IllegalArgumentException("settings");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: WorkloadGenerator [--seed N] [--courses N] [--students N] [--professors N]"
+                    + " [--commands N] [--zipf exponent] [--churn share] [--bursts share] [--noise share]"
+                    + " [--output file]");
+            System.exit(1);
+            return;
+        }
+        try (Writer writer = new BufferedWriter(output == null
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8), 1 << 16)) {
+            WorkloadGenerator generator = new WorkloadGenerator(writer, seed, courses, students, professors, zipf);
+            generator.addAll();
+            generator.register(commands, churn, bursts, noise);
+        }
+    }
+
+    // adds courses, students and professors, every fourth course is for masters
+    private void addAll() throws IOException {
+        for (int i = 0; i < courses; i++) {
+            CourseLevel level = i % 4 == 3 ? CourseLevel.MASTER : CourseLevel.BACHELOR;
+            engine.addCourse(BenchmarkData.courseName(i), level);
+            emit("course", BenchmarkData.courseName(i), level.name().toLowerCase());
+        }
+        for (int i = 0; i < students; i++) {
+            engine.addStudent(BenchmarkData.letters(i));
+            emit("student", BenchmarkData.letters(i));
+        }
+        for (int i = 0; i < professors; i++) {
+            engine.addProfessor(BenchmarkData.letters(i));
+            emit("professor", BenchmarkData.letters(i));
+        }
+    }
+
+    private void register(long commands, double churn, double bursts, double noise) throws IOException {
+        long end = written + commands;
+        while (written < end) {
+            double kind = random.nextDouble();
+            if (kind < noise) {
+                emitNoise();
+            } else if (kind < noise + bursts) {
+                emitBurst((int) Math.min(end - written, 4 + random.nextInt(13)));
+            } else if (kind < noise + bursts + churn) {
+                emitChurn();
+            } else {
+                emitEnroll(randomStudent(), popularCourse());
+            }
+        }
+    }
+
+    private void emitEnroll(int memberId, int courseId) throws IOException {
+        engine.enroll(memberId, courseId);
+        emit("enroll", Integer.toString(memberId), Integer.toString(courseId));
+    }
+
+    // drops a taken course or enrolls a student back into a course it dropped
+    private void emitChurn() throws IOException {
+        if (!dropped.isEmpty() && random.nextBoolean()) {
+            int index = random.nextInt(dropped.size());
+            long[] pair = dropped.get(index);
+            dropped.set(index, dropped.get(dropped.size() - 1));
+            dropped.remove(dropped.size() - 1);
+            emitEnroll((int) pair[0], (int) pair[1]);
+            return;
+        }
+        int memberId = randomStudent();
+        List<Course> taken = new Student(memberId).getEnrolledCourses();
+        if (taken.isEmpty()) {
+            emitEnroll(memberId, popularCourse());
+            return;
+        }
+        int courseId = taken.get(random.nextInt(taken.size())).getCourseId();
+        engine.drop(memberId, courseId);
+        emit("drop", Integer.toString(memberId), Integer.toString(courseId));
+        long[] pair = {memberId, courseId};
+        if (dropped.size() < MAX_DROPPED) {
+            dropped.add(pair);
+        } else {
+            dropped.set(random.nextInt(MAX_DROPPED), pair);
+        }
+    }
+
+    // one professor takes and leaves courses several times in a row
+    private void emitBurst(int length) throws IOException {
+        int memberId = firstProfessorId + random.nextInt(professors);
+        Professor professor = new Professor(memberId);
+        for (int i = 0; i < length; i++) {
+            List<Course> assigned = professor.getAssignedCourses();
+            boolean exempt = !assigned.isEmpty() && (assigned.size() == professor.getMaxLoad() || random.nextBoolean());
+            if (exempt) {
+                int courseId = assigned.get(random.nextInt(assigned.size())).getCourseId();
+                engine.exempt(memberId, courseId);
+                emit("exempt", Integer.toString(memberId), Integer.toString(courseId));
+            } else {
+                int courseId = popularCourse();
+                engine.teach(memberId, courseId);
+                emit("teach", Integer.toString(memberId), Integer.toString(courseId));
+            }
+        }
+    }
+
+    // wrong inputs do not change the state, so they are not applied
+    private void emitNoise() throws IOException {
+        String word = BenchmarkData.letters(random.nextInt(1 << 16));
+        String other = BenchmarkData.letters(random.nextInt(1 << 16));
+        String courseId = Integer.toString(popularCourse());
+        switch (random.nextInt(9)) {
+            case 0:
+                emit("course", pick(BAD_COURSE_NAMES).replaceFirst("%s", word).replaceFirst("%s", other), "bachelor");
+                break;
+            case 1:
+                emit("course", "new_" + word, pick(BAD_LEVELS));
+                break;
+            case 2:
+                emit("course", BenchmarkData.courseName(random.nextInt(courses)), "master");
+                break;
+            case 3:
+                emit(random.nextBoolean() ? "student" : "professor",
+                        pick(BAD_MEMBER_NAMES).replaceFirst("%s", word).replaceFirst("%s", other));
+                break;
+            case 4:
+                emit("enroll", random.nextBoolean() ? "x" + word : "99999999999", courseId);
+                break;
+            case 5:
+                emit("drop", Integer.toString(randomStudent()), random.nextBoolean() ? "-" : "1e3");
+                break;
+            case 6:
+                emit("enroll", Integer.toString(firstProfessorId + professors + random.nextInt(1000)), courseId);
+                break;
+            case 7:
+                if (random.nextBoolean()) {
+                    emit("drop", Integer.toString(firstProfessorId + random.nextInt(professors)), courseId);
+                } else {
+                    emit("exempt", Integer.toString(randomStudent()), courseId);
+                }
+                break;
+            default:
+                emit(pick(UNKNOWN_COMMANDS));
+        }
+    }
+
+    private int randomStudent() {
+        return firstStudentId + random.nextInt(students);
+    }
+
+    // the rank of a course is chosen with probability proportional to 1 / rank^exponent
+    private int popularCourse() {
+        double point = random.nextDouble() * popularity[courses - 1];
+        int rank = Arrays.binarySearch(popularity, point);
+        return courseOfRank[rank < 0 ? -rank - 1 : rank];
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void emit(String... lines) throws IOException {
+        for (String line : lines) {
+            out.write(line);
+            out.write('\n');
+        }
+        written++;
+    }
+}
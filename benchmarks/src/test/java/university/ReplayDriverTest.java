@@ -0,0 +1,51 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ReplayDriverTest splits streams into commands and checks that every
+ * command takes as many lines as in the program, also when a wrong line
+ * leaves the next line to be read as a command or the stream ends inside
+ * a command
+ */
+class ReplayDriverTest {
+    @AfterEach
+    void tearDown() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void commandsTakeTheirLines() {
+        assertArrayEquals(new int[] {3, 5, 8, 11, 13, 14},
+                ReplayDriver.split(lines("course", "algebra", "bachelor", "student", "alice", "enroll", "4", "1",
+                        "drop", "4", "1", "professor", "bob", "list")));
+        // the split does not change the state, so an enroll of a missing member still reads both IDs
+        assertArrayEquals(new int[] {3, 5},
+                ReplayDriver.split(lines("enroll", "999", "1", "teach", "7")));
+    }
+
+    @Test
+    void wrongLinesTakeWhatTheProgramReads() {
+        // a wrong member ID leaves the course line, a wrong name leaves nothing, a wrong level is read
+        assertArrayEquals(new int[] {2, 3, 5, 7, 10},
+                ReplayDriver.split(lines("enroll", "x", "5", "student", "al1ce", "course", "_a", "course", "algebra",
+                        "phd")));
+        // an unknown command word is one line, a command word as a name is read as the name
+        assertArrayEquals(new int[] {1, 3, 4},
+                ReplayDriver.split(lines("Enroll", "student", "drop", "other")));
+    }
+
+    @Test
+    void streamEndsAtAnEmptyLineOrInsideACommand() {
+        assertArrayEquals(new int[] {2}, ReplayDriver.split(lines("student", "alice", "", "student", "bob")));
+        assertArrayEquals(new int[] {2, 4}, ReplayDriver.split(lines("student", "alice", "enroll", "1")));
+        assertArrayEquals(new int[0], ReplayDriver.split(lines()));
+    }
+
+    private static String[] lines(String... lines) {
+        return lines;
+    }
+}
@@ -0,0 +1,78 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * WorkloadGeneratorTest writes small streams and checks that the same
+ * settings give the same bytes, that another seed gives another stream and
+ * that the program reads as many commands as ReplayDriver splits
+ */
+class WorkloadGeneratorTest {
+    private static final int COURSES = 20;
+    private static final int STUDENTS = 50;
+    private static final int PROFESSORS = 10;
+    private static final int COMMANDS = 3_000;
+
+    @AfterEach
+    void tearDown() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void sameSeedGivesSameStream(@TempDir Path directory) throws IOException {
+        byte[] first = generate(directory.resolve("first.txt"), 7);
+        byte[] second = generate(directory.resolve("second.txt"), 7);
+        assertArrayEquals(first, second);
+        assertFalse(Arrays.equals(first, generate(directory.resolve("other.txt"), 8)));
+    }
+
+    @Test
+    void programReadsEveryWrittenCommand(@TempDir Path directory) throws IOException {
+        String[] lines = new String(generate(directory.resolve("stream.txt"), 3), StandardCharsets.UTF_8)
+                .split("\n");
+        int[] ends = ReplayDriver.split(lines);
+
+        UniversityCourseManagementSystem.resetState();
+        UniversityCourseManagementSystem.fillInitialData();
+        List<String> results = new ArrayList<>();
+        UniversityCourseManagementSystem.processCommands(new LinesCommandInput(lines), new CommandOutput() {
+            @Override
+            public void println(String line) {
+                results.add(line);
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+        assertEquals(ends.length, results.size());
+        // a wrong ID or name leaves the next line of its command to be read as an unknown command
+        assertTrue(results.size() >= COURSES + STUDENTS + PROFESSORS + COMMANDS);
+        // members and courses are added before the registration starts
+        for (int i = 0; i < COURSES + STUDENTS + PROFESSORS; i++) {
+            assertEquals(Outcome.ADDED.getMessage(), results.get(i), "command " + i);
+        }
+    }
+
+    private static byte[] generate(Path file, long seed) throws IOException {
+        WorkloadGenerator.main(new String[] {"--seed", Long.toString(seed), "--courses", Integer.toString(COURSES),
+            "--students", Integer.toString(STUDENTS), "--professors", Integer.toString(PROFESSORS), "--commands",
+            Integer.toString(COMMANDS), "--output", file.toString()});
+        return Files.readAllBytes(file);
+    }
+}
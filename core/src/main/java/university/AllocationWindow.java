@@ -0,0 +1,505 @@
+package university;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+
+/**
+ * AllocationWindow collects enrollment requests for a while and then gives
+ * seats to all of them in one pass, instead of first come first served.
+ * A request is a ranked list of courses of one student, a later request of
+ * the same student replaces the earlier one.
+ * The pass is deferred acceptance: every student asks for its best courses
+ * which it has not asked yet, as many as it has free places under
+ * MAX_ENROLLMENT; every course keeps the best students among those it
+ * holds and the new ones, as many as it has free seats, and turns the rest
+ * away; students who were turned away ask for their next courses, until
+ * no one asks. Courses order students by the rank from a priority policy
+ * and then by a lottery drawn from the seed and the member ID. So a course
+ * which turned a student away is full of students it orders before that
+ * student, and the result depends only on the seed, the requests and the
+ * state, not on the order of requests or the amount of threads. Asking and
+ * deciding run in parallel over students and over courses.
+ * A course which meets at the same time as a course the student has or
+ * holds is skipped. The state is read under the exclusive lock of the
+ * engine when the window closes, then the seats are given as one batch,
+ * which checks every enrollment again, so a change made in between is
+ * never broken.
+ */
+final class AllocationWindow {
+    private static final long[] NO_PROPOSALS = new long[0];
+
+    private final EnrollmentEngine engine;
+    private final Priority priority;
+    private final long seed;
+    private final Map<Integer, Request> requests = new ConcurrentHashMap<>();
+    private final StampedLock closing = new StampedLock();
+    private boolean closed;
+
+    private AllocationWindow(EnrollmentEngine engine, Priority priority, long seed) {
+        this.engine = engine;
+        this.priority = priority;
+        this.seed = seed;
+    }
+
+    /**
+     * Priority ranks students who want a seat of a course, a smaller rank
+     * gets a seat first. Students with equal ranks are ordered by lottery.
+     */
+    interface Priority {
+        /**
+         * NONE gives all students the same rank, only the lottery decides
+         */
+        Priority NONE = (studentLevel, course) -> 0;
+
+        /**
+         * MASTERS_FIRST gives seats of master courses to master students
+         * before other students
+         */
+        Priority MASTERS_FIRST = (studentLevel, course) ->
+                course.getCourseLevel() == CourseLevel.MASTER && studentLevel != CourseLevel.MASTER ? 1 : 0;
+
+        /**
+         * rank returns the rank of a student for a course
+         * @param studentLevel level of the program of the student
+         * @param course       course which the student wants
+         * @return rank from 0, smaller is better
+         */
+        int rank(CourseLevel studentLevel, Course course);
+    }
+
+    /**
+     * open starts collecting requests
+     * @param engine   engine which applies all changes
+     * @param priority policy which ranks students for a course
+     * @param seed     seed of the lottery between students with equal ranks
+     * @return open window
+     */
+    static AllocationWindow open(EnrollmentEngine engine, Priority priority, long seed) {
+        return new AllocationWindow(engine, priority, seed);
+    }
+
+    /**
+     * request keeps the wishes of a student until the window closes, it may
+     * be called by many threads at once
+     * @param memberId     ID of a student
+     * @param studentLevel level of the program of the student
+     * @param courseIds    IDs of wanted courses, the best one first
+     * @return false in case the window is already closed
+     */
+    boolean request(int memberId, CourseLevel studentLevel, int... courseIds) {
+        long stamp = closing.readLock();
+        try {
+            if (closed) {
+                return false;
+            }
+            requests.put(memberId, new Request(memberId, studentLevel, courseIds.clone()));
+            return true;
+        } finally {
+            closing.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * readRequests sends the requests of a CSV file of lines
+     * "memberId,level,courseId;courseId;...", with the best course first
+     * and the level of the program of the student, empty lines are skipped
+     * @param file CSV file
+     * @throws IOException in case the file cannot be read or a line is wrong
+     */
+    void readRequests(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                CourseLevel level = fields.length == 3 ? NameValidator.toCourseLevel(fields[1]) : null;
+                try {
+                    if (level == null) {
+                        throw new NumberFormatException();
+                    }
+                    String[] courses = fields[2].split(";", -1);
+                    int[] courseIds = new int[courses.length];
+                    for (int i = 0; i < courses.length; i++) {
+                        courseIds[i] = Integer.parseInt(courses[i]);
+                    }
+                    request(Integer.parseInt(fields[0]), level, courseIds);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Wrong request in line " + lineNumber + " of " + file);
+                }
+            }
+        }
+    }
+
+    /**
+     * size returns amount of students who sent requests
+     * @return this amount
+     */
+    int size() {
+        return requests.size();
+    }
+
+    /**
+     * close stops collecting requests, gives seats and returns what every
+     * student has got
+     * @return results ordered by member ID
+     */
+    List<Allocation> close() {
+        long stamp = closing.writeLock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Allocation window is already closed");
+            }
+            closed = true;
+        } finally {
+            closing.unlockWrite(stamp);
+        }
+        Pass pass = new Pass(requests.values().toArray(new Request[0]));
+        engine.exclusive(pass::readState);
+        pass.run();
+        return pass.apply();
+    }
+
+    /**
+     * Allocation is the result of the request of one student: an outcome
+     * for every wanted course in the order of the request
+     */
+    static final class Allocation {
+        private final int memberId;
+        private final int[] courseIds;
+        private final Outcome[] outcomes;
+
+        private Allocation(int memberId, int[] courseIds, Outcome[] outcomes) {
+            this.memberId = memberId;
+            this.courseIds = courseIds;
+            this.outcomes = outcomes;
+        }
+
+        /**
+         * getMemberId returns the student
+         * @return ID of the student
+         */
+        int getMemberId() {
+            return memberId;
+        }
+
+        /**
+         * getCourseIds returns the wanted courses
+         * @return IDs of courses in the order of the request
+         */
+        int[] getCourseIds() {
+            return courseIds.clone();
+        }
+
+        /**
+         * getOutcome returns what happened to one wanted course: ENROLLED,
+         * or why the student did not get it
+         * @param index index of a course in the request
+         * @return ENROLLED or the reason
+         */
+        Outcome getOutcome(int index) {
+            return outcomes[index];
+        }
+
+        /**
+         * countEnrolled returns amount of courses the student has got
+         * @return this amount
+         */
+        int countEnrolled() {
+            int enrolled = 0;
+            for (Outcome outcome : outcomes) {
+                if (outcome == Outcome.ENROLLED) {
+                    enrolled++;
+                }
+            }
+            return enrolled;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder().append(memberId).append(':');
+            for (int i = 0; i < courseIds.length; i++) {
+                result.append(' ').append(courseIds[i]).append(' ').append(outcomes[i].name());
+            }
+            return result.toString();
+        }
+    }
+
+    // wishes of one student
+    private static final class Request {
+        private final int memberId;
+        private final CourseLevel studentLevel;
+        private final int[] courseIds;
+
+        Request(int memberId, CourseLevel studentLevel, int[] courseIds) {
+            this.memberId = memberId;
+            this.studentLevel = studentLevel;
+            this.courseIds = courseIds;
+        }
+    }
+
+    // one allocation of seats, students and courses are numbered from 0 inside the pass
+    private final class Pass {
+        private final Request[] students;
+        private final int[] lottery;
+        private final int[] lotteryOwners;
+        private final Outcome[][] outcomes;
+        private final int[][] wantedCourses;
+        private final int[][] wishes;
+        private final int[] nextWanted;
+        private final int[] freePlaces;
+        private final int[][] held;
+        private final int[] heldCount;
+        private final List<Course> courses = new ArrayList<>();
+        private int[] seats;
+        private long[][] holders;
+        private int[] holderCount;
+        private boolean scheduled;
+
+        Pass(Request[] requests) {
+            students = requests;
+            Arrays.sort(students, (a, b) -> Integer.compare(a.memberId, b.memberId));
+            int count = students.length;
+            lottery = new int[count];
+            lotteryOwners = new int[count];
+            outcomes = new Outcome[count][];
+            wantedCourses = new int[count][];
+            wishes = new int[count][];
+            nextWanted = new int[count];
+            freePlaces = new int[count];
+            held = new int[count][];
+            heldCount = new int[count];
+            // a draw depends on the seed and the member only, the index breaks ties
+            long[] draws = new long[count];
+            for (int s = 0; s < count; s++) {
+                draws[s] = (mix(seed ^ students[s].memberId) & ~0xFFFFFFFFL) | s;
+            }
+            Arrays.sort(draws);
+            for (int position = 0; position < count; position++) {
+                int s = (int) draws[position];
+                lottery[s] = position;
+                lotteryOwners[position] = s;
+            }
+        }
+
+        // checks every wish against the state in the order of checks of enroll
+        void readState() {
+            Registry registry = Registry.getInstance();
+            EnrollmentStore store = EnrollmentStore.getInstance();
+            Timetable timetable = Timetable.getInstance();
+            // indexes of courses in the pass by course ID, 0 is no index yet
+            int[] courseIndexes = new int[Course.getNumberOfCourses() + 1];
+            for (int s = 0; s < students.length; s++) {
+                Request request = students[s];
+                int[] courseIds = request.courseIds;
+                outcomes[s] = new Outcome[courseIds.length];
+                int[] wanted = new int[courseIds.length];
+                int[] wanting = new int[courseIds.length];
+                int count = 0;
+                Student student = registry.findStudent(request.memberId);
+                if (student != null) {
+                    freePlaces[s] = student.getMaxEnrollment() - store.countCourses(request.memberId);
+                }
+                held[s] = new int[Math.max(0, freePlaces[s])];
+                for (int i = 0; i < courseIds.length; i++) {
+                    Course course = registry.findCourse(courseIds[i]);
+                    if (student == null || course == null || indexOf(courseIds, courseIds[i]) < i) {
+                        outcomes[s][i] = Outcome.WRONG_INPUTS;
+                    } else if (store.isEnrolled(request.memberId, courseIds[i])) {
+                        outcomes[s][i] = Outcome.ALREADY_ENROLLED;
+                    } else if (freePlaces[s] <= 0) {
+                        outcomes[s][i] = Outcome.MAX_ENROLLMENT_REACHED;
+                    } else if (timetable.conflicts(request.memberId, courseIds[i])) {
+                        outcomes[s][i] = Outcome.TIME_CONFLICT;
+                    } else {
+                        if (courseIndexes[courseIds[i]] == 0) {
+                            courses.add(course);
+                            courseIndexes[courseIds[i]] = courses.size();
+                            scheduled |= !course.getTimeSlots().isEmpty();
+                        }
+                        wanted[count] = courseIndexes[courseIds[i]] - 1;
+                        wanting[count++] = i;
+                    }
+                }
+                wantedCourses[s] = Arrays.copyOf(wanted, count);
+                wishes[s] = Arrays.copyOf(wanting, count);
+            }
+            seats = new int[courses.size()];
+            holders = new long[courses.size()][];
+            holderCount = new int[courses.size()];
+            for (int c = 0; c < seats.length; c++) {
+                seats[c] = courses.get(c).getSeatsRemaining();
+                holders[c] = new long[seats[c]];
+            }
+        }
+
+        // students ask and courses decide in rounds until no student asks
+        void run() {
+            while (true) {
+                long[] proposals = IntStream.range(0, students.length).parallel()
+                        .mapToObj(this::ask).flatMapToLong(Arrays::stream).toArray();
+                if (proposals.length == 0) {
+                    return;
+                }
+                Arrays.parallelSort(proposals);
+                IntList starts = new IntList();
+                for (int k = 0; k < proposals.length; k++) {
+                    if (k == 0 || proposals[k] >>> 32 != proposals[k - 1] >>> 32) {
+                        starts.add(k);
+                    }
+                }
+                starts.add(proposals.length);
+                IntStream.range(0, starts.size() - 1).parallel()
+                        .forEach(group -> decide(proposals, starts.get(group), starts.get(group + 1)));
+            }
+        }
+
+        // the next wishes of a student for its free places, as course << 32 | student
+        private long[] ask(int s) {
+            int free = freePlaces[s] - heldCount[s];
+            if (free <= 0 || nextWanted[s] == wantedCourses[s].length) {
+                return NO_PROPOSALS;
+            }
+            long[] proposals = new long[free];
+            int count = 0;
+            while (count < free && nextWanted[s] < wantedCourses[s].length) {
+                int k = nextWanted[s]++;
+                int c = wantedCourses[s][k];
+                if (scheduled && overlapsHeld(s, c, proposals, count)) {
+                    outcomes[s][wishes[s][k]] = Outcome.TIME_CONFLICT;
+                } else {
+                    proposals[count++] = (long) c << 32 | s;
+                }
+            }
+            return count == free ? proposals : Arrays.copyOf(proposals, count);
+        }
+
+        // checks the course against courses which the student holds or asks for in this round
+        private boolean overlapsHeld(int s, int c, long[] proposals, int count) {
+            Timetable timetable = Timetable.getInstance();
+            int courseId = courses.get(c).getCourseId();
+            for (int k = 0; k < heldCount[s]; k++) {
+                if (timetable.overlaps(courseId, courses.get(held[s][k]).getCourseId())) {
+                    return true;
+                }
+            }
+            for (int k = 0; k < count; k++) {
+                if (timetable.overlaps(courseId, courses.get((int) (proposals[k] >>> 32)).getCourseId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // a course keeps the best students among those it holds and new ones
+        private void decide(long[] proposals, int from, int to) {
+            int c = (int) (proposals[from] >>> 32);
+            Course course = courses.get(c);
+            int holding = holderCount[c];
+            long[] keys = Arrays.copyOf(holders[c], holding + to - from);
+            for (int k = from; k < to; k++) {
+                int s = (int) proposals[k];
+                keys[holding + k - from] = (long) priority.rank(students[s].studentLevel, course) << 32 | lottery[s];
+            }
+            Arrays.sort(keys, holding, keys.length);
+            // holders are sorted already, merging keeps who was a holder
+            long[] merged = new long[keys.length];
+            int left = 0;
+            int right = holding;
+            for (int k = 0; k < merged.length; k++) {
+                boolean fromHolders = right == keys.length || left < holding && keys[left] < keys[right];
+                long key = fromHolders ? keys[left++] : keys[right++];
+                merged[k] = key;
+                int s = lotteryOwners[(int) key];
+                if (k < seats[c] && !fromHolders) {
+                    hold(s, c);
+                } else if (k >= seats[c]) {
+                    reject(s, c, fromHolders);
+                }
+            }
+            holderCount[c] = Math.min(merged.length, seats[c]);
+            System.arraycopy(merged, 0, holders[c], 0, holderCount[c]);
+        }
+
+        private void hold(int s, int c) {
+            synchronized (held[s]) {
+                held[s][heldCount[s]++] = c;
+            }
+        }
+
+        private void reject(int s, int c, boolean wasHolder) {
+            if (wasHolder) {
+                synchronized (held[s]) {
+                    int k = 0;
+                    while (held[s][k] != c) {
+                        k++;
+                    }
+                    held[s][k] = held[s][--heldCount[s]];
+                }
+            }
+            outcomes[s][wishOf(s, c)] = Outcome.COURSE_FULL;
+        }
+
+        // enrolls all holders as one batch and collects the results
+        List<Allocation> apply() {
+            EnrollmentBatch batch = new EnrollmentBatch(students.length);
+            for (int c = 0; c < courses.size(); c++) {
+                for (int k = 0; k < holderCount[c]; k++) {
+                    int s = lotteryOwners[(int) holders[c][k]];
+                    batch.add(students[s].memberId, courses.get(c).getCourseId(), EnrollmentBatch.Operation.ENROLL);
+                }
+            }
+            Outcome[] results = engine.apply(batch);
+            int entry = 0;
+            for (int c = 0; c < courses.size(); c++) {
+                for (int k = 0; k < holderCount[c]; k++) {
+                    int s = lotteryOwners[(int) holders[c][k]];
+                    outcomes[s][wishOf(s, c)] = results[entry++];
+                }
+            }
+            List<Allocation> allocations = new ArrayList<>(students.length);
+            for (int s = 0; s < students.length; s++) {
+                for (int i = 0; i < outcomes[s].length; i++) {
+                    if (outcomes[s][i] == null) {
+                        // the student had enough seats before it asked for this course
+                        outcomes[s][i] = Outcome.MAX_ENROLLMENT_REACHED;
+                    }
+                }
+                allocations.add(new Allocation(students[s].memberId, students[s].courseIds, outcomes[s]));
+            }
+            return allocations;
+        }
+
+        private int wishOf(int s, int c) {
+            return wishes[s][indexOf(wantedCourses[s], c)];
+        }
+    }
+
+    private static int indexOf(int[] values, int value) {
+        int i = 0;
+        while (values[i] != value) {
+            i++;
+        }
+        return i;
+    }
+
+    // the finalizer of SplitMix64, spreads close member IDs over all values
+    private static long mix(long value) {
+        long z = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
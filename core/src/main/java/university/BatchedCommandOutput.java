@@ -0,0 +1,86 @@
+package university;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * BatchedCommandOutput collects results in a large buffer and writes them
+ * at once, it is used in the batch mode. The buffer is written when it is
+ * full, after every N results in case N is positive, and on flush.
+ * Line separators are the same as in System.out.println.
+ */
+final class BatchedCommandOutput implements CommandOutput {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final String lineSeparator = System.lineSeparator();
+    private final int flushEvery;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int count;
+    private int linesSinceFlush;
+
+    /**
+     * creates an output
+     * @param stream     stream where results must be written
+     * @param flushEvery amount of results after which output is flushed,
+     *                   0 means that output is flushed only at the end
+     */
+    BatchedCommandOutput(OutputStream stream, int flushEvery) {
+        this(stream, Charset.defaultCharset(), flushEvery);
+    }
+
+    /**
+     * creates an output
+     * @param stream     stream where results must be written
+     * @param charset    charset of the output
+     * @param flushEvery amount of results after which output is flushed,
+     *                   0 means that output is flushed only at the end
+     */
+    BatchedCommandOutput(OutputStream stream, Charset charset, int flushEvery) {
+        this.writer = new OutputStreamWriter(stream, charset);
+        this.flushEvery = flushEvery;
+    }
+
+    @Override
+    public void println(String line) {
+        append(String.valueOf(line));
+        append(lineSeparator);
+        if (flushEvery > 0 && ++linesSinceFlush == flushEvery) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.write(buffer, 0, count);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count = 0;
+        linesSinceFlush = 0;
+    }
+
+    private void append(String text) {
+        int length = text.length();
+        if (count + length > buffer.length) {
+            try {
+                writer.write(buffer, 0, count);
+                count = 0;
+                if (length > buffer.length) {
+                    writer.write(text);
+                    return;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        text.getChars(0, length, buffer, count);
+        count += length;
+    }
+}
@@ -0,0 +1,358 @@
+package university;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * BulkImport creates many courses, students and professors from a CSV file
+ * at once. Every line is "course,name,level", "student,name" or
+ * "professor,name", empty lines are skipped. A line is checked like the
+ * command with the same words, so the state after an import is the same as
+ * if the lines were given as commands one after another, and a line is
+ * rejected exactly when the command would be.
+ * A course line may have a fourth field with weekly meeting times of the
+ * course separated by ';', like "mon 09:00-10:30;wed 09:00-10:30", see
+ * TimeSlot.parse. Commands cannot set meeting times, so this is the way to
+ * get courses whose times are checked on enroll and teach; a line with a
+ * wrong time is rejected.
+ * The file is split into chunks at line ends. Chunks are parsed and checked
+ * on the common fork/join pool, and every name of a course is claimed in a
+ * concurrent index where the line which comes first in the file wins. Then,
+ * under the write lock of the engine, names are checked against existing
+ * courses, every chunk gets a block of course IDs and a block of member IDs
+ * right after the blocks of the chunks before it, and one thread adds the
+ * prepared courses and members in the order of lines, as the registry and
+ * the tables behind it are not thread safe.
+ */
+final class BulkImport {
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final byte WRONG = 0;
+    private static final byte COURSE = 1;
+    private static final byte STUDENT = 2;
+    private static final byte PROFESSOR = 3;
+    private static final byte EXISTING = 4;
+    private static final byte[] COURSE_WORD = "course".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STUDENT_WORD = "student".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PROFESSOR_WORD = "professor".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] data;
+    private final Chunk[] chunks;
+    private final ConcurrentHashMap<String, Integer> firstLines = new ConcurrentHashMap<>();
+
+    private BulkImport(byte[] data, int chunkSize) {
+        this.data = data;
+        int count = 0;
+        Chunk[] split = new Chunk[data.length / chunkSize + 1];
+        int start = 0;
+        while (start < data.length) {
+            int end = Math.min(data.length, start + chunkSize);
+            while (end < data.length && data[end - 1] != '\n') {
+                end++;
+            }
+            split[count++] = new Chunk(start, end);
+            start = end;
+        }
+        chunks = Arrays.copyOf(split, count);
+    }
+
+    /**
+     * importFile reads a CSV file and creates all courses and members from it
+     * @param file   CSV file
+     * @param engine engine which applies all changes
+     * @return amounts of created courses and members and rejected lines
+     * @throws IOException in case the file cannot be read
+     */
+    static Result importFile(Path file, EnrollmentEngine engine) throws IOException {
+        return importData(Files.readAllBytes(file), CHUNK_SIZE, engine);
+    }
+
+    /**
+     * importData creates all courses and members from CSV lines in UTF-8
+     * @param data      content of a CSV file
+     * @param chunkSize amount of bytes after which a chunk ends at the next
+     *                  line end
+     * @param engine    engine which applies all changes
+     * @return amounts of created courses and members and rejected lines
+     */
+    static Result importData(byte[] data, int chunkSize, EnrollmentEngine engine) {
+        BulkImport bulkImport = new BulkImport(data, chunkSize);
+        bulkImport.forEachChunk(index -> bulkImport.chunks[index].parse(bulkImport));
+        Result result = new Result();
+        engine.addAll(sink -> {
+            Registry registry = Registry.getInstance();
+            bulkImport.forEachChunk(index -> bulkImport.chunks[index].resolve(bulkImport, registry));
+            bulkImport.apply(sink, result);
+            return result.courses + result.students + result.professors > 0;
+        });
+        return result;
+    }
+
+    // runs an action for every chunk on the common pool
+    private void forEachChunk(IntConsumer action) {
+        if (chunks.length > 0) {
+            new ForEachChunk(0, chunks.length, action).invoke();
+        }
+    }
+
+    // gives blocks of IDs to chunks and adds everything in the order of lines
+    private void apply(MutationListener sink, Result result) {
+        int nextCourseId = Course.getNumberOfCourses() + 1;
+        int nextMemberId = UniversityMember.getNumberOfMembers() + 1;
+        for (Chunk chunk : chunks) {
+            chunk.firstCourseId = nextCourseId;
+            chunk.firstMemberId = nextMemberId;
+            nextCourseId += chunk.courses;
+            nextMemberId += chunk.members;
+        }
+        IntList rejected = new IntList();
+        int firstLine = 1;
+        for (Chunk chunk : chunks) {
+            int courseId = chunk.firstCourseId;
+            int memberId = chunk.firstMemberId;
+            for (int i = 0; i < chunk.rows; i++) {
+                String name = chunk.names[i];
+                switch (chunk.kinds[i]) {
+                    case COURSE:
+                        List<TimeSlot> timeSlots = chunk.timeSlots[i];
+                        sink.courseAdded(new Course(courseId++, name, chunk.levels[i],
+                                timeSlots == null ? Collections.emptyList() : timeSlots));
+                        result.courses++;
+                        break;
+                    case STUDENT:
+                        sink.studentAdded(new Student(memberId++, name));
+                        result.students++;
+                        break;
+                    case PROFESSOR:
+                        sink.professorAdded(new Professor(memberId++, name));
+                        result.professors++;
+                        break;
+                    default:
+                        rejected.add(firstLine + chunk.lineIndexes[i]);
+                }
+            }
+            firstLine += chunk.lines;
+        }
+        Course.setNumberOfCourses(nextCourseId - 1);
+        UniversityMember.setNumberOfMembers(nextMemberId - 1);
+        result.rejectedLines = new int[rejected.size()];
+        for (int i = 0; i < rejected.size(); i++) {
+            result.rejectedLines[i] = rejected.get(i);
+        }
+    }
+
+    /**
+     * Result tells what an import has done.
+     */
+    static final class Result {
+        private int courses;
+        private int students;
+        private int professors;
+        private int[] rejectedLines = new int[0];
+
+        private Result() {
+        }
+
+        /**
+         * getCourses returns amount of created courses
+         * @return this amount
+         */
+        int getCourses() {
+            return courses;
+        }
+
+        /**
+         * getStudents returns amount of created students
+         * @return this amount
+         */
+        int getStudents() {
+            return students;
+        }
+
+        /**
+         * getProfessors returns amount of created professors
+         * @return this amount
+         */
+        int getProfessors() {
+            return professors;
+        }
+
+        /**
+         * getRejectedLines returns numbers of lines which were wrong or named
+         * an existing course
+         * @return numbers of lines from 1 in increasing order
+         */
+        int[] getRejectedLines() {
+            return rejectedLines.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Imported " + courses + " courses, " + students + " students and " + professors
+                    + " professors, " + rejectedLines.length + " lines rejected";
+        }
+    }
+
+    // lines of one part of the file and what they create
+    private static final class Chunk {
+        private final int start;
+        private final int end;
+        private int lines;
+        private int rows;
+        private byte[] kinds;
+        private String[] names;
+        private CourseLevel[] levels;
+        private List<TimeSlot>[] timeSlots;
+        private int[] lineIndexes;
+        private int[] offsets;
+        private int courses;
+        private int members;
+        private int firstCourseId;
+        private int firstMemberId;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+            int capacity = Math.max(16, (end - start) >> 4);
+            kinds = new byte[capacity];
+            names = new String[capacity];
+            levels = new CourseLevel[capacity];
+            timeSlots = newTimeSlots(capacity);
+            lineIndexes = new int[capacity];
+            offsets = new int[capacity];
+        }
+
+        // checks every line like the command loop and claims names of courses
+        void parse(BulkImport bulkImport) {
+            byte[] data = bulkImport.data;
+            int position = start;
+            while (position < end) {
+                int lineEnd = indexOf(data, '\n', position, end);
+                int to = lineEnd > position && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                if (to > position) {
+                    addRow(data, position, to);
+                    if (kinds[rows - 1] == COURSE) {
+                        bulkImport.firstLines.merge(names[rows - 1], position, Math::min);
+                    } else if (kinds[rows - 1] != WRONG) {
+                        members++;
+                    }
+                }
+                lines++;
+                position = lineEnd + 1;
+            }
+        }
+
+        // a course is created only by the first line with its name and only in case the name is new
+        void resolve(BulkImport bulkImport, Registry registry) {
+            for (int i = 0; i < rows; i++) {
+                if (kinds[i] != COURSE) {
+                    continue;
+                }
+                if (bulkImport.firstLines.get(names[i]) != offsets[i] || registry.findCourseByName(names[i]) != null) {
+                    kinds[i] = EXISTING;
+                } else {
+                    courses++;
+                }
+            }
+        }
+
+        // fields are found in the bytes of a line, only names, levels and times become strings
+        private void addRow(byte[] data, int from, int to) {
+            if (rows == kinds.length) {
+                int capacity = rows << 1;
+                kinds = Arrays.copyOf(kinds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                timeSlots = Arrays.copyOf(timeSlots, capacity);
+                lineIndexes = Arrays.copyOf(lineIndexes, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+            }
+            int first = indexOf(data, ',', from, to);
+            int second = indexOf(data, ',', Math.min(first + 1, to), to);
+            int third = indexOf(data, ',', Math.min(second + 1, to), to);
+            int fourth = indexOf(data, ',', Math.min(third + 1, to), to);
+            byte kind = WRONG;
+            String name = null;
+            CourseLevel level = null;
+            List<TimeSlot> slots = null;
+            if (isWord(data, from, first, COURSE_WORD) && second < to && fourth == to) {
+                name = NameValidator.toCourseName(data, first + 1, second);
+                name = UniversityCourseManagementSystem.allowedName(name);
+                level = NameValidator.toCourseLevel(data, second + 1, third);
+                if (third < to) {
+                    slots = TimeSlot.parseAll(new String(data, third + 1, to - third - 1, StandardCharsets.UTF_8));
+                }
+                if (name != null && level != null && (third == to || slots != null)) {
+                    kind = COURSE;
+                }
+            } else if (first < to && second == to) {
+                boolean student = isWord(data, from, first, STUDENT_WORD);
+                if (student || isWord(data, from, first, PROFESSOR_WORD)) {
+                    name = NameValidator.toMemberName(data, first + 1, to);
+                    name = UniversityCourseManagementSystem.allowedName(name);
+                    if (name != null) {
+                        kind = student ? STUDENT : PROFESSOR;
+                    }
+                }
+            }
+            kinds[rows] = kind;
+            names[rows] = name;
+            levels[rows] = level;
+            timeSlots[rows] = slots;
+            lineIndexes[rows] = lines;
+            offsets[rows] = from;
+            rows++;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<TimeSlot>[] newTimeSlots(int capacity) {
+            return (List<TimeSlot>[]) new List<?>[capacity];
+        }
+
+        // returns the index of the first such byte or the end
+        private static int indexOf(byte[] data, char value, int from, int to) {
+            int i = from;
+            while (i < to && data[i] != value) {
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean isWord(byte[] data, int from, int to, byte[] word) {
+            return Arrays.equals(data, from, to, word, 0, word.length);
+        }
+    }
+
+    // splits a range of chunks in halves until one chunk is left
+    private static final class ForEachChunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient IntConsumer action;
+
+        ForEachChunk(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForEachChunk(from, middle, action), new ForEachChunk(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package university;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ChangeEventBus publishes enrollments, drops, assignments and exemptions
+ * to subscribers in the same process, for example billing or notifications.
+ * Events are written into a preallocated ring of longs, a slot takes a
+ * half of a cache line: the sequence number, the kind and both IDs, so
+ * publishing creates no objects and touches one line. A change claims the
+ * next sequence number and writes its slot while the engine still holds the
+ * locks of the change, so changes of one course or member come in the
+ * order they were applied.
+ * Every subscription has its own thread and its own cursor in the ring and
+ * gets every event in one reused Event object. Writers never wait for
+ * subscribers: a subscriber which falls a whole ring behind finds its slots
+ * overwritten and handles it by its overflow policy. An exception of a
+ * handler is counted and given back to the handler, the subscriber goes on
+ * with the next event. A writer waits only for a writer which claimed the
+ * same slot one lap before and did not finish writing yet.
+ * A slot is guarded by its sequence number like a sequence lock: a writer
+ * marks the slot before writing and sets the sequence after, a reader
+ * copies the slot and checks that the sequence did not change meanwhile.
+ */
+final class ChangeEventBus implements MutationListener {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long WRITING = Long.MIN_VALUE;
+    private static final int SLOT_SHIFT = 2;
+    private static final int SPINS = 64;
+    private static final long PARK_NANOS = 100_000;
+    private static final Type[] TYPES = Type.values();
+
+    private final EnrollmentEngine engine;
+    private final int capacity;
+    private final int mask;
+    private final long[] slots;
+    private final AtomicLong next = new AtomicLong();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private ChangeEventBus(EnrollmentEngine engine, int capacity) {
+        this.engine = engine;
+        this.capacity = capacity;
+        mask = capacity - 1;
+        slots = new long[capacity << SLOT_SHIFT];
+        for (int i = 0; i < capacity; i++) {
+            slots[i << SLOT_SHIFT] = i - capacity;
+        }
+    }
+
+    /**
+     * Type is a kind of a change
+     */
+    enum Type {
+        ENROLLED,
+        DROPPED,
+        ASSIGNED,
+        EXEMPTED
+    }
+
+    /**
+     * Overflow says what a subscriber does when it falls so far behind that
+     * its next events are overwritten
+     */
+    enum Overflow {
+        /**
+         * SKIP jumps to the oldest event which is still in the ring, missed
+         * events are counted and reported to the handler
+         */
+        SKIP,
+        /**
+         * DISCONNECT reports missed events to the handler and stops the
+         * subscription, for subscribers which must see every event and
+         * rather rebuild their state from reports
+         */
+        DISCONNECT
+    }
+
+    /**
+     * Handler receives events of one subscription in its thread
+     */
+    interface Handler {
+        /**
+         * onEvent handles one event, the object is reused for the next one
+         * @param event the event
+         */
+        void onEvent(Event event);
+
+        /**
+         * onLost is called when events were overwritten before this
+         * subscriber read them
+         * @param count amount of missed events
+         */
+        default void onLost(long count) {
+        }
+
+        /**
+         * onError is called when onEvent or onLost throws, the subscription
+         * goes on with the next event
+         * @param e the exception
+         */
+        default void onError(RuntimeException e) {
+        }
+    }
+
+    /**
+     * attach publishes all following changes of the engine
+     * @param engine   engine which applies all changes
+     * @param capacity amount of events in the ring, a power of two
+     * @return bus without subscribers
+     */
+    static ChangeEventBus attach(EnrollmentEngine engine, int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is not a power of two");
+        }
+        ChangeEventBus bus = new ChangeEventBus(engine, capacity);
+        engine.addListener(bus);
+        return bus;
+    }
+
+    /**
+     * detach stops publishing and closes all subscriptions after they have
+     * handled the events published before
+     * @throws InterruptedException in case the thread is interrupted while
+     *                              subscriptions finish
+     */
+    void detach() throws InterruptedException {
+        engine.removeListener(this);
+        for (Subscription subscription : subscriptions) {
+            subscription.drainAndClose();
+        }
+    }
+
+    /**
+     * subscribe starts a subscriber which gets events published after this
+     * call
+     * @param name     name of the subscriber, used for its thread
+     * @param overflow what to do when the subscriber falls behind
+     * @param handler  handler of events
+     * @return running subscription
+     */
+    Subscription subscribe(String name, Overflow overflow, Handler handler) {
+        Subscription subscription = new Subscription(name, overflow, handler, next.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * getPublished returns amount of events published since attach
+     * @return this amount
+     */
+    long getPublished() {
+        return next.get();
+    }
+
+    @Override
+    public void enrolled(int memberId, int courseId) {
+        publish(Type.ENROLLED, memberId, courseId);
+    }
+
+    @Override
+    public void dropped(int memberId, int courseId) {
+        publish(Type.DROPPED, memberId, courseId);
+    }
+
+    @Override
+    public void assigned(int memberId, int courseId) {
+        publish(Type.ASSIGNED, memberId, courseId);
+    }
+
+    @Override
+    public void exempted(int memberId, int courseId) {
+        publish(Type.EXEMPTED, memberId, courseId);
+    }
+
+    private void publish(Type type, int memberId, int courseId) {
+        long sequence = next.getAndIncrement();
+        int slot = ((int) sequence & mask) << SLOT_SHIFT;
+        // the slot is free when the writer of the previous lap has finished, no one else writes it
+        int spins = 0;
+        while ((long) SLOTS.getAcquire(slots, slot) != sequence - capacity) {
+            if (++spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        SLOTS.setOpaque(slots, slot, WRITING);
+        VarHandle.storeStoreFence();
+        slots[slot + 1] = type.ordinal();
+        slots[slot + 2] = ((long) memberId << 32) | (courseId & 0xFFFFFFFFL);
+        SLOTS.setRelease(slots, slot, sequence);
+    }
+
+    /**
+     * Event is one change as a subscriber sees it
+     */
+    static final class Event {
+        private long sequence;
+        private Type type;
+        private int memberId;
+        private int courseId;
+
+        private Event() {
+        }
+
+        /**
+         * getSequence returns the number of the event, numbers go one after
+         * another from 0 since the bus was attached
+         * @return this number
+         */
+        long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * getType returns the kind of the change
+         * @return this kind
+         */
+        Type getType() {
+            return type;
+        }
+
+        /**
+         * getMemberId returns the student or the professor of the change
+         * @return ID of a member
+         */
+        int getMemberId() {
+            return memberId;
+        }
+
+        /**
+         * getCourseId returns the course of the change
+         * @return ID of a course
+         */
+        int getCourseId() {
+            return courseId;
+        }
+    }
+
+    /**
+     * Subscription is one subscriber with its own cursor and thread.
+     */
+    final class Subscription implements AutoCloseable {
+        private final Overflow overflow;
+        private final Handler handler;
+        private final Thread thread;
+        private final Event event = new Event();
+        private volatile boolean running = true;
+        private volatile long drainUntil = Long.MAX_VALUE;
+        private volatile long cursor;
+        private volatile long lost;
+        private volatile long failed;
+
+        private Subscription(String name, Overflow overflow, Handler handler, long cursor) {
+            this.overflow = overflow;
+            this.handler = handler;
+            this.cursor = cursor;
+            thread = new Thread(this::run, "events-" + name);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * getCursor returns the sequence of the next event this subscriber
+         * reads, the distance to getPublished is its lag
+         * @return this sequence
+         */
+        long getCursor() {
+            return cursor;
+        }
+
+        /**
+         * getLost returns amount of events which were overwritten before
+         * this subscriber read them
+         * @return this amount
+         */
+        long getLost() {
+            return lost;
+        }
+
+        /**
+         * getFailed returns amount of calls of the handler which threw an
+         * exception
+         * @return this amount
+         */
+        long getFailed() {
+            return failed;
+        }
+
+        /**
+         * isConnected checks whether the subscriber still gets events
+         * @return false after close or a disconnect by overflow
+         */
+        boolean isConnected() {
+            return running;
+        }
+
+        /**
+         * close stops the subscriber without waiting for events which it
+         * has not read yet
+         */
+        @Override
+        public void close() {
+            running = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        // lets the subscriber read everything published so far, then stops it
+        private void drainAndClose() throws InterruptedException {
+            drainUntil = next.get();
+            LockSupport.unpark(thread);
+            thread.join();
+            subscriptions.remove(this);
+        }
+
+        private void run() {
+            int idle = 0;
+            while (running) {
+                if (cursor >= drainUntil) {
+                    running = false;
+                } else if (poll()) {
+                    idle = 0;
+                } else if (++idle < SPINS) {
+                    Thread.onSpinWait();
+                } else if (idle < SPINS << 1) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+
+        // handles the event at the cursor, returns false in case it is not published yet
+        private boolean poll() {
+            long sequence = cursor;
+            int slot = ((int) sequence & mask) << SLOT_SHIFT;
+            long seen = (long) SLOTS.getAcquire(slots, slot);
+            if (seen == sequence) {
+                long type = slots[slot + 1];
+                long ids = slots[slot + 2];
+                VarHandle.loadLoadFence();
+                if ((long) SLOTS.getOpaque(slots, slot) == sequence) {
+                    event.sequence = sequence;
+                    event.type = TYPES[(int) type];
+                    event.memberId = (int) (ids >>> 32);
+                    event.courseId = (int) ids;
+                    cursor = sequence + 1;
+                    try {
+                        handler.onEvent(event);
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                    return true;
+                }
+            } else if (seen < sequence && next.get() <= sequence + capacity) {
+                // the writer of this event has not finished yet
+                return false;
+            }
+            overrun(sequence);
+            return true;
+        }
+
+        // the event at the cursor is overwritten
+        private void overrun(long sequence) {
+            long oldest = Math.max(sequence + 1, next.get() - capacity);
+            lost += oldest - sequence;
+            if (overflow == Overflow.DISCONNECT) {
+                running = false;
+                subscriptions.remove(this);
+            } else {
+                cursor = oldest;
+            }
+            try {
+                handler.onLost(oldest - sequence);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        // only the thread of the subscription writes failed
+        private void fail(RuntimeException e) {
+            failed++;
+            try {
+                handler.onError(e);
+            } catch (RuntimeException ignored) {
+                // the failure is counted, a handler which fails on its own errors is not asked again
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package university;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.NoSuchElementException;
+
+/**
+ * ChannelCommandInput reads lines from a channel through one large direct
+ * buffer, it is used in the batch mode. Lines are split exactly like
+ * Scanner.nextLine does: by CR LF, LF, CR, NEL and the Unicode line and
+ * paragraph separators, and the last line does not need a separator.
+ * Malformed input is replaced like in InputStreamReader, so results are the
+ * same as in the interactive mode.
+ */
+final class ChannelCommandInput implements CommandInput, Closeable {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    // a buffer must hold the bytes of any character and both chars of a surrogate pair
+    private static final int MIN_BUFFER_SIZE = 16;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final StringBuilder line = new StringBuilder();
+    private boolean channelDrained;
+    private boolean endOfInput;
+
+    /**
+     * creates an input with the default buffer size and charset
+     * @param channel channel which must be read
+     */
+    ChannelCommandInput(ReadableByteChannel channel) {
+        this(channel, Charset.defaultCharset(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * creates an input
+     * @param channel    channel which must be read
+     * @param charset    charset of the input
+     * @param bufferSize size of the byte buffer, smaller sizes than 16 are
+     *                   raised to 16
+     */
+    ChannelCommandInput(ReadableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        this.bytes.flip();
+        this.chars = CharBuffer.allocate(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        this.chars.flip();
+    }
+
+    @Override
+    public boolean hasNextLine() {
+        return chars.hasRemaining() || fill();
+    }
+
+    @Override
+    public String nextLine() {
+        if (!hasNextLine()) {
+            throw new NoSuchElementException("No line found");
+        }
+        line.setLength(0);
+        char[] array = chars.array();
+        while (true) {
+            int start = chars.position();
+            int limit = chars.limit();
+            for (int i = start; i < limit; i++) {
+                char c = array[i];
+                if (c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+                    String result;
+                    if (line.length() == 0) {
+                        result = new String(array, start, i - start);
+                    } else {
+                        result = line.append(array, start, i - start).toString();
+                    }
+                    chars.position(i + 1);
+                    if (c == '\r' && hasNextLine() && chars.get(chars.position()) == '\n') {
+                        chars.position(chars.position() + 1);
+                    }
+                    return result;
+                }
+            }
+            line.append(array, start, limit - start);
+            chars.position(limit);
+            if (!fill()) {
+                return line.toString();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // decodes the next portion of input, returns false at the end of input
+    private boolean fill() {
+        chars.clear();
+        try {
+            while (chars.position() == 0 && !endOfInput) {
+                if (!channelDrained) {
+                    bytes.compact();
+                    if (channel.read(bytes) < 0) {
+                        channelDrained = true;
+                    }
+                    bytes.flip();
+                }
+                CoderResult result = decoder.decode(bytes, chars, channelDrained);
+                if (channelDrained && result.isUnderflow() && decoder.flush(chars).isUnderflow()) {
+                    endOfInput = true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
@@ -0,0 +1,17 @@
+package university;
+
+/**
+ * CommandHandler reads the arguments of a command which the CommandTable
+ * does not know itself and applies the command to a target. A new command
+ * needs only a handler and a registration, not a change of the command
+ * loop.
+ */
+abstract class CommandHandler {
+    /**
+     * handle reads the lines of the arguments and applies the command
+     * @param s      source of command lines, the word is already read
+     * @param target target which applies checked commands
+     * @return outcome which is printed as the result
+     */
+    abstract Outcome handle(CommandInput s, CommandTarget target);
+}
@@ -0,0 +1,40 @@
+package university;
+
+import java.util.Scanner;
+
+/**
+ * CommandInput is a source of lines for the command loop. It follows the
+ * contract of Scanner: nextLine throws NoSuchElementException with message
+ * "No line found" when there are no more lines.
+ */
+interface CommandInput {
+    boolean hasNextLine();
+
+    String nextLine();
+}
+
+/**
+ * ScannerCommandInput reads lines with a Scanner, it is used in the
+ * interactive mode
+ */
+final class ScannerCommandInput implements CommandInput {
+    private final Scanner scanner;
+
+    /**
+     * creates an input over a scanner
+     * @param scanner scanner which must be used to read lines
+     */
+    ScannerCommandInput(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public boolean hasNextLine() {
+        return scanner.hasNextLine();
+    }
+
+    @Override
+    public String nextLine() {
+        return scanner.nextLine();
+    }
+}
@@ -0,0 +1,346 @@
+package university;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * CommandMetrics counts processed commands and their results, keeps
+ * latency histograms of every command type and gauges of the state.
+ * Counters are LongAdders, so threads of different connections do not
+ * contend. Every command loop counts into its own Recorder with plain
+ * fields and adds them to the shared counters only on every 64th command,
+ * which is also the only command that is timed, because an atomic update
+ * or reading the clock costs more than the rest of the bookkeeping.
+ * Gauges of seats, totals of every course level and rates of changes come
+ * from EnrollmentAggregates, which follow changes of the engine, so a read
+ * does not walk all courses; the getters share totals which are at most a
+ * second old, so a poll of all of them stops changes once. Courses with a
+ * free seat and professors who may take one more course come from
+ * ReportViews in the same way.
+ */
+final class CommandMetrics implements CommandMetricsMXBean {
+    /**
+     * Command is the type of a command line
+     */
+    enum Command {
+        COURSE,
+        STUDENT,
+        PROFESSOR,
+        ENROLL,
+        WAITLIST,
+        DROP,
+        TEACH,
+        EXEMPT,
+        OTHER
+    }
+
+    static final int SAMPLE_MASK = 63;
+    static final String OBJECT_NAME = "university:type=CommandMetrics";
+
+    private static final Command[] COMMANDS = Command.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    private final LongAdder[] commandCounts = new LongAdder[COMMANDS.length];
+    private final LongAdder[] outcomeCounts = new LongAdder[OUTCOMES.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[COMMANDS.length];
+    private static final CourseLevel[] LEVELS = CourseLevel.values();
+    private static final int[] RATE_SECONDS = {1, 10, 60};
+
+    private volatile EnrollmentAggregates aggregates;
+    private volatile ReportViews views;
+
+    /**
+     * creates metrics without any counted command
+     */
+    CommandMetrics() {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            commandCounts[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            outcomeCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * attach gives the state which is counted by gauges, its totals are
+     * followed from now on
+     * @param engine   engine which applies all changes
+     * @param registry registry of courses
+     * @param store    store of enrollments
+     */
+    void attach(EnrollmentEngine engine, Registry registry, EnrollmentStore store) {
+        views = ReportViews.getInstance();
+        aggregates = EnrollmentAggregates.attach(engine, registry, store);
+    }
+
+    /**
+     * getAggregates returns totals of the attached state
+     * @return these totals or null before attach
+     */
+    EnrollmentAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * register publishes the metrics as an MXBean
+     * @throws JMException in case the bean cannot be registered
+     */
+    void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * newRecorder creates a recorder for one command loop
+     * @return this recorder
+     */
+    Recorder newRecorder() {
+        return new Recorder();
+    }
+
+    /**
+     * Recorder counts commands of one thread and adds them to the metrics
+     * from time to time
+     */
+    final class Recorder {
+        private final long[] localCommandCounts = new long[COMMANDS.length];
+        private final long[] localOutcomeCounts = new long[OUTCOMES.length];
+
+        /**
+         * record counts a processed command, a timed command also adds all
+         * counts of this recorder to the metrics
+         * @param command type of the command
+         * @param outcome printed result
+         * @param nanos   time of the command or a negative value in case it
+         *                was not timed
+         */
+        void record(Command command, Outcome outcome, long nanos) {
+            localCommandCounts[command.ordinal()]++;
+            localOutcomeCounts[outcome.ordinal()]++;
+            if (nanos >= 0) {
+                latencies[command.ordinal()].record(nanos);
+                flush();
+            }
+        }
+
+        /**
+         * flush adds all counts of this recorder to the metrics
+         */
+        void flush() {
+            flush(localCommandCounts, commandCounts);
+            flush(localOutcomeCounts, outcomeCounts);
+        }
+
+        private void flush(long[] local, LongAdder[] shared) {
+            for (int i = 0; i < local.length; i++) {
+                if (local[i] != 0) {
+                    shared[i].add(local[i]);
+                    local[i] = 0;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Command command : COMMANDS) {
+            counts.put(nameOf(command), commandCounts[command.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getOutcomeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Outcome outcome : OUTCOMES) {
+            counts.put(outcome.getMessage(), outcomeCounts[outcome.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyPercentiles() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Command command : COMMANDS) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                long nanos = latencies[command.ordinal()].valueAtPercentile(PERCENTILES[i]);
+                values.put(nameOf(command) + "." + PERCENTILE_NAMES[i], nanos / 1000.0);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long getCourses() {
+        return Course.getNumberOfCourses();
+    }
+
+    @Override
+    public long getMembers() {
+        return UniversityMember.getNumberOfMembers();
+    }
+
+    @Override
+    public long getTakenSeats() {
+        EnrollmentAggregates current = aggregates;
+        return current == null ? 0 : current.recent().getTakenSeats();
+    }
+
+    @Override
+    public long getFullCourses() {
+        EnrollmentAggregates current = aggregates;
+        return current == null ? 0 : current.recent().getFullCourses();
+    }
+
+    @Override
+    public double getSeatFillRatio() {
+        return fillRatio(getTakenSeats());
+    }
+
+    @Override
+    public Map<String, Long> getLevelTotals() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        EnrollmentAggregates current = aggregates;
+        if (current == null) {
+            return values;
+        }
+        EnrollmentAggregates.Totals totals = current.recent();
+        for (CourseLevel level : LEVELS) {
+            String name = level.name().toLowerCase(Locale.ROOT);
+            values.put(name + ".courses", totals.getCourses(level));
+            values.put(name + ".takenSeats", totals.getTakenSeats(level));
+            values.put(name + ".freeSeats", totals.getFreeSeats(level));
+            values.put(name + ".fullCourses", totals.getFullCourses(level));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getStudentsByLoad() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        EnrollmentAggregates current = aggregates;
+        if (current == null) {
+            return values;
+        }
+        EnrollmentAggregates.Totals totals = current.recent();
+        for (int load = 0; load <= Student.MAX_ENROLLMENT; load++) {
+            values.put(Integer.toString(load), totals.getStudentsTaking(load));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getChangeRates() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        EnrollmentAggregates current = aggregates;
+        if (current == null) {
+            return values;
+        }
+        for (EnrollmentAggregates.Event event : EnrollmentAggregates.Event.values()) {
+            for (int seconds : RATE_SECONDS) {
+                values.put(event.name().toLowerCase(Locale.ROOT) + "." + seconds + "s", current.rate(event, seconds));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getAvailableCourses() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        ReportViews current = views;
+        if (current == null) {
+            return values;
+        }
+        for (CourseLevel level : LEVELS) {
+            values.put(level.name().toLowerCase(Locale.ROOT), (long) current.countAvailableCourses(level));
+        }
+        return values;
+    }
+
+    @Override
+    public long getProfessorsWithSpareLoad() {
+        ReportViews current = views;
+        return current == null ? 0 : current.countProfessorsWithSpareLoad();
+    }
+
+    @Override
+    public int[] listAvailableCourses(String level) {
+        ReportViews current = views;
+        CourseLevel courseLevel = NameValidator.toCourseLevel(level);
+        if (current == null || courseLevel == null) {
+            return new int[0];
+        }
+        int[] courseIds = current.getAvailableCourses(courseLevel);
+        Arrays.sort(courseIds);
+        return courseIds;
+    }
+
+    @Override
+    public int[] listProfessorsWithSpareLoad() {
+        ReportViews current = views;
+        if (current == null) {
+            return new int[0];
+        }
+        int[] memberIds = current.getProfessorsWithSpareLoad();
+        Arrays.sort(memberIds);
+        return memberIds;
+    }
+
+    @Override
+    public String dump() {
+        EnrollmentAggregates current = aggregates;
+        EnrollmentAggregates.Totals totals = current == null ? null : current.recent();
+        long takenSeats = totals == null ? 0 : totals.getTakenSeats();
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "courses=%d members=%d takenSeats=%d fullCourses=%d fill=%.3f%n",
+                getCourses(), getMembers(), takenSeats, totals == null ? 0 : totals.getFullCourses(),
+                fillRatio(takenSeats)));
+        if (totals != null) {
+            text.append(totals);
+            text.append("available courses");
+            getAvailableCourses().forEach((level, count) -> text.append(' ').append(level).append('=').append(count));
+            text.append(" professors with spare load=").append(getProfessorsWithSpareLoad())
+                    .append(System.lineSeparator());
+            text.append("rates per second");
+            getChangeRates().forEach((name, rate) -> text.append(String.format(Locale.ROOT, " %s=%.1f", name, rate)));
+            text.append(System.lineSeparator());
+        }
+        for (Command command : COMMANDS) {
+            long count = commandCounts[command.ordinal()].sum();
+            if (count == 0) {
+                continue;
+            }
+            LatencyHistogram latency = latencies[command.ordinal()];
+            text.append(String.format(Locale.ROOT, "command %s count=%d p50=%.1fus p99=%.1fus p999=%.1fus%n",
+                    nameOf(command), count, latency.valueAtPercentile(50) / 1000.0,
+                    latency.valueAtPercentile(99) / 1000.0, latency.valueAtPercentile(99.9) / 1000.0));
+        }
+        for (Outcome outcome : OUTCOMES) {
+            long count = outcomeCounts[outcome.ordinal()].sum();
+            if (count > 0) {
+                text.append("outcome \"").append(outcome.getMessage()).append("\" ").append(count)
+                        .append(System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    private static double fillRatio(long takenSeats) {
+        long seats = (long) Course.getNumberOfCourses() * Course.getCapacity();
+        return seats == 0 ? 0 : (double) takenSeats / seats;
+    }
+
+    private static String nameOf(Command command) {
+        return command.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,113 @@
+package university;
+
+import java.util.Map;
+
+/**
+ * CommandMetricsMXBean is the JMX view of command metrics. Latencies are
+ * given in microseconds.
+ */
+public interface CommandMetricsMXBean {
+    /**
+     * getCommandCounts returns amount of processed commands of every type
+     * @return map from a command to its amount
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * getOutcomeCounts returns how often every result was printed
+     * @return map from an outcome to its amount
+     */
+    Map<String, Long> getOutcomeCounts();
+
+    /**
+     * getLatencyPercentiles returns p50, p99 and p999 of every command type
+     * @return map from "command.pNN" to microseconds
+     */
+    Map<String, Double> getLatencyPercentiles();
+
+    /**
+     * getCourses returns amount of courses
+     * @return this amount
+     */
+    long getCourses();
+
+    /**
+     * getMembers returns amount of students and professors
+     * @return this amount
+     */
+    long getMembers();
+
+    /**
+     * getTakenSeats returns amount of enrollments in all courses
+     * @return this amount
+     */
+    long getTakenSeats();
+
+    /**
+     * getFullCourses returns amount of courses without free seats
+     * @return this amount
+     */
+    long getFullCourses();
+
+    /**
+     * getSeatFillRatio returns the part of all seats which are taken
+     * @return value from 0 to 1
+     */
+    double getSeatFillRatio();
+
+    /**
+     * getLevelTotals returns courses, taken seats, free seats and full
+     * courses of every course level
+     * @return map from "level.total" to its value
+     */
+    Map<String, Long> getLevelTotals();
+
+    /**
+     * getStudentsByLoad returns amount of students by the amount of courses
+     * they take
+     * @return map from an amount of courses to amount of students
+     */
+    Map<String, Long> getStudentsByLoad();
+
+    /**
+     * getChangeRates returns enrollments, drops and new courses per second
+     * during the last 1, 10 and 60 seconds
+     * @return map from "change.Ns" to changes per second
+     */
+    Map<String, Double> getChangeRates();
+
+    /**
+     * getAvailableCourses returns amount of courses of every level which
+     * have a free seat
+     * @return map from a level to its amount of courses
+     */
+    Map<String, Long> getAvailableCourses();
+
+    /**
+     * getProfessorsWithSpareLoad returns amount of professors who may take
+     * one more course
+     * @return this amount
+     */
+    long getProfessorsWithSpareLoad();
+
+    /**
+     * listAvailableCourses returns IDs of courses of a level which have a
+     * free seat
+     * @param level name of a level in any case
+     * @return IDs in increasing order, empty in case there is no such level
+     */
+    int[] listAvailableCourses(String level);
+
+    /**
+     * listProfessorsWithSpareLoad returns IDs of professors who may take one
+     * more course
+     * @return IDs in increasing order
+     */
+    int[] listProfessorsWithSpareLoad();
+
+    /**
+     * dump returns all metrics as text
+     * @return lines of metrics
+     */
+    String dump();
+}
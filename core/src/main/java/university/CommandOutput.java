@@ -0,0 +1,26 @@
+package university;
+
+/**
+ * CommandOutput receives results of commands, one line per result
+ */
+interface CommandOutput {
+    void println(String line);
+
+    void flush();
+}
+
+/**
+ * ConsoleCommandOutput prints every result to System.out immediately,
+ * it is used in the interactive mode
+ */
+final class ConsoleCommandOutput implements CommandOutput {
+    @Override
+    public void println(String line) {
+        System.out.println(line);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
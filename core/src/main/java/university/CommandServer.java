@@ -0,0 +1,157 @@
+package university;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * CommandServer accepts TCP connections and processes commands of every
+ * connection exactly like the command loop does for System.in: lines are
+ * read in UTF-8, every result is sent back as soon as it is ready, and the
+ * connection is closed after an empty line, at the end of input or after
+ * an error. All connections share the same model through the engine.
+ * Every connection gets its own virtual thread in case the JVM supports
+ * them, otherwise its own platform thread.
+ * A server may also run another loop for its connections, shards use it
+ * for the protocol between a router and shards.
+ */
+final class CommandServer implements Closeable {
+    private static final int INPUT_BUFFER_SIZE = 1 << 13;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newConnectionExecutor();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final BiConsumer<CommandInput, CommandOutput> session;
+    private final Thread acceptor;
+
+    /**
+     * creates a server and binds it to an address
+     * @param address address to listen on, port 0 means any free port
+     * @throws IOException in case the address cannot be used
+     */
+    CommandServer(InetSocketAddress address) throws IOException {
+        this(address, UniversityCourseManagementSystem::processCommands);
+    }
+
+    /**
+     * creates a server which runs its own loop for every connection and
+     * binds it to an address
+     * @param address address to listen on, port 0 means any free port
+     * @param session loop which reads lines of a connection and writes its
+     *                answers
+     * @throws IOException in case the address cannot be used
+     */
+    CommandServer(InetSocketAddress address, BiConsumer<CommandInput, CommandOutput> session) throws IOException {
+        this.session = session;
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address, 1 << 12);
+        acceptor = new Thread(this::acceptConnections, "command-server-acceptor");
+    }
+
+    /**
+     * start begins accepting connections in a background thread
+     */
+    void start() {
+        acceptor.start();
+    }
+
+    /**
+     * getPort returns the port the server listens on
+     * @return this port
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * close stops accepting connections and closes all open ones
+     * @throws IOException in case the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        for (Socket socket : openSockets) {
+            socket.close();
+        }
+        try {
+            acceptor.join();
+            connections.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * awaitTermination blocks until the server is closed
+     * @throws InterruptedException in case the waiting thread is interrupted
+     */
+    void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                continue;
+            }
+            connections.execute(() -> serve(socket));
+        }
+    }
+
+    private void serve(Socket socket) {
+        openSockets.add(socket);
+        try (Socket connection = socket) {
+            connection.setTcpNoDelay(true);
+            CommandInput input = new ChannelCommandInput(Channels.newChannel(connection.getInputStream()),
+                    StandardCharsets.UTF_8, INPUT_BUFFER_SIZE);
+            CommandOutput output = new BatchedCommandOutput(connection.getOutputStream(), StandardCharsets.UTF_8, 1);
+            session.accept(input, output);
+        } catch (SocketException | UncheckedIOException e) {
+            // the client went away, nothing to answer
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor exists only since Java 21
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "command-server-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
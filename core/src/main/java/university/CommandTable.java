@@ -0,0 +1,197 @@
+package university;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CommandTable maps the word of a command to its entry, so the command loop
+ * finds a command with one hash lookup of the line and name checks find
+ * command words with the same lookup, which names of courses and members
+ * must not be.
+ * Commands of the target (course, student, professor, enroll, waitlist,
+ * drop, teach and exempt) are applied by the table itself with a switch
+ * over their kind, so every call of the target has its own call site and
+ * reading and parsing two IDs is shared by all commands about a member and
+ * a course. Other commands are registered with a handler, which reads its
+ * arguments itself.
+ * Commands are registered before commands are read. A registration copies
+ * the map and publishes the copy, so the loops of all connections read a
+ * map which never changes without any lock.
+ */
+final class CommandTable {
+    private static CommandTable instance = withDefaults();
+
+    private volatile Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * creates a table without commands
+     */
+    CommandTable() {
+    }
+
+    /**
+     * withDefaults creates a table with all commands of the task
+     * @return table with course, student, professor, enroll, drop, teach
+     *         and exempt
+     */
+    static CommandTable withDefaults() {
+        CommandTable table = new CommandTable();
+        table.register("course", CommandMetrics.Command.COURSE);
+        table.register("student", CommandMetrics.Command.STUDENT);
+        table.register("professor", CommandMetrics.Command.PROFESSOR);
+        table.register("enroll", CommandMetrics.Command.ENROLL);
+        table.register("drop", CommandMetrics.Command.DROP);
+        table.register("teach", CommandMetrics.Command.TEACH);
+        table.register("exempt", CommandMetrics.Command.EXEMPT);
+        return table;
+    }
+
+    /**
+     * getInstance returns the table which is used by the command loop
+     * @return this table
+     */
+    static CommandTable getInstance() {
+        return instance;
+    }
+
+    /**
+     * setInstance replaces the table which is used by the command loop
+     * @param table new table
+     */
+    static void setInstance(CommandTable table) {
+        instance = table;
+    }
+
+    /**
+     * register adds a command of the target or replaces an existing one,
+     * its word becomes a word which names cannot take
+     * @param word   line which starts the command
+     * @param metric command of the target, not OTHER
+     */
+    void register(String word, CommandMetrics.Command metric) {
+        if (metric == CommandMetrics.Command.OTHER) {
+            throw new IllegalArgumentException("OTHER is not a command of the target");
+        }
+        put(word, new Entry(metric, null));
+    }
+
+    /**
+     * register adds a command which reads its arguments itself or replaces
+     * an existing one, its word becomes a word which names cannot take
+     * @param word    line which starts the command
+     * @param metric  kind of the command in metrics
+     * @param handler handler which reads the arguments and applies the
+     *                command
+     */
+    void register(String word, CommandMetrics.Command metric, CommandHandler handler) {
+        put(word, new Entry(metric, handler));
+    }
+
+    /**
+     * find returns the command of a line
+     * @param word line which may start a command
+     * @return command or null in case no command starts with this line
+     */
+    Entry find(String word) {
+        return entries.get(word);
+    }
+
+    /**
+     * isCommandWord checks whether a line starts a command
+     * @param word line which must be checked
+     * @return true in case it is the word of a command
+     */
+    boolean isCommandWord(String word) {
+        return entries.containsKey(word);
+    }
+
+    private synchronized void put(String word, Entry entry) {
+        Map<String, Entry> copy = new HashMap<>(entries);
+        copy.put(word, entry);
+        entries = copy;
+    }
+
+    /**
+     * Entry is a registered command
+     */
+    static final class Entry {
+        private final CommandMetrics.Command metric;
+        private final CommandHandler handler;
+
+        private Entry(CommandMetrics.Command metric, CommandHandler handler) {
+            this.metric = metric;
+            this.handler = handler;
+        }
+
+        /**
+         * handle reads the arguments of the command and applies it
+         * @param s      source of command lines, the word is already read
+         * @param target target which applies checked commands
+         * @return outcome which is printed as the result
+         */
+        Outcome handle(CommandInput s, CommandTarget target) {
+            if (handler != null) {
+                return handler.handle(s, target);
+            }
+            switch (metric) {
+                case COURSE:
+                    return addCourse(s, target);
+                case STUDENT:
+                    String studentName = UniversityCourseManagementSystem.allowedMemberName(s.nextLine());
+                    return studentName == null ? Outcome.WRONG_INPUTS : target.addStudent(studentName);
+                case PROFESSOR:
+                    String professorName = UniversityCourseManagementSystem.allowedMemberName(s.nextLine());
+                    return professorName == null ? Outcome.WRONG_INPUTS : target.addProfessor(professorName);
+                default:
+                    return applyPair(s, target);
+            }
+        }
+
+        /**
+         * getMetric returns the kind of the command in metrics
+         * @return this kind
+         */
+        CommandMetrics.Command getMetric() {
+            return metric;
+        }
+
+        // reads the name and the level of a new course and creates it
+        private static Outcome addCourse(CommandInput s, CommandTarget target) {
+            String courseName = UniversityCourseManagementSystem.allowedCourseName(s.nextLine());
+            if (courseName == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            CourseLevel courseLevel = NameValidator.toCourseLevel(s.nextLine());
+            if (courseLevel == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+
+            // the target checks that course does not exist
+            return target.addCourse(courseName, courseLevel);
+        }
+
+        // reads a member ID and a course ID, the course line is not read in case the member ID is wrong
+        private Outcome applyPair(CommandInput s, CommandTarget target) {
+            long memberId = UniversityCourseManagementSystem.parseId(s.nextLine());
+            if (memberId == UniversityCourseManagementSystem.INVALID_ID) {
+                return Outcome.WRONG_INPUTS;
+            }
+            long courseId = UniversityCourseManagementSystem.parseId(s.nextLine());
+            if (courseId == UniversityCourseManagementSystem.INVALID_ID) {
+                return Outcome.WRONG_INPUTS;
+            }
+            switch (metric) {
+                case ENROLL:
+                    return target.enroll((int) memberId, (int) courseId);
+                case WAITLIST:
+                    return target.enrollOrWaitlist((int) memberId, (int) courseId);
+                case DROP:
+                    return target.drop((int) memberId, (int) courseId);
+                case TEACH:
+                    return target.teach((int) memberId, (int) courseId);
+                default:
+                    return target.exempt((int) memberId, (int) courseId);
+            }
+        }
+    }
+}
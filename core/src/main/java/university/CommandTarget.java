@@ -0,0 +1,72 @@
+package university;
+
+/**
+ * CommandTarget applies commands which passed the checks of the command
+ * loop: names are valid and IDs are numbers. The loop works the same way
+ * whether changes are applied to the local engine or forwarded to shards.
+ */
+interface CommandTarget {
+    Outcome addCourse(String courseName, CourseLevel courseLevel);
+
+    Outcome addStudent(String memberName);
+
+    Outcome addProfessor(String memberName);
+
+    Outcome enroll(int memberId, int courseId);
+
+    Outcome enrollOrWaitlist(int memberId, int courseId);
+
+    Outcome drop(int memberId, int courseId);
+
+    Outcome teach(int memberId, int courseId);
+
+    Outcome exempt(int memberId, int courseId);
+}
+
+/**
+ * EngineCommandTarget applies commands to the engine of the program, it is
+ * used in every mode except routing to shards
+ */
+final class EngineCommandTarget implements CommandTarget {
+    @Override
+    public Outcome addCourse(String courseName, CourseLevel courseLevel) {
+        return UniversityCourseManagementSystem.getEngine().addCourse(courseName, courseLevel);
+    }
+
+    @Override
+    public Outcome addStudent(String memberName) {
+        UniversityCourseManagementSystem.getEngine().addStudent(memberName);
+        return Outcome.ADDED;
+    }
+
+    @Override
+    public Outcome addProfessor(String memberName) {
+        UniversityCourseManagementSystem.getEngine().addProfessor(memberName);
+        return Outcome.ADDED;
+    }
+
+    @Override
+    public Outcome enroll(int memberId, int courseId) {
+        return UniversityCourseManagementSystem.getEngine().enroll(memberId, courseId);
+    }
+
+    @Override
+    public Outcome enrollOrWaitlist(int memberId, int courseId) {
+        return UniversityCourseManagementSystem.getEngine().enrollOrWaitlist(memberId, courseId);
+    }
+
+    @Override
+    public Outcome drop(int memberId, int courseId) {
+        return UniversityCourseManagementSystem.getEngine().drop(memberId, courseId);
+    }
+
+    @Override
+    public Outcome teach(int memberId, int courseId) {
+        return UniversityCourseManagementSystem.getEngine().teach(memberId, courseId);
+    }
+
+    @Override
+    public Outcome exempt(int memberId, int courseId) {
+        return UniversityCourseManagementSystem.getEngine().exempt(memberId, courseId);
+    }
+}
@@ -0,0 +1,384 @@
+package university;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * EnrollmentAggregates keeps live totals of registration: courses, taken
+ * seats and full courses of every level, students by the amount of courses
+ * they take, and rates of enrollments, drops and new courses. Totals follow
+ * changes of the engine, so they are read without walking courses and
+ * members. Full courses are the courses which are missing from the view of
+ * available courses of ReportViews, which already follows every course
+ * that fills up or gets a free seat.
+ * Counters are striped like the locks of the engine: every course stripe
+ * and every member stripe has its own counters on their own cache lines,
+ * and the engine notifies listeners while the locks of the stripes of a
+ * change are held, as the contract of MutationListener requires. So a
+ * counter has one writer at a time and is updated by a plain store without
+ * an atomic instruction; a caller which notified it without these locks
+ * would lose updates. Changes of different stripes never touch the same
+ * cache line. The same locks guard the small array of loads kept here,
+ * which are not read from the store because listeners of a transaction
+ * hear about its changes only after all of them are applied.
+ * Members which are still pending in a member source are counted from
+ * their rows in the source, so attaching does not load them.
+ * The counters of one change are not updated at once, so read sums them
+ * while changes wait for a moment, as long as it takes to add the counters
+ * of all stripes; rates are read without waiting. Metrics which are polled
+ * value by value take recent totals, which are read at most once a second,
+ * so a poll stops changes once and not for every value.
+ * Rates come from samples of the totals of events, at most one per second
+ * in a ring of the last minute. Reads take a sample and the owner may take
+ * one every second, a rate over some seconds is the difference to the
+ * newest sample which is at least that old.
+ */
+final class EnrollmentAggregates implements MutationListener {
+    /**
+     * Event is a change which has a rate
+     */
+    enum Event {
+        ENROLL,
+        DROP,
+        COURSE
+    }
+
+    private static final CourseLevel[] LEVELS = CourseLevel.values();
+    private static final Event[] EVENTS = Event.values();
+    private static final int BUCKETS = 64;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // counters of a course stripe: courses and taken seats of every level, then events
+    private static final int COURSES = 0;
+    private static final int TAKEN_SEATS = COURSES + LEVELS.length;
+    private static final int EVENT_COUNTS = TAKEN_SEATS + LEVELS.length;
+    // counters of a member stripe are students by load; 16 longs keep stripes on different cache lines
+    private static final int LOADS = Student.MAX_ENROLLMENT + 1;
+    private static final int STRIDE = 16;
+
+    private final EnrollmentEngine engine;
+    private final ReportViews views;
+    private final AtomicLongArray courseCounters = new AtomicLongArray(EnrollmentStore.STRIPES * STRIDE);
+    private final AtomicLongArray memberCounters = new AtomicLongArray(EnrollmentStore.STRIPES * STRIDE);
+    // level + 1 of every course, 0 for IDs of no course
+    private byte[] courseLevels = new byte[16];
+    private byte[] studentLoads = new byte[16];
+
+    private final long startNanos = System.nanoTime();
+    private final long[] sampleSeconds = new long[BUCKETS];
+    private final long[] sampleNanos = new long[BUCKETS];
+    private final long[][] sampleTotals = new long[BUCKETS][EVENTS.length];
+    // the last totals which were read for recent, guarded by recentLock
+    private final Object recentLock = new Object();
+    private Totals recentTotals;
+    private long recentNanos;
+
+    private EnrollmentAggregates(EnrollmentEngine engine, ReportViews views) {
+        this.engine = engine;
+        this.views = views;
+        Arrays.fill(sampleSeconds, -1);
+    }
+
+    /**
+     * attach counts the current state once and follows all changes of the
+     * engine after it, pending members stay in their source
+     * @param engine   engine which applies all changes
+     * @param registry registry of members and courses
+     * @param store    store of enrollments
+     * @return totals of the engine
+     */
+    static EnrollmentAggregates attach(EnrollmentEngine engine, Registry registry, EnrollmentStore store) {
+        EnrollmentAggregates aggregates = new EnrollmentAggregates(engine, ReportViews.getInstance());
+        engine.exclusive(() -> {
+            for (Course course : registry.getCourses()) {
+                aggregates.addCourse(course);
+                int courseId = course.getCourseId();
+                add(aggregates.courseCounters, courseId, TAKEN_SEATS + course.getCourseLevel().ordinal(),
+                        store.countStudents(courseId));
+            }
+            registry.forEachMember(store, (memberId, kind, courseIds) -> {
+                if (kind == MemberTable.STUDENT) {
+                    aggregates.addStudent(memberId);
+                    for (int i = courseIds.length; i > 0; i--) {
+                        aggregates.takeCourse(memberId);
+                    }
+                }
+            });
+            engine.addListener(aggregates);
+        });
+        aggregates.sample();
+        return aggregates;
+    }
+
+    /**
+     * detach stops following changes, totals keep their last values
+     */
+    void detach() {
+        engine.removeListener(this);
+    }
+
+    @Override
+    public void courseAdded(Course course) {
+        addCourse(course);
+        add(courseCounters, course.getCourseId(), EVENT_COUNTS + Event.COURSE.ordinal(), 1);
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        addStudent(student.getMemberId());
+    }
+
+    // the caller holds the locks of the course stripe and of the member stripe, the only writers of their counters
+    @Override
+    public void enrolled(int memberId, int courseId) {
+        add(courseCounters, courseId, TAKEN_SEATS + courseLevels[courseId] - 1, 1);
+        takeCourse(memberId);
+        add(courseCounters, courseId, EVENT_COUNTS + Event.ENROLL.ordinal(), 1);
+    }
+
+    // the same locks as for enrolled are held
+    @Override
+    public void dropped(int memberId, int courseId) {
+        add(courseCounters, courseId, TAKEN_SEATS + courseLevels[courseId] - 1, -1);
+        int load = studentLoads[memberId]--;
+        add(memberCounters, memberId, load, -1);
+        add(memberCounters, memberId, load - 1, 1);
+        add(courseCounters, courseId, EVENT_COUNTS + Event.DROP.ordinal(), 1);
+    }
+
+    /**
+     * read returns all totals as they are between two changes. Changes wait
+     * while the counters are summed.
+     * @return these totals
+     */
+    Totals read() {
+        long[][] values = new long[3][LEVELS.length];
+        long[] loads = new long[LOADS];
+        engine.exclusive(() -> {
+            for (int i = 0; i < LEVELS.length; i++) {
+                values[0][i] = sum(courseCounters, COURSES + i);
+                values[1][i] = sum(courseCounters, TAKEN_SEATS + i);
+                values[2][i] = values[0][i] - views.countAvailableCourses(LEVELS[i]);
+            }
+            for (int i = 0; i < LOADS; i++) {
+                loads[i] = sum(memberCounters, i);
+            }
+        });
+        return new Totals(values[0], values[1], values[2], loads);
+    }
+
+    /**
+     * recent returns totals which were read less than a second ago, or
+     * reads them again
+     * @return these totals
+     */
+    Totals recent() {
+        return recent(System.nanoTime());
+    }
+
+    /**
+     * recent returns totals which were read less than a second before the
+     * given time, or reads them again
+     * @param now current value of System.nanoTime
+     * @return these totals
+     */
+    Totals recent(long now) {
+        synchronized (recentLock) {
+            if (recentTotals == null || now - recentNanos >= SECOND) {
+                recentTotals = read();
+                recentNanos = now;
+            }
+            return recentTotals;
+        }
+    }
+
+    /**
+     * sample keeps the current totals of events for rates, the first sample
+     * of every second is kept. The owner calls it every second in case rates
+     * must be exact while nobody reads them.
+     */
+    void sample() {
+        sample(System.nanoTime());
+    }
+
+    /**
+     * rate returns how many events of a kind happened per second during the
+     * last seconds. In case there is no sample so old, the rate is counted
+     * since the oldest sample.
+     * @param event   kind of events
+     * @param seconds length of the period, at most a minute
+     * @return events per second, 0 in case there is no earlier sample
+     */
+    double rate(Event event, int seconds) {
+        long now = System.nanoTime();
+        sample(now);
+        long total = sum(courseCounters, EVENT_COUNTS + event.ordinal());
+        synchronized (sampleTotals) {
+            int found = -1;
+            int oldest = -1;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (sampleSeconds[i] < 0) {
+                    continue;
+                }
+                if (now - sampleNanos[i] >= seconds * SECOND
+                        && (found < 0 || sampleNanos[i] - sampleNanos[found] > 0)) {
+                    found = i;
+                }
+                if (oldest < 0 || sampleNanos[i] - sampleNanos[oldest] < 0) {
+                    oldest = i;
+                }
+            }
+            int base = found >= 0 ? found : oldest;
+            long elapsed = now - sampleNanos[base];
+            return elapsed <= 0 ? 0 : (total - sampleTotals[base][event.ordinal()]) * (double) SECOND / elapsed;
+        }
+    }
+
+    private void sample(long now) {
+        long second = (now - startNanos) / SECOND;
+        int bucket = (int) (second % BUCKETS);
+        synchronized (sampleTotals) {
+            if (sampleSeconds[bucket] == second) {
+                return;
+            }
+            sampleSeconds[bucket] = second;
+            sampleNanos[bucket] = now;
+            for (int i = 0; i < EVENTS.length; i++) {
+                sampleTotals[bucket][i] = sum(courseCounters, EVENT_COUNTS + i);
+            }
+        }
+    }
+
+    private void addCourse(Course course) {
+        int courseId = course.getCourseId();
+        if (courseId >= courseLevels.length) {
+            int capacity = Math.max(courseLevels.length << 1, courseId + 1);
+            courseLevels = Arrays.copyOf(courseLevels, capacity);
+        }
+        courseLevels[courseId] = (byte) (course.getCourseLevel().ordinal() + 1);
+        add(courseCounters, courseId, COURSES + course.getCourseLevel().ordinal(), 1);
+    }
+
+    private void addStudent(int memberId) {
+        if (memberId >= studentLoads.length) {
+            studentLoads = Arrays.copyOf(studentLoads, Math.max(studentLoads.length << 1, memberId + 1));
+        }
+        add(memberCounters, memberId, 0, 1);
+    }
+
+    private void takeCourse(int memberId) {
+        int load = studentLoads[memberId]++;
+        add(memberCounters, memberId, load, -1);
+        add(memberCounters, memberId, load + 1, 1);
+    }
+
+    // the caller holds the lock of the stripe of the ID, so it is the only writer of the counter
+    private static void add(AtomicLongArray counters, int id, int counter, long delta) {
+        int index = EnrollmentStore.stripeOf(id) * STRIDE + counter;
+        counters.setRelease(index, counters.getPlain(index) + delta);
+    }
+
+    private static long sum(AtomicLongArray counters, int counter) {
+        long total = 0;
+        for (int stripe = 0; stripe < EnrollmentStore.STRIPES; stripe++) {
+            total += counters.getAcquire(stripe * STRIDE + counter);
+        }
+        return total;
+    }
+
+    /**
+     * Totals are the values of all counters at one moment
+     */
+    static final class Totals {
+        private final long[] courses;
+        private final long[] takenSeats;
+        private final long[] fullCourses;
+        private final long[] studentsByLoad;
+
+        private Totals(long[] courses, long[] takenSeats, long[] fullCourses, long[] studentsByLoad) {
+            this.courses = courses;
+            this.takenSeats = takenSeats;
+            this.fullCourses = fullCourses;
+            this.studentsByLoad = studentsByLoad;
+        }
+
+        /**
+         * getCourses returns amount of courses of a level
+         * @param courseLevel level of courses
+         * @return this amount
+         */
+        long getCourses(CourseLevel courseLevel) {
+            return courses[courseLevel.ordinal()];
+        }
+
+        /**
+         * getTakenSeats returns amount of enrollments in courses of a level
+         * @param courseLevel level of courses
+         * @return this amount
+         */
+        long getTakenSeats(CourseLevel courseLevel) {
+            return takenSeats[courseLevel.ordinal()];
+        }
+
+        /**
+         * getFreeSeats returns amount of free seats in courses of a level
+         * @param courseLevel level of courses
+         * @return this amount
+         */
+        long getFreeSeats(CourseLevel courseLevel) {
+            return getCourses(courseLevel) * Course.getCapacity() - getTakenSeats(courseLevel);
+        }
+
+        /**
+         * getFullCourses returns amount of courses of a level without free
+         * seats
+         * @param courseLevel level of courses
+         * @return this amount
+         */
+        long getFullCourses(CourseLevel courseLevel) {
+            return fullCourses[courseLevel.ordinal()];
+        }
+
+        /**
+         * getStudentsTaking returns amount of students who take the given
+         * amount of courses
+         * @param load amount of courses, from 0 to the maximum enrollment
+         * @return amount of such students
+         */
+        long getStudentsTaking(int load) {
+            return studentsByLoad[load];
+        }
+
+        /**
+         * getTakenSeats returns amount of enrollments in all courses
+         * @return this amount
+         */
+        long getTakenSeats() {
+            return Arrays.stream(takenSeats).sum();
+        }
+
+        /**
+         * getFullCourses returns amount of courses without free seats
+         * @return this amount
+         */
+        long getFullCourses() {
+            return Arrays.stream(fullCourses).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (CourseLevel level : LEVELS) {
+                text.append(String.format(Locale.ROOT, "%s courses=%d takenSeats=%d freeSeats=%d fullCourses=%d%n",
+                        level.name().toLowerCase(Locale.ROOT), getCourses(level), getTakenSeats(level),
+                        getFreeSeats(level), getFullCourses(level)));
+            }
+            text.append("students by courses");
+            for (int load = 0; load < studentsByLoad.length; load++) {
+                text.append(' ').append(load).append('=').append(studentsByLoad[load]);
+            }
+            return text.append(System.lineSeparator()).toString();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package university;
+
+import java.util.Arrays;
+
+/**
+ * EnrollmentBatch is a list of enrollments and drops which are applied by
+ * the engine with one call. Entries are kept in primitive arrays, so a batch
+ * of hundreds of thousands of entries does not create an object per entry.
+ */
+final class EnrollmentBatch {
+    /**
+     * Operation is a change which is applied to a pair of a student and a course
+     */
+    enum Operation {
+        ENROLL,
+        DROP
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] memberIds;
+    private int[] courseIds;
+    private byte[] operations;
+    private int size;
+
+    /**
+     * creates an empty batch with a default capacity
+     */
+    EnrollmentBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * creates an empty batch with the given capacity
+     * @param capacity amount of entries which fit without resizing
+     */
+    EnrollmentBatch(int capacity) {
+        int initial = Math.max(1, capacity);
+        memberIds = new int[initial];
+        courseIds = new int[initial];
+        operations = new byte[initial];
+    }
+
+    /**
+     * add appends an entry to the batch
+     * @param memberId  ID of a student
+     * @param courseId  ID of a course
+     * @param operation change which must be applied
+     * @return index of the entry, results of the batch have the same index
+     */
+    int add(int memberId, int courseId, Operation operation) {
+        if (size == memberIds.length) {
+            int capacity = size << 1;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            operations = Arrays.copyOf(operations, capacity);
+        }
+        memberIds[size] = memberId;
+        courseIds[size] = courseId;
+        operations[size] = (byte) operation.ordinal();
+        return size++;
+    }
+
+    /**
+     * size returns amount of entries
+     * @return this amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * memberIdAt returns ID of a student of an entry
+     * @param index index of an entry
+     * @return ID of a student
+     */
+    int memberIdAt(int index) {
+        return memberIds[index];
+    }
+
+    /**
+     * courseIdAt returns ID of a course of an entry
+     * @param index index of an entry
+     * @return ID of a course
+     */
+    int courseIdAt(int index) {
+        return courseIds[index];
+    }
+
+    /**
+     * operationAt returns the change of an entry
+     * @param index index of an entry
+     * @return this change
+     */
+    Operation operationAt(int index) {
+        return OPERATIONS[operations[index]];
+    }
+}
@@ -0,0 +1,987 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * EnrollmentEngine applies changes to the registry and the enrollment store
+ * and can be used by many threads at once.
+ * Creation of members and courses changes indexes, so it takes the write
+ * lock and runs alone. Enroll and drop take the read lock, then the lock of
+ * the course stripe and then the lock of the student stripe, and do all
+ * checks and the change while holding them. So the capacity of a course,
+ * the enrollment limit of a student and duplicates are checked atomically,
+ * and commands for courses from different stripes run in parallel.
+ * Teach and exempt change only the professor, so they take the read lock
+ * and the lock of the professor stripe.
+ * Enroll and teach reject a course which meets at the same time as another
+ * course of the member; the timetable of a member is changed only under
+ * the lock of its stripe.
+ * A student may wait for a seat of a full course in its waitlist. When a
+ * drop frees a seat, the lock of the dropped student is released and the
+ * head of the waitlist is enrolled under the same course lock, so no other
+ * enrollment can take the seat in between.
+ * A batch of enrollments and drops is split into rounds in which no student
+ * repeats, each round is grouped by course and takes the lock of each course
+ * once for all its entries; results are those of single calls in the order
+ * of the batch.
+ * A transaction locks the stripes of all its courses and members at once,
+ * course stripes first and each kind in increasing order, and undoes its
+ * changes in case one of them fails.
+ * Locks are always taken in this order: course, then member.
+ * Listeners are notified about every successful change while its locks are
+ * held, and once more after they are released.
+ * A member which is still pending in a member source of the registry is
+ * added to it under the write lock the first time a change touches it.
+ */
+final class EnrollmentEngine {
+    // rounds of tries before a transaction waits for its locks in order; it keeps the stripes it locks as bits
+    // of a long, so EnrollmentStore.STRIPES must not be larger than 64
+    private static final int TRY_LOCK_ROUNDS = 8;
+
+    private final Registry registry;
+    private final EnrollmentStore store;
+    private final StampedLock structureLock = new StampedLock();
+    private final ReentrantLock[] courseLocks = new ReentrantLock[EnrollmentStore.STRIPES];
+    private final ReentrantLock[] memberLocks = new ReentrantLock[EnrollmentStore.STRIPES];
+    private final Waitlists waitlists = new Waitlists();
+    private volatile MutationListener[] listeners = new MutationListener[0];
+
+    /**
+     * creates an engine
+     * @param registry registry of members and courses
+     * @param store    store of enrollments
+     */
+    EnrollmentEngine(Registry registry, EnrollmentStore store) {
+        this.registry = registry;
+        this.store = store;
+        for (int i = 0; i < EnrollmentStore.STRIPES; i++) {
+            courseLocks[i] = new ReentrantLock();
+            memberLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * addListener subscribes a listener to all following changes
+     * @param listener listener which must be notified
+     */
+    synchronized void addListener(MutationListener listener) {
+        MutationListener[] current = listeners;
+        MutationListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * removeListener unsubscribes a listener
+     * @param listener listener which must not be notified anymore
+     */
+    synchronized void removeListener(MutationListener listener) {
+        listeners = Arrays.stream(listeners).filter(current -> current != listener)
+                .toArray(MutationListener[]::new);
+    }
+
+    /**
+     * addCourse creates a course in case there is no course with such name
+     * @param courseName  valid name of a course
+     * @param courseLevel level of a course
+     * @return ADDED or COURSE_EXISTS
+     */
+    Outcome addCourse(String courseName, CourseLevel courseLevel) {
+        return addCourse(courseName, courseLevel, Collections.emptyList());
+    }
+
+    /**
+     * addCourse creates a course which meets at given weekly times in case
+     * there is no course with such name
+     * @param courseName  valid name of a course
+     * @param courseLevel level of a course
+     * @param timeSlots   weekly meeting times of a course, may be empty
+     * @return ADDED or COURSE_EXISTS
+     */
+    Outcome addCourse(String courseName, CourseLevel courseLevel, List<TimeSlot> timeSlots) {
+        long stamp = structureLock.writeLock();
+        try {
+            if (registry.findCourseByName(courseName) != null) {
+                return Outcome.COURSE_EXISTS;
+            }
+            Course course = new Course(courseName, courseLevel, timeSlots);
+            registry.addCourse(course);
+            for (MutationListener listener : listeners) {
+                listener.courseAdded(course);
+            }
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        return committed(Outcome.ADDED);
+    }
+
+    /**
+     * addStudent creates a student with the next member ID
+     * @param memberName valid name of a student
+     * @return new student
+     */
+    Student addStudent(String memberName) {
+        Student student;
+        long stamp = structureLock.writeLock();
+        try {
+            student = new Student(memberName);
+            registry.addStudent(student);
+            for (MutationListener listener : listeners) {
+                listener.studentAdded(student);
+            }
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        committed(Outcome.ADDED);
+        return student;
+    }
+
+    /**
+     * addProfessor creates a professor with the next member ID
+     * @param memberName valid name of a professor
+     * @return new professor
+     */
+    Professor addProfessor(String memberName) {
+        Professor professor;
+        long stamp = structureLock.writeLock();
+        try {
+            professor = new Professor(memberName);
+            registry.addProfessor(professor);
+            for (MutationListener listener : listeners) {
+                listener.professorAdded(professor);
+            }
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        committed(Outcome.ADDED);
+        return professor;
+    }
+
+    /**
+     * addAll runs an action which creates many courses and members with IDs
+     * it chooses itself. The action runs alone like exclusive and must pass
+     * every created course and member to the given listener, which adds it
+     * to the registry and notifies listeners of the engine. committed is
+     * called once after the lock is released in case anything was created.
+     * @param action action which creates courses and members, it returns
+     *               true in case anything was created
+     */
+    void addAll(Predicate<MutationListener> action) {
+        boolean added;
+        long stamp = structureLock.writeLock();
+        try {
+            added = action.test(new MutationListener() {
+                @Override
+                public void courseAdded(Course course) {
+                    registry.addCourse(course);
+                    for (MutationListener listener : listeners) {
+                        listener.courseAdded(course);
+                    }
+                }
+
+                @Override
+                public void studentAdded(Student student) {
+                    registry.addStudent(student);
+                    for (MutationListener listener : listeners) {
+                        listener.studentAdded(student);
+                    }
+                }
+
+                @Override
+                public void professorAdded(Professor professor) {
+                    registry.addProfessor(professor);
+                    for (MutationListener listener : listeners) {
+                        listener.professorAdded(professor);
+                    }
+                }
+            });
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        if (added) {
+            notifyCommitted();
+        }
+    }
+
+    /**
+     * teachAll runs an action which assigns many professors to courses at
+     * once. The action runs alone like exclusive, so it sees the state which
+     * its assignments change, and must pass every assignment to the given
+     * listener, which makes the professor teach the course and notifies
+     * listeners of the engine. The action checks assignments itself.
+     * committed is called once after the lock is released in case anything
+     * was assigned.
+     * @param action action which assigns professors, it returns true in case
+     *               anything was assigned
+     */
+    void teachAll(Predicate<MutationListener> action) {
+        boolean assigned;
+        long stamp = structureLock.writeLock();
+        try {
+            assigned = action.test(new MutationListener() {
+                @Override
+                public void assigned(int memberId, int courseId) {
+                    registry.findProfessor(memberId).teach(registry.findCourse(courseId));
+                    for (MutationListener listener : listeners) {
+                        listener.assigned(memberId, courseId);
+                    }
+                }
+            });
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        if (assigned) {
+            notifyCommitted();
+        }
+    }
+
+    /**
+     * enroll adds a student to a course in case all conditions are satisfied.
+     * Conditions are checked in the same order as in the command loop.
+     * @param memberId ID of a student
+     * @param courseId ID of a course
+     * @return ENROLLED or the reason why the student was not enrolled
+     */
+    Outcome enroll(int memberId, int courseId) {
+        return committed(applyEnroll(memberId, courseId, true, false));
+    }
+
+    /**
+     * enroll adds a student to a course like enroll, but the enrollment
+     * limit of the student is decided by the caller, for example by the
+     * shard which keeps the student while this engine keeps only some of
+     * its courses. The local count of courses is still checked.
+     * @param memberId    ID of a student
+     * @param courseId    ID of a course
+     * @param withinLimit false in case the student cannot take one more
+     *                    course
+     * @return ENROLLED or the reason why the student was not enrolled
+     */
+    Outcome enroll(int memberId, int courseId, boolean withinLimit) {
+        return committed(applyEnroll(memberId, courseId, withinLimit, false));
+    }
+
+    /**
+     * enrollOrWaitlist enrolls a student like enroll, but in case the course
+     * is full the student is put to the end of its waitlist and is enrolled
+     * automatically when a seat is free
+     * @param memberId ID of a student
+     * @param courseId ID of a course
+     * @return ENROLLED, WAITLISTED or the reason why the student was neither
+     *         enrolled nor waitlisted
+     */
+    Outcome enrollOrWaitlist(int memberId, int courseId) {
+        return committed(applyEnroll(memberId, courseId, true, true));
+    }
+
+    /**
+     * waitlistPosition returns the place of a student in the waitlist of a course
+     * @param memberId ID of a student
+     * @param courseId ID of a course
+     * @return 1 for the next student who gets a seat and so on, 0 in case the
+     *         student is not in this waitlist
+     */
+    int waitlistPosition(int memberId, int courseId) {
+        long stamp = structureLock.readLock();
+        try {
+            ReentrantLock courseLock = courseLocks[EnrollmentStore.stripeOf(courseId)];
+            courseLock.lock();
+            try {
+                return waitlists.position(memberId, courseId);
+            } finally {
+                courseLock.unlock();
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    private Outcome applyEnroll(int memberId, int courseId, boolean withinLimit, boolean waitlist) {
+        long stamp = readLockLoaded(memberId);
+        try {
+            Student student = registry.findStudent(memberId);
+            if (student == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            Course course = registry.findCourse(courseId);
+            if (course == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            ReentrantLock courseLock = courseLocks[EnrollmentStore.stripeOf(courseId)];
+            ReentrantLock memberLock = memberLocks[EnrollmentStore.stripeOf(memberId)];
+            courseLock.lock();
+            memberLock.lock();
+            try {
+                Outcome outcome = enrollLocked(student, course, withinLimit);
+                if (outcome == Outcome.COURSE_FULL && waitlist) {
+                    if (!waitlists.join(memberId, courseId)) {
+                        return Outcome.ALREADY_WAITLISTED;
+                    }
+                    for (MutationListener listener : listeners) {
+                        listener.waitlisted(memberId, courseId);
+                    }
+                    return Outcome.WAITLISTED;
+                }
+                return outcome;
+            } finally {
+                memberLock.unlock();
+                courseLock.unlock();
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * drop removes a student from a course
+     * @param memberId ID of a student
+     * @param courseId ID of a course
+     * @return DROPPED or the reason why the student was not dropped
+     */
+    Outcome drop(int memberId, int courseId) {
+        return committed(applyDrop(memberId, courseId));
+    }
+
+    private Outcome applyDrop(int memberId, int courseId) {
+        long stamp = readLockLoaded(memberId);
+        try {
+            Course course = registry.findCourse(courseId);
+            if (registry.findStudent(memberId) == null || course == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            ReentrantLock courseLock = courseLocks[EnrollmentStore.stripeOf(courseId)];
+            ReentrantLock memberLock = memberLocks[EnrollmentStore.stripeOf(memberId)];
+            courseLock.lock();
+            try {
+                Outcome outcome;
+                memberLock.lock();
+                try {
+                    outcome = dropLocked(memberId, courseId);
+                } finally {
+                    memberLock.unlock();
+                }
+                if (outcome == Outcome.DROPPED) {
+                    promoteLocked(course);
+                }
+                return outcome;
+            } finally {
+                courseLock.unlock();
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    // checks and applies an enrollment while the locks of the course and the student are held
+    private Outcome enrollLocked(Student student, Course course, boolean withinLimit) {
+        int memberId = student.getMemberId();
+        int courseId = course.getCourseId();
+        Outcome refusal = refuseEnroll(student, course, withinLimit);
+        if (refusal != null) {
+            return refusal;
+        }
+        store.enroll(memberId, courseId);
+        for (MutationListener listener : listeners) {
+            listener.enrolled(memberId, courseId);
+        }
+        return Outcome.ENROLLED;
+    }
+
+    // returns the reason why a student cannot be enrolled or null in case it can
+    private Outcome refuseEnroll(Student student, Course course, boolean withinLimit) {
+        int memberId = student.getMemberId();
+        int courseId = course.getCourseId();
+        if (store.isEnrolled(memberId, courseId)) {
+            return Outcome.ALREADY_ENROLLED;
+        }
+        if (!withinLimit || store.countCourses(memberId) == student.getMaxEnrollment()) {
+            return Outcome.MAX_ENROLLMENT_REACHED;
+        }
+        if (Timetable.getInstance().conflicts(memberId, courseId)) {
+            return Outcome.TIME_CONFLICT;
+        }
+        if (course.isFull()) {
+            return Outcome.COURSE_FULL;
+        }
+        return null;
+    }
+
+    // applies a drop while the locks of the course and the student are held
+    private Outcome dropLocked(int memberId, int courseId) {
+        if (!store.drop(memberId, courseId)) {
+            return Outcome.NOT_ENROLLED;
+        }
+        for (MutationListener listener : listeners) {
+            listener.dropped(memberId, courseId);
+        }
+        return Outcome.DROPPED;
+    }
+
+    // enrolls students from the head of the waitlist while the course has
+    // free seats, only the lock of the course is held. Students who cannot
+    // be enrolled anymore leave the waitlist.
+    private void promoteLocked(Course course) {
+        int courseId = course.getCourseId();
+        while (!course.isFull()) {
+            int memberId = waitlists.poll(courseId);
+            if (memberId == 0) {
+                return;
+            }
+            ReentrantLock memberLock = memberLocks[EnrollmentStore.stripeOf(memberId)];
+            memberLock.lock();
+            try {
+                enrollLocked(registry.findStudent(memberId), course, true);
+            } finally {
+                memberLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * apply enrolls and drops all entries of a batch. Every ID is resolved
+     * once, then entries are split into rounds: an entry goes to a later
+     * round than the previous entry of its student and not to an earlier
+     * round than the previous entry of its course, and a drop from a course
+     * with a waitlist gets a round of its own, because its promotion may
+     * change any student. Inside a round entries are grouped by course and
+     * every course is locked once for all its entries. Entries which share a
+     * student or a course are applied in the order of the batch, so results
+     * are the same as of single calls in the order of the batch. Listeners
+     * see every change, committed is called once for the whole batch.
+     * @param batch entries which must be applied
+     * @return result of every entry with the index of the entry
+     */
+    Outcome[] apply(EnrollmentBatch batch) {
+        int size = batch.size();
+        Outcome[] results = new Outcome[size];
+        Student[] students = new Student[size];
+        int[] rounds = new int[size];
+        int roundCount = 0;
+        boolean changed = false;
+        long stamp = readLockLoaded(size, batch::memberIdAt);
+        try {
+            LongIntMap memberRounds = new LongIntMap(-1);
+            LongIntMap courseRounds = new LongIntMap(-1);
+            int floor = 0;
+            for (int i = 0; i < size; i++) {
+                int memberId = batch.memberIdAt(i);
+                int courseId = batch.courseIdAt(i);
+                students[i] = registry.findStudent(memberId);
+                if (students[i] == null) {
+                    results[i] = Outcome.WRONG_INPUTS;
+                    rounds[i] = -1;
+                    continue;
+                }
+                int round = Math.max(floor, Math.max(memberRounds.get(memberId) + 1, courseRounds.get(courseId)));
+                if (batch.operationAt(i) == EnrollmentBatch.Operation.DROP && waitlists.length(courseId) > 0) {
+                    round = Math.max(round, roundCount);
+                    floor = round + 1;
+                }
+                rounds[i] = round;
+                memberRounds.put(memberId, round);
+                courseRounds.put(courseId, round);
+                roundCount = Math.max(roundCount, round + 1);
+            }
+
+            // entries sorted by round, inside a round in the order of the batch
+            int[] starts = new int[roundCount + 1];
+            for (int i = 0; i < size; i++) {
+                if (rounds[i] >= 0) {
+                    starts[rounds[i] + 1]++;
+                }
+            }
+            for (int r = 0; r < roundCount; r++) {
+                starts[r + 1] += starts[r];
+            }
+            long[] order = new long[starts[roundCount]];
+            int[] next = Arrays.copyOf(starts, roundCount);
+            for (int i = 0; i < size; i++) {
+                if (rounds[i] >= 0) {
+                    order[next[rounds[i]]++] = ((long) batch.courseIdAt(i) << 32) | i;
+                }
+            }
+            for (int r = 0; r < roundCount; r++) {
+                changed |= applyRound(batch, order, starts[r], starts[r + 1], students, results);
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+        if (changed) {
+            notifyCommitted();
+        }
+        return results;
+    }
+
+    // applies entries of one round grouped by course, returns true in case anything changed
+    private boolean applyRound(EnrollmentBatch batch, long[] order, int from, int to, Student[] students,
+            Outcome[] results) {
+        Arrays.sort(order, from, to);
+        boolean changed = false;
+        int start = from;
+        while (start < to) {
+            int courseId = (int) (order[start] >> 32);
+            int end = start + 1;
+            while (end < to && (int) (order[end] >> 32) == courseId) {
+                end++;
+            }
+            Course course = registry.findCourse(courseId);
+            if (course == null) {
+                for (int k = start; k < end; k++) {
+                    results[(int) order[k]] = Outcome.WRONG_INPUTS;
+                }
+            } else {
+                changed |= applyGroup(batch, order, start, end, students, course, results);
+            }
+            start = end;
+        }
+        return changed;
+    }
+
+    // applies entries of one course under its lock, returns true in case anything changed
+    private boolean applyGroup(EnrollmentBatch batch, long[] order, int start, int end, Student[] students,
+            Course course, Outcome[] results) {
+        boolean changed = false;
+        int courseId = course.getCourseId();
+        ReentrantLock courseLock = courseLocks[EnrollmentStore.stripeOf(courseId)];
+        courseLock.lock();
+        try {
+            for (int k = start; k < end; k++) {
+                int index = (int) order[k];
+                int memberId = batch.memberIdAt(index);
+                ReentrantLock memberLock = memberLocks[EnrollmentStore.stripeOf(memberId)];
+                memberLock.lock();
+                try {
+                    results[index] = batch.operationAt(index) == EnrollmentBatch.Operation.ENROLL
+                            ? enrollLocked(students[index], course, true)
+                            : dropLocked(memberId, courseId);
+                } finally {
+                    memberLock.unlock();
+                }
+                if (results[index] == Outcome.DROPPED) {
+                    promoteLocked(course);
+                }
+                changed |= results[index].isSuccess();
+            }
+        } finally {
+            courseLock.unlock();
+        }
+        return changed;
+    }
+
+    /**
+     * commit applies all changes of a transaction or none of them. Only the
+     * stripes of its courses and members are locked, other commands go on in
+     * parallel. The locks are tried without waiting, in the usual order; in
+     * case one is busy all taken locks are released and the transaction waits
+     * for the busy one alone before it tries again, so it never blocks other
+     * commands while it waits. Changes are checked like single commands and
+     * applied one by one; after the first failure the applied ones are undone
+     * in reverse order. Listeners see the changes only when all of them were
+     * applied, and waitlists of courses with drops are promoted after that.
+     * @param transaction changes which must be applied
+     * @return committed or the change which failed and the reason
+     */
+    EnrollmentTransaction.Result commit(EnrollmentTransaction transaction) {
+        int size = transaction.size();
+        UniversityMember[] members = new UniversityMember[size];
+        Course[] courses = new Course[size];
+        long stamp = readLockLoaded(size, transaction::memberIdAt);
+        try {
+            long courseStripes = 0;
+            long memberStripes = 0;
+            for (int i = 0; i < size; i++) {
+                int memberId = transaction.memberIdAt(i);
+                int courseId = transaction.courseIdAt(i);
+                EnrollmentTransaction.Operation operation = transaction.operationAt(i);
+                boolean ofStudent = operation == EnrollmentTransaction.Operation.ENROLL
+                        || operation == EnrollmentTransaction.Operation.DROP;
+                members[i] = ofStudent ? registry.findStudent(memberId) : registry.findProfessor(memberId);
+                courses[i] = registry.findCourse(courseId);
+                if (members[i] == null || courses[i] == null) {
+                    return EnrollmentTransaction.Result.rolledBack(i, Outcome.WRONG_INPUTS);
+                }
+                if (ofStudent) {
+                    courseStripes |= 1L << EnrollmentStore.stripeOf(courseId);
+                }
+                memberStripes |= 1L << EnrollmentStore.stripeOf(memberId);
+            }
+            lockStripes(courseStripes, memberStripes);
+            try {
+                try {
+                    for (int i = 0; i < size; i++) {
+                        Outcome outcome = applyUnnotified(transaction, i, members[i], courses[i]);
+                        if (!outcome.isSuccess()) {
+                            for (int k = i - 1; k >= 0; k--) {
+                                undo(transaction, k, members[k], courses[k]);
+                            }
+                            return EnrollmentTransaction.Result.rolledBack(i, outcome);
+                        }
+                    }
+                    for (int i = 0; i < size; i++) {
+                        notifyApplied(transaction, i);
+                    }
+                } finally {
+                    unlockStripes(memberLocks, memberStripes);
+                }
+                for (int i = 0; i < size; i++) {
+                    if (transaction.operationAt(i) == EnrollmentTransaction.Operation.DROP) {
+                        promoteLocked(courses[i]);
+                    }
+                }
+            } finally {
+                unlockStripes(courseLocks, courseStripes);
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+        if (size > 0) {
+            notifyCommitted();
+        }
+        return EnrollmentTransaction.Result.committed();
+    }
+
+    // applies one change of a transaction like the single command, listeners are told later
+    private Outcome applyUnnotified(EnrollmentTransaction transaction, int index, UniversityMember member,
+            Course course) {
+        int memberId = transaction.memberIdAt(index);
+        int courseId = course.getCourseId();
+        Outcome refusal;
+        switch (transaction.operationAt(index)) {
+            case ENROLL:
+                refusal = refuseEnroll((Student) member, course, true);
+                if (refusal != null) {
+                    return refusal;
+                }
+                store.enroll(memberId, courseId);
+                return Outcome.ENROLLED;
+            case DROP:
+                return store.drop(memberId, courseId) ? Outcome.DROPPED : Outcome.NOT_ENROLLED;
+            case TEACH:
+                refusal = refuseTeach((Professor) member, course, true);
+                if (refusal != null) {
+                    return refusal;
+                }
+                ((Professor) member).teach(course);
+                return Outcome.ASSIGNED;
+            default:
+                return ((Professor) member).exempt(course) ? Outcome.EXEMPTED : Outcome.NOT_TEACHING;
+        }
+    }
+
+    // reverts one applied change of a transaction
+    private void undo(EnrollmentTransaction transaction, int index, UniversityMember member, Course course) {
+        int memberId = transaction.memberIdAt(index);
+        int courseId = course.getCourseId();
+        switch (transaction.operationAt(index)) {
+            case ENROLL:
+                store.drop(memberId, courseId);
+                break;
+            case DROP:
+                store.enroll(memberId, courseId);
+                break;
+            case TEACH:
+                ((Professor) member).exempt(course);
+                break;
+            default:
+                ((Professor) member).teach(course);
+                break;
+        }
+    }
+
+    private void notifyApplied(EnrollmentTransaction transaction, int index) {
+        int memberId = transaction.memberIdAt(index);
+        int courseId = transaction.courseIdAt(index);
+        EnrollmentTransaction.Operation operation = transaction.operationAt(index);
+        for (MutationListener listener : listeners) {
+            switch (operation) {
+                case ENROLL:
+                    listener.enrolled(memberId, courseId);
+                    break;
+                case DROP:
+                    listener.dropped(memberId, courseId);
+                    break;
+                case TEACH:
+                    listener.assigned(memberId, courseId);
+                    break;
+                default:
+                    listener.exempted(memberId, courseId);
+                    break;
+            }
+        }
+    }
+
+    // takes the locks of the given stripes, course stripes first and each kind in increasing order, a set bit
+    // is a stripe. After TRY_LOCK_ROUNDS rounds with a busy lock the locks are taken by waiting in this order.
+    private void lockStripes(long courseStripes, long memberStripes) {
+        for (int round = 0; round < TRY_LOCK_ROUNDS; round++) {
+            ReentrantLock busy = tryLockStripes(courseLocks, courseStripes);
+            if (busy == null) {
+                busy = tryLockStripes(memberLocks, memberStripes);
+                if (busy == null) {
+                    return;
+                }
+                unlockStripes(courseLocks, courseStripes);
+            }
+            busy.lock();
+            busy.unlock();
+        }
+        for (long rest = courseStripes; rest != 0; rest &= rest - 1) {
+            courseLocks[Long.numberOfTrailingZeros(rest)].lock();
+        }
+        for (long rest = memberStripes; rest != 0; rest &= rest - 1) {
+            memberLocks[Long.numberOfTrailingZeros(rest)].lock();
+        }
+    }
+
+    // returns null in case all locks are taken, otherwise releases the taken ones and returns the busy lock
+    private static ReentrantLock tryLockStripes(ReentrantLock[] locks, long stripes) {
+        for (long rest = stripes; rest != 0; rest &= rest - 1) {
+            ReentrantLock lock = locks[Long.numberOfTrailingZeros(rest)];
+            if (!lock.tryLock()) {
+                unlockStripes(locks, stripes & ~rest);
+                return lock;
+            }
+        }
+        return null;
+    }
+
+    private static void unlockStripes(ReentrantLock[] locks, long stripes) {
+        for (long rest = stripes; rest != 0; rest &= rest - 1) {
+            locks[Long.numberOfTrailingZeros(rest)].unlock();
+        }
+    }
+
+    /**
+     * teach assigns a professor to a course in case all conditions are
+     * satisfied. Conditions are checked in the same order as in the command
+     * loop.
+     * @param memberId ID of a professor
+     * @param courseId ID of a course
+     * @return ASSIGNED or the reason why the professor was not assigned
+     */
+    Outcome teach(int memberId, int courseId) {
+        return committed(applyTeach(memberId, courseId, true));
+    }
+
+    /**
+     * teach assigns a professor to a course like teach, but the load limit
+     * of the professor is decided by the caller, the local load is still
+     * checked
+     * @param memberId    ID of a professor
+     * @param courseId    ID of a course
+     * @param withinLimit false in case the professor cannot take one more
+     *                    course
+     * @return ASSIGNED or the reason why the professor was not assigned
+     */
+    Outcome teach(int memberId, int courseId, boolean withinLimit) {
+        return committed(applyTeach(memberId, courseId, withinLimit));
+    }
+
+    private Outcome applyTeach(int memberId, int courseId, boolean withinLimit) {
+        long stamp = readLockLoaded(memberId);
+        try {
+            Professor professor = registry.findProfessor(memberId);
+            if (professor == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            Course course = registry.findCourse(courseId);
+            if (course == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            ReentrantLock memberLock = memberLocks[EnrollmentStore.stripeOf(memberId)];
+            memberLock.lock();
+            try {
+                Outcome refusal = refuseTeach(professor, course, withinLimit);
+                if (refusal != null) {
+                    return refusal;
+                }
+                professor.teach(course);
+                for (MutationListener listener : listeners) {
+                    listener.assigned(memberId, courseId);
+                }
+                return Outcome.ASSIGNED;
+            } finally {
+                memberLock.unlock();
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    // returns the reason why a professor cannot teach a course or null in case it can
+    private Outcome refuseTeach(Professor professor, Course course, boolean withinLimit) {
+        if (!withinLimit || professor.getAssignedCourses().size() == professor.getMaxLoad()) {
+            return Outcome.LOAD_COMPLETE;
+        }
+        if (professor.isTeaching(course)) {
+            return Outcome.ALREADY_TEACHING;
+        }
+        if (Timetable.getInstance().conflicts(professor.getMemberId(), course.getCourseId())) {
+            return Outcome.TIME_CONFLICT;
+        }
+        return null;
+    }
+
+    /**
+     * exempt dismisses a professor from a course
+     * @param memberId ID of a professor
+     * @param courseId ID of a course
+     * @return EXEMPTED or the reason why the professor was not dismissed
+     */
+    Outcome exempt(int memberId, int courseId) {
+        return committed(applyExempt(memberId, courseId));
+    }
+
+    private Outcome applyExempt(int memberId, int courseId) {
+        long stamp = readLockLoaded(memberId);
+        try {
+            Professor professor = registry.findProfessor(memberId);
+            if (professor == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            Course course = registry.findCourse(courseId);
+            if (course == null) {
+                return Outcome.WRONG_INPUTS;
+            }
+            ReentrantLock memberLock = memberLocks[EnrollmentStore.stripeOf(memberId)];
+            memberLock.lock();
+            try {
+                if (!professor.exempt(course)) {
+                    return Outcome.NOT_TEACHING;
+                }
+                for (MutationListener listener : listeners) {
+                    listener.exempted(memberId, courseId);
+                }
+                return Outcome.EXEMPTED;
+            } finally {
+                memberLock.unlock();
+            }
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * findConflicts finds every member who has two courses meeting at the
+     * same time, for example after members were changed without the engine.
+     * Changes wait until the report is ready, members are checked in
+     * parallel.
+     * @return found conflicts ordered by member ID
+     */
+    List<Timetable.Conflict> findConflicts() {
+        List<List<Timetable.Conflict>> found = new ArrayList<>();
+        exclusive(() -> {
+            // members still pending in a snapshot are not in the member table and have no course rows yet
+            registry.loadAll();
+            Timetable timetable = Timetable.getInstance();
+            MemberTable table = MemberTable.getInstance();
+            IntStream.rangeClosed(1, UniversityMember.getNumberOfMembers()).parallel()
+                    .mapToObj(memberId -> timetable.conflictsOf(memberId, coursesOf(table, memberId)))
+                    .filter(conflicts -> !conflicts.isEmpty())
+                    .forEachOrdered(found::add);
+        });
+        List<Timetable.Conflict> conflicts = new ArrayList<>();
+        found.forEach(conflicts::addAll);
+        return conflicts;
+    }
+
+    // courses of a student or assigned courses of a professor
+    private int[] coursesOf(MemberTable table, int memberId) {
+        int[] courseIds;
+        byte kind = table.kindOf(memberId);
+        if (kind == MemberTable.PROFESSOR) {
+            courseIds = new int[table.countCourses(memberId)];
+            for (int i = 0; i < courseIds.length; i++) {
+                courseIds[i] = table.courseAt(memberId, i);
+            }
+        } else if (kind == 0) {
+            courseIds = new int[0];
+        } else {
+            courseIds = new int[store.countCourses(memberId)];
+            for (int i = 0; i < courseIds.length; i++) {
+                courseIds[i] = store.courseAt(memberId, i);
+            }
+        }
+        return courseIds;
+    }
+
+    /**
+     * exclusive runs an action while no change and no other action runs, for
+     * example to save a consistent copy of the state
+     * @param action action which must see the state without changes
+     */
+    void exclusive(Runnable action) {
+        long stamp = structureLock.writeLock();
+        try {
+            action.run();
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    // takes the read lock, a pending member is added to the registry before
+    private long readLockLoaded(int memberId) {
+        long stamp = structureLock.readLock();
+        if (!registry.isPending(memberId)) {
+            return stamp;
+        }
+        structureLock.unlockRead(stamp);
+        stamp = structureLock.writeLock();
+        try {
+            if (registry.isPending(memberId)) {
+                registry.load(memberId);
+            }
+        } catch (RuntimeException | Error e) {
+            structureLock.unlockWrite(stamp);
+            throw e;
+        }
+        return structureLock.tryConvertToReadLock(stamp);
+    }
+
+    // the same as readLockLoaded for all members of a batch or a transaction
+    private long readLockLoaded(int size, IntUnaryOperator memberIdAt) {
+        long stamp = structureLock.readLock();
+        int pending = 0;
+        while (pending < size && !registry.isPending(memberIdAt.applyAsInt(pending))) {
+            pending++;
+        }
+        if (pending == size) {
+            return stamp;
+        }
+        structureLock.unlockRead(stamp);
+        stamp = structureLock.writeLock();
+        try {
+            for (int i = pending; i < size; i++) {
+                if (registry.isPending(memberIdAt.applyAsInt(i))) {
+                    registry.load(memberIdAt.applyAsInt(i));
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            structureLock.unlockWrite(stamp);
+            throw e;
+        }
+        return structureLock.tryConvertToReadLock(stamp);
+    }
+
+    // notifies listeners after the locks of a successful change are released
+    private Outcome committed(Outcome outcome) {
+        if (outcome.isSuccess()) {
+            notifyCommitted();
+        }
+        return outcome;
+    }
+
+    private void notifyCommitted() {
+        for (MutationListener listener : listeners) {
+            listener.committed();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package university;
+
+/**
+ * EnrollmentStore is the only place where enrollments are kept. It is a
+ * sparse matrix of member IDs and course IDs: every member has a row with
+ * IDs of its courses, every course has a column with IDs of its students,
+ * and a position index gives the place of each pair in its column.
+ * Rows are short (a student attends at most three courses), they are
+ * packed into one shared array and a course is found in a row by a scan.
+ * Membership checks, enrollments and drops take constant time, and both
+ * sides of an enrollment are always changed together.
+ * Position indexes are split into stripes by course ID, so a column is
+ * only touched together with its course stripe and a row only together
+ * with its member stripe.
+ * Report views are told when a column gets full and when it gets a free
+ * seat again, the timetable of a member follows changes of its row.
+ */
+final class EnrollmentStore {
+    static final int STRIPES = 64;
+    private static final int MISSING = -1;
+    private static final int ROW_SLOTS = 3;
+
+    private static EnrollmentStore instance = new EnrollmentStore();
+
+    private final PackedIntLists rows = new PackedIntLists(ROW_SLOTS);
+    private final IntObjectMap<IntList> columns = new IntObjectMap<>();
+    private final LongIntMap[] columnPositions = new LongIntMap[STRIPES];
+
+    /**
+     * creates an empty store
+     */
+    EnrollmentStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            columnPositions[i] = new LongIntMap(MISSING);
+        }
+    }
+
+    /**
+     * getInstance returns the store which is used by students and courses
+     * @return this store
+     */
+    static EnrollmentStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * setInstance replaces the store which is used by students and courses
+     * @param store new store
+     */
+    static void setInstance(EnrollmentStore store) {
+        instance = store;
+    }
+
+    /**
+     * stripeOf returns the stripe in which data of a member or a course is kept
+     * @param id member ID or course ID
+     * @return index of a stripe
+     */
+    static int stripeOf(int id) {
+        return id & (STRIPES - 1);
+    }
+
+    /**
+     * addMember creates an empty row for a member
+     * @param memberId ID of a member
+     */
+    void addMember(int memberId) {
+        rows.ensureKey(memberId);
+    }
+
+    /**
+     * addCourse creates an empty column for a course
+     * @param courseId ID of a course
+     */
+    void addCourse(int courseId) {
+        columns.putIfAbsent(courseId, new IntList());
+    }
+
+    /**
+     * enroll adds a member to a course
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     * @return true in case the member was enrolled, false in case the member
+     *         already attends this course
+     */
+    boolean enroll(int memberId, int courseId) {
+        long pair = pair(memberId, courseId);
+        LongIntMap columnIndex = columnPositions[stripeOf(courseId)];
+        if (columnIndex.containsKey(pair)) {
+            return false;
+        }
+        IntList column = columns.get(courseId);
+        if (column == null) {
+            column = new IntList();
+            columns.put(courseId, column);
+        }
+        rows.add(memberId, courseId);
+        columnIndex.put(pair, column.add(memberId));
+        Timetable.getInstance().add(memberId, courseId);
+        if (column.size() == Course.getCapacity()) {
+            ReportViews.getInstance().courseFilled(courseId);
+        }
+        return true;
+    }
+
+    /**
+     * restoreColumnEntry adds a saved enrollment to the column of a course
+     * only. Together with restoreRowEntry it does the same as enroll, so a
+     * loaded column can be complete before rows of its members are restored.
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     */
+    void restoreColumnEntry(int memberId, int courseId) {
+        IntList column = columns.get(courseId);
+        if (column == null) {
+            column = new IntList();
+            columns.put(courseId, column);
+        }
+        columnPositions[stripeOf(courseId)].put(pair(memberId, courseId), column.add(memberId));
+        if (column.size() == Course.getCapacity()) {
+            ReportViews.getInstance().courseFilled(courseId);
+        }
+    }
+
+    /**
+     * restoreRowEntry adds a saved enrollment to the row of a member only
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     */
+    void restoreRowEntry(int memberId, int courseId) {
+        rows.add(memberId, courseId);
+        Timetable.getInstance().add(memberId, courseId);
+    }
+
+    /**
+     * drop removes a member from a course
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     * @return true in case the member was dropped, false in case the member
+     *         does not attend this course
+     */
+    boolean drop(int memberId, int courseId) {
+        long pair = pair(memberId, courseId);
+        LongIntMap columnIndex = columnPositions[stripeOf(courseId)];
+        int columnPosition = columnIndex.remove(pair);
+        if (columnPosition == MISSING) {
+            return false;
+        }
+        rows.removeAt(memberId, rows.indexOf(memberId, courseId));
+        Timetable.getInstance().remove(memberId, courseId);
+        IntList column = columns.get(courseId);
+        if (column.removeAt(columnPosition) != -1) {
+            columnIndex.put(pair(column.get(columnPosition), courseId), columnPosition);
+        }
+        if (column.size() == Course.getCapacity() - 1) {
+            ReportViews.getInstance().courseFreed(courseId);
+        }
+        return true;
+    }
+
+    /**
+     * isEnrolled checks whether a member attends a course
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     * @return true in case the member is enrolled in this course
+     */
+    boolean isEnrolled(int memberId, int courseId) {
+        return columnPositions[stripeOf(courseId)].containsKey(pair(memberId, courseId));
+    }
+
+    /**
+     * countCourses returns amount of courses of a member
+     * @param memberId ID of a member
+     * @return this amount
+     */
+    int countCourses(int memberId) {
+        return rows.size(memberId);
+    }
+
+    /**
+     * countStudents returns amount of students of a course
+     * @param courseId ID of a course
+     * @return this amount
+     */
+    int countStudents(int courseId) {
+        IntList column = columns.get(courseId);
+        return column == null ? 0 : column.size();
+    }
+
+    /**
+     * courseAt returns ID of a course of a member, order of courses is not
+     * defined and changes after drops
+     * @param memberId ID of a member
+     * @param index    index of a course in the row
+     * @return ID of a course
+     */
+    int courseAt(int memberId, int index) {
+        return rows.get(memberId, index);
+    }
+
+    /**
+     * studentAt returns ID of a student of a course, order of students is not
+     * defined and changes after drops
+     * @param courseId ID of a course
+     * @param index    index of a student in the column
+     * @return ID of a student
+     */
+    int studentAt(int courseId, int index) {
+        IntList column = columns.get(courseId);
+        if (column == null) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length 0");
+        }
+        return column.get(index);
+    }
+
+    private static long pair(int memberId, int courseId) {
+        return ((long) memberId << 32) | (courseId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,194 @@
+package university;
+
+import java.util.Arrays;
+
+/**
+ * EnrollmentTransaction is a list of changes of students, professors and
+ * courses which the engine applies all or nothing: in case one change
+ * fails, for example because a course is full, the changes before it are
+ * rolled back and the state is the same as before the transaction.
+ * Changes are applied in the order of the list and each one sees the
+ * changes before it, so a student can drop one course and take another in
+ * its place even at the enrollment limit, and a seat which is freed by a
+ * drop cannot be taken by anybody else before the enroll which follows it.
+ */
+final class EnrollmentTransaction {
+    /**
+     * Operation is a change which is applied to a pair of a member and a course
+     */
+    enum Operation {
+        ENROLL,
+        DROP,
+        TEACH,
+        EXEMPT
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] memberIds;
+    private int[] courseIds;
+    private byte[] operations;
+    private int size;
+
+    /**
+     * creates an empty transaction
+     */
+    EnrollmentTransaction() {
+        memberIds = new int[DEFAULT_CAPACITY];
+        courseIds = new int[DEFAULT_CAPACITY];
+        operations = new byte[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * swap creates a transaction which moves a student from one course to
+     * another
+     * @param memberId     ID of a student
+     * @param fromCourseId ID of a course which the student leaves
+     * @param toCourseId   ID of a course which the student takes instead
+     * @return drop of the first course and enroll to the second one
+     */
+    static EnrollmentTransaction swap(int memberId, int fromCourseId, int toCourseId) {
+        return new EnrollmentTransaction()
+                .add(memberId, fromCourseId, Operation.DROP)
+                .add(memberId, toCourseId, Operation.ENROLL);
+    }
+
+    /**
+     * move creates a transaction which moves a professor from one course to
+     * another
+     * @param memberId     ID of a professor
+     * @param fromCourseId ID of a course which the professor stops teaching
+     * @param toCourseId   ID of a course which the professor teaches instead
+     * @return exempt from the first course and teach of the second one
+     */
+    static EnrollmentTransaction move(int memberId, int fromCourseId, int toCourseId) {
+        return new EnrollmentTransaction()
+                .add(memberId, fromCourseId, Operation.EXEMPT)
+                .add(memberId, toCourseId, Operation.TEACH);
+    }
+
+    /**
+     * add appends a change to the transaction
+     * @param memberId  ID of a student for enroll and drop, ID of a
+     *                  professor for teach and exempt
+     * @param courseId  ID of a course
+     * @param operation change which must be applied
+     * @return this transaction
+     */
+    EnrollmentTransaction add(int memberId, int courseId, Operation operation) {
+        if (size == memberIds.length) {
+            int capacity = size << 1;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            operations = Arrays.copyOf(operations, capacity);
+        }
+        memberIds[size] = memberId;
+        courseIds[size] = courseId;
+        operations[size] = (byte) operation.ordinal();
+        size++;
+        return this;
+    }
+
+    /**
+     * size returns amount of changes
+     * @return this amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * memberIdAt returns ID of a member of a change
+     * @param index index of a change
+     * @return ID of a student or a professor
+     */
+    int memberIdAt(int index) {
+        return memberIds[index];
+    }
+
+    /**
+     * courseIdAt returns ID of a course of a change
+     * @param index index of a change
+     * @return ID of a course
+     */
+    int courseIdAt(int index) {
+        return courseIds[index];
+    }
+
+    /**
+     * operationAt returns the kind of a change
+     * @param index index of a change
+     * @return this kind
+     */
+    Operation operationAt(int index) {
+        return OPERATIONS[operations[index]];
+    }
+
+    /**
+     * Result tells whether a transaction was committed and otherwise which
+     * change failed and why
+     */
+    static final class Result {
+        private static final Result COMMITTED = new Result(-1, null);
+
+        private final int failedIndex;
+        private final Outcome failure;
+
+        private Result(int failedIndex, Outcome failure) {
+            this.failedIndex = failedIndex;
+            this.failure = failure;
+        }
+
+        /**
+         * committed returns the result of a transaction which was applied
+         * @return this result
+         */
+        static Result committed() {
+            return COMMITTED;
+        }
+
+        /**
+         * rolledBack creates the result of a transaction which changed nothing
+         * @param failedIndex index of the change which failed
+         * @param failure     reason why it failed
+         * @return this result
+         */
+        static Result rolledBack(int failedIndex, Outcome failure) {
+            return new Result(failedIndex, failure);
+        }
+
+        /**
+         * isCommitted checks whether all changes were applied
+         * @return true in case the transaction was committed, false in case
+         *         nothing was changed
+         */
+        boolean isCommitted() {
+            return failure == null;
+        }
+
+        /**
+         * getFailedIndex returns the index of the change which failed
+         * @return this index or -1 in case the transaction was committed
+         */
+        int getFailedIndex() {
+            return failedIndex;
+        }
+
+        /**
+         * getFailure returns the reason why the change failed
+         * @return this reason or null in case the transaction was committed
+         */
+        Outcome getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            if (isCommitted()) {
+                return "Committed";
+            }
+            return "Rolled back, change " + (failedIndex + 1) + " failed: " + failure.getMessage();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package university;
+
+import java.util.Arrays;
+
+/**
+ * IntList is a growable list of primitive ints. Removing an element moves
+ * the last element into its place, so removal takes constant time but does
+ * not keep the order of elements.
+ */
+final class IntList {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] elements;
+    private int size;
+
+    /**
+     * creates an empty list with a default capacity
+     */
+    IntList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * creates an empty list with the given capacity
+     * @param capacity amount of elements which fit without resizing
+     */
+    IntList(int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * add appends an element to the end of the list
+     * @param element element which must be added
+     * @return index of the added element
+     */
+    int add(int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size] = element;
+        return size++;
+    }
+
+    /**
+     * removeAt deletes an element by swapping the last element into its place
+     * @param index index of an element which must be deleted
+     * @return index of the element which was moved into this place, or -1 in
+     *         case the deleted element was the last one
+     */
+    int removeAt(int index) {
+        int last = --size;
+        if (index == last) {
+            return -1;
+        }
+        elements[index] = elements[last];
+        return index;
+    }
+
+    /**
+     * get returns an element by its index
+     * @param index index of an element
+     * @return this element
+     */
+    int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return elements[index];
+    }
+
+    /**
+     * size returns amount of elements
+     * @return this amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * toArray copies all elements
+     * @return new array of elements
+     */
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * sort puts elements in increasing order
+     */
+    void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * clear deletes all elements, capacity is kept
+     */
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,215 @@
+package university;
+
+/**
+ * IntObjectMap is a hash map from primitive int keys to objects.
+ * It uses open addressing with linear probing, so lookups do not box
+ * the key and do not allocate.
+ *
+ * @param <V> type of stored values
+ */
+final class IntObjectMap<V> {
+    private static final int EMPTY = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+    private V zeroValue;
+    private boolean hasZeroKey;
+
+    /**
+     * creates an empty map with a default capacity
+     */
+    IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * creates an empty map which can hold the given amount of entries
+     * without resizing
+     * @param expectedSize expected amount of entries
+     */
+    IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * get is used to find a value by its key
+     * @param key key of a value
+     * @return value or null in case there is no such key
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        if (key == EMPTY) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == key) {
+                return (V) values[index];
+            }
+            if (current == EMPTY) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * put is used to add or replace a value
+     * @param key   key of a value
+     * @param value value which must be stored, not null
+     * @return previous value or null in case key was absent
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (key == EMPTY) {
+            V previous = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeThreshold) {
+                    allocate(keys.length << 1);
+                }
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * putIfAbsent stores a value only in case the key is absent
+     * @param key   key of a value
+     * @param value value which must be stored, not null
+     * @return value which is stored in the map after the call
+     */
+    V putIfAbsent(int key, V value) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * remove is used to delete a value by its key
+     * @param key key of a value
+     * @return removed value or null in case key was absent
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        if (key == EMPTY) {
+            V previous = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == EMPTY) {
+                return null;
+            }
+            if (current == key) {
+                V previous = (V) values[index];
+                closeGap(index, mask);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * size returns amount of entries in the map
+     * @return this amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * clear deletes all entries, capacity is kept
+     */
+    void clear() {
+        java.util.Arrays.fill(keys, EMPTY);
+        java.util.Arrays.fill(values, null);
+        zeroValue = null;
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    // backward shift deletion keeps probe sequences without tombstones
+    private void closeGap(int gap, int mask) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            int current = keys[index];
+            if (current == EMPTY) {
+                break;
+            }
+            int home = hash(current) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = current;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+    }
+
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        if (oldKeys == null) {
+            return;
+        }
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = hash(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
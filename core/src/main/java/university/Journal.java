@@ -0,0 +1,455 @@
+package university;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal appends every successful change of the state to a file, so the
+ * state can be rebuilt after a restart.
+ * The file starts with a header and contains records: length of the body,
+ * the body (type of a change and its data) and CRC32C of the body.
+ * Records are collected in memory and written by a background thread, all
+ * records which arrived while the previous group was written go to the file
+ * with one write and, in case fsync is enabled, with one force. With fsync
+ * every change waits until its record is on the disk before its result is
+ * returned, without fsync records are written as soon as possible.
+ * A record which does not fit into the buffer gets a buffer of its size.
+ * On replay a torn or damaged tail is cut off.
+ * The header keeps an epoch of the journal. When a snapshot is saved, the
+ * journal is emptied and its epoch grows, and a journal whose epoch is
+ * already contained in the loaded snapshot is not replayed.
+ */
+final class Journal implements MutationListener, Closeable {
+    private static final int MAGIC = 0x554D534A;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final byte COURSE_ADDED = 1;
+    private static final byte STUDENT_ADDED = 2;
+    private static final byte PROFESSOR_ADDED = 3;
+    private static final byte ENROLLED = 4;
+    private static final byte DROPPED = 5;
+    private static final byte ASSIGNED = 6;
+    private static final byte EXEMPTED = 7;
+
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition recordsAppended = lock.newCondition();
+    private final Condition groupWritten = lock.newCondition();
+    private final CRC32C checksum = new CRC32C();
+    private final Thread writer;
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocate(BUFFER_SIZE);
+    private long appendedPosition;
+    private long writtenPosition;
+    private boolean closed;
+    private IOException failure;
+    private long epoch;
+
+    private Journal(FileChannel channel, boolean fsync, long epoch) {
+        this.channel = channel;
+        this.fsync = fsync;
+        this.epoch = epoch;
+        this.writer = new Thread(this::writeGroups, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * open replays a journal into the engine and subscribes the journal to
+     * all following changes. A new file is created in case it does not exist.
+     * @param path          path of a journal file
+     * @param fsync         true in case every change must wait until it is
+     *                      forced to the disk
+     * @param engine        engine which must get the replayed state
+     * @param snapshotEpoch epoch of the journal which is contained in the
+     *                      loaded snapshot, 0 in case there is no snapshot
+     * @return opened journal
+     * @throws IOException in case the file cannot be read or is not a journal
+     */
+    static Journal open(Path path, boolean fsync, EnrollmentEngine engine, long snapshotEpoch) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long epoch = snapshotEpoch + 1;
+        try {
+            long end = 0;
+            if (channel.size() >= HEADER_SIZE) {
+                MappedByteBuffer data = map(channel);
+                if (data.getLong(8) > snapshotEpoch) {
+                    epoch = data.getLong(8);
+                    end = replay(data, engine);
+                }
+            }
+            if (end < HEADER_SIZE) {
+                writeHeader(channel, epoch);
+                end = HEADER_SIZE;
+            }
+            channel.truncate(end);
+            channel.position(end);
+            if (fsync) {
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        Journal journal = new Journal(channel, fsync, epoch);
+        engine.addListener(journal);
+        return journal;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal is larger than 2 GiB, it must be compacted with a snapshot");
+        }
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        int version = data.getInt() == MAGIC ? data.getInt() : 0;
+        if (version != VERSION) {
+            throw new IOException("Not a journal of version " + VERSION);
+        }
+        data.getLong();
+        return data;
+    }
+
+    private static void writeHeader(FileChannel channel, long epoch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(epoch);
+        header.flip();
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    // applies all valid records, returns the position after the last of them
+    private static long replay(MappedByteBuffer data, EnrollmentEngine engine) {
+        CRC32C checksum = new CRC32C();
+        int records = 0;
+        while (data.remaining() >= Integer.BYTES) {
+            int start = data.position();
+            int length = data.getInt();
+            if (length <= 0 || length > data.remaining() - Integer.BYTES) {
+                data.position(start);
+                break;
+            }
+            ByteBuffer body = data.slice().limit(length);
+            checksum.reset();
+            checksum.update(body.duplicate());
+            data.position(data.position() + length);
+            if ((int) checksum.getValue() != data.getInt()) {
+                data.position(start);
+                break;
+            }
+            apply(body, engine, ++records);
+        }
+        return data.position();
+    }
+
+    private static void apply(ByteBuffer body, EnrollmentEngine engine, int record) {
+        byte type = body.get();
+        int id = body.getInt();
+        boolean applied;
+        switch (type) {
+            case COURSE_ADDED:
+                CourseLevel level = CourseLevel.values()[body.get()];
+                String courseName = readName(body);
+                List<TimeSlot> timeSlots = new ArrayList<>();
+                while (body.hasRemaining()) {
+                    timeSlots.add(TimeSlot.unpack(body.getInt()));
+                }
+                Course.setNumberOfCourses(id - 1);
+                applied = engine.addCourse(courseName, level, timeSlots).isSuccess()
+                        && Course.getNumberOfCourses() == id;
+                break;
+            case STUDENT_ADDED:
+                UniversityMember.setNumberOfMembers(id - 1);
+                applied = engine.addStudent(readName(body)).getMemberId() == id;
+                break;
+            case PROFESSOR_ADDED:
+                UniversityMember.setNumberOfMembers(id - 1);
+                applied = engine.addProfessor(readName(body)).getMemberId() == id;
+                break;
+            case ENROLLED:
+                applied = engine.enroll(id, body.getInt()).isSuccess();
+                break;
+            case DROPPED:
+                applied = engine.drop(id, body.getInt()).isSuccess();
+                break;
+            case ASSIGNED:
+                applied = engine.teach(id, body.getInt()).isSuccess();
+                break;
+            case EXEMPTED:
+                applied = engine.exempt(id, body.getInt()).isSuccess();
+                break;
+            default:
+                applied = false;
+        }
+        if (!applied) {
+            throw new IllegalStateException("Journal record " + record + " does not match the state");
+        }
+    }
+
+    private static String readName(ByteBuffer body) {
+        byte[] name = new byte[body.getInt()];
+        body.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void courseAdded(Course course) {
+        appendCreation(COURSE_ADDED, course.getCourseId(), course.getCourseLevel(), course.getCourseName(),
+                course.getTimeSlots());
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        appendCreation(STUDENT_ADDED, student.getMemberId(), null, student.getMemberName(), Collections.emptyList());
+    }
+
+    @Override
+    public void professorAdded(Professor professor) {
+        appendCreation(PROFESSOR_ADDED, professor.getMemberId(), null, professor.getMemberName(),
+                Collections.emptyList());
+    }
+
+    @Override
+    public void enrolled(int memberId, int courseId) {
+        appendPair(ENROLLED, memberId, courseId);
+    }
+
+    @Override
+    public void dropped(int memberId, int courseId) {
+        appendPair(DROPPED, memberId, courseId);
+    }
+
+    @Override
+    public void assigned(int memberId, int courseId) {
+        appendPair(ASSIGNED, memberId, courseId);
+    }
+
+    @Override
+    public void exempted(int memberId, int courseId) {
+        appendPair(EXEMPTED, memberId, courseId);
+    }
+
+    /**
+     * committed waits until the records of the change are forced to the disk
+     * in case fsync is enabled
+     */
+    @Override
+    public void committed() {
+        if (fsync) {
+            awaitWritten();
+        }
+    }
+
+    /**
+     * awaitWritten waits until all records which were appended before the
+     * call are written, and forced in case fsync is enabled
+     */
+    void awaitWritten() {
+        lock.lock();
+        try {
+            long target = appendedPosition;
+            while (writtenPosition < target && failure == null) {
+                groupWritten.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * getEpoch returns the epoch of the records in the journal
+     * @return this epoch
+     */
+    long getEpoch() {
+        lock.lock();
+        try {
+            return epoch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * rotate empties the journal and starts the next epoch. It must be called
+     * after all records are written and contained in a saved snapshot, while
+     * no change runs.
+     * @throws IOException in case the journal cannot be emptied
+     */
+    void rotate() throws IOException {
+        awaitWritten();
+        lock.lock();
+        try {
+            writeHeader(channel, epoch + 1);
+            channel.position(HEADER_SIZE);
+            channel.force(true);
+            epoch++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * close writes and forces all appended records and closes the file
+     * @throws IOException in case records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            recordsAppended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                channel.force(true);
+            }
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void appendPair(byte type, int memberId, int courseId) {
+        lock.lock();
+        try {
+            int start = beginRecord(1 + 2 * Integer.BYTES);
+            active.put(type).putInt(memberId).putInt(courseId);
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // time slots of a course follow its name up to the end of the record
+    private void appendCreation(byte type, int id, CourseLevel level, String name, List<TimeSlot> timeSlots) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            int start = beginRecord(1 + Integer.BYTES + (level == null ? 0 : 1) + Integer.BYTES + bytes.length
+                    + timeSlots.size() * Integer.BYTES);
+            active.put(type).putInt(id);
+            if (level != null) {
+                active.put((byte) level.ordinal());
+            }
+            active.putInt(bytes.length).put(bytes);
+            for (TimeSlot slot : timeSlots) {
+                active.putInt(slot.pack());
+            }
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // waits for space in the buffer and reserves the length of the body, an empty buffer which is too
+    // small for the record is replaced by a larger one
+    private int beginRecord(int bodyLength) {
+        int recordLength = bodyLength + 2 * Integer.BYTES;
+        while (active.remaining() < recordLength && !closed) {
+            if (active.position() == 0) {
+                active = ByteBuffer.allocate(recordLength);
+                break;
+            }
+            groupWritten.awaitUninterruptibly();
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        int start = active.position();
+        active.putInt(bodyLength);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        int bodyStart = start + Integer.BYTES;
+        checksum.reset();
+        checksum.update(active.duplicate().position(bodyStart).limit(active.position()));
+        active.putInt((int) checksum.getValue());
+        appendedPosition += active.position() - start;
+        recordsAppended.signal();
+    }
+
+    private void writeGroups() {
+        while (true) {
+            long target;
+            lock.lock();
+            try {
+                while (active.position() == 0 && !closed) {
+                    recordsAppended.awaitUninterruptibly();
+                }
+                if (active.position() == 0) {
+                    return;
+                }
+                ByteBuffer group = active;
+                active = writing;
+                writing = group;
+                target = appendedPosition;
+                groupWritten.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            // a buffer which was grown for a large record is not kept
+            writing = writing.capacity() > BUFFER_SIZE ? ByteBuffer.allocate(BUFFER_SIZE) : writing.clear();
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    closed = true;
+                } else {
+                    writtenPosition = target;
+                }
+                groupWritten.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
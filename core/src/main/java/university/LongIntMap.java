@@ -0,0 +1,212 @@
+package university;
+
+import java.util.Arrays;
+
+/**
+ * LongIntMap is a hash map from primitive long keys to primitive int values.
+ * It uses open addressing with linear probing, so neither keys nor values
+ * are boxed.
+ */
+final class LongIntMap {
+    private static final long EMPTY = 0L;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeThreshold;
+    private int zeroValue;
+    private boolean hasZeroKey;
+
+    /**
+     * creates an empty map
+     * @param missingValue value which is returned for absent keys
+     */
+    LongIntMap(int missingValue) {
+        this.missingValue = missingValue;
+        this.zeroValue = missingValue;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * get is used to find a value by its key
+     * @param key key of a value
+     * @return value or missing value in case there is no such key
+     */
+    int get(long key) {
+        if (key == EMPTY) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return values[index];
+            }
+            if (current == EMPTY) {
+                return missingValue;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * containsKey checks whether the key is present
+     * @param key key which must be checked
+     * @return true in case map has this key
+     */
+    boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * put is used to add or replace a value
+     * @param key   key of a value
+     * @param value value which must be stored
+     * @return previous value or missing value in case key was absent
+     */
+    int put(long key, int value) {
+        if (key == EMPTY) {
+            int previous = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeThreshold) {
+                    allocate(keys.length << 1);
+                }
+                return missingValue;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * remove is used to delete a value by its key
+     * @param key key of a value
+     * @return removed value or missing value in case key was absent
+     */
+    int remove(long key) {
+        if (key == EMPTY) {
+            int previous = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = missingValue;
+                size--;
+            }
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY) {
+                return missingValue;
+            }
+            if (current == key) {
+                int previous = values[index];
+                closeGap(index, mask);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * size returns amount of entries in the map
+     * @return this amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * clear deletes all entries, capacity is kept
+     */
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        zeroValue = missingValue;
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    // backward shift deletion keeps probe sequences without tombstones
+    private void closeGap(int gap, int mask) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long current = keys[index];
+            if (current == EMPTY) {
+                break;
+            }
+            int home = hash(current) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = current;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        if (oldKeys == null) {
+            return;
+        }
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = hash(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
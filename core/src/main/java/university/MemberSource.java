@@ -0,0 +1,51 @@
+package university;
+
+/**
+ * MemberSource keeps members which were not created as objects yet. The
+ * registry asks it for a member the first time the member is needed, so a
+ * large saved state can be opened without creating all its members.
+ */
+interface MemberSource {
+    /**
+     * size returns amount of members of the source
+     * @return this amount
+     */
+    int size();
+
+    /**
+     * memberIdAt returns ID of a member of the source, IDs go in increasing order
+     * @param index index of a member
+     * @return ID of a member
+     */
+    int memberIdAt(int index);
+
+    /**
+     * kindAt returns the type of a member of the source
+     * @param index index of a member
+     * @return MemberTable.STUDENT or MemberTable.PROFESSOR
+     */
+    byte kindAt(int index);
+
+    /**
+     * coursesAt returns IDs of courses a member of the source takes or
+     * teaches, without creating the member
+     * @param index index of a member
+     * @return these IDs
+     */
+    int[] coursesAt(int index);
+
+    /**
+     * contains checks whether a member belongs to the source
+     * @param memberId ID of a member
+     * @return true in case the source keeps this member
+     */
+    boolean contains(int memberId);
+
+    /**
+     * load creates a member object and restores its enrollments or assigned
+     * courses. The member is not added to the registry.
+     * @param memberId ID of a member of the source
+     * @return student or professor
+     */
+    UniversityMember load(int memberId);
+}
@@ -0,0 +1,187 @@
+package university;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MemberTable keeps data of all students and professors in columns of
+ * primitive arrays indexed by member ID: the type of a member, the place
+ * of its name in a shared arena of Latin-1 bytes and assigned courses of a
+ * professor packed into a shared int array. Student and Professor objects
+ * are light views which keep only an ID and read everything else here, so
+ * a member costs a few dozens of bytes instead of several objects.
+ * Names which do not fit into Latin-1 are kept as strings aside.
+ * Member IDs are given one after another, so the arrays stay dense.
+ * Members are added while no one reads the table, assigned courses of
+ * different professors can be changed by different threads at once.
+ */
+final class MemberTable {
+    static final byte STUDENT = 1;
+    static final byte PROFESSOR = 2;
+
+    private static final int COURSE_SLOTS = 2;
+    private static final int WIDE_NAME = -1;
+
+    private static MemberTable instance = new MemberTable();
+
+    private final PackedIntLists courses = new PackedIntLists(COURSE_SLOTS);
+    private final IntObjectMap<String> wideNames = new IntObjectMap<>();
+    private byte[] kinds = new byte[16];
+    private int[] nameOffsets = new int[16];
+    private int[] nameLengths = new int[16];
+    private byte[] names = new byte[256];
+    private int namesSize;
+    private int size;
+
+    /**
+     * getInstance returns the table which is used by students and professors
+     * @return this table
+     */
+    static MemberTable getInstance() {
+        return instance;
+    }
+
+    /**
+     * setInstance replaces the table which is used by students and professors
+     * @param table new table
+     */
+    static void setInstance(MemberTable table) {
+        instance = table;
+    }
+
+    /**
+     * add is used to keep a new member
+     * @param memberId   positive ID of a member
+     * @param kind       STUDENT or PROFESSOR
+     * @param memberName name of a member
+     */
+    void add(int memberId, byte kind, String memberName) {
+        if (memberId >= kinds.length) {
+            int capacity = Math.max(kinds.length << 1, memberId + 1);
+            kinds = Arrays.copyOf(kinds, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+        }
+        if (kinds[memberId] == 0) {
+            size++;
+        }
+        kinds[memberId] = kind;
+        courses.ensureKey(memberId);
+        if (isLatin1(memberName)) {
+            int length = memberName.length();
+            if (names.length - namesSize < length) {
+                names = Arrays.copyOf(names, Math.max(names.length << 1, namesSize + length));
+            }
+            for (int i = 0; i < length; i++) {
+                names[namesSize + i] = (byte) memberName.charAt(i);
+            }
+            nameOffsets[memberId] = namesSize;
+            nameLengths[memberId] = length;
+            namesSize += length;
+        } else {
+            nameLengths[memberId] = WIDE_NAME;
+            wideNames.put(memberId, memberName);
+        }
+    }
+
+    /**
+     * size returns amount of members in the table
+     * @return this amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * kindOf returns the type of a member
+     * @param memberId ID of a member
+     * @return STUDENT, PROFESSOR or 0 in case there is no such member
+     */
+    byte kindOf(int memberId) {
+        return memberId > 0 && memberId < kinds.length ? kinds[memberId] : 0;
+    }
+
+    /**
+     * contains checks whether a member is in the table
+     * @param memberId ID of a member
+     * @return true in case the member is kept here
+     */
+    boolean contains(int memberId) {
+        return kindOf(memberId) != 0;
+    }
+
+    /**
+     * nameOf returns the name of a member
+     * @param memberId ID of a member from the table
+     * @return this name
+     */
+    String nameOf(int memberId) {
+        int length = nameLengths[memberId];
+        if (length == WIDE_NAME) {
+            return wideNames.get(memberId);
+        }
+        return new String(names, nameOffsets[memberId], length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * addCourse assigns a course to a member
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     */
+    void addCourse(int memberId, int courseId) {
+        courses.add(memberId, courseId);
+    }
+
+    /**
+     * removeCourse dismisses a member from a course
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     * @return true in case the course was assigned to the member
+     */
+    boolean removeCourse(int memberId, int courseId) {
+        int index = courses.indexOf(memberId, courseId);
+        if (index < 0) {
+            return false;
+        }
+        courses.removeAt(memberId, index);
+        return true;
+    }
+
+    /**
+     * hasCourse checks whether a course is assigned to a member
+     * @param memberId ID of a member
+     * @param courseId ID of a course
+     * @return true in case it is assigned
+     */
+    boolean hasCourse(int memberId, int courseId) {
+        return courses.indexOf(memberId, courseId) >= 0;
+    }
+
+    /**
+     * countCourses returns amount of courses assigned to a member
+     * @param memberId ID of a member
+     * @return this amount
+     */
+    int countCourses(int memberId) {
+        return courses.size(memberId);
+    }
+
+    /**
+     * courseAt returns ID of an assigned course of a member
+     * @param memberId ID of a member
+     * @param index    index of a course
+     * @return ID of a course
+     */
+    int courseAt(int memberId, int index) {
+        return courses.get(memberId, index);
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,318 @@
+package university;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ModelVersions keeps old versions of courses, students and professors, so
+ * a reader can walk a consistent copy of the whole model while enroll, drop,
+ * teach and exempt go on.
+ * Every course has a chain of versions of its students and every member a
+ * chain of versions of its courses. A version is an immutable array with
+ * the epoch in which it was written, the newest version is the head.
+ * The epoch grows only when a reader opens a view: the engine is stopped
+ * for a moment, the reader takes the current epoch and the next changes are
+ * written with a larger one. So a view sees every version with an epoch up
+ * to its own and nothing else, and reading a view takes no locks at all.
+ * While no view is open a change replaces the head of its chain, because
+ * nobody can see the old version; older versions are kept only as long as
+ * an open view may need them.
+ * Versions are kept only after attach, which copies the current state
+ * once. Members which are still pending in a member source are copied from
+ * their rows in the source and stay pending; loading one later does not
+ * change its courses, so its chain stays right.
+ */
+final class ModelVersions implements MutationListener {
+    private static final int[] EMPTY = new int[0];
+    private static final long NO_READERS = Long.MAX_VALUE;
+
+    private final EnrollmentEngine engine;
+    private volatile AtomicReferenceArray<Version> courseVersions = new AtomicReferenceArray<>(16);
+    private volatile AtomicReferenceArray<Version> memberVersions = new AtomicReferenceArray<>(16);
+    private volatile Course[] courses = new Course[16];
+    private volatile byte[] kinds = new byte[16];
+    private volatile long epoch;
+    private volatile long oldestReader = NO_READERS;
+    private final TreeMap<Long, Integer> readers = new TreeMap<>();
+
+    private ModelVersions(EnrollmentEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * attach copies the current state and keeps versions of all following
+     * changes of the engine
+     * @param engine   engine which applies all changes
+     * @param registry registry of members and courses
+     * @param store    store of enrollments
+     * @return versions of the model
+     */
+    static ModelVersions attach(EnrollmentEngine engine, Registry registry, EnrollmentStore store) {
+        ModelVersions versions = new ModelVersions(engine);
+        engine.exclusive(() -> {
+            for (Course course : registry.getCourses()) {
+                versions.courseAdded(course);
+                int courseId = course.getCourseId();
+                int[] students = new int[store.countStudents(courseId)];
+                for (int i = 0; i < students.length; i++) {
+                    students[i] = store.studentAt(courseId, i);
+                }
+                versions.write(versions.courseVersions, courseId, students);
+            }
+            registry.forEachMember(store, (memberId, kind, courseIds) -> {
+                versions.memberAdded(memberId, kind);
+                versions.write(versions.memberVersions, memberId, courseIds);
+            });
+            engine.addListener(versions);
+        });
+        return versions;
+    }
+
+    /**
+     * detach stops keeping versions, open views stay readable
+     */
+    void detach() {
+        engine.removeListener(this);
+    }
+
+    /**
+     * open takes a consistent view of the model as it is now. It waits
+     * until changes which are applied at this moment are finished.
+     * @return view which must be closed after reading
+     */
+    View open() {
+        View[] view = new View[1];
+        engine.exclusive(() -> {
+            long current = epoch;
+            epoch = current + 1;
+            synchronized (readers) {
+                readers.merge(current, 1, Integer::sum);
+                oldestReader = readers.firstKey();
+            }
+            view[0] = new View(current, Course.getNumberOfCourses(), UniversityMember.getNumberOfMembers());
+        });
+        return view[0];
+    }
+
+    @Override
+    public void courseAdded(Course course) {
+        int courseId = course.getCourseId();
+        if (courseId >= courses.length) {
+            int capacity = Math.max(courses.length << 1, courseId + 1);
+            courses = Arrays.copyOf(courses, capacity);
+            courseVersions = grow(courseVersions, capacity);
+        }
+        courses[courseId] = course;
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        memberAdded(student.getMemberId(), MemberTable.STUDENT);
+    }
+
+    @Override
+    public void professorAdded(Professor professor) {
+        memberAdded(professor.getMemberId(), MemberTable.PROFESSOR);
+    }
+
+    @Override
+    public void enrolled(int memberId, int courseId) {
+        write(courseVersions, courseId, with(read(courseVersions, courseId), memberId));
+        write(memberVersions, memberId, with(read(memberVersions, memberId), courseId));
+    }
+
+    @Override
+    public void dropped(int memberId, int courseId) {
+        write(courseVersions, courseId, without(read(courseVersions, courseId), memberId));
+        write(memberVersions, memberId, without(read(memberVersions, memberId), courseId));
+    }
+
+    @Override
+    public void assigned(int memberId, int courseId) {
+        write(memberVersions, memberId, with(read(memberVersions, memberId), courseId));
+    }
+
+    @Override
+    public void exempted(int memberId, int courseId) {
+        write(memberVersions, memberId, without(read(memberVersions, memberId), courseId));
+    }
+
+    // members are added under the exclusive lock of the engine
+    private void memberAdded(int memberId, byte kind) {
+        if (memberId >= kinds.length) {
+            int capacity = Math.max(kinds.length << 1, memberId + 1);
+            kinds = Arrays.copyOf(kinds, capacity);
+            memberVersions = grow(memberVersions, capacity);
+        }
+        kinds[memberId] = kind;
+    }
+
+    // the caller holds the lock of the course or the member, so versions of
+    // one chain are written one after another
+    private void write(AtomicReferenceArray<Version> chains, int id, int[] ids) {
+        long current = epoch;
+        Version head = chains.get(id);
+        Version previous = head != null && head.epoch == current ? head.previous : head;
+        Version version = new Version(current, ids, previous);
+        long oldest = oldestReader;
+        Version kept = version;
+        while (kept.epoch > oldest && kept.previous != null) {
+            kept = kept.previous;
+        }
+        kept.previous = null;
+        chains.set(id, version);
+    }
+
+    private void close(View view) {
+        synchronized (readers) {
+            if (readers.merge(view.epoch, -1, Integer::sum) == 0) {
+                readers.remove(view.epoch);
+            }
+            oldestReader = readers.isEmpty() ? NO_READERS : readers.firstKey();
+        }
+    }
+
+    private static int[] read(AtomicReferenceArray<Version> chains, int id) {
+        Version head = chains.get(id);
+        return head == null ? EMPTY : head.ids;
+    }
+
+    private static int[] with(int[] ids, int id) {
+        int[] copy = Arrays.copyOf(ids, ids.length + 1);
+        copy[ids.length] = id;
+        return copy;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        int[] copy = new int[ids.length - 1];
+        int size = 0;
+        for (int current : ids) {
+            if (current != id) {
+                copy[size++] = current;
+            }
+        }
+        return copy;
+    }
+
+    private static AtomicReferenceArray<Version> grow(AtomicReferenceArray<Version> chains, int capacity) {
+        AtomicReferenceArray<Version> grown = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < chains.length(); i++) {
+            grown.set(i, chains.get(i));
+        }
+        return grown;
+    }
+
+    // immutable IDs of one version; previous is cut when no open view needs
+    // older versions. Views walk the chain without locks while a writer
+    // cuts it, so previous is volatile: a view which follows a link reads
+    // a version that was fully written before it was linked.
+    private static final class Version {
+        private final long epoch;
+        private final int[] ids;
+        private volatile Version previous;
+
+        Version(long epoch, int[] ids, Version previous) {
+            this.epoch = epoch;
+            this.ids = ids;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * View is a consistent copy of the model at the moment it was opened.
+     * Any thread may read it without locks until it is closed.
+     */
+    final class View implements AutoCloseable {
+        private final long epoch;
+        private final int numberOfCourses;
+        private final int numberOfMembers;
+        private boolean closed;
+
+        private View(long epoch, int numberOfCourses, int numberOfMembers) {
+            this.epoch = epoch;
+            this.numberOfCourses = numberOfCourses;
+            this.numberOfMembers = numberOfMembers;
+        }
+
+        /**
+         * getNumberOfCourses returns amount of courses in the view, their IDs
+         * go from 1 to this amount
+         * @return this amount
+         */
+        int getNumberOfCourses() {
+            return numberOfCourses;
+        }
+
+        /**
+         * getNumberOfMembers returns amount of members in the view, their IDs
+         * go from 1 to this amount
+         * @return this amount
+         */
+        int getNumberOfMembers() {
+            return numberOfMembers;
+        }
+
+        /**
+         * getCourse returns a course of the view
+         * @param courseId ID of a course
+         * @return this course or null in case there is no such course
+         */
+        Course getCourse(int courseId) {
+            return courseId > 0 && courseId <= numberOfCourses ? courses[courseId] : null;
+        }
+
+        /**
+         * kindOf returns the type of a member of the view
+         * @param memberId ID of a member
+         * @return MemberTable.STUDENT, MemberTable.PROFESSOR or 0 in case
+         *         there is no such member
+         */
+        byte kindOf(int memberId) {
+            return memberId > 0 && memberId <= numberOfMembers ? kinds[memberId] : 0;
+        }
+
+        /**
+         * getStudents returns IDs of students of a course
+         * @param courseId ID of a course
+         * @return these IDs in no particular order
+         */
+        int[] getStudents(int courseId) {
+            if (getCourse(courseId) == null) {
+                return EMPTY;
+            }
+            return find(courseVersions, courseId);
+        }
+
+        /**
+         * getCourses returns IDs of courses of a student or a professor
+         * @param memberId ID of a member
+         * @return these IDs in no particular order
+         */
+        int[] getCourses(int memberId) {
+            if (kindOf(memberId) == 0) {
+                return EMPTY;
+            }
+            return find(memberVersions, memberId);
+        }
+
+        /**
+         * close lets the versions forget what only this view needs
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                ModelVersions.this.close(this);
+            }
+        }
+
+        private int[] find(AtomicReferenceArray<Version> chains, int id) {
+            Version version = chains.get(id);
+            while (version != null && version.epoch > epoch) {
+                version = version.previous;
+            }
+            return version == null ? EMPTY : version.ids.clone();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package university;
+
+/**
+ * MutationListener is notified by the engine about every successful change
+ * of the state. Change methods are called while the engine still holds the
+ * locks of the change, so changes of the same course or member are seen in
+ * the order they were applied; they must be fast and must not call the
+ * engine. committed is called once after the locks of a change are
+ * released, so it may wait.
+ * Listeners rely on these locks: new courses and members are reported
+ * under the write lock, enrolled, dropped and waitlisted under the locks
+ * of the stripes of both the course and the student, assigned and exempted
+ * under the lock of the stripe of the professor. So two calls for the same
+ * course stripe or the same member stripe never run at once, and a
+ * listener may keep state per stripe with a single writer and without
+ * atomic updates, as EnrollmentAggregates does. Every path of the engine
+ * which notifies listeners must hold these locks.
+ */
+interface MutationListener {
+    default void courseAdded(Course course) {
+    }
+
+    default void studentAdded(Student student) {
+    }
+
+    default void professorAdded(Professor professor) {
+    }
+
+    default void enrolled(int memberId, int courseId) {
+    }
+
+    default void dropped(int memberId, int courseId) {
+    }
+
+    default void waitlisted(int memberId, int courseId) {
+    }
+
+    default void assigned(int memberId, int courseId) {
+    }
+
+    default void exempted(int memberId, int courseId) {
+    }
+
+    default void committed() {
+    }
+}
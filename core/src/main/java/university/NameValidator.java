@@ -0,0 +1,271 @@
+package university;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * NameValidator checks names of courses and members and lowercases them in
+ * one pass over the characters, without regular expressions, splitting or
+ * copies of rejected names. Every ASCII character has a class in a table:
+ * a lowercase letter, an uppercase letter, an underscore or anything else.
+ * The results are exactly those of the rules of the task: a member name is
+ * one or more English letters, a course name is such words joined by single
+ * underscores, and a line is lowercased by String.toLowerCase before it is
+ * checked.
+ * toLowerCase depends on the default locale and turns a few characters
+ * outside ASCII into ASCII letters, for example the Kelvin sign into k, and
+ * in Turkish and Azerbaijani turns I into a dotless i. Lines with such
+ * characters are rare, so they are lowercased by toLowerCase and checked
+ * again instead of repeating these rules here.
+ */
+final class NameValidator {
+    private static final byte OTHER = 0;
+    private static final byte LOWER = 1;
+    private static final byte UPPER = 2;
+    private static final byte UNDERSCORE = 3;
+    private static final byte[] CLASSES = new byte[128];
+
+    private static final int COURSE = 1;
+    private static final int MEMBER = 2;
+    private static final int HAS_UPPER = 4;
+    private static final int NOT_ASCII = 8;
+
+    private static final String BACHELOR = "bachelor";
+    private static final String MASTER = "master";
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = LOWER;
+            CLASSES[c - 'a' + 'A'] = UPPER;
+        }
+        CLASSES['_'] = UNDERSCORE;
+    }
+
+    private NameValidator() {
+    }
+
+    /**
+     * isLetters checks that a name has only English letters, like
+     * matches("[a-zA-Z]+")
+     * @param name name which must be checked
+     * @return true in case the name is not empty and has only English letters
+     */
+    static boolean isLetters(String name) {
+        return (classify(name) & (MEMBER | NOT_ASCII)) == MEMBER;
+    }
+
+    /**
+     * isCourseName checks that a name is English words joined by single
+     * underscores
+     * @param name name which must be checked
+     * @return true in case it is a valid name of a course
+     */
+    static boolean isCourseName(String name) {
+        return (classify(name) & (COURSE | NOT_ASCII)) == COURSE;
+    }
+
+    /**
+     * toCourseName lowercases a line like toLowerCase and checks it like
+     * isCourseName
+     * @param line line with a name
+     * @return lowercased name or null in case it is not a valid name
+     */
+    static String toCourseName(String line) {
+        return lowercase(line, COURSE);
+    }
+
+    /**
+     * toMemberName lowercases a line like toLowerCase and checks it like
+     * isLetters
+     * @param line line with a name
+     * @return lowercased name or null in case it is not a valid name
+     */
+    static String toMemberName(String line) {
+        return lowercase(line, MEMBER);
+    }
+
+    /**
+     * toCourseLevel reads a level of a course in any case
+     * @param line line with a level
+     * @return level or null in case the lowercased line is neither
+     *         "bachelor" nor "master"
+     */
+    static CourseLevel toCourseLevel(String line) {
+        if (equalsLowercased(line, BACHELOR)) {
+            return CourseLevel.BACHELOR;
+        }
+        if (equalsLowercased(line, MASTER)) {
+            return CourseLevel.MASTER;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) >= CLASSES.length) {
+                return parseLowercased(line.toLowerCase());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * toCourseName lowercases a name given as UTF-8 bytes and checks it
+     * like isCourseName
+     * @param data bytes which contain the name
+     * @param from index of the first byte
+     * @param to   index after the last byte
+     * @return lowercased name or null in case it is not a valid name
+     */
+    static String toCourseName(byte[] data, int from, int to) {
+        return lowercase(data, from, to, COURSE);
+    }
+
+    /**
+     * toMemberName lowercases a name given as UTF-8 bytes and checks it
+     * like isLetters
+     * @param data bytes which contain the name
+     * @param from index of the first byte
+     * @param to   index after the last byte
+     * @return lowercased name or null in case it is not a valid name
+     */
+    static String toMemberName(byte[] data, int from, int to) {
+        return lowercase(data, from, to, MEMBER);
+    }
+
+    /**
+     * toCourseLevel reads a level of a course given as UTF-8 bytes in any
+     * case
+     * @param data bytes which contain the level
+     * @param from index of the first byte
+     * @param to   index after the last byte
+     * @return level or null in case the lowercased text is neither
+     *         "bachelor" nor "master"
+     */
+    static CourseLevel toCourseLevel(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] < 0) {
+                return toCourseLevel(new String(data, from, to - from, StandardCharsets.UTF_8));
+            }
+        }
+        if (equalsLowercased(data, from, to, BACHELOR)) {
+            return CourseLevel.BACHELOR;
+        }
+        if (equalsLowercased(data, from, to, MASTER)) {
+            return CourseLevel.MASTER;
+        }
+        return null;
+    }
+
+    // one pass gives which rules the name satisfies, NOT_ASCII stops at the first character outside ASCII
+    private static int classify(String name) {
+        int length = name.length();
+        if (length == 0) {
+            return 0;
+        }
+        int flags = COURSE | MEMBER;
+        byte previous = UNDERSCORE;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c >= CLASSES.length) {
+                return NOT_ASCII;
+            }
+            byte kind = CLASSES[c];
+            flags = next(flags, kind, previous);
+            previous = kind;
+        }
+        return previous == UNDERSCORE ? flags & ~COURSE : flags;
+    }
+
+    private static int classify(byte[] data, int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int flags = COURSE | MEMBER;
+        byte previous = UNDERSCORE;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b < 0) {
+                return NOT_ASCII;
+            }
+            byte kind = CLASSES[b];
+            flags = next(flags, kind, previous);
+            previous = kind;
+        }
+        return previous == UNDERSCORE ? flags & ~COURSE : flags;
+    }
+
+    // a leading underscore counts as one after an underscore
+    private static int next(int flags, byte kind, byte previous) {
+        switch (kind) {
+            case LOWER:
+                return flags;
+            case UPPER:
+                return flags | HAS_UPPER;
+            case UNDERSCORE:
+                return previous == UNDERSCORE ? flags & ~(COURSE | MEMBER) : flags & ~MEMBER;
+            default:
+                return flags & ~(COURSE | MEMBER);
+        }
+    }
+
+    private static String lowercase(String line, int rule) {
+        int flags = classify(line);
+        if ((flags & NOT_ASCII) != 0 || (flags & HAS_UPPER) != 0 && isTurkic() && line.indexOf('I') >= 0) {
+            String lowercased = line.toLowerCase();
+            return (classify(lowercased) & (rule | NOT_ASCII)) == rule ? lowercased : null;
+        }
+        if ((flags & rule) == 0) {
+            return null;
+        }
+        return (flags & HAS_UPPER) == 0 ? line : line.toLowerCase(Locale.ROOT);
+    }
+
+    private static String lowercase(byte[] data, int from, int to, int rule) {
+        int flags = classify(data, from, to);
+        if ((flags & NOT_ASCII) != 0) {
+            return lowercase(new String(data, from, to - from, StandardCharsets.UTF_8), rule);
+        }
+        if ((flags & rule) == 0) {
+            return null;
+        }
+        String name = new String(data, from, to - from, StandardCharsets.ISO_8859_1);
+        return (flags & HAS_UPPER) == 0 ? name : lowercase(name, rule);
+    }
+
+    // in these languages toLowerCase turns I into a dotless i, which is not an English letter
+    private static boolean isTurkic() {
+        String language = Locale.getDefault().getLanguage();
+        return "tr".equals(language) || "az".equals(language);
+    }
+
+    // compares ASCII letters without case, word is lowercase and has no i
+    private static boolean equalsLowercased(String line, String word) {
+        if (line.length() != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= CLASSES.length || (CLASSES[c] == UPPER ? c | 0x20 : c) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsLowercased(byte[] data, int from, int to, String word) {
+        if (to - from != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            byte b = data[from + i];
+            if (b < 0 || (CLASSES[b] == UPPER ? b | 0x20 : b) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CourseLevel parseLowercased(String level) {
+        if (BACHELOR.equals(level)) {
+            return CourseLevel.BACHELOR;
+        }
+        return MASTER.equals(level) ? CourseLevel.MASTER : null;
+    }
+}
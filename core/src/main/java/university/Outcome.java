@@ -0,0 +1,49 @@
+package university;
+
+/**
+ * Outcome is the enum of all results of commands, every result has the
+ * message which is printed for it
+ */
+enum Outcome {
+    ADDED("Added successfully", true),
+    WRONG_INPUTS("Wrong inputs", false),
+    COURSE_EXISTS("Course exists", false),
+    ENROLLED("Enrolled successfully", true),
+    ALREADY_ENROLLED("Student is already enrolled in this course", false),
+    MAX_ENROLLMENT_REACHED("Maximum enrollment is reached for the student", false),
+    COURSE_FULL("Course is full", false),
+    TIME_CONFLICT("Course meets at the same time as another course of this member", false),
+    WAITLISTED("Student is added to the waitlist of this course", true),
+    ALREADY_WAITLISTED("Student is already in the waitlist of this course", false),
+    DROPPED("Dropped successfully", true),
+    NOT_ENROLLED("Student is not enrolled in this course", false),
+    ASSIGNED("Professor is successfully assigned to teach this course", true),
+    LOAD_COMPLETE("Professor's load is complete", false),
+    ALREADY_TEACHING("Professor is already teaching this course", false),
+    EXEMPTED("Professor is exempted", true),
+    NOT_TEACHING("Professor is not teaching this course", false);
+
+    private final String message;
+    private final boolean success;
+
+    Outcome(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+
+    /**
+     * getMessage is used to get the text which is printed for this result
+     * @return this text
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * isSuccess checks whether the command changed the state
+     * @return true in case the command was applied
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+}
@@ -0,0 +1,151 @@
+package university;
+
+import java.util.Arrays;
+
+/**
+ * PackedIntLists keeps a short list of ints for every key of a dense range
+ * of non-negative keys, for example courses of every member. Each list has
+ * a fixed amount of slots in one shared int array, so a list does not need
+ * an object of its own. A list which grows beyond its slots is moved to a
+ * separate IntList; the engine never does it, because limits of students
+ * and professors fit into the slots.
+ * Removing an element moves the last element into its place.
+ * Arrays only grow in ensureKey and add of a new key, lists of different
+ * keys can be changed by different threads at once.
+ */
+final class PackedIntLists {
+    private static final byte OVERFLOW = -1;
+
+    private final int slots;
+    private final IntObjectMap<IntList> overflow = new IntObjectMap<>();
+    private int[] values;
+    private byte[] sizes;
+
+    /**
+     * creates lists with the given amount of slots for every key
+     * @param slots amount of elements of a list which are kept in the shared array
+     */
+    PackedIntLists(int slots) {
+        if (slots < 1 || slots > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("slots: " + slots);
+        }
+        this.slots = slots;
+        this.sizes = new byte[16];
+        this.values = new int[sizes.length * slots];
+    }
+
+    /**
+     * ensureKey makes place for the list of a key, the list is empty
+     * @param key non-negative key
+     */
+    void ensureKey(int key) {
+        if (key >= sizes.length) {
+            int capacity = Math.max(sizes.length << 1, key + 1);
+            sizes = Arrays.copyOf(sizes, capacity);
+            values = Arrays.copyOf(values, capacity * slots);
+        }
+    }
+
+    /**
+     * add appends a value to the list of a key
+     * @param key   non-negative key
+     * @param value value which must be added
+     * @return index of the added value
+     */
+    int add(int key, int value) {
+        ensureKey(key);
+        int size = sizes[key];
+        if (size == OVERFLOW) {
+            return overflow.get(key).add(value);
+        }
+        if (size == slots) {
+            IntList list = new IntList(slots << 1);
+            for (int i = 0; i < slots; i++) {
+                list.add(values[key * slots + i]);
+            }
+            overflow.put(key, list);
+            sizes[key] = OVERFLOW;
+            return list.add(value);
+        }
+        values[key * slots + size] = value;
+        sizes[key] = (byte) (size + 1);
+        return size;
+    }
+
+    /**
+     * removeAt deletes a value by swapping the last value of the list into its place
+     * @param key   key of a list
+     * @param index index of a value which must be deleted
+     * @return index of the value which was moved into this place, or -1 in
+     *         case the deleted value was the last one
+     */
+    int removeAt(int key, int index) {
+        int size = sizes[key];
+        if (size == OVERFLOW) {
+            return overflow.get(key).removeAt(index);
+        }
+        int last = size - 1;
+        sizes[key] = (byte) last;
+        if (index == last) {
+            return -1;
+        }
+        values[key * slots + index] = values[key * slots + last];
+        return index;
+    }
+
+    /**
+     * get returns a value of the list of a key
+     * @param key   key of a list
+     * @param index index of a value
+     * @return this value
+     */
+    int get(int key, int index) {
+        int size = size(key);
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        if (sizes[key] == OVERFLOW) {
+            return overflow.get(key).get(index);
+        }
+        return values[key * slots + index];
+    }
+
+    /**
+     * size returns amount of values in the list of a key
+     * @param key key of a list
+     * @return this amount, 0 for a key without a list
+     */
+    int size(int key) {
+        if (key < 0 || key >= sizes.length) {
+            return 0;
+        }
+        int size = sizes[key];
+        return size == OVERFLOW ? overflow.get(key).size() : size;
+    }
+
+    /**
+     * indexOf finds a value in the list of a key
+     * @param key   key of a list
+     * @param value value which must be found
+     * @return index of the first such value or -1 in case there is no such value
+     */
+    int indexOf(int key, int value) {
+        int size = size(key);
+        if (size > 0 && sizes[key] == OVERFLOW) {
+            IntList list = overflow.get(key);
+            for (int i = 0; i < size; i++) {
+                if (list.get(i) == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int start = key * slots;
+        for (int i = 0; i < size; i++) {
+            if (values[start + i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,279 @@
+package university;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry keeps all students, professors and courses of the university.
+ * Every course is indexed by its ID and by its case-folded name, members
+ * are found by ID in the member table, so lookups do not depend on the
+ * amount of data. Members are returned as light objects over the table.
+ * Lists keep the order in which everything was added.
+ * Members of a member source are added the first time they are looked up,
+ * lists of members contain them all and are ordered by ID in this case,
+ * which is the same as the order of adding.
+ * The registry is not thread safe, the engine makes sure no one reads it
+ * while a member is added.
+ */
+final class Registry {
+    private static Registry instance = new Registry();
+
+    private final List<Course> courses = new ArrayList<>();
+    private final IntList professorIds = new IntList();
+    private final IntList studentIds = new IntList();
+
+    private final IntObjectMap<Course> coursesById = new IntObjectMap<>();
+    private final Map<String, Course> coursesByName = new HashMap<>();
+    private MemberSource memberSource;
+    private int loadedMembers;
+    private boolean membersOutOfOrder;
+
+    /**
+     * getInstance returns the registry which is used by the program
+     * @return this registry
+     */
+    static Registry getInstance() {
+        return instance;
+    }
+
+    /**
+     * setInstance replaces the registry which is used by the program
+     * @param registry new registry
+     */
+    static void setInstance(Registry registry) {
+        instance = registry;
+    }
+
+    /**
+     * addCourse is used to register a new course
+     * @param course course which must be added
+     */
+    void addCourse(Course course) {
+        courses.add(course);
+        coursesById.put(course.getCourseId(), course);
+        coursesByName.put(foldName(course.getCourseName()), course);
+    }
+
+    /**
+     * addStudent is used to register a new student
+     * @param student student which must be added
+     */
+    void addStudent(Student student) {
+        studentIds.add(student.getMemberId());
+    }
+
+    /**
+     * addProfessor is used to register a new professor
+     * @param professor professor which must be added
+     */
+    void addProfessor(Professor professor) {
+        professorIds.add(professor.getMemberId());
+    }
+
+    /**
+     * findCourse is used to get a course by its ID
+     * @param courseId ID of a course
+     * @return course or null in case there is no course with such ID
+     */
+    Course findCourse(int courseId) {
+        return coursesById.get(courseId);
+    }
+
+    /**
+     * findCourseByName is used to get a course by its name, the case of
+     * letters is ignored
+     * @param courseName name of a course
+     * @return course or null in case there is no course with such name
+     */
+    Course findCourseByName(String courseName) {
+        return coursesByName.get(foldName(courseName));
+    }
+
+    /**
+     * findStudent is used to get a student by member ID
+     * @param memberId ID of a student
+     * @return student or null in case there is no student with such ID
+     */
+    Student findStudent(int memberId) {
+        if (isPending(memberId)) {
+            load(memberId);
+        }
+        return MemberTable.getInstance().kindOf(memberId) == MemberTable.STUDENT ? new Student(memberId) : null;
+    }
+
+    /**
+     * findProfessor is used to get a professor by member ID
+     * @param memberId ID of a professor
+     * @return professor or null in case there is no professor with such ID
+     */
+    Professor findProfessor(int memberId) {
+        if (isPending(memberId)) {
+            load(memberId);
+        }
+        return MemberTable.getInstance().kindOf(memberId) == MemberTable.PROFESSOR ? new Professor(memberId) : null;
+    }
+
+    /**
+     * setMemberSource attaches members which are added on the first lookup
+     * @param source source of members which are not in the registry yet
+     */
+    void setMemberSource(MemberSource source) {
+        memberSource = source.size() == 0 ? null : source;
+        loadedMembers = 0;
+    }
+
+    /**
+     * isPending checks whether a member is kept by the member source and is
+     * not added to the registry yet. It does not change the registry.
+     * @param memberId ID of a member
+     * @return true in case the next lookup of this member adds it
+     */
+    boolean isPending(int memberId) {
+        MemberSource source = memberSource;
+        return source != null && !MemberTable.getInstance().contains(memberId) && source.contains(memberId);
+    }
+
+    /**
+     * load adds a member of the member source to the registry
+     * @param memberId ID of a pending member
+     */
+    void load(int memberId) {
+        UniversityMember member = memberSource.load(memberId);
+        if (member instanceof Student) {
+            addStudent((Student) member);
+        } else {
+            addProfessor((Professor) member);
+        }
+        membersOutOfOrder = true;
+        if (++loadedMembers == memberSource.size()) {
+            memberSource = null;
+        }
+    }
+
+    /**
+     * loadAll adds all pending members of the member source and restores
+     * the order of adding, it is called while no change runs
+     */
+    void loadAll() {
+        MemberSource source = memberSource;
+        if (source != null) {
+            for (int i = 0; i < source.size(); i++) {
+                int memberId = source.memberIdAt(i);
+                if (isPending(memberId)) {
+                    load(memberId);
+                }
+            }
+        }
+        if (membersOutOfOrder) {
+            studentIds.sort();
+            professorIds.sort();
+            membersOutOfOrder = false;
+        }
+    }
+
+    /**
+     * forEachMember passes every member with its courses to a visitor.
+     * Pending members are not added, their courses are read from the member
+     * source.
+     * @param store   store of enrollments of added students
+     * @param visitor visitor of members
+     */
+    void forEachMember(EnrollmentStore store, MemberVisitor visitor) {
+        for (int i = 0; i < studentIds.size(); i++) {
+            int memberId = studentIds.get(i);
+            int[] courseIds = new int[store.countCourses(memberId)];
+            for (int k = 0; k < courseIds.length; k++) {
+                courseIds[k] = store.courseAt(memberId, k);
+            }
+            visitor.visit(memberId, MemberTable.STUDENT, courseIds);
+        }
+        MemberTable table = MemberTable.getInstance();
+        for (int i = 0; i < professorIds.size(); i++) {
+            int memberId = professorIds.get(i);
+            int[] courseIds = new int[table.countCourses(memberId)];
+            for (int k = 0; k < courseIds.length; k++) {
+                courseIds[k] = table.courseAt(memberId, k);
+            }
+            visitor.visit(memberId, MemberTable.PROFESSOR, courseIds);
+        }
+        MemberSource source = memberSource;
+        if (source != null) {
+            for (int i = 0; i < source.size(); i++) {
+                int memberId = source.memberIdAt(i);
+                if (!table.contains(memberId)) {
+                    visitor.visit(memberId, source.kindAt(i), source.coursesAt(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * getCourses is used to get all courses in order of adding
+     * @return unmodifiable list of courses
+     */
+    List<Course> getCourses() {
+        return Collections.unmodifiableList(courses);
+    }
+
+    /**
+     * getStudents is used to get all students in order of adding, all
+     * pending members are added before
+     * @return read-only view of students
+     */
+    List<Student> getStudents() {
+        loadAll();
+        return new AbstractList<Student>() {
+            @Override
+            public Student get(int index) {
+                return new Student(studentIds.get(index));
+            }
+
+            @Override
+            public int size() {
+                return studentIds.size();
+            }
+        };
+    }
+
+    /**
+     * getProfessors is used to get all professors in order of adding, all
+     * pending members are added before
+     * @return read-only view of professors
+     */
+    List<Professor> getProfessors() {
+        loadAll();
+        return new AbstractList<Professor>() {
+            @Override
+            public Professor get(int index) {
+                return new Professor(professorIds.get(index));
+            }
+
+            @Override
+            public int size() {
+                return professorIds.size();
+            }
+        };
+    }
+
+    /**
+     * MemberVisitor receives members of forEachMember
+     */
+    interface MemberVisitor {
+        /**
+         * visit is called once for every member
+         * @param memberId  ID of a member
+         * @param kind      MemberTable.STUDENT or MemberTable.PROFESSOR
+         * @param courseIds IDs of courses the member takes or teaches
+         */
+        void visit(int memberId, byte kind, int[] courseIds);
+    }
+
+    private static String foldName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
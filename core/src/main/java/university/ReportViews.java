@@ -0,0 +1,181 @@
+package university;
+
+/**
+ * ReportViews keeps answers to reporting questions up to date, so they are
+ * read without walking courses and members: courses with free seats of
+ * every level and professors who may take one more course. Free seats of a
+ * single course are already counted by the enrollment store.
+ * A view changes only when a course becomes full or gets a free seat again
+ * and when a professor reaches the maximum load or leaves it, so most
+ * enrollments, drops and assignments only compare one size with a limit.
+ * Every view is a set of IDs in an array with an index of positions, so an
+ * ID is added and removed in constant time and the whole view is copied in
+ * time of its size. Views are guarded by their own monitors, because
+ * changes of different course stripes and member stripes run at once.
+ * Courses are added while no one changes enrollments.
+ */
+final class ReportViews {
+    private static final CourseLevel[] LEVELS = CourseLevel.values();
+
+    private static ReportViews instance = new ReportViews();
+
+    private final IdSet[] availableCourses = new IdSet[LEVELS.length];
+    private final IdSet professorsWithSpareLoad = new IdSet();
+    private byte[] courseLevels = new byte[16];
+
+    /**
+     * creates empty views
+     */
+    ReportViews() {
+        for (int i = 0; i < LEVELS.length; i++) {
+            availableCourses[i] = new IdSet();
+        }
+    }
+
+    /**
+     * getInstance returns the views which are changed by courses, students
+     * and professors
+     * @return these views
+     */
+    static ReportViews getInstance() {
+        return instance;
+    }
+
+    /**
+     * setInstance replaces the views which are changed by courses, students
+     * and professors
+     * @param views new views
+     */
+    static void setInstance(ReportViews views) {
+        instance = views;
+    }
+
+    /**
+     * courseAdded keeps a new course, which has all seats free
+     * @param courseId    ID of a course
+     * @param courseLevel level of a course
+     */
+    void courseAdded(int courseId, CourseLevel courseLevel) {
+        if (courseId >= courseLevels.length) {
+            byte[] grown = new byte[Math.max(courseLevels.length << 1, courseId + 1)];
+            System.arraycopy(courseLevels, 0, grown, 0, courseLevels.length);
+            courseLevels = grown;
+        }
+        // 0 means that the level of a course is not known
+        courseLevels[courseId] = (byte) (courseLevel.ordinal() + 1);
+        availableCourses[courseLevel.ordinal()].add(courseId);
+    }
+
+    /**
+     * courseFilled is called when the last free seat of a course is taken
+     * @param courseId ID of a course
+     */
+    void courseFilled(int courseId) {
+        IdSet view = availableCoursesOf(courseId);
+        if (view != null) {
+            view.remove(courseId);
+        }
+    }
+
+    /**
+     * courseFreed is called when a seat of a full course becomes free
+     * @param courseId ID of a course
+     */
+    void courseFreed(int courseId) {
+        IdSet view = availableCoursesOf(courseId);
+        if (view != null) {
+            view.add(courseId);
+        }
+    }
+
+    /**
+     * professorFreed is called for a new professor and when a professor may
+     * take one more course
+     * @param memberId ID of a professor
+     */
+    void professorFreed(int memberId) {
+        professorsWithSpareLoad.add(memberId);
+    }
+
+    /**
+     * professorLoaded is called when a professor reaches the maximum load
+     * @param memberId ID of a professor
+     */
+    void professorLoaded(int memberId) {
+        professorsWithSpareLoad.remove(memberId);
+    }
+
+    /**
+     * countAvailableCourses returns amount of courses of a level which have a
+     * free seat
+     * @param courseLevel level of courses
+     * @return this amount
+     */
+    int countAvailableCourses(CourseLevel courseLevel) {
+        return availableCourses[courseLevel.ordinal()].size();
+    }
+
+    /**
+     * getAvailableCourses returns IDs of courses of a level which have a free
+     * seat, in no particular order
+     * @param courseLevel level of courses
+     * @return copy of these IDs
+     */
+    int[] getAvailableCourses(CourseLevel courseLevel) {
+        return availableCourses[courseLevel.ordinal()].toArray();
+    }
+
+    /**
+     * countProfessorsWithSpareLoad returns amount of professors who may take
+     * one more course
+     * @return this amount
+     */
+    int countProfessorsWithSpareLoad() {
+        return professorsWithSpareLoad.size();
+    }
+
+    /**
+     * getProfessorsWithSpareLoad returns IDs of professors who may take one
+     * more course, in no particular order
+     * @return copy of these IDs
+     */
+    int[] getProfessorsWithSpareLoad() {
+        return professorsWithSpareLoad.toArray();
+    }
+
+    // null in case the course was not added to the views
+    private IdSet availableCoursesOf(int courseId) {
+        int level = courseId > 0 && courseId < courseLevels.length ? courseLevels[courseId] : 0;
+        return level == 0 ? null : availableCourses[level - 1];
+    }
+
+    // IDs in an array and their positions in it, removal moves the last ID
+    // to the free place
+    private static final class IdSet {
+        private static final int MISSING = -1;
+
+        private final IntList ids = new IntList();
+        private final LongIntMap positions = new LongIntMap(MISSING);
+
+        synchronized void add(int id) {
+            if (!positions.containsKey(id)) {
+                positions.put(id, ids.add(id));
+            }
+        }
+
+        synchronized void remove(int id) {
+            int position = positions.remove(id);
+            if (position != MISSING && ids.removeAt(position) != -1) {
+                positions.put(ids.get(position), position);
+            }
+        }
+
+        synchronized int size() {
+            return ids.size();
+        }
+
+        synchronized int[] toArray() {
+            return ids.toArray();
+        }
+    }
+}
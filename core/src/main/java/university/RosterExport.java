@@ -0,0 +1,67 @@
+package university;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * RosterExport writes rosters of all courses and courses of all members to
+ * a text file. It reads a view of model versions, so enroll, drop, teach
+ * and exempt go on while the file is written, however long it takes, and
+ * the file still shows one moment of the state.
+ * Lines are "course,ID,name,level,students", "student,ID,courses" and
+ * "professor,ID,courses", ordered by ID, with IDs separated by ';' in
+ * increasing order. The file is replaced atomically.
+ */
+final class RosterExport {
+    private RosterExport() {
+    }
+
+    /**
+     * write exports the state as it is at the moment of the call
+     * @param path     path of the export file
+     * @param versions versions of the model which is exported
+     * @throws IOException in case the file cannot be written
+     */
+    static void write(Path path, ModelVersions versions) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (ModelVersions.View view = versions.open();
+                BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (int courseId = 1; courseId <= view.getNumberOfCourses(); courseId++) {
+                Course course = view.getCourse(courseId);
+                if (course == null) {
+                    continue;
+                }
+                out.write("course," + courseId + ',' + course.getCourseName() + ','
+                        + course.getCourseLevel().name().toLowerCase(Locale.ROOT) + ',');
+                writeIds(out, view.getStudents(courseId));
+            }
+            for (int memberId = 1; memberId <= view.getNumberOfMembers(); memberId++) {
+                byte kind = view.kindOf(memberId);
+                if (kind == 0) {
+                    continue;
+                }
+                out.write((kind == MemberTable.STUDENT ? "student," : "professor,") + memberId + ',');
+                writeIds(out, view.getCourses(memberId));
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // the array is a copy of the view, so it is sorted in place
+    private static void writeIds(BufferedWriter out, int[] ids) throws IOException {
+        Arrays.sort(ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                out.write(';');
+            }
+            out.write(Integer.toString(ids[i]));
+        }
+        out.newLine();
+    }
+}
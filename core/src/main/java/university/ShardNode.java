@@ -0,0 +1,272 @@
+package university;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ShardNode is one process of the sharded mode. Courses are split between
+ * shards by course ID and members by member ID: a shard keeps the seats and
+ * students of its courses and the professors of them in its own engine, and
+ * it is the home of its members, which means it knows whether a member
+ * exists and how many places under its limit the member uses across all
+ * shards. Names of courses are split by their hash, a shard remembers the
+ * names it owns, so a name is checked in one place.
+ * Limits which span shards are kept with reservations: the router first
+ * reserves a place of a member at its home, then applies the change at the
+ * shard of the course and releases the place in case the change fails or a
+ * course is left later. So a home never counts fewer places than are used,
+ * and a student can never have more than MAX_ENROLLMENT courses or a
+ * professor more than MAX_LOAD, whatever runs at the same time.
+ * A member appears in the engine of another shard, without its name, the
+ * first time it joins one of the courses there.
+ * Requests are lines of words separated by spaces, every request has an
+ * answer of one line. A router reads the answer of a release only before
+ * its next request on the same connection, so it does not wait for it.
+ */
+final class ShardNode {
+    static final String OK = "ok";
+    static final String EXISTS = "exists";
+    static final String WRONG = "wrong";
+    static final String LIMIT = "limit";
+    static final String UNKNOWN = "unknown";
+    static final String ERROR = "error ";
+
+    private final int index;
+    private final int count;
+    private final Registry registry;
+    private final EnrollmentEngine engine;
+    private final Set<String> courseNames = ConcurrentHashMap.newKeySet();
+    private final BitSet courses = new BitSet();
+    private byte[] kinds = new byte[16];
+    private int[] usedPlaces = new int[16];
+    private int lastCourseId;
+    private int lastMemberId;
+
+    /**
+     * creates a shard over the registry and the engine of the program
+     * @param index number of this shard from 0
+     * @param count amount of shards
+     */
+    ShardNode(int index, int count) {
+        this.index = index;
+        this.count = count;
+        registry = Registry.getInstance();
+        engine = UniversityCourseManagementSystem.getEngine();
+    }
+
+    /**
+     * shardOf returns the shard which keeps a course or is the home of a
+     * member
+     * @param id     ID of a course or a member
+     * @param shards amount of shards
+     * @return number of the shard from 0
+     */
+    static int shardOf(int id, int shards) {
+        return Math.floorMod(id, shards);
+    }
+
+    /**
+     * shardOfName returns the shard which owns a name of a course
+     * @param courseName name of a course
+     * @param shards     amount of shards
+     * @return number of the shard from 0
+     */
+    static int shardOfName(String courseName, int shards) {
+        return Math.floorMod(foldName(courseName).hashCode(), shards);
+    }
+
+    /**
+     * kindName returns the word which stands for a type of members in
+     * requests
+     * @param kind MemberTable.STUDENT, MemberTable.PROFESSOR or 0
+     * @return "student", "professor" or "none"
+     */
+    static String kindName(byte kind) {
+        switch (kind) {
+            case MemberTable.STUDENT:
+                return "student";
+            case MemberTable.PROFESSOR:
+                return "professor";
+            default:
+                return "none";
+        }
+    }
+
+    // the opposite of kindName
+    private static byte kindOf(String kindName) {
+        switch (kindName) {
+            case "student":
+                return MemberTable.STUDENT;
+            case "professor":
+                return MemberTable.PROFESSOR;
+            default:
+                throw new IllegalArgumentException("Unknown kind " + kindName);
+        }
+    }
+
+    /**
+     * serve answers requests of one router connection until an empty line
+     * or the end of input. An answer which starts with "error " means the
+     * request could not be applied, the connection is closed after it.
+     * @param in  requests of a router
+     * @param out answers to the router
+     */
+    void serve(CommandInput in, CommandOutput out) {
+        try {
+            while (in.hasNextLine()) {
+                String request = in.nextLine();
+                if (request.isEmpty()) {
+                    break;
+                }
+                out.println(answer(request.split(" ")));
+            }
+        } catch (RuntimeException e) {
+            out.println(ERROR + e.getMessage());
+        }
+        out.flush();
+    }
+
+    // applies one request and returns its answer
+    private String answer(String[] request) {
+        switch (request[0]) {
+            case "status":
+                return status();
+            case "claim":
+                return courseNames.add(foldName(request[1])) ? OK : EXISTS;
+            case "unclaim":
+                courseNames.remove(foldName(request[1]));
+                return OK;
+            case "course":
+                addCourse(Integer.parseInt(request[1]), request[2], CourseLevel.valueOf(request[3]));
+                return OK;
+            case "member":
+                addMember(Integer.parseInt(request[1]), kindOf(request[2]), request[3]);
+                return OK;
+            case "kind":
+                return kindName(homeKindOf(Integer.parseInt(request[1])));
+            case "reserve":
+                return reserve(Integer.parseInt(request[1]), kindOf(request[2]));
+            case "release":
+                return release(Integer.parseInt(request[1]));
+            default:
+                return applyPair(request[0], Integer.parseInt(request[1]), Integer.parseInt(request[2]),
+                        request.length > 3 && request[3].equals("1"));
+        }
+    }
+
+    // enroll, drop, teach or exempt of a course of this shard
+    private String applyPair(String operation, int memberId, int courseId, boolean withinLimit) {
+        switch (operation) {
+            case "enroll":
+                introduce(memberId, MemberTable.STUDENT);
+                return engine.enroll(memberId, courseId, withinLimit).name();
+            case "teach":
+                introduce(memberId, MemberTable.PROFESSOR);
+                return engine.teach(memberId, courseId, withinLimit).name();
+            case "drop":
+            case "exempt":
+                if (!hasCourse(courseId)) {
+                    return Outcome.WRONG_INPUTS.name();
+                }
+                // a member who never joined a course here can only be checked at its home
+                if (!MemberTable.getInstance().contains(memberId)) {
+                    return UNKNOWN;
+                }
+                Outcome outcome = operation.equals("drop") ? engine.drop(memberId, courseId)
+                        : engine.exempt(memberId, courseId);
+                return outcome.name();
+            default:
+                throw new IllegalArgumentException("Unknown request " + operation);
+        }
+    }
+
+    private synchronized String status() {
+        return index + " " + count + " " + lastCourseId + " " + lastMemberId;
+    }
+
+    private void addCourse(int courseId, String courseName, CourseLevel courseLevel) {
+        engine.exclusive(() -> registry.addCourse(new Course(courseId, courseName, courseLevel)));
+        synchronized (this) {
+            courses.set(courseId / count);
+            lastCourseId = Math.max(lastCourseId, courseId);
+        }
+    }
+
+    private synchronized boolean hasCourse(int courseId) {
+        return courseId > 0 && shardOf(courseId, count) == index && courses.get(courseId / count);
+    }
+
+    // creates a member whose home is this shard
+    private void addMember(int memberId, byte kind, String memberName) {
+        engine.exclusive(() -> register(memberId, kind, memberName));
+        synchronized (this) {
+            int position = memberId / count;
+            if (position >= kinds.length) {
+                int capacity = Math.max(kinds.length << 1, position + 1);
+                kinds = Arrays.copyOf(kinds, capacity);
+                usedPlaces = Arrays.copyOf(usedPlaces, capacity);
+            }
+            kinds[position] = kind;
+            lastMemberId = Math.max(lastMemberId, memberId);
+        }
+    }
+
+    // adds a member of another shard the first time one of its courses is here
+    private void introduce(int memberId, byte kind) {
+        if (MemberTable.getInstance().contains(memberId)) {
+            return;
+        }
+        engine.exclusive(() -> {
+            if (!MemberTable.getInstance().contains(memberId)) {
+                register(memberId, kind, "");
+            }
+        });
+    }
+
+    private void register(int memberId, byte kind, String memberName) {
+        if (kind == MemberTable.STUDENT) {
+            registry.addStudent(new Student(memberId, memberName));
+        } else {
+            registry.addProfessor(new Professor(memberId, memberName));
+        }
+    }
+
+    private synchronized byte homeKindOf(int memberId) {
+        int position = memberId / count;
+        if (memberId <= 0 || shardOf(memberId, count) != index || position >= kinds.length) {
+            return 0;
+        }
+        return kinds[position];
+    }
+
+    // takes a place under the limit of a member in case there is a free one
+    private synchronized String reserve(int memberId, byte kind) {
+        if (homeKindOf(memberId) != kind) {
+            return WRONG;
+        }
+        int limit = kind == MemberTable.STUDENT ? new Student(memberId).getMaxEnrollment()
+                : new Professor(memberId).getMaxLoad();
+        int position = memberId / count;
+        if (usedPlaces[position] == limit) {
+            return LIMIT;
+        }
+        usedPlaces[position]++;
+        return OK;
+    }
+
+    // gives a place back, a member without a taken place is answered as wrong and the session goes on
+    private synchronized String release(int memberId) {
+        if (homeKindOf(memberId) == 0 || usedPlaces[memberId / count] == 0) {
+            return WRONG;
+        }
+        usedPlaces[memberId / count]--;
+        return OK;
+    }
+
+    private static String foldName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
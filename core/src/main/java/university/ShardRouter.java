@@ -0,0 +1,322 @@
+package university;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ShardRouter forwards commands to shards, see ShardNode for how the state
+ * is split. The router gives IDs to new courses and members, so IDs are the
+ * same as in one process, and keeps nothing else: every client gets a
+ * session with its own connections to all shards.
+ * Enroll and teach reserve a place of the member at its home shard, then
+ * apply the change at the shard of the course and release the place in case
+ * the change fails; drop and exempt release the place after the change.
+ * Checks come in the same order as in one process, so every command gives
+ * the same result as the engine would.
+ * A router which crashes between a reservation and its release leaves the
+ * place taken, a member then may take fewer courses, but never more.
+ */
+final class ShardRouter {
+    private static final int INPUT_BUFFER_SIZE = 1 << 12;
+
+    private final List<InetSocketAddress> shards;
+    private final AtomicInteger lastCourseId = new AtomicInteger();
+    private final AtomicInteger lastMemberId = new AtomicInteger();
+
+    private ShardRouter(List<InetSocketAddress> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * connect checks that every shard knows its place and takes the last
+     * IDs from them. Shards without any data get the initial data of the
+     * program.
+     * @param shards addresses of shards in order of their numbers
+     * @return router over these shards
+     */
+    static ShardRouter connect(List<InetSocketAddress> shards) {
+        ShardRouter router = new ShardRouter(shards);
+        try (Session session = router.openSession()) {
+            for (int i = 0; i < shards.size(); i++) {
+                String[] status = session.request(i, "status").split(" ");
+                if (Integer.parseInt(status[0]) != i || Integer.parseInt(status[1]) != shards.size()) {
+                    throw new IllegalStateException("Shard at " + shards.get(i) + " is " + status[0] + "/"
+                            + status[1] + ", expected " + i + "/" + shards.size());
+                }
+                router.lastCourseId.accumulateAndGet(Integer.parseInt(status[2]), Math::max);
+                router.lastMemberId.accumulateAndGet(Integer.parseInt(status[3]), Math::max);
+            }
+            if (router.lastCourseId.get() == 0 && router.lastMemberId.get() == 0) {
+                seed(session);
+            }
+        }
+        return router;
+    }
+
+    /**
+     * parseAddresses reads addresses of shards like "host:port,host:port"
+     * @param addresses addresses separated by commas
+     * @return these addresses in the same order
+     */
+    static List<InetSocketAddress> parseAddresses(String addresses) {
+        List<InetSocketAddress> parsed = new ArrayList<>();
+        for (String address : addresses.split(",")) {
+            int colon = address.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException(address);
+            }
+            parsed.add(new InetSocketAddress(address.substring(0, colon),
+                    Integer.parseInt(address.substring(colon + 1))));
+        }
+        return parsed;
+    }
+
+    /**
+     * openSession connects to all shards for one client
+     * @return session which must be closed after the client is served
+     */
+    Session openSession() {
+        return new Session();
+    }
+
+    // applies fillInitialData to the local model and sends the result to shards
+    private static void seed(Session session) {
+        UniversityCourseManagementSystem.fillInitialData();
+        Registry registry = Registry.getInstance();
+        MemberTable table = MemberTable.getInstance();
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Course course : registry.getCourses()) {
+            outcomes.add(session.addCourse(course.getCourseName(), course.getCourseLevel()));
+        }
+        for (int memberId = 1; memberId <= UniversityMember.getNumberOfMembers(); memberId++) {
+            outcomes.add(table.kindOf(memberId) == MemberTable.STUDENT ? session.addStudent(table.nameOf(memberId))
+                    : session.addProfessor(table.nameOf(memberId)));
+        }
+        for (Student student : registry.getStudents()) {
+            for (Course course : student.getEnrolledCourses()) {
+                outcomes.add(session.enroll(student.getMemberId(), course.getCourseId()));
+            }
+        }
+        for (Professor professor : registry.getProfessors()) {
+            for (Course course : professor.getAssignedCourses()) {
+                outcomes.add(session.teach(professor.getMemberId(), course.getCourseId()));
+            }
+        }
+        UniversityCourseManagementSystem.resetState();
+        for (Outcome outcome : outcomes) {
+            if (!outcome.isSuccess()) {
+                throw new IllegalStateException("Initial data is rejected: " + outcome.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Session forwards commands of one client. It is used by one thread.
+     */
+    final class Session implements CommandTarget, AutoCloseable {
+        private final Connection[] connections = new Connection[shards.size()];
+
+        private Session() {
+        }
+
+        @Override
+        public Outcome addCourse(String courseName, CourseLevel courseLevel) {
+            if (!request(ShardNode.shardOfName(courseName, shards.size()), "claim " + courseName)
+                    .equals(ShardNode.OK)) {
+                return Outcome.COURSE_EXISTS;
+            }
+            int courseId = lastCourseId.incrementAndGet();
+            try {
+                request(shardOf(courseId), "course " + courseId + " " + courseName + " " + courseLevel.name());
+            } catch (RuntimeException e) {
+                // the name stays free for a later try, the ID is not given again
+                try {
+                    request(ShardNode.shardOfName(courseName, shards.size()), "unclaim " + courseName);
+                } catch (RuntimeException unclaim) {
+                    e.addSuppressed(unclaim);
+                }
+                throw e;
+            }
+            return Outcome.ADDED;
+        }
+
+        @Override
+        public Outcome addStudent(String memberName) {
+            return addMember(MemberTable.STUDENT, memberName);
+        }
+
+        @Override
+        public Outcome addProfessor(String memberName) {
+            return addMember(MemberTable.PROFESSOR, memberName);
+        }
+
+        @Override
+        public Outcome enroll(int memberId, int courseId) {
+            return reserveAndApply("enroll", MemberTable.STUDENT, memberId, courseId, Outcome.ENROLLED);
+        }
+
+        // shards keep no waitlists, a full course is answered like by enroll
+        @Override
+        public Outcome enrollOrWaitlist(int memberId, int courseId) {
+            return enroll(memberId, courseId);
+        }
+
+        @Override
+        public Outcome drop(int memberId, int courseId) {
+            return applyAndRelease("drop", MemberTable.STUDENT, memberId, courseId, Outcome.DROPPED,
+                    Outcome.NOT_ENROLLED);
+        }
+
+        @Override
+        public Outcome teach(int memberId, int courseId) {
+            return reserveAndApply("teach", MemberTable.PROFESSOR, memberId, courseId, Outcome.ASSIGNED);
+        }
+
+        @Override
+        public Outcome exempt(int memberId, int courseId) {
+            return applyAndRelease("exempt", MemberTable.PROFESSOR, memberId, courseId, Outcome.EXEMPTED,
+                    Outcome.NOT_TEACHING);
+        }
+
+        /**
+         * close closes connections to all shards
+         */
+        @Override
+        public void close() {
+            for (Connection connection : connections) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        }
+
+        private Outcome addMember(byte kind, String memberName) {
+            int memberId = lastMemberId.incrementAndGet();
+            request(shardOf(memberId), "member " + memberId + " " + ShardNode.kindName(kind) + " " + memberName);
+            return Outcome.ADDED;
+        }
+
+        // the first phase takes a place at the home of the member, the second one applies the change
+        private Outcome reserveAndApply(String operation, byte kind, int memberId, int courseId, Outcome success) {
+            int home = shardOf(memberId);
+            String reservation = request(home, "reserve " + memberId + " " + ShardNode.kindName(kind));
+            if (reservation.equals(ShardNode.WRONG)) {
+                return Outcome.WRONG_INPUTS;
+            }
+            boolean reserved = reservation.equals(ShardNode.OK);
+            Outcome outcome = Outcome.valueOf(request(shardOf(courseId),
+                    operation + " " + memberId + " " + courseId + (reserved ? " 1" : " 0")));
+            if (reserved && outcome != success) {
+                send(home, "release " + memberId);
+            }
+            return outcome;
+        }
+
+        // a course is left first, its place at the home of the member is released after
+        private Outcome applyAndRelease(String operation, byte kind, int memberId, int courseId, Outcome success,
+                Outcome absent) {
+            String answer = request(shardOf(courseId), operation + " " + memberId + " " + courseId);
+            if (answer.equals(ShardNode.UNKNOWN)) {
+                String homeKind = request(shardOf(memberId), "kind " + memberId);
+                return homeKind.equals(ShardNode.kindName(kind)) ? absent : Outcome.WRONG_INPUTS;
+            }
+            Outcome outcome = Outcome.valueOf(answer);
+            if (outcome == success) {
+                send(shardOf(memberId), "release " + memberId);
+            }
+            return outcome;
+        }
+
+        private int shardOf(int id) {
+            return ShardNode.shardOf(id, shards.size());
+        }
+
+        // sends a request and waits for its answer, a shard ends the session after an error, so the next
+        // request to it opens a new connection
+        private String request(int shard, String request) {
+            Connection connection = connection(shard);
+            try {
+                return connection.request(request);
+            } catch (RuntimeException e) {
+                connection.close();
+                connections[shard] = null;
+                throw e;
+            }
+        }
+
+        // sends a request whose answer is read before the next request to the same shard
+        private void send(int shard, String request) {
+            connection(shard).send(request);
+        }
+
+        private Connection connection(int shard) {
+            if (connections[shard] == null) {
+                connections[shard] = new Connection(shards.get(shard));
+            }
+            return connections[shard];
+        }
+    }
+
+    // one TCP connection to a shard, requests and answers go one after another
+    private static final class Connection {
+        private final Socket socket;
+        private final ChannelCommandInput input;
+        private final BatchedCommandOutput output;
+        private int skippedAnswers;
+
+        Connection(InetSocketAddress address) {
+            socket = new Socket();
+            try {
+                socket.connect(address);
+                socket.setTcpNoDelay(true);
+                input = new ChannelCommandInput(Channels.newChannel(socket.getInputStream()),
+                        StandardCharsets.UTF_8, INPUT_BUFFER_SIZE);
+                output = new BatchedCommandOutput(socket.getOutputStream(), StandardCharsets.UTF_8, 1);
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Shard " + address + " is not available", e);
+            }
+        }
+
+        String request(String request) {
+            output.println(request);
+            // a release which was not answered as ok leaves the count of places as it was, nothing to undo
+            for (; skippedAnswers > 0; skippedAnswers--) {
+                readAnswer();
+            }
+            return readAnswer();
+        }
+
+        void send(String request) {
+            output.println(request);
+            skippedAnswers++;
+        }
+
+        private String readAnswer() {
+            if (!input.hasNextLine()) {
+                throw new UncheckedIOException(new EOFException("Shard closed the connection"));
+            }
+            String answer = input.nextLine();
+            if (answer.startsWith(ShardNode.ERROR)) {
+                throw new IllegalStateException(answer.substring(ShardNode.ERROR.length()));
+            }
+            return answer;
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing to do, the shard sees the end of input anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package university;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot is a binary copy of the whole state which can be opened without
+ * reading it record by record.
+ * The file has a header, a table of courses, time slots of courses, a table
+ * of members ordered by ID, a table of links (courses of a student or of a
+ * professor), all names in UTF-8 and CRC32C of everything before it.
+ * Entries of the tables have a fixed size, so an entry is read directly
+ * from the mapped file.
+ * On load only courses and their columns of students are created, members
+ * stay in the mapped file and are created by the registry the first time
+ * they are needed.
+ * A snapshot remembers the epoch of the journal it contains, so records of
+ * this journal are not replayed once more.
+ */
+final class Snapshot implements MemberSource {
+    private static final int MAGIC = 0x554D5353;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 40;
+    private static final int COURSE_ENTRY_SIZE = 14;
+    private static final int MEMBER_ENTRY_SIZE = 18;
+
+    private static final byte STUDENT = 1;
+    private static final byte PROFESSOR = 2;
+
+    private final MappedByteBuffer data;
+    private final Registry registry;
+    private final EnrollmentStore store;
+    private final long journalEpoch;
+    private final int membersOffset;
+    private final int memberCount;
+    private final int linksOffset;
+    private final int namesOffset;
+
+    private Snapshot(MappedByteBuffer data, Registry registry, EnrollmentStore store, long journalEpoch,
+            int membersOffset, int memberCount, int linksOffset, int namesOffset) {
+        this.data = data;
+        this.registry = registry;
+        this.store = store;
+        this.journalEpoch = journalEpoch;
+        this.membersOffset = membersOffset;
+        this.memberCount = memberCount;
+        this.linksOffset = linksOffset;
+        this.namesOffset = namesOffset;
+    }
+
+    /**
+     * save writes a snapshot of the state while no change runs and starts a
+     * new epoch of the journal, whose records are now in the snapshot
+     * @param path     path of a snapshot file
+     * @param registry registry which is changed by the engine
+     * @param engine   engine which applies all changes
+     * @param journal  journal of the changes or null
+     * @throws IOException in case the snapshot cannot be written
+     */
+    static void save(Path path, Registry registry, EnrollmentEngine engine, Journal journal) throws IOException {
+        try {
+            engine.exclusive(() -> {
+                try {
+                    if (journal == null) {
+                        write(path, registry, 0);
+                    } else {
+                        journal.awaitWritten();
+                        write(path, registry, journal.getEpoch());
+                        journal.rotate();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * write saves the registry and the enrollment store to a file. The file
+     * is replaced atomically, so a crash leaves the previous snapshot.
+     * All pending members of the registry are added to it before.
+     * @param path         path of a snapshot file
+     * @param registry     registry which must be saved
+     * @param journalEpoch epoch of the journal which is contained in the snapshot
+     * @throws IOException in case the file cannot be written
+     */
+    static void write(Path path, Registry registry, long journalEpoch) throws IOException {
+        List<Course> courses = registry.getCourses();
+        List<Student> students = registry.getStudents();
+        List<Professor> professors = registry.getProfessors();
+        List<UniversityMember> members = new ArrayList<>(students.size() + professors.size());
+        int linkCount = 0;
+        int s = 0;
+        int p = 0;
+        while (s < students.size() || p < professors.size()) {
+            UniversityMember member = p == professors.size() || s < students.size()
+                    && students.get(s).getMemberId() < professors.get(p).getMemberId()
+                    ? students.get(s++) : professors.get(p++);
+            members.add(member);
+            linkCount += linksOf(member).size();
+        }
+        int slotCount = 0;
+        for (Course course : courses) {
+            if (course.getTimeSlots().size() > 0xFF) {
+                throw new IOException("Course has too many time slots for a snapshot");
+            }
+            slotCount += course.getTimeSlots().size();
+        }
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16),
+                    checksum));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalEpoch);
+            out.writeInt(Course.getNumberOfCourses());
+            out.writeInt(UniversityMember.getNumberOfMembers());
+            out.writeInt(courses.size());
+            out.writeInt(members.size());
+            out.writeInt(linkCount);
+            out.writeInt(slotCount);
+            for (Course course : courses) {
+                out.writeInt(course.getCourseId());
+                writeName(out, names, course.getCourseName());
+                out.writeByte(course.getCourseLevel().ordinal());
+                out.writeByte(course.getTimeSlots().size());
+            }
+            for (Course course : courses) {
+                for (TimeSlot slot : course.getTimeSlots()) {
+                    out.writeInt(slot.pack());
+                }
+            }
+            int link = 0;
+            for (UniversityMember member : members) {
+                int links = linksOf(member).size();
+                out.writeInt(member.getMemberId());
+                writeName(out, names, member.getMemberName());
+                out.writeByte(member instanceof Student ? STUDENT : PROFESSOR);
+                out.writeByte(links);
+                out.writeInt(link);
+                link += links;
+            }
+            for (UniversityMember member : members) {
+                for (Course course : linksOf(member)) {
+                    out.writeInt(course.getCourseId());
+                }
+            }
+            names.writeTo(out);
+            out.flush();
+            int crc = (int) checksum.getValue();
+            out.writeInt(crc);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // courses of a student or assigned courses of a professor
+    private static List<Course> linksOf(UniversityMember member) {
+        return member instanceof Student ? ((Student) member).getEnrolledCourses()
+                : ((Professor) member).getAssignedCourses();
+    }
+
+    // writes offset and length of a name and appends the name to the arena
+    private static void writeName(DataOutputStream out, ByteArrayOutputStream names, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(names.size());
+        out.writeInt(bytes.length);
+        names.write(bytes);
+    }
+
+    /**
+     * load maps a snapshot file and restores courses, enrollments of courses
+     * and counters of IDs. The registry and the store must be empty. Members
+     * are given to the registry as a member source.
+     * @param path     path of a snapshot file
+     * @param registry empty registry
+     * @param store    empty enrollment store
+     * @return loaded snapshot
+     * @throws IOException in case the file cannot be read or is damaged
+     */
+    static Snapshot load(Path path, Registry registry, EnrollmentStore store) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is larger than 2 GiB");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (data.capacity() < HEADER_SIZE + Integer.BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a snapshot of version " + VERSION);
+        }
+        CRC32C checksum = new CRC32C();
+        int end = data.capacity() - Integer.BYTES;
+        checksum.update(data.duplicate().limit(end));
+        if ((int) checksum.getValue() != data.getInt(end)) {
+            throw new IOException("Snapshot is damaged");
+        }
+        long journalEpoch = data.getLong(8);
+        int numberOfCourses = data.getInt(16);
+        int numberOfMembers = data.getInt(20);
+        int courseCount = data.getInt(24);
+        int memberCount = data.getInt(28);
+        int linkCount = data.getInt(32);
+        int slotCount = data.getInt(36);
+        int slotsOffset = HEADER_SIZE + courseCount * COURSE_ENTRY_SIZE;
+        int membersOffset = slotsOffset + slotCount * Integer.BYTES;
+        int linksOffset = membersOffset + memberCount * MEMBER_ENTRY_SIZE;
+        int namesOffset = linksOffset + linkCount * Integer.BYTES;
+        Snapshot snapshot = new Snapshot(data, registry, store, journalEpoch, membersOffset, memberCount, linksOffset,
+                namesOffset);
+
+        CourseLevel[] levels = CourseLevel.values();
+        int slot = slotsOffset;
+        for (int i = 0; i < courseCount; i++) {
+            int entry = HEADER_SIZE + i * COURSE_ENTRY_SIZE;
+            List<TimeSlot> timeSlots = new ArrayList<>();
+            for (int k = data.get(entry + 13) & 0xFF; k > 0; k--, slot += Integer.BYTES) {
+                timeSlots.add(TimeSlot.unpack(data.getInt(slot)));
+            }
+            Course course = new Course(data.getInt(entry), snapshot.readName(entry + 4), levels[data.get(entry + 12)],
+                    timeSlots);
+            registry.addCourse(course);
+        }
+        for (int i = 0; i < memberCount; i++) {
+            int entry = membersOffset + i * MEMBER_ENTRY_SIZE;
+            int memberId = data.getInt(entry);
+            int links = data.get(entry + 13) & 0xFF;
+            if (data.get(entry + 12) == STUDENT) {
+                int first = linksOffset + data.getInt(entry + 14) * Integer.BYTES;
+                for (int link = 0; link < links; link++) {
+                    store.restoreColumnEntry(memberId, data.getInt(first + link * Integer.BYTES));
+                }
+            } else if (links < Professor.MAX_LOAD) {
+                // a pending professor is already counted by report views
+                ReportViews.getInstance().professorFreed(memberId);
+            }
+        }
+        Course.setNumberOfCourses(numberOfCourses);
+        UniversityMember.setNumberOfMembers(numberOfMembers);
+        registry.setMemberSource(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * getJournalEpoch returns the epoch of the journal which is contained in
+     * the snapshot
+     * @return this epoch, 0 in case the snapshot was saved without a journal
+     */
+    long getJournalEpoch() {
+        return journalEpoch;
+    }
+
+    @Override
+    public int size() {
+        return memberCount;
+    }
+
+    @Override
+    public int memberIdAt(int index) {
+        return data.getInt(membersOffset + index * MEMBER_ENTRY_SIZE);
+    }
+
+    @Override
+    public byte kindAt(int index) {
+        return data.get(membersOffset + index * MEMBER_ENTRY_SIZE + 12) == STUDENT ? MemberTable.STUDENT
+                : MemberTable.PROFESSOR;
+    }
+
+    @Override
+    public int[] coursesAt(int index) {
+        int entry = membersOffset + index * MEMBER_ENTRY_SIZE;
+        int first = linksOffset + data.getInt(entry + 14) * Integer.BYTES;
+        int[] courseIds = new int[data.get(entry + 13) & 0xFF];
+        for (int link = 0; link < courseIds.length; link++) {
+            courseIds[link] = data.getInt(first + link * Integer.BYTES);
+        }
+        return courseIds;
+    }
+
+    @Override
+    public boolean contains(int memberId) {
+        return indexOf(memberId) >= 0;
+    }
+
+    @Override
+    public UniversityMember load(int memberId) {
+        int entry = membersOffset + indexOf(memberId) * MEMBER_ENTRY_SIZE;
+        String name = readName(entry + 4);
+        int first = linksOffset + data.getInt(entry + 14) * Integer.BYTES;
+        int links = data.get(entry + 13) & 0xFF;
+        if (data.get(entry + 12) == STUDENT) {
+            Student student = new Student(memberId, name);
+            for (int link = 0; link < links; link++) {
+                store.restoreRowEntry(memberId, data.getInt(first + link * Integer.BYTES));
+            }
+            return student;
+        }
+        Professor professor = new Professor(memberId, name);
+        for (int link = 0; link < links; link++) {
+            professor.teach(registry.findCourse(data.getInt(first + link * Integer.BYTES)));
+        }
+        return professor;
+    }
+
+    // binary search in the table of members, -1 in case there is no such ID
+    private int indexOf(int memberId) {
+        int low = 0;
+        int high = memberCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = memberIdAt(middle);
+            if (id < memberId) {
+                low = middle + 1;
+            } else if (id > memberId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private String readName(int position) {
+        int offset = namesOffset + data.getInt(position);
+        int length = data.getInt(position + 4);
+        byte[] bytes = new byte[length];
+        data.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
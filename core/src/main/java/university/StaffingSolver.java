@@ -0,0 +1,391 @@
+package university;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StaffingSolver assigns professors to all courses which nobody teaches, as
+ * many courses as possible at once. A professor may get a course only in
+ * case it is qualified for it, has load left under MAX_LOAD and the course
+ * does not meet at the same time as a course the professor already teaches.
+ * Courses and the free load of professors form a bipartite graph where
+ * every professor appears once per free course, and a maximum matching is
+ * found with Hopcroft–Karp: every phase finds the shortest augmenting paths
+ * from all courses without a professor by breadth-first search and then
+ * follows them by depth-first search, so about the square root of the
+ * amount of courses phases are needed.
+ * A professor who got two courses which meet at the same time loses the one
+ * with the greater ID, is never matched with it again, and the matching is
+ * augmented further, until no such pair is left. Then courses left without
+ * a professor take any free load which does not overlap, so the result is
+ * maximal with meeting times and maximum without them.
+ * The graph is built and the result is applied under the write lock of the
+ * engine, so every assignment is valid when it is made and other changes
+ * see all of them or none.
+ */
+final class StaffingSolver {
+    private static final int FREE = -1;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[] courseIds;
+    private final int[] edgeStarts;
+    private final int[] edges;
+    private final boolean[] banned;
+    private final int[] slotOwners;
+    private final int[] courseOfSlot;
+    private final int[] slotOfCourse;
+    private final int[] distances;
+    private final int[] path;
+    private final int[] via;
+    private final int[] nextEdges;
+
+    private StaffingSolver(int[] courseIds, int[] edgeStarts, int[] edges, int[] slotOwners) {
+        this.courseIds = courseIds;
+        this.edgeStarts = edgeStarts;
+        this.edges = edges;
+        this.slotOwners = slotOwners;
+        banned = new boolean[edges.length];
+        courseOfSlot = new int[slotOwners.length];
+        slotOfCourse = new int[courseIds.length];
+        distances = new int[courseIds.length];
+        path = new int[courseIds.length];
+        via = new int[courseIds.length];
+        nextEdges = new int[courseIds.length];
+        Arrays.fill(courseOfSlot, FREE);
+        Arrays.fill(slotOfCourse, FREE);
+    }
+
+    /**
+     * staff assigns qualified professors to courses without a professor
+     * @param engine         engine which applies all changes
+     * @param qualifications courses which every professor may teach
+     * @return amount of assigned courses and courses left without a
+     *         professor
+     */
+    static Result staff(EnrollmentEngine engine, Qualifications qualifications) {
+        Result result = new Result();
+        engine.teachAll(sink -> {
+            StaffingSolver solver = build(qualifications);
+            solver.solve();
+            result.assigned = solver.apply(sink, result);
+            return result.assigned > 0;
+        });
+        return result;
+    }
+
+    /**
+     * readQualifications reads a CSV file of lines "professorId,courseId",
+     * empty lines are skipped
+     * @param file CSV file
+     * @return qualifications from the file
+     * @throws IOException in case the file cannot be read or a line is wrong
+     */
+    static Qualifications readQualifications(Path file) throws IOException {
+        Qualifications qualifications = new Qualifications();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                try {
+                    qualifications.add(Integer.parseInt(line.substring(0, Math.max(0, comma))),
+                            Integer.parseInt(line.substring(comma + 1)));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Wrong qualification in line " + lineNumber + " of " + file);
+                }
+            }
+        }
+        return qualifications;
+    }
+
+    // every free course of a professor is one slot, slots of a professor are next to each other
+    private static StaffingSolver build(Qualifications qualifications) {
+        Registry registry = Registry.getInstance();
+        MemberTable table = MemberTable.getInstance();
+        Timetable timetable = Timetable.getInstance();
+        List<Professor> professors = registry.getProfessors();
+        boolean[] staffed = new boolean[Course.getNumberOfCourses() + 1];
+        int[] firstSlots = new int[UniversityMember.getNumberOfMembers() + 1];
+        int[] slotCounts = new int[firstSlots.length];
+        IntList slotOwners = new IntList();
+        for (int i = 0; i < professors.size(); i++) {
+            int memberId = professors.get(i).getMemberId();
+            int load = table.countCourses(memberId);
+            for (int k = 0; k < load; k++) {
+                staffed[table.courseAt(memberId, k)] = true;
+            }
+            firstSlots[memberId] = slotOwners.size();
+            slotCounts[memberId] = Math.max(0, Professor.MAX_LOAD - load);
+            for (int k = 0; k < slotCounts[memberId]; k++) {
+                slotOwners.add(memberId);
+            }
+        }
+        int[] courseIndexes = new int[staffed.length];
+        IntList unstaffed = new IntList();
+        for (Course course : registry.getCourses()) {
+            if (!staffed[course.getCourseId()]) {
+                courseIndexes[course.getCourseId()] = unstaffed.size();
+                unstaffed.add(course.getCourseId());
+            }
+        }
+        // pairs sorted by course and professor give edges of every course in the order of IDs
+        long[] pairs = new long[qualifications.size()];
+        int count = 0;
+        for (int i = 0; i < qualifications.size(); i++) {
+            int memberId = qualifications.memberIds.get(i);
+            int courseId = qualifications.courseIds.get(i);
+            if (courseId > 0 && courseId < staffed.length && !staffed[courseId] && registry.findCourse(courseId) != null
+                    && memberId > 0 && memberId < slotCounts.length && slotCounts[memberId] > 0
+                    && !timetable.conflicts(memberId, courseId)) {
+                pairs[count++] = (long) courseIndexes[courseId] << 32 | memberId;
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+        int[] edgeStarts = new int[unstaffed.size() + 1];
+        IntList edges = new IntList();
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            int memberId = (int) pairs[i];
+            for (int k = 0; k < slotCounts[memberId]; k++) {
+                edges.add(firstSlots[memberId] + k);
+            }
+            edgeStarts[(int) (pairs[i] >>> 32) + 1] = edges.size();
+        }
+        for (int c = 1; c < edgeStarts.length; c++) {
+            edgeStarts[c] = Math.max(edgeStarts[c], edgeStarts[c - 1]);
+        }
+        return new StaffingSolver(toArray(unstaffed), edgeStarts, toArray(edges), toArray(slotOwners));
+    }
+
+    // augments the matching until it is maximum and no professor has two overlapping courses
+    private void solve() {
+        boolean repaired;
+        do {
+            while (findLayers()) {
+                for (int c = 0; c < courseIds.length; c++) {
+                    if (slotOfCourse[c] == FREE) {
+                        augment(c);
+                    }
+                }
+            }
+            repaired = separateOverlaps();
+        } while (repaired);
+        fillFreeSlots();
+    }
+
+    // breadth-first search from courses without a professor, returns true in case a free slot is reachable
+    private boolean findLayers() {
+        int[] queue = new int[courseIds.length];
+        int tail = 0;
+        for (int c = 0; c < courseIds.length; c++) {
+            if (slotOfCourse[c] == FREE) {
+                distances[c] = 0;
+                queue[tail++] = c;
+            } else {
+                distances[c] = UNREACHED;
+            }
+        }
+        boolean found = false;
+        for (int head = 0; head < tail; head++) {
+            int c = queue[head];
+            for (int e = edgeStarts[c]; e < edgeStarts[c + 1]; e++) {
+                if (banned[e]) {
+                    continue;
+                }
+                int next = courseOfSlot[edges[e]];
+                if (next == FREE) {
+                    found = true;
+                } else if (distances[next] == UNREACHED) {
+                    distances[next] = distances[c] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return found;
+    }
+
+    // depth-first search along the layers with an explicit stack, as paths may be long
+    private void augment(int root) {
+        int top = 0;
+        path[0] = root;
+        nextEdges[0] = edgeStarts[root];
+        while (top >= 0) {
+            int c = path[top];
+            if (nextEdges[top] == edgeStarts[c + 1]) {
+                distances[c] = UNREACHED;
+                top--;
+                continue;
+            }
+            int e = nextEdges[top]++;
+            if (banned[e]) {
+                continue;
+            }
+            int slot = edges[e];
+            int next = courseOfSlot[slot];
+            if (next == FREE) {
+                via[top] = slot;
+                for (int i = top; i >= 0; i--) {
+                    courseOfSlot[via[i]] = path[i];
+                    slotOfCourse[path[i]] = via[i];
+                }
+                return;
+            }
+            if (distances[next] == distances[c] + 1) {
+                via[top] = slot;
+                path[++top] = next;
+                nextEdges[top] = edgeStarts[next];
+            }
+        }
+    }
+
+    // unmatches the later of two overlapping courses of one professor and bans the pair
+    private boolean separateOverlaps() {
+        Timetable timetable = Timetable.getInstance();
+        boolean separated = false;
+        for (int slot = 0; slot < slotOwners.length; slot++) {
+            int c = courseOfSlot[slot];
+            if (c == FREE) {
+                continue;
+            }
+            for (int other = slot + 1; other < slotOwners.length && slotOwners[other] == slotOwners[slot]; other++) {
+                int otherCourse = courseOfSlot[other];
+                if (otherCourse != FREE && timetable.overlaps(courseIds[c], courseIds[otherCourse])) {
+                    int later = Math.max(c, otherCourse);
+                    for (int e = edgeStarts[later]; e < edgeStarts[later + 1]; e++) {
+                        banned[e] |= slotOwners[edges[e]] == slotOwners[slot];
+                    }
+                    courseOfSlot[slotOfCourse[later]] = FREE;
+                    slotOfCourse[later] = FREE;
+                    separated = true;
+                    break;
+                }
+            }
+        }
+        return separated;
+    }
+
+    // a ban may outlive the overlap which caused it, left courses take any free slot without an overlap
+    private void fillFreeSlots() {
+        for (int c = 0; c < courseIds.length; c++) {
+            for (int e = edgeStarts[c]; e < edgeStarts[c + 1] && slotOfCourse[c] == FREE; e++) {
+                int slot = edges[e];
+                if (courseOfSlot[slot] == FREE && !overlapsOwner(slot, c)) {
+                    courseOfSlot[slot] = c;
+                    slotOfCourse[c] = slot;
+                }
+            }
+        }
+    }
+
+    // checks the course against courses in other slots of the same professor
+    private boolean overlapsOwner(int slot, int c) {
+        Timetable timetable = Timetable.getInstance();
+        int first = slot;
+        while (first > 0 && slotOwners[first - 1] == slotOwners[slot]) {
+            first--;
+        }
+        for (int other = first; other < slotOwners.length && slotOwners[other] == slotOwners[slot]; other++) {
+            int otherCourse = courseOfSlot[other];
+            if (otherCourse != FREE && timetable.overlaps(courseIds[c], courseIds[otherCourse])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // assigns in the order of course IDs and collects courses left without a professor
+    private int apply(MutationListener sink, Result result) {
+        int assigned = 0;
+        IntList unstaffed = new IntList();
+        for (int c = 0; c < courseIds.length; c++) {
+            if (slotOfCourse[c] == FREE) {
+                unstaffed.add(courseIds[c]);
+            } else {
+                sink.assigned(slotOwners[slotOfCourse[c]], courseIds[c]);
+                assigned++;
+            }
+        }
+        result.unstaffedCourses = toArray(unstaffed);
+        return assigned;
+    }
+
+    private static int[] toArray(IntList list) {
+        int[] values = new int[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = list.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * Qualifications keeps pairs of a professor and a course it may teach.
+     */
+    static final class Qualifications {
+        private final IntList memberIds = new IntList();
+        private final IntList courseIds = new IntList();
+
+        /**
+         * add allows a professor to teach a course
+         * @param memberId ID of a professor
+         * @param courseId ID of a course
+         * @return this qualifications
+         */
+        Qualifications add(int memberId, int courseId) {
+            memberIds.add(memberId);
+            courseIds.add(courseId);
+            return this;
+        }
+
+        /**
+         * size returns amount of pairs
+         * @return this amount
+         */
+        int size() {
+            return memberIds.size();
+        }
+    }
+
+    /**
+     * Result tells what staffing has done.
+     */
+    static final class Result {
+        private int assigned;
+        private int[] unstaffedCourses = new int[0];
+
+        private Result() {
+        }
+
+        /**
+         * getAssigned returns amount of courses which got a professor
+         * @return this amount
+         */
+        int getAssigned() {
+            return assigned;
+        }
+
+        /**
+         * getUnstaffedCourses returns courses which still have no professor
+         * @return IDs of courses in increasing order
+         */
+        int[] getUnstaffedCourses() {
+            return unstaffedCourses.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Assigned professors to " + assigned + " courses, " + unstaffedCourses.length
+                    + " courses left without a professor";
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package university;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TimeSlot is a weekly meeting time of a course: a day of the week and the
+ * start and the end of a meeting on this day. Times are given in quarters
+ * of an hour, so a slot covers whole cells of the timetable and two slots
+ * overlap exactly when they share a cell.
+ */
+final class TimeSlot {
+    static final int MINUTES_PER_CELL = 15;
+    static final int CELLS_PER_DAY = 24 * 60 / MINUTES_PER_CELL;
+    static final int CELLS_PER_WEEK = 7 * CELLS_PER_DAY;
+
+    private final DayOfWeek day;
+    private final LocalTime start;
+    private final LocalTime end;
+
+    /**
+     * creates a time slot
+     * @param day   day of the week
+     * @param start start of a meeting, a whole quarter of an hour
+     * @param end   end of a meeting after its start, a whole quarter of an
+     *              hour, LocalTime.MIDNIGHT means the end of the day
+     * @throws IllegalArgumentException in case times are not whole quarters
+     *                                  or the end is not after the start
+     */
+    TimeSlot(DayOfWeek day, LocalTime start, LocalTime end) {
+        if (!isWholeCell(start) || !isWholeCell(end)) {
+            throw new IllegalArgumentException("Time slots start and end at whole quarters of an hour");
+        }
+        this.day = day;
+        this.start = start;
+        this.end = end;
+        if (getEndCell() <= getFirstCell()) {
+            throw new IllegalArgumentException("Time slot must end after it starts");
+        }
+    }
+
+    /**
+     * getDay is used to get the day of the week of a slot
+     * @return this day
+     */
+    DayOfWeek getDay() {
+        return day;
+    }
+
+    /**
+     * getStart is used to get the start of a meeting
+     * @return this time
+     */
+    LocalTime getStart() {
+        return start;
+    }
+
+    /**
+     * getEnd is used to get the end of a meeting
+     * @return this time
+     */
+    LocalTime getEnd() {
+        return end;
+    }
+
+    /**
+     * getFirstCell returns the first cell of the week which the slot covers
+     * @return index of a cell from 0
+     */
+    int getFirstCell() {
+        return day.ordinal() * CELLS_PER_DAY + cellOf(start);
+    }
+
+    /**
+     * getEndCell returns the cell after the last cell which the slot covers
+     * @return index of a cell
+     */
+    int getEndCell() {
+        int endOfDay = end.equals(LocalTime.MIDNIGHT) ? CELLS_PER_DAY : cellOf(end);
+        return day.ordinal() * CELLS_PER_DAY + endOfDay;
+    }
+
+    /**
+     * pack keeps the slot in one int, for example in a journal or a snapshot
+     * @return first cell in the high half and end cell in the low half
+     */
+    int pack() {
+        return getFirstCell() << 16 | getEndCell();
+    }
+
+    /**
+     * unpack restores a slot which was kept by pack
+     * @param packed value of pack
+     * @return restored slot
+     */
+    static TimeSlot unpack(int packed) {
+        int first = packed >>> 16;
+        int endCell = packed & 0xFFFF;
+        DayOfWeek day = DayOfWeek.values()[first / CELLS_PER_DAY];
+        return new TimeSlot(day, timeOf(first % CELLS_PER_DAY), timeOf(endCell - first / CELLS_PER_DAY * CELLS_PER_DAY));
+    }
+
+    /**
+     * parse reads a slot like "mon 09:00-10:30": the first three letters of
+     * the English name of a day in any case, the start and the end, where
+     * "24:00" is the end of the day
+     * @param text text of a slot
+     * @return slot or null in case the text is not a valid slot
+     */
+    static TimeSlot parse(String text) {
+        int space = text.indexOf(' ');
+        int dash = text.indexOf('-', space + 1);
+        if (space != 3 || dash < 0) {
+            return null;
+        }
+        DayOfWeek day = null;
+        for (DayOfWeek value : DayOfWeek.values()) {
+            if (value.name().regionMatches(true, 0, text, 0, 3)) {
+                day = value;
+            }
+        }
+        LocalTime start = parseTime(text.substring(space + 1, dash), false);
+        LocalTime end = parseTime(text.substring(dash + 1), true);
+        if (day == null || start == null || end == null || !isWholeCell(start) || !isWholeCell(end)) {
+            return null;
+        }
+        int endCell = end.equals(LocalTime.MIDNIGHT) ? CELLS_PER_DAY : cellOf(end);
+        return endCell > cellOf(start) ? new TimeSlot(day, start, end) : null;
+    }
+
+    /**
+     * parseAll reads slots separated by ';', see parse
+     * @param text text of one or more slots
+     * @return slots in the given order or null in case one of them is not
+     *         valid
+     */
+    static List<TimeSlot> parseAll(String text) {
+        List<TimeSlot> slots = new ArrayList<>();
+        int from = 0;
+        while (from <= text.length()) {
+            int to = text.indexOf(';', from);
+            if (to < 0) {
+                to = text.length();
+            }
+            TimeSlot slot = parse(text.substring(from, to));
+            if (slot == null) {
+                return null;
+            }
+            slots.add(slot);
+            from = to + 1;
+        }
+        return slots;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TimeSlot)) {
+            return false;
+        }
+        return pack() == ((TimeSlot) other).pack();
+    }
+
+    @Override
+    public int hashCode() {
+        return pack();
+    }
+
+    @Override
+    public String toString() {
+        return day + " " + start + "-" + end;
+    }
+
+    private static boolean isWholeCell(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && time.getMinute() % MINUTES_PER_CELL == 0;
+    }
+
+    // "H:MM" or "HH:MM", an end is after "00:00" and "24:00" is midnight
+    private static LocalTime parseTime(String text, boolean end) {
+        int colon = text.indexOf(':');
+        if (colon < 1 || colon > 2 || text.length() != colon + 3) {
+            return null;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (i != colon && (text.charAt(i) < '0' || text.charAt(i) > '9')) {
+                return null;
+            }
+        }
+        int hours = Integer.parseInt(text, 0, colon, 10);
+        int minutes = Integer.parseInt(text, colon + 1, text.length(), 10);
+        if (end && hours == 24 && minutes == 0) {
+            return LocalTime.MIDNIGHT;
+        }
+        if (hours >= 24 || minutes >= 60 || end && hours == 0 && minutes == 0) {
+            return null;
+        }
+        return LocalTime.of(hours, minutes);
+    }
+
+    private static int cellOf(LocalTime time) {
+        return time.toSecondOfDay() / 60 / MINUTES_PER_CELL;
+    }
+
+    // the cell after the last one of a day is midnight
+    private static LocalTime timeOf(int cell) {
+        return cell == CELLS_PER_DAY ? LocalTime.MIDNIGHT : LocalTime.ofSecondOfDay(cell * MINUTES_PER_CELL * 60L);
+    }
+}
@@ -0,0 +1,248 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Timetable keeps weekly meeting times of courses and of members as
+ * bitmaps of quarter-hour cells: a week has 672 cells, so a bitmap is 11
+ * longs. The bitmap of a member is the union of bitmaps of its courses, so
+ * a new course conflicts with the timetable of a member exactly when the
+ * two bitmaps intersect, which is checked in constant time however many
+ * courses the member has.
+ * Courses without time slots have no bitmap and never conflict; while no
+ * course has slots, enrollments and assignments do not touch the timetable.
+ * Bitmaps are kept in arrays indexed by ID. Bitmaps of courses are added
+ * while no one changes enrollments, bitmaps of members are split into
+ * stripes like rows of the enrollment store and are changed under the lock
+ * of the member stripe.
+ * Courses of a member never overlap, because the engine rejects conflicts,
+ * so leaving a course just clears its cells in the bitmap of the member.
+ */
+final class Timetable {
+    private static final int WORDS = (TimeSlot.CELLS_PER_WEEK + Long.SIZE - 1) / Long.SIZE;
+
+    private static Timetable instance = new Timetable();
+
+    private long[][] courseCells = new long[16][];
+    private final long[][][] memberCells = new long[EnrollmentStore.STRIPES][][];
+    private boolean scheduled;
+
+    /**
+     * creates an empty timetable
+     */
+    Timetable() {
+        for (int i = 0; i < EnrollmentStore.STRIPES; i++) {
+            memberCells[i] = new long[16][];
+        }
+    }
+
+    /**
+     * getInstance returns the timetable which is used by courses, students
+     * and professors
+     * @return this timetable
+     */
+    static Timetable getInstance() {
+        return instance;
+    }
+
+    /**
+     * setInstance replaces the timetable which is used by courses, students
+     * and professors
+     * @param timetable new timetable
+     */
+    static void setInstance(Timetable timetable) {
+        instance = timetable;
+    }
+
+    /**
+     * addCourse keeps meeting times of a new course
+     * @param courseId  ID of a course
+     * @param timeSlots weekly slots of the course, may be empty
+     */
+    void addCourse(int courseId, List<TimeSlot> timeSlots) {
+        if (timeSlots.isEmpty()) {
+            return;
+        }
+        long[] cells = new long[WORDS];
+        for (TimeSlot slot : timeSlots) {
+            for (int cell = slot.getFirstCell(); cell < slot.getEndCell(); cell++) {
+                cells[cell >>> 6] |= 1L << cell;
+            }
+        }
+        if (courseId >= courseCells.length) {
+            courseCells = Arrays.copyOf(courseCells, Math.max(courseCells.length << 1, courseId + 1));
+        }
+        courseCells[courseId] = cells;
+        scheduled = true;
+    }
+
+    /**
+     * conflicts checks whether a course meets at the same time as one of
+     * the courses of a member
+     * @param memberId ID of a student or a professor
+     * @param courseId ID of a course which the member does not attend
+     * @return true in case there is an overlap
+     */
+    boolean conflicts(int memberId, int courseId) {
+        if (!scheduled) {
+            return false;
+        }
+        long[] course = cellsOfCourse(courseId);
+        long[] member = cellsOfMember(memberId);
+        return course != null && member != null && intersect(course, member);
+    }
+
+    /**
+     * overlaps checks whether two courses meet at the same time
+     * @param courseId      ID of a course
+     * @param otherCourseId ID of another course
+     * @return true in case there is an overlap
+     */
+    boolean overlaps(int courseId, int otherCourseId) {
+        if (!scheduled) {
+            return false;
+        }
+        long[] course = cellsOfCourse(courseId);
+        long[] other = cellsOfCourse(otherCourseId);
+        return course != null && other != null && intersect(course, other);
+    }
+
+    /**
+     * add puts meeting times of a course to the timetable of a member
+     * @param memberId ID of a student or a professor
+     * @param courseId ID of a course which the member joined
+     */
+    void add(int memberId, int courseId) {
+        if (!scheduled) {
+            return;
+        }
+        long[] course = cellsOfCourse(courseId);
+        if (course == null) {
+            return;
+        }
+        int stripe = EnrollmentStore.stripeOf(memberId);
+        int index = memberId / EnrollmentStore.STRIPES;
+        if (index >= memberCells[stripe].length) {
+            memberCells[stripe] = Arrays.copyOf(memberCells[stripe], Math.max(memberCells[stripe].length << 1, index + 1));
+        }
+        long[] member = memberCells[stripe][index];
+        if (member == null) {
+            member = new long[WORDS];
+            memberCells[stripe][index] = member;
+        }
+        for (int i = 0; i < WORDS; i++) {
+            member[i] |= course[i];
+        }
+    }
+
+    /**
+     * remove clears meeting times of a course in the timetable of a member
+     * @param memberId ID of a student or a professor
+     * @param courseId ID of a course which the member left
+     */
+    void remove(int memberId, int courseId) {
+        if (!scheduled) {
+            return;
+        }
+        long[] course = cellsOfCourse(courseId);
+        long[] member = cellsOfMember(memberId);
+        if (course == null || member == null) {
+            return;
+        }
+        for (int i = 0; i < WORDS; i++) {
+            member[i] &= ~course[i];
+        }
+    }
+
+    /**
+     * conflictsOf finds every pair of courses of a member which meet at the
+     * same time
+     * @param memberId  ID of a student or a professor
+     * @param courseIds courses of the member
+     * @return found conflicts, empty in case there are none
+     */
+    List<Conflict> conflictsOf(int memberId, int[] courseIds) {
+        List<Conflict> conflicts = new ArrayList<>(0);
+        for (int i = 0; i < courseIds.length; i++) {
+            for (int j = i + 1; j < courseIds.length; j++) {
+                if (overlaps(courseIds[i], courseIds[j])) {
+                    conflicts.add(new Conflict(memberId, courseIds[i], courseIds[j]));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private long[] cellsOfCourse(int courseId) {
+        return courseId > 0 && courseId < courseCells.length ? courseCells[courseId] : null;
+    }
+
+    // bitmaps of a stripe are indexed by member ID divided by the amount of stripes
+    private long[] cellsOfMember(int memberId) {
+        long[][] stripe = memberCells[EnrollmentStore.stripeOf(memberId)];
+        int index = memberId / EnrollmentStore.STRIPES;
+        return memberId > 0 && index < stripe.length ? stripe[index] : null;
+    }
+
+    private static boolean intersect(long[] cells, long[] otherCells) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((cells[i] & otherCells[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Conflict is a pair of courses of one member which meet at the same
+     * time
+     */
+    static final class Conflict {
+        private final int memberId;
+        private final int courseId;
+        private final int otherCourseId;
+
+        /**
+         * creates a conflict
+         * @param memberId      ID of a member
+         * @param courseId      ID of a course of the member
+         * @param otherCourseId ID of another course of the member
+         */
+        Conflict(int memberId, int courseId, int otherCourseId) {
+            this.memberId = memberId;
+            this.courseId = courseId;
+            this.otherCourseId = otherCourseId;
+        }
+
+        /**
+         * getMemberId is used to get the member of a conflict
+         * @return ID of this member
+         */
+        int getMemberId() {
+            return memberId;
+        }
+
+        /**
+         * getCourseId is used to get the first course of a conflict
+         * @return ID of this course
+         */
+        int getCourseId() {
+            return courseId;
+        }
+
+        /**
+         * getOtherCourseId is used to get the second course of a conflict
+         * @return ID of this course
+         */
+        int getOtherCourseId() {
+            return otherCourseId;
+        }
+
+        @Override
+        public String toString() {
+            return "member " + memberId + ": courses " + courseId + " and " + otherCourseId;
+        }
+    }
+}
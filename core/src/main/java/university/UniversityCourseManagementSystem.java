@@ -0,0 +1,1159 @@
+
+/**
+ * The UniversityCourseManagementSystem program implements an application that solves assignment3
+ *
+ * @author  Ksenia Korchagina
+ * @version 1.1
+ * @since   2023-11-20
+ */
+
+package university;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import javax.management.JMException;
+
+/**
+ * UniversityCourseManagementSystem is the main class of the task that
+ * contains an entry point for the program.
+ */
+public class UniversityCourseManagementSystem {
+    static final long INVALID_ID = Long.MIN_VALUE;
+    private static final long MAX_ID_MAGNITUDE = 1L + Integer.MAX_VALUE;
+
+    private static Registry registry = Registry.getInstance();
+    private static EnrollmentEngine engine = new EnrollmentEngine(registry, EnrollmentStore.getInstance());
+    private static CommandMetrics metrics;
+    private static final CommandTarget LOCAL = new EngineCommandTarget();
+
+    /**
+     * Checks whether input string contains only english letter
+     * @param str String which must be checked
+     * @return true in case String contains only english letters, false in other
+     *         cases
+     */
+    static boolean isEnglishAlphabet(String str) {
+        return NameValidator.isLetters(str);
+    }
+
+    /**
+     * Checks the name of a Course on correctness.
+     * Correct course name should contain english characters only,
+     * should not start or finish with underscore (_), and should
+     * not contain more than one underscore in a row.
+     * @param name a name of a Course to check
+     * @return true if the name is valid, false otherwise
+     * @see Course
+     */
+    public static boolean isValidCourseName(String name) {
+        return NameValidator.isCourseName(name);
+    }
+
+    /**
+     * Parses an ID of a member or a course. It accepts exactly the same
+     * strings as Integer.parseInt, but does not throw an exception for wrong
+     * ones in case the string contains only ASCII characters.
+     * @param value string which must be parsed
+     * @return parsed ID or INVALID_ID in case the string is not a number
+     */
+    static long parseId(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return INVALID_ID;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return INVALID_ID;
+            }
+            negative = first == '-';
+            i = 1;
+        }
+        long result = 0;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                result = result * 10 + (c - '0');
+                if (result > MAX_ID_MAGNITUDE) {
+                    return INVALID_ID;
+                }
+            } else if (c < 0x80) {
+                return INVALID_ID;
+            } else {
+                // Integer.parseInt also accepts non-ASCII digits
+                try {
+                    return Integer.parseInt(value);
+                } catch (NumberFormatException ex) {
+                    return INVALID_ID;
+                }
+            }
+        }
+        if (negative) {
+            return -result;
+        }
+        return result == MAX_ID_MAGNITUDE ? INVALID_ID : result;
+    }
+
+    /**
+     * main is the main function, which process input data,
+     * check all conditions & make an output.
+     * Without arguments commands are read from System.in and every result is
+     * printed at once. Options:
+     * "--batch file [--flush-every N]" reads commands from the file ("-"
+     * means System.in) through a large buffer and writes results in batches,
+     * the output is the same;
+     * "--serve port [--bind address]" accepts commands over TCP, the address
+     * is 127.0.0.1 by default;
+     * "--journal file [--fsync]" rebuilds the state from the journal and
+     * appends every following change to it, with "--fsync" every change
+     * waits until it is on the disk;
+     * "--snapshot file [--snapshot-every seconds]" opens the state from the
+     * snapshot in case it exists and saves a new snapshot at exit and every
+     * given amount of seconds, the journal then keeps only later changes;
+     * "--export file [--export-every seconds]" writes rosters of all
+     * courses and courses of all members to the file at exit and every
+     * given amount of seconds, commands go on while it is written, see
+     * RosterExport;
+     * "--import file" creates courses, students and professors from a CSV
+     * file before commands are read, see BulkImport;
+     * "--staff file" assigns professors to courses without a professor
+     * before commands are read, the CSV file lists pairs of a professor ID
+     * and a course ID the professor may teach, see StaffingSolver;
+     * "--allocate file [--allocation-seed N] [--masters-first]" gives seats
+     * to the enrollment requests of the CSV file in one pass before commands
+     * are read and prints what every student has got, ties are decided by a
+     * lottery from the seed, with "--masters-first" master students get
+     * seats of master courses first, see AllocationWindow;
+     * "--conflicts" prints every member with two courses meeting at the same
+     * time before commands are read, after the other options changed the
+     * state;
+     * "--waitlists" adds the command "waitlist", which enrolls a student
+     * like "enroll" or, in case the course is full, puts the student to its
+     * waitlist; a drop gives the free seat to the head of the waitlist.
+     * "waitlist" is then a command word which names cannot take;
+     * "--metrics-every seconds" prints command metrics to System.err every
+     * given amount of seconds, the metrics are also published over JMX as
+     * "university:type=CommandMetrics";
+     * "--shard index/count --serve port" runs one shard of the sharded mode,
+     * it starts without the initial data and answers only requests of
+     * routers;
+     * "--route host:port,host:port" forwards commands to shards which are
+     * listed in order of their numbers, commands are read like without this
+     * option or with "--batch" or "--serve". The sharded mode keeps its
+     * state in memory only.
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        String batchFile = null;
+        int flushEvery = 0;
+        int port = -1;
+        String bindAddress = "127.0.0.1";
+        String journalFile = null;
+        boolean fsync = false;
+        String snapshotFile = null;
+        int snapshotEvery = 0;
+        String exportFile = null;
+        int exportEvery = 0;
+        int metricsEvery = 0;
+        int shardIndex = -1;
+        int shardCount = 0;
+        String route = null;
+        String importFile = null;
+        String staffFile = null;
+        boolean waitlists = false;
+        boolean conflicts = false;
+        String allocateFile = null;
+        long allocationSeed = 0;
+        boolean mastersFirst = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch":
+                        batchFile = args[++i];
+                        break;
+                    case "--flush-every":
+                        flushEvery = Integer.parseInt(args[++i]);
+                        break;
+                    case "--serve":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        bindAddress = args[++i];
+                        break;
+                    case "--journal":
+                        journalFile = args[++i];
+                        break;
+                    case "--fsync":
+                        fsync = true;
+                        break;
+                    case "--snapshot":
+                        snapshotFile = args[++i];
+                        break;
+                    case "--snapshot-every":
+                        snapshotEvery = Integer.parseInt(args[++i]);
+                        break;
+                    case "--export":
+                        exportFile = args[++i];
+                        break;
+                    case "--export-every":
+                        exportEvery = Integer.parseInt(args[++i]);
+                        break;
+                    case "--import":
+                        importFile = args[++i];
+                        break;
+                    case "--staff":
+                        staffFile = args[++i];
+                        break;
+                    case "--waitlists":
+                        waitlists = true;
+                        break;
+                    case "--conflicts":
+                        conflicts = true;
+                        break;
+                    case "--allocate":
+                        allocateFile = args[++i];
+                        break;
+                    case "--allocation-seed":
+                        allocationSeed = Long.parseLong(args[++i]);
+                        break;
+                    case "--masters-first":
+                        mastersFirst = true;
+                        break;
+                    case "--metrics-every":
+                        metricsEvery = Integer.parseInt(args[++i]);
+                        break;
+                    case "--shard":
+                        String shard = args[++i];
+                        shardIndex = Integer.parseInt(shard.substring(0, shard.indexOf('/')));
+                        shardCount = Integer.parseInt(shard.substring(shard.indexOf('/') + 1));
+                        if (shardIndex < 0 || shardIndex >= shardCount) {
+                            throw new IllegalArgumentException(shard);
+                        }
+                        break;
+                    case "--route":
+                        route = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (batchFile != null && port >= 0) {
+                throw new IllegalArgumentException("--batch and --serve");
+            }
+            if (shardCount > 0 && (port < 0 || route != null)) {
+                throw new IllegalArgumentException("--shard");
+            }
+            if ((shardCount > 0 || route != null) && (journalFile != null || snapshotFile != null
+                    || exportFile != null || importFile != null || staffFile != null || allocateFile != null
+                    || waitlists || conflicts)) {
+                throw new IllegalArgumentException("--journal, --snapshot, --export, --import, --staff, --allocate,"
+                        + " --waitlists or --conflicts with shards");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: UniversityCourseManagementSystem [--batch file [--flush-every N]"
+                    + " | --serve port [--bind address]] [--journal file [--fsync]]"
+                    + " [--snapshot file [--snapshot-every seconds]] [--export file [--export-every seconds]]"
+                    + " [--import file] [--staff file] [--conflicts]"
+                    + " [--allocate file [--allocation-seed N] [--masters-first]]"
+                    + " [--waitlists] [--metrics-every seconds]"
+                    + " [--shard index/count | --route host:port,...]");
+            System.exit(1);
+        }
+
+        try {
+            if (shardCount > 0) {
+                runServer(bindAddress, port, new ShardNode(shardIndex, shardCount)::serve);
+                return;
+            }
+            if (waitlists) {
+                CommandTable.getInstance().register("waitlist", CommandMetrics.Command.WAITLIST);
+            }
+            ShardRouter router = null;
+            if (route != null) {
+                router = ShardRouter.connect(ShardRouter.parseAddresses(route));
+            } else {
+                openState(snapshotFile == null ? null : Paths.get(snapshotFile), snapshotEvery,
+                        journalFile == null ? null : Paths.get(journalFile), fsync);
+                if (importFile != null) {
+                    System.err.println(BulkImport.importFile(Paths.get(importFile), engine));
+                }
+                if (staffFile != null) {
+                    System.err.println(StaffingSolver.staff(engine,
+                            StaffingSolver.readQualifications(Paths.get(staffFile))));
+                }
+                if (allocateFile != null) {
+                    AllocationWindow window = AllocationWindow.open(engine, mastersFirst
+                            ? AllocationWindow.Priority.MASTERS_FIRST : AllocationWindow.Priority.NONE, allocationSeed);
+                    window.readRequests(Paths.get(allocateFile));
+                    for (AllocationWindow.Allocation allocation : window.close()) {
+                        System.err.println(allocation);
+                    }
+                }
+                if (conflicts) {
+                    for (Timetable.Conflict conflict : engine.findConflicts()) {
+                        System.err.println(conflict);
+                    }
+                }
+                if (exportFile != null) {
+                    openExport(Paths.get(exportFile), exportEvery);
+                }
+            }
+            openMetrics(metricsEvery);
+            if (batchFile != null) {
+                runBatch(batchFile, flushEvery, router);
+            } else if (port >= 0) {
+                ShardRouter shards = router;
+                runServer(bindAddress, port, shards == null ? UniversityCourseManagementSystem::processCommands
+                        : (input, output) -> route(input, output, shards));
+            } else if (router != null) {
+                route(new ScannerCommandInput(new Scanner(System.in)), new ConsoleCommandOutput(), router);
+            } else {
+                processCommands(new ScannerCommandInput(new Scanner(System.in)), new ConsoleCommandOutput());
+            }
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // loads the snapshot and the journal and schedules saving of snapshots
+    private static void openState(Path snapshot, int snapshotEvery, Path journalFile, boolean fsync)
+            throws IOException {
+        long snapshotEpoch = 0;
+        if (snapshot != null && Files.exists(snapshot)) {
+            snapshotEpoch = Snapshot.load(snapshot, registry, EnrollmentStore.getInstance()).getJournalEpoch();
+        } else {
+            fillInitialData();
+        }
+        Journal journal = journalFile == null ? null : Journal.open(journalFile, fsync, engine, snapshotEpoch);
+        ScheduledExecutorService scheduler = null;
+        if (snapshot != null && snapshotEvery > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "snapshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> saveSnapshot(snapshot, journal), snapshotEvery, snapshotEvery,
+                    TimeUnit.SECONDS);
+        }
+        if (snapshot == null && journal == null) {
+            return;
+        }
+        ScheduledExecutorService periodic = scheduler;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (periodic != null) {
+                periodic.shutdownNow();
+            }
+            if (snapshot != null) {
+                saveSnapshot(snapshot, journal);
+            }
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        }));
+    }
+
+    // keeps versions of the model and schedules exports of rosters from views
+    private static void openExport(Path file, int exportEvery) {
+        ModelVersions versions = ModelVersions.attach(engine, registry, EnrollmentStore.getInstance());
+        ScheduledExecutorService scheduler = null;
+        if (exportEvery > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "roster-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> exportRosters(file, versions), exportEvery, exportEvery,
+                    TimeUnit.SECONDS);
+        }
+        ScheduledExecutorService periodic = scheduler;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (periodic != null) {
+                periodic.shutdownNow();
+            }
+            exportRosters(file, versions);
+        }));
+    }
+
+    private static void exportRosters(Path file, ModelVersions versions) {
+        try {
+            RosterExport.write(file, versions);
+        } catch (IOException | RuntimeException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    // publishes metrics of the command loop and schedules their dump
+    private static void openMetrics(int metricsEvery) {
+        CommandMetrics commandMetrics = new CommandMetrics();
+        commandMetrics.attach(engine, registry, EnrollmentStore.getInstance());
+        try {
+            commandMetrics.register();
+        } catch (JMException e) {
+            System.err.println(e.getMessage());
+        }
+        metrics = commandMetrics;
+        if (metricsEvery > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(commandMetrics.getAggregates()::sample, 1, 1, TimeUnit.SECONDS);
+            scheduler.scheduleWithFixedDelay(() -> System.err.print(commandMetrics.dump()), metricsEvery,
+                    metricsEvery, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void saveSnapshot(Path snapshot, Journal journal) {
+        try {
+            Snapshot.save(snapshot, registry, engine, journal);
+        } catch (IOException | RuntimeException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private static void runBatch(String file, int flushEvery, ShardRouter router) throws IOException {
+        try (ReadableByteChannel channel = file.equals("-")
+                ? Channels.newChannel(System.in)
+                : FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            CommandInput input = new ChannelCommandInput(channel);
+            CommandOutput output = new BatchedCommandOutput(System.out, flushEvery);
+            if (router == null) {
+                processCommands(input, output);
+            } else {
+                route(input, output, router);
+            }
+        }
+    }
+
+    // processes commands of one client through its own connections to shards
+    private static void route(CommandInput s, CommandOutput out, ShardRouter router) {
+        try (ShardRouter.Session session = router.openSession()) {
+            processCommands(s, out, session);
+        }
+    }
+
+    private static void runServer(String address, int port, BiConsumer<CommandInput, CommandOutput> session)
+            throws IOException, InterruptedException {
+        CommandServer server = new CommandServer(new InetSocketAddress(address, port), session);
+        server.start();
+        System.err.println("Listening on " + address + ":" + server.getPort());
+        server.awaitTermination();
+    }
+
+    /**
+     * processCommands reads commands one by one, checks all conditions and
+     * writes a result of every command. It stops at an empty line or at the
+     * first error, in this case the message of the error is written.
+     * All changes go through the engine, so several threads may process
+     * their own commands at once.
+     * @param s   source of command lines
+     * @param out destination of results
+     */
+    static void processCommands(CommandInput s, CommandOutput out) {
+        processCommands(s, out, LOCAL);
+    }
+
+    /**
+     * processCommands reads and checks commands like processCommands, but
+     * applies them to the given target
+     * @param s      source of command lines
+     * @param out    destination of results
+     * @param target target which applies checked commands
+     */
+    static void processCommands(CommandInput s, CommandOutput out, CommandTarget target) {
+        CommandMetrics commandMetrics = metrics;
+        CommandMetrics.Recorder recorder = commandMetrics == null ? null : commandMetrics.newRecorder();
+        CommandTable commands = CommandTable.getInstance();
+        int commandCount = 0;
+        try {
+            while (s.hasNextLine()) {
+                String givenRow = s.nextLine();
+                if (givenRow.isEmpty()) {
+                    break;
+                }
+
+                boolean timed = recorder != null && (++commandCount & CommandMetrics.SAMPLE_MASK) == 0;
+                long start = timed ? System.nanoTime() : 0;
+                CommandTable.Entry entry = commands.find(givenRow);
+                CommandMetrics.Command command;
+                Outcome outcome;
+                if (entry == null) {
+                    command = CommandMetrics.Command.OTHER;
+                    outcome = Outcome.WRONG_INPUTS;
+                } else {
+                    command = entry.getMetric();
+                    outcome = entry.handle(s, target);
+                }
+                if (recorder != null) {
+                    recorder.record(command, outcome, timed ? System.nanoTime() - start : -1);
+                }
+                out.println(outcome.getMessage());
+            }
+        } catch (Exception e) {
+            out.println(e.getMessage());
+        }
+        if (recorder != null) {
+            recorder.flush();
+        }
+        out.flush();
+    }
+
+    /**
+     * allowedCourseName lowercases and checks the name of a new course like
+     * the course command does
+     * @param line line with the name
+     * @return lowercased name or null in case it is not a valid name or it
+     *         is a command word
+     */
+    static String allowedCourseName(String line) {
+        return allowedName(NameValidator.toCourseName(line));
+    }
+
+    /**
+     * allowedMemberName lowercases and checks the name of a new student or
+     * professor like the student and professor commands do
+     * @param line line with the name
+     * @return lowercased name or null in case it has not only english
+     *         letters or it is a command word
+     */
+    static String allowedMemberName(String line) {
+        return allowedName(NameValidator.toMemberName(line));
+    }
+
+    /**
+     * allowedName rejects lowercased names which are command words
+     * @param name lowercased valid name or null
+     * @return the name or null in case it is null or a command word
+     */
+    static String allowedName(String name) {
+        return name == null || CommandTable.getInstance().isCommandWord(name) ? null : name;
+    }
+
+    /**
+     * resetState forgets all students, professors, courses and enrollments
+     * and starts counting IDs from the beginning
+     */
+    static void resetState() {
+        registry = new Registry();
+        Registry.setInstance(registry);
+        EnrollmentStore.setInstance(new EnrollmentStore());
+        MemberTable.setInstance(new MemberTable());
+        ReportViews.setInstance(new ReportViews());
+        Timetable.setInstance(new Timetable());
+        engine = new EnrollmentEngine(registry, EnrollmentStore.getInstance());
+        UniversityMember.setNumberOfMembers(0);
+        Course.setNumberOfCourses(0);
+    }
+
+    /**
+     * getMetrics returns metrics of the command loop
+     * @return these metrics or null in case commands are not measured
+     */
+    static CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * setMetrics replaces metrics of the command loop
+     * @param commandMetrics new metrics or null to stop measuring
+     */
+    static void setMetrics(CommandMetrics commandMetrics) {
+        metrics = commandMetrics;
+    }
+
+    /**
+     * getEngine returns the engine which applies all changes of the state
+     * @return this engine
+     */
+    static EnrollmentEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * fillInitialData is a function, which is used to put
+     * initial data about students, professors and courses into
+     * lists.
+     */
+    public static void fillInitialData() {
+        final int id0 = 0;
+        final int id1 = 1;
+        final int id2 = 2;
+        final int id3 = 3;
+        final int id4 = 4;
+        final int id5 = 5;
+        List<Course> courses = registry.getCourses();
+
+        registry.addCourse(new Course("java_beginner", CourseLevel.BACHELOR));
+        registry.addCourse(new Course("java_intermediate", CourseLevel.BACHELOR));
+        registry.addCourse(new Course("python_basics", CourseLevel.BACHELOR));
+        registry.addCourse(new Course("algorithms", CourseLevel.MASTER));
+        registry.addCourse(new Course("advanced_programming", CourseLevel.MASTER));
+        registry.addCourse(new Course("mathematical_analysis", CourseLevel.MASTER));
+        registry.addCourse(new Course("computer_vision", CourseLevel.MASTER));
+
+        Student studentAlice = new Student("Alice");
+        studentAlice.enroll(courses.get(id0));
+        studentAlice.enroll(courses.get(id1));
+        studentAlice.enroll(courses.get(id2));
+        registry.addStudent(studentAlice);
+
+        Student studentBob = new Student("Bob");
+        studentBob.enroll(courses.get(id0));
+        studentBob.enroll(courses.get(id3));
+        registry.addStudent(studentBob);
+
+        Student studentAlex = new Student("Alex");
+        studentAlex.enroll(courses.get(id4));
+        registry.addStudent(studentAlex);
+
+        Professor professorAli = new Professor("Ali");
+        professorAli.teach(courses.get(id0));
+        professorAli.teach(courses.get(id1));
+        registry.addProfessor(professorAli);
+
+        Professor professorAhmed = new Professor("Ahmed");
+        professorAhmed.teach(courses.get(id2));
+        professorAhmed.teach(courses.get(id4));
+        registry.addProfessor(professorAhmed);
+
+        Professor professorAndrey = new Professor("Andrey");
+        professorAndrey.teach(courses.get(id5));
+        registry.addProfessor(professorAndrey);
+    }
+}
+
+/**
+ * UniversityMember is an abstract class, which is used to represent data
+ * about professor o student. A member object keeps only its ID, the name
+ * and other data are kept in MemberTable, so any amount of objects may
+ * represent the same member.
+ */
+abstract class UniversityMember {
+    private static int numberOfMembers = 0;
+    private int memberId = 0;
+
+    /**
+     * getMemberId is used to get an ID
+     * @return ID
+     */
+    public int getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * getMemberName is used to get a name
+     * @return name
+     */
+    public String getMemberName() {
+        return MemberTable.getInstance().nameOf(memberId);
+    }
+
+    /**
+     * public function universityMember initialize ID and Name of a new Student
+     * @param memberId   we get an ID and increase it by one, because our ID stats
+     *                   from 1, not from 0
+     * @param memberName name of a new Student
+     */
+    public UniversityMember(int memberId, String memberName) {
+        this.memberId = memberId + 1;
+        MemberTable.getInstance().add(this.memberId,
+                this instanceof Professor ? MemberTable.PROFESSOR : MemberTable.STUDENT, memberName);
+    }
+
+    /**
+     * it is a constructor of an object for a member which is already in the
+     * member table
+     * @param memberId ID of a member
+     */
+    UniversityMember(int memberId) {
+        this.memberId = memberId;
+    }
+
+    /**
+     * equals checks whether two objects represent the same member
+     * @param other object which must be compared
+     * @return true in case it is a member of the same type with the same ID
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other != null && other.getClass() == getClass() && ((UniversityMember) other).memberId == memberId;
+    }
+
+    @Override
+    public int hashCode() {
+        return memberId;
+    }
+
+    /**
+     * getNumberOfMembers counts amount of students and professors together
+     * @return this amount
+     */
+    public static int getNumberOfMembers() {
+        return numberOfMembers;
+    }
+
+    /**
+     * setNumberOfMembers add an information about amount of members
+     * to necessary university member
+     * @param numberOfMembers given amount of members
+     */
+    public static void setNumberOfMembers(int numberOfMembers) {
+        UniversityMember.numberOfMembers = numberOfMembers;
+    }
+
+}
+
+/**
+ * CourseLevel is the enum contains all levels of students,
+ * in which they can study
+ */
+enum CourseLevel {
+    BACHELOR,
+    MASTER
+}
+
+/**
+ * class Student extends UniversityMember class, so it contains basic
+ * information about
+ * student as a member and extra data
+ */
+class Student extends UniversityMember implements Enrollable {
+    static final int MAX_ENROLLMENT = 3;
+
+    /**
+     * this way we get information about enrolled courses
+     * @return read-only view of courses, in which our student is enrolled
+     */
+    @Override
+    public List<Course> getEnrolledCourses() {
+        int memberId = getMemberId();
+        return new AbstractList<Course>() {
+            @Override
+            public Course get(int index) {
+                int courseId = EnrollmentStore.getInstance().courseAt(memberId, index);
+                return Registry.getInstance().findCourse(courseId);
+            }
+
+            @Override
+            public int size() {
+                return EnrollmentStore.getInstance().countCourses(memberId);
+            }
+        };
+    }
+
+    /**
+     * isEnrolled checks whether our student attends a course
+     * @param course course which must be checked
+     * @return true in case student is enrolled in this course
+     */
+    @Override
+    public boolean isEnrolled(Course course) {
+        return EnrollmentStore.getInstance().isEnrolled(getMemberId(), course.getCourseId());
+    }
+
+    /**
+     * this way we get get information about maximum possible enrollments
+     * @return this maximum
+     */
+    public int getMaxEnrollment() {
+        return MAX_ENROLLMENT;
+    }
+
+    /**
+     * it is a constructor of a student class, where we use super, to
+     * take functions getNumberOfMembers and memberName from extended class
+     * UniversityMember
+     * @param memberName is needed to design a Student
+     */
+    public Student(String memberName) {
+        super(getNumberOfMembers(), memberName);
+        setNumberOfMembers(getNumberOfMembers() + 1);
+        EnrollmentStore.getInstance().addMember(getMemberId());
+    }
+
+    /**
+     * it is a constructor which restores a saved student with its own ID, the
+     * number of members is not changed
+     * @param memberId   ID of a saved student
+     * @param memberName name of a saved student
+     */
+    Student(int memberId, String memberName) {
+        super(memberId - 1, memberName);
+        EnrollmentStore.getInstance().addMember(memberId);
+    }
+
+    /**
+     * it is a constructor of an object for a student which is already in the
+     * member table
+     * @param memberId ID of a student
+     */
+    Student(int memberId) {
+        super(memberId);
+    }
+
+    @Override
+    /**
+     * drop is used to discharge a student from a course.
+     * We override this function for all students
+     * @param course from which our student must be dropped
+     * @return true in case we can drop student, false in case student does not
+     *         attend this course,
+     *         so cannot be dropped
+     */
+    public boolean drop(Course course) {
+        return EnrollmentStore.getInstance().drop(getMemberId(), course.getCourseId());
+    }
+
+    // assume that max capacity and course enrolement is checked one layer above
+    @Override
+    /**
+     * enroll is used to add a student to a course.
+     * We override this function for all students
+     * @param course in which course our student must be enrolled
+     * @return true in case we can enroll student, false in case student cannot be
+     *         enrolled because
+     *         of not satisfying conditions,
+     */
+    public boolean enroll(Course course) {
+        return EnrollmentStore.getInstance().enroll(getMemberId(), course.getCourseId());
+    }
+
+}
+
+/**
+ * class Professor extend UniversityMember, so it contains its functions and
+ * extra ones
+ */
+class Professor extends UniversityMember {
+    /**
+     * getAssignedCourses is used to get courses of a professor
+     * @return read-only view of courses, which our professor teaches
+     */
+    public List<Course> getAssignedCourses() {
+        int memberId = getMemberId();
+        return new AbstractList<Course>() {
+            @Override
+            public Course get(int index) {
+                int courseId = MemberTable.getInstance().courseAt(memberId, index);
+                return Registry.getInstance().findCourse(courseId);
+            }
+
+            @Override
+            public int size() {
+                return MemberTable.getInstance().countCourses(memberId);
+            }
+        };
+    }
+
+    static final int MAX_LOAD = 2;
+
+    /**
+     * this way we get get information about maximum possible loads
+     * @return this maximum
+     */
+    public int getMaxLoad() {
+        return MAX_LOAD;
+    }
+
+    /**
+     * it is a constructor of a professor class, where we use super, to
+     * take functions getNumberOfMembers and memberName from extended class
+     * UniversityMember
+     * @param memberName is needed to design a Professor
+     */
+    public Professor(String memberName) {
+        super(getNumberOfMembers(), memberName);
+        setNumberOfMembers(getNumberOfMembers() + 1);
+        ReportViews.getInstance().professorFreed(getMemberId());
+    }
+
+    /**
+     * it is a constructor which restores a saved professor with its own ID,
+     * the number of members is not changed
+     * @param memberId   ID of a saved professor
+     * @param memberName name of a saved professor
+     */
+    Professor(int memberId, String memberName) {
+        super(memberId - 1, memberName);
+        ReportViews.getInstance().professorFreed(memberId);
+    }
+
+    /**
+     * it is a constructor of an object for a professor which is already in
+     * the member table
+     * @param memberId ID of a professor
+     */
+    Professor(int memberId) {
+        super(memberId);
+    }
+
+    /**
+     * teach is used to add a professor to a course.
+     * @param course is a course which our professor start to teach
+     * @return true in case he can start it, false in case professor cannot start
+     *         teaching because
+     *         of not satisfying conditions,
+     */
+    public boolean teach(Course course) {
+        MemberTable table = MemberTable.getInstance();
+        table.addCourse(getMemberId(), course.getCourseId());
+        Timetable.getInstance().add(getMemberId(), course.getCourseId());
+        if (table.countCourses(getMemberId()) == MAX_LOAD) {
+            ReportViews.getInstance().professorLoaded(getMemberId());
+        }
+        return true;
+    }
+
+    /**
+     * isTeaching checks whether professor teaches a course
+     * @param course course which must be checked
+     * @return true in case professor is assigned to this course
+     */
+    public boolean isTeaching(Course course) {
+        return MemberTable.getInstance().hasCourse(getMemberId(), course.getCourseId());
+    }
+
+    /**
+     * exempt is used to dismiss a professor from a course.
+     * @param course is a course from which this professor should be dropped
+     * @return true in case we can dismiss him, false in case he cannot be dismissed
+     *         because
+     *         does not teach this course or by other reasons
+     */
+    public boolean exempt(Course course) {
+        MemberTable table = MemberTable.getInstance();
+        if (!table.removeCourse(getMemberId(), course.getCourseId())) {
+            return false;
+        }
+        Timetable.getInstance().remove(getMemberId(), course.getCourseId());
+        if (table.countCourses(getMemberId()) == MAX_LOAD - 1) {
+            ReportViews.getInstance().professorFreed(getMemberId());
+        }
+        return true;
+    }
+
+}
+
+/**
+ * Enrollable interface is used in class Student and contains drop and enroll
+ * functions,
+ * which we override in Student class. All of them work with EnrollmentStore,
+ * so the course side of an enrollment is changed at the same time
+ */
+interface Enrollable {
+    boolean drop(Course course);
+
+    boolean enroll(Course course);
+
+    boolean isEnrolled(Course course);
+
+    List<Course> getEnrolledCourses();
+}
+
+/**
+ * class Course represent information about all given courses
+ */
+class Course {
+    private static final int CAPACITY = 3;
+    private static int numberOfCourses = 0;
+
+    /**
+     * getCourseId is needed to get privet information about Id
+     * @return Id of a given course
+     */
+    public int getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * getCapacity is used to get amount of seats in every course
+     * @return this amount
+     */
+    public static int getCapacity() {
+        return CAPACITY;
+    }
+
+    /**
+     * getNumberOfCourses counts amount of created courses
+     * @return this amount
+     */
+    public static int getNumberOfCourses() {
+        return numberOfCourses;
+    }
+
+    /**
+     * setNumberOfCourses changes amount of created courses, the next course
+     * gets the ID which follows this amount
+     * @param numberOfCourses given amount of courses
+     */
+    public static void setNumberOfCourses(int numberOfCourses) {
+        Course.numberOfCourses = numberOfCourses;
+    }
+
+    private int courseId;
+    private String courseName;
+    private final List<Student> enrolledStudents = new AbstractList<Student>() {
+        @Override
+        public Student get(int index) {
+            int memberId = EnrollmentStore.getInstance().studentAt(courseId, index);
+            return Registry.getInstance().findStudent(memberId);
+        }
+
+        @Override
+        public int size() {
+            return EnrollmentStore.getInstance().countStudents(courseId);
+        }
+    };
+
+    /**
+     * getCourseName is needed to get privet information about name of a course
+     * @return name of a given course
+     */
+    public String getCourseName() {
+        return courseName;
+    }
+
+    /**
+     * getCourseLevel is needed to get privet information about level of a course
+     * @return level of a given course
+     */
+    public CourseLevel getCourseLevel() {
+        return courseLevel;
+    }
+
+    private CourseLevel courseLevel;
+    private final List<TimeSlot> timeSlots;
+
+    /**
+     * getTimeSlots is used to get weekly meeting times of a course
+     * @return unmodifiable list of slots, empty in case the course has no
+     *         fixed times
+     */
+    public List<TimeSlot> getTimeSlots() {
+        return timeSlots;
+    }
+
+    /**
+     * isFull is needed to check whether our course is full or not
+     * @return comparison of amount of enrolled students with maximum capacity
+     */
+    public boolean isFull() {
+        return EnrollmentStore.getInstance().countStudents(courseId) == CAPACITY;
+    }
+
+    /**
+     * getSeatsRemaining is used to get amount of free seats of a course
+     * @return this amount
+     */
+    public int getSeatsRemaining() {
+        return CAPACITY - EnrollmentStore.getInstance().countStudents(courseId);
+    }
+
+    /**
+     * getEnrolledStudents is needed to get students of a course
+     * @return read-only view of students, who are enrolled in this course
+     */
+    public List<Student> getEnrolledStudents() {
+        return enrolledStudents;
+    }
+
+    /**
+     * enroll is used to enroll student on a course, it is the same as
+     * enrolling from the student side
+     * @param student which must be added
+     * @return true if we can enroll this Student, false if it is impossible
+     */
+    public boolean enroll(Student student) {
+        return EnrollmentStore.getInstance().enroll(student.getMemberId(), courseId);
+    }
+
+    /**
+     * drop is used to delete a student from a course, it is the same as
+     * dropping from the student side
+     * @param student which must be deleted
+     * @return true if we can delete this Student, false if it is impossible
+     */
+    public boolean drop(Student student) {
+        return EnrollmentStore.getInstance().drop(student.getMemberId(), courseId);
+    }
+
+    /**
+     * it is a constructor of a course class. Here we also increase number of course
+     * by 1
+     * @param courseName  name of course which must be given to a new course
+     * @param courselevel level of course which must be given to a new course
+     */
+    public Course(String courseName, CourseLevel courselevel) {
+        this(courseName, courselevel, Collections.emptyList());
+    }
+
+    /**
+     * it is a constructor of a course which meets at given weekly times, the
+     * number of courses is increased by 1
+     * @param courseName  name of course which must be given to a new course
+     * @param courseLevel level of course which must be given to a new course
+     * @param timeSlots   weekly meeting times of a new course
+     */
+    Course(String courseName, CourseLevel courseLevel, List<TimeSlot> timeSlots) {
+        this(numberOfCourses + 1, courseName, courseLevel, timeSlots);
+        numberOfCourses++; // assume that it's possible to create this course
+    }
+
+    /**
+     * it is a constructor which restores a saved course with its own ID, the
+     * number of courses is not changed
+     * @param courseId    ID of a saved course
+     * @param courseName  name of a saved course
+     * @param courseLevel level of a saved course
+     */
+    Course(int courseId, String courseName, CourseLevel courseLevel) {
+        this(courseId, courseName, courseLevel, Collections.emptyList());
+    }
+
+    /**
+     * it is a constructor which restores a saved course with its own ID and
+     * meeting times, the number of courses is not changed
+     * @param courseId    ID of a saved course
+     * @param courseName  name of a saved course
+     * @param courseLevel level of a saved course
+     * @param timeSlots   weekly meeting times of a saved course
+     */
+    Course(int courseId, String courseName, CourseLevel courseLevel, List<TimeSlot> timeSlots) {
+        this.courseName = courseName;
+        this.courseLevel = courseLevel;
+        this.courseId = courseId;
+        this.timeSlots = timeSlots.isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(timeSlots));
+        EnrollmentStore.getInstance().addCourse(courseId);
+        ReportViews.getInstance().courseAdded(courseId, courseLevel);
+        Timetable.getInstance().addCourse(courseId, this.timeSlots);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package university;
+
+/**
+ * Waitlists keeps a FIFO queue of students for every full course. Every
+ * student in a queue has a ticket, tickets of a course grow one by one and
+ * only the head of a queue leaves it, so the position of a student is the
+ * difference of two tickets and joining, leaving and position queries take
+ * constant time.
+ * Queues and tickets are split into stripes by course ID like columns of
+ * the enrollment store; the caller holds the lock of the course stripe.
+ * Waitlists are kept in memory only, the journal and snapshots do not
+ * contain them.
+ */
+final class Waitlists {
+    private static final int MISSING = -1;
+
+    private final IntObjectMap<Queue>[] queues;
+    private final LongIntMap[] tickets = new LongIntMap[EnrollmentStore.STRIPES];
+
+    /**
+     * creates empty waitlists
+     */
+    @SuppressWarnings("unchecked")
+    Waitlists() {
+        queues = (IntObjectMap<Queue>[]) new IntObjectMap<?>[EnrollmentStore.STRIPES];
+        for (int i = 0; i < EnrollmentStore.STRIPES; i++) {
+            queues[i] = new IntObjectMap<>();
+            tickets[i] = new LongIntMap(MISSING);
+        }
+    }
+
+    /**
+     * join puts a student to the end of the waitlist of a course
+     * @param memberId ID of a student
+     * @param courseId ID of a course
+     * @return true in case the student joined, false in case the student is
+     *         already in this waitlist
+     */
+    boolean join(int memberId, int courseId) {
+        int stripe = EnrollmentStore.stripeOf(courseId);
+        long pair = pair(memberId, courseId);
+        if (tickets[stripe].containsKey(pair)) {
+            return false;
+        }
+        Queue queue = queues[stripe].get(courseId);
+        if (queue == null) {
+            queue = new Queue();
+            queues[stripe].put(courseId, queue);
+        }
+        tickets[stripe].put(pair, queue.offer(memberId));
+        return true;
+    }
+
+    /**
+     * poll takes the student from the head of the waitlist of a course
+     * @param courseId ID of a course
+     * @return ID of a student or 0 in case the waitlist is empty
+     */
+    int poll(int courseId) {
+        int stripe = EnrollmentStore.stripeOf(courseId);
+        Queue queue = queues[stripe].get(courseId);
+        if (queue == null || queue.size == 0) {
+            return 0;
+        }
+        int memberId = queue.poll();
+        tickets[stripe].remove(pair(memberId, courseId));
+        return memberId;
+    }
+
+    /**
+     * position returns the place of a student in the waitlist of a course
+     * @param memberId ID of a student
+     * @param courseId ID of a course
+     * @return 1 for the head of the waitlist and so on, 0 in case the student
+     *         is not in this waitlist
+     */
+    int position(int memberId, int courseId) {
+        int stripe = EnrollmentStore.stripeOf(courseId);
+        int ticket = tickets[stripe].get(pair(memberId, courseId));
+        if (ticket == MISSING) {
+            return 0;
+        }
+        return ticket - queues[stripe].get(courseId).headTicket + 1;
+    }
+
+    /**
+     * length returns amount of students in the waitlist of a course
+     * @param courseId ID of a course
+     * @return this amount
+     */
+    int length(int courseId) {
+        Queue queue = queues[EnrollmentStore.stripeOf(courseId)].get(courseId);
+        return queue == null ? 0 : queue.size;
+    }
+
+    private static long pair(int memberId, int courseId) {
+        return ((long) memberId << 32) | (courseId & 0xFFFFFFFFL);
+    }
+
+    // ring buffer of member IDs, the element at head has headTicket
+    private static final class Queue {
+        private int[] members = new int[4];
+        private int head;
+        private int size;
+        private int headTicket;
+
+        int offer(int memberId) {
+            if (size == members.length) {
+                int[] grown = new int[size << 1];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = members[(head + i) & (members.length - 1)];
+                }
+                members = grown;
+                head = 0;
+            }
+            members[(head + size) & (members.length - 1)] = memberId;
+            size++;
+            return headTicket + size - 1;
+        }
+
+        int poll() {
+            int memberId = members[head];
+            head = (head + 1) & (members.length - 1);
+            size--;
+            headTicket++;
+            return memberId;
+        }
+    }
+}
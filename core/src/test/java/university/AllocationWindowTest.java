@@ -0,0 +1,266 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static university.RandomWorkload.letters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * AllocationWindowTest closes windows of requests and checks that the seats
+ * depend only on the seed and the requests, not on the order of requests or
+ * the threads which sent them, that no course gets more students than its
+ * capacity and no student more courses than MAX_ENROLLMENT, and that
+ * MASTERS_FIRST gives seats of master courses to master students first
+ */
+class AllocationWindowTest {
+    private static final int COURSES = 8;
+    private static final int STUDENTS = 40;
+    private static final int THREADS = 4;
+
+    private EnrollmentEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+    }
+
+    @Test
+    void sameSeedGivesSameSeats() throws Exception {
+        List<Wish> wishes = randomWishes(new Random(1));
+        String first = allocate(wishes, 1, AllocationWindow.Priority.NONE, 7);
+        String second = allocate(wishes, 1, AllocationWindow.Priority.NONE, 7);
+        assertEquals(first, second);
+        assertFalse(first.equals(allocate(wishes, 1, AllocationWindow.Priority.NONE, 8)));
+    }
+
+    @Test
+    void orderOfRequestsDoesNotMatter() throws Exception {
+        List<Wish> wishes = randomWishes(new Random(2));
+        String ordered = allocate(wishes, 1, AllocationWindow.Priority.MASTERS_FIRST, 3);
+        for (int round = 0; round < 5; round++) {
+            List<Wish> shuffled = new ArrayList<>(wishes);
+            Collections.shuffle(shuffled, new Random(10 + round));
+            assertEquals(ordered, allocate(shuffled, THREADS, AllocationWindow.Priority.MASTERS_FIRST, 3));
+        }
+    }
+
+    @Test
+    void coursesDoNotGetMoreStudentsThanCapacity() {
+        buildCourses();
+        AllocationWindow window = AllocationWindow.open(engine, AllocationWindow.Priority.NONE, 5);
+        // 20 students want 5 courses with 15 seats
+        for (int i = 0; i < 20; i++) {
+            int memberId = engine.addStudent("student" + letters(i)).getMemberId();
+            window.request(memberId, CourseLevel.BACHELOR, 1, 2, 3, 4, 5);
+        }
+        List<AllocationWindow.Allocation> allocations = window.close();
+
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        int enrolled = 0;
+        for (AllocationWindow.Allocation allocation : allocations) {
+            assertEquals(store.countCourses(allocation.getMemberId()), allocation.countEnrolled());
+            enrolled += allocation.countEnrolled();
+            for (int i = 0; i < allocation.getCourseIds().length; i++) {
+                if (allocation.getOutcome(i) == Outcome.COURSE_FULL) {
+                    // a course turns a student away only when it is full
+                    assertEquals(Course.getCapacity(), store.countStudents(allocation.getCourseIds()[i]));
+                }
+            }
+        }
+        assertEquals(5 * Course.getCapacity(), enrolled);
+        for (int courseId = 1; courseId <= 5; courseId++) {
+            assertEquals(Course.getCapacity(), store.countStudents(courseId));
+        }
+        assertFalse(window.request(1, CourseLevel.BACHELOR, 6));
+        assertThrows(IllegalStateException.class, window::close);
+    }
+
+    @Test
+    void studentsDoNotGetMoreCoursesThanMaxEnrollment() {
+        buildCourses();
+        int alice = engine.addStudent("alice").getMemberId();
+        int bob = engine.addStudent("bob").getMemberId();
+        int carol = engine.addProfessor("carol").getMemberId();
+        assertEquals(Outcome.ENROLLED, engine.enroll(alice, 6));
+        AllocationWindow window = AllocationWindow.open(engine, AllocationWindow.Priority.NONE, 1);
+        window.request(alice, CourseLevel.BACHELOR, 6, 1, 1, 2, 3, 4);
+        window.request(bob, CourseLevel.BACHELOR, 1, 2);
+        // a later request replaces the earlier one
+        window.request(bob, CourseLevel.BACHELOR, 4, 3, 2, 1);
+        window.request(carol, CourseLevel.MASTER, 1);
+        List<AllocationWindow.Allocation> allocations = window.close();
+
+        assertEquals(List.of(alice + ": 6 ALREADY_ENROLLED 1 ENROLLED 1 WRONG_INPUTS 2 ENROLLED"
+                        + " 3 MAX_ENROLLMENT_REACHED 4 MAX_ENROLLMENT_REACHED",
+                bob + ": 4 ENROLLED 3 ENROLLED 2 ENROLLED 1 MAX_ENROLLMENT_REACHED",
+                carol + ": 1 WRONG_INPUTS"), strings(allocations));
+        assertEquals(Student.MAX_ENROLLMENT, EnrollmentStore.getInstance().countCourses(alice));
+        assertEquals(Student.MAX_ENROLLMENT, EnrollmentStore.getInstance().countCourses(bob));
+    }
+
+    @Test
+    void mastersFirstGivesMasterCoursesToMasterStudents() {
+        boolean bachelorWon = false;
+        for (long seed = 0; seed < 20; seed++) {
+            for (AllocationWindow.Allocation allocation : allocateMasterCourse(
+                    AllocationWindow.Priority.MASTERS_FIRST, seed)) {
+                if (allocation.getMemberId() <= 3) {
+                    assertEquals(Outcome.COURSE_FULL, allocation.getOutcome(0));
+                    assertEquals(Outcome.ENROLLED, allocation.getOutcome(1));
+                } else {
+                    assertEquals(Outcome.ENROLLED, allocation.getOutcome(0));
+                }
+            }
+            for (AllocationWindow.Allocation allocation : allocateMasterCourse(AllocationWindow.Priority.NONE,
+                    seed)) {
+                bachelorWon |= allocation.getMemberId() <= 3 && allocation.getOutcome(0) == Outcome.ENROLLED;
+            }
+        }
+        // without the policy only the lottery decides
+        assertTrue(bachelorWon);
+    }
+
+    @Test
+    void requestsAreReadFromFile(@TempDir Path directory) throws IOException {
+        buildCourses();
+        int alice = engine.addStudent("alice").getMemberId();
+        int bob = engine.addStudent("bob").getMemberId();
+        Path file = directory.resolve("requests.csv");
+        Files.writeString(file, alice + ",bachelor,1;2\n\n" + bob + ",MASTER,7\n");
+        AllocationWindow window = AllocationWindow.open(engine, AllocationWindow.Priority.NONE, 1);
+        window.readRequests(file);
+        assertEquals(List.of(alice + ": 1 ENROLLED 2 ENROLLED", bob + ": 7 ENROLLED"), strings(window.close()));
+
+        for (String line : new String[] {"1,doctor,1", "1,bachelor", "1,bachelor,1;", "x,bachelor,1"}) {
+            Files.writeString(file, line + "\n");
+            AllocationWindow wrong = AllocationWindow.open(engine, AllocationWindow.Priority.NONE, 1);
+            assertThrows(IOException.class, () -> wrong.readRequests(file), line);
+        }
+    }
+
+    // three bachelor students and three master students want the three seats of a master course
+    private List<AllocationWindow.Allocation> allocateMasterCourse(AllocationWindow.Priority priority, long seed) {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        buildCourses();
+        AllocationWindow window = AllocationWindow.open(engine, priority, seed);
+        for (int i = 0; i < 6; i++) {
+            int memberId = engine.addStudent("student" + letters(i)).getMemberId();
+            if (i < 3) {
+                window.request(memberId, CourseLevel.BACHELOR, 7, 1);
+            } else {
+                window.request(memberId, CourseLevel.MASTER, 7);
+            }
+        }
+        return window.close();
+    }
+
+    // allocates the wishes on a fresh state and returns the results and the rosters
+    private String allocate(List<Wish> wishes, int threads, AllocationWindow.Priority priority, long seed)
+            throws Exception {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        buildCourses();
+        for (int i = 0; i < STUDENTS; i++) {
+            engine.addStudent("student" + letters(i));
+        }
+        AllocationWindow window = AllocationWindow.open(engine, priority, seed);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int first = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = first; i < wishes.size(); i += threads) {
+                        Wish wish = wishes.get(i);
+                        assertTrue(window.request(wish.memberId, wish.level, wish.courseIds));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        StringBuilder result = new StringBuilder();
+        for (String allocation : strings(window.close())) {
+            result.append(allocation).append('\n');
+        }
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        for (int courseId = 1; courseId <= COURSES; courseId++) {
+            int[] students = new int[store.countStudents(courseId)];
+            for (int i = 0; i < students.length; i++) {
+                students[i] = store.studentAt(courseId, i);
+            }
+            Arrays.sort(students);
+            result.append(courseId).append(' ').append(Arrays.toString(students)).append('\n');
+        }
+        return result.toString();
+    }
+
+    // courses 1 to 6 are bachelor courses, 7 and 8 master courses
+    private void buildCourses() {
+        for (int i = 0; i < COURSES; i++) {
+            assertEquals(Outcome.ADDED, engine.addCourse("course" + letters(i),
+                    i < 6 ? CourseLevel.BACHELOR : CourseLevel.MASTER));
+        }
+    }
+
+    private static List<Wish> randomWishes(Random random) {
+        List<Wish> wishes = new ArrayList<>();
+        for (int memberId = 1; memberId <= STUDENTS; memberId++) {
+            List<Integer> courses = new ArrayList<>();
+            for (int courseId = 1; courseId <= COURSES; courseId++) {
+                courses.add(courseId);
+            }
+            Collections.shuffle(courses, random);
+            int[] courseIds = new int[2 + random.nextInt(4)];
+            for (int i = 0; i < courseIds.length; i++) {
+                courseIds[i] = courses.get(i);
+            }
+            wishes.add(new Wish(memberId, random.nextInt(3) == 0 ? CourseLevel.MASTER : CourseLevel.BACHELOR,
+                    courseIds));
+        }
+        return wishes;
+    }
+
+    private static List<String> strings(List<AllocationWindow.Allocation> allocations) {
+        List<String> result = new ArrayList<>();
+        for (AllocationWindow.Allocation allocation : allocations) {
+            result.add(allocation.toString());
+        }
+        return result;
+    }
+
+    private static final class Wish {
+        private final int memberId;
+        private final CourseLevel level;
+        private final int[] courseIds;
+
+        Wish(int memberId, CourseLevel level, int[] courseIds) {
+            this.memberId = memberId;
+            this.level = level;
+            this.courseIds = courseIds;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * BatchModeTest runs the same command streams through the batch mode and
+ * through the interactive mode, a Scanner over System.in and println to
+ * System.out, and compares the outputs byte for byte. Streams mix all line
+ * separators of Scanner, names which are not ASCII, wrong IDs, a last line
+ * without a separator and an end inside a command.
+ */
+class BatchModeTest {
+    private static final String[] SEPARATORS = {"\n", "\r\n", "\r", "\u2028", "\u2029", "\u0085"};
+    private static final String[] NAMES = {"alice", "Bob", "élise", "日本", "x y", "enroll", "java_beginner",
+            "algebra", "Geometry", "😀"};
+    private static final String[] IDS = {"1", "2", "5", "9", "12", "-1", "+3", "007", "x", "2147483648", "٣", ""};
+
+    private final PrintStream console = System.out;
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(console);
+        UniversityCourseManagementSystem.setMetrics(null);
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void batchOptionPrintsWhatTheInteractiveModePrints(@TempDir Path directory) throws IOException {
+        for (int seed = 0; seed < 4; seed++) {
+            for (boolean complete : new boolean[] {true, false}) {
+                byte[] input = randomStream(new Random(seed), 2_000, complete).getBytes(Charset.defaultCharset());
+                byte[] expected = interactive(input, Charset.defaultCharset());
+                Path file = directory.resolve("commands.txt");
+                Files.write(file, input);
+                for (int flushEvery : new int[] {0, 1, 7, 1_000}) {
+                    UniversityCourseManagementSystem.resetState();
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    System.setOut(new PrintStream(output, true));
+                    UniversityCourseManagementSystem.main(new String[] {"--batch", file.toString(),
+                            "--flush-every", Integer.toString(flushEvery)});
+                    System.setOut(console);
+                    assertArrayEquals(expected, output.toByteArray(), "seed " + seed + " flush " + flushEvery);
+                }
+            }
+        }
+    }
+
+    @Test
+    void smallBuffersSplitLinesAndCharactersLikeScanner() {
+        for (int seed = 0; seed < 3; seed++) {
+            byte[] input = randomStream(new Random(10 + seed), 300, seed != 1).getBytes(StandardCharsets.UTF_8);
+            byte[] expected = interactive(input, StandardCharsets.UTF_8);
+            for (int bufferSize : new int[] {1, 15, 16, 17, 18, 19, 61, 4_096}) {
+                for (int flushEvery : new int[] {0, 1, 3}) {
+                    UniversityCourseManagementSystem.resetState();
+                    UniversityCourseManagementSystem.fillInitialData();
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+                            UniversityCourseManagementSystem.processCommands(new ChannelCommandInput(
+                                    Channels.newChannel(new ByteArrayInputStream(input)), StandardCharsets.UTF_8,
+                                    bufferSize), new BatchedCommandOutput(output, StandardCharsets.UTF_8, flushEvery)));
+                    assertArrayEquals(expected, output.toByteArray(), "buffer " + bufferSize);
+                }
+            }
+        }
+    }
+
+    @Test
+    void wrongBytesAreReplacedLikeScanner() {
+        byte[] input = {'s', 't', 'u', 'd', 'e', 'n', 't', '\n', 'a', (byte) 0xFF, 'b', '\r', 'c', 'o', 'u', 'r', 's',
+            'e', '\r', '\n', (byte) 0xC3, '\n', 'm', 'a', 's', 't', 'e', 'r'};
+        byte[] expected = interactive(input, StandardCharsets.UTF_8);
+        UniversityCourseManagementSystem.resetState();
+        UniversityCourseManagementSystem.fillInitialData();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        UniversityCourseManagementSystem.processCommands(new ChannelCommandInput(
+                Channels.newChannel(new ByteArrayInputStream(input)), StandardCharsets.UTF_8, 3),
+                new BatchedCommandOutput(output, StandardCharsets.UTF_8, 0));
+        assertArrayEquals(expected, output.toByteArray());
+    }
+
+    // the interactive mode of main after the initial data
+    private byte[] interactive(byte[] input, Charset charset) {
+        UniversityCourseManagementSystem.resetState();
+        UniversityCourseManagementSystem.fillInitialData();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, charset));
+        try {
+            UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(
+                    new ByteArrayInputStream(input), charset)), new ConsoleCommandOutput());
+        } finally {
+            System.setOut(console);
+        }
+        return output.toByteArray();
+    }
+
+    // commands with random arguments, the stream may end inside a command
+    private static String randomStream(Random random, int commands, boolean complete) {
+        String[] words = {"course", "student", "professor", "enroll", "drop", "teach", "exempt", "other"};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            String word = words[random.nextInt(words.length)];
+            line(text, random, word);
+            switch (word) {
+                case "course":
+                    line(text, random, NAMES[random.nextInt(NAMES.length)]);
+                    line(text, random, random.nextBoolean() ? "bachelor" : "MASTER");
+                    break;
+                case "student":
+                case "professor":
+                    line(text, random, NAMES[random.nextInt(NAMES.length)]);
+                    break;
+                case "other":
+                    break;
+                default:
+                    line(text, random, IDS[random.nextInt(IDS.length)]);
+                    line(text, random, IDS[random.nextInt(IDS.length)]);
+            }
+        }
+        if (complete) {
+            // the last line has no separator
+            text.append("drop\n1\n1");
+        } else {
+            text.append("enroll\n1");
+        }
+        return text.toString();
+    }
+
+    // an empty line ends the loop, so an empty ID is written as a space
+    private static void line(StringBuilder text, Random random, String line) {
+        text.append(line.isEmpty() ? " " : line).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+    }
+}
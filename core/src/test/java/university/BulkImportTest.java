@@ -0,0 +1,195 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BulkImportTest imports courses with meeting times and checks that enroll
+ * and teach refuse courses which meet at the same time as another course of
+ * the member, that wrong times reject their lines and that findConflicts
+ * reports members who got such courses without the engine. Random files
+ * are imported with many chunk sizes and compared with the same lines given
+ * as commands.
+ */
+class BulkImportTest {
+    private static final String INTAKE = String.join("\n",
+            "course,algebra,bachelor,mon 09:00-10:30;wed 09:00-10:30",
+            "course,geometry,bachelor,MON 10:15-11:00",
+            "course,physics,master,tue 9:00-10:30",
+            "course,biology,bachelor",
+            "course,astronomy,bachelor,fri 22:00-24:00",
+            "course,chemistry,bachelor,xyz 09:00-10:00",
+            "course,history,bachelor,mon 10:30-10:00",
+            "course,music,bachelor,mon 09:10-10:00",
+            "course,drawing,bachelor,",
+            "student,alice",
+            "student,bob",
+            "professor,carol",
+            "");
+    private static final String[] WORDS = {"course", "course", "course", "student", "student", "professor",
+            "Course", "enroll", "drop", ""};
+    private static final String[] NAMES = {"algebra", "Algebra", "geometry", "alice", "bob", "carol", "java_intro",
+            "c++", "x y", "élise", "日本", "student", "Enroll", "drop", "", "abc1", "a_b"};
+    private static final String[] LEVELS = {"bachelor", "MASTER", "Bachelor", "phd", ""};
+    private EnrollmentEngine engine;
+    private Registry registry;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        registry = Registry.getInstance();
+    }
+
+    @Test
+    void importedTimesAreChecked() {
+        BulkImport.Result result = BulkImport.importData(INTAKE.getBytes(StandardCharsets.UTF_8),
+                BulkImport.CHUNK_SIZE, engine);
+        assertEquals(5, result.getCourses());
+        assertArrayEquals(new int[] {6, 7, 8, 9}, result.getRejectedLines());
+        assertEquals(List.of(slot(DayOfWeek.MONDAY, 9, 0, 10, 30), slot(DayOfWeek.WEDNESDAY, 9, 0, 10, 30)),
+                registry.findCourse(1).getTimeSlots());
+        assertEquals(List.of(new TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(22, 0), LocalTime.MIDNIGHT)),
+                registry.findCourse(5).getTimeSlots());
+        assertTrue(registry.findCourse(4).getTimeSlots().isEmpty());
+
+        assertEquals(Outcome.ENROLLED, engine.enroll(1, 1));
+        assertEquals(Outcome.TIME_CONFLICT, engine.enroll(1, 2));
+        assertEquals(Outcome.ENROLLED, engine.enroll(1, 3));
+        assertEquals(Outcome.DROPPED, engine.drop(1, 1));
+        assertEquals(Outcome.ENROLLED, engine.enroll(1, 2));
+        assertEquals(Outcome.TIME_CONFLICT, engine.enroll(1, 1));
+
+        assertEquals(Outcome.ASSIGNED, engine.teach(3, 1));
+        assertEquals(Outcome.TIME_CONFLICT, engine.teach(3, 2));
+        assertEquals(Outcome.ASSIGNED, engine.teach(3, 5));
+        assertTrue(engine.findConflicts().isEmpty());
+    }
+
+    @Test
+    void findConflictsReportsMembersChangedWithoutTheEngine() {
+        BulkImport.importData(INTAKE.getBytes(StandardCharsets.UTF_8), BulkImport.CHUNK_SIZE, engine);
+        Student bob = registry.findStudent(2);
+        bob.enroll(registry.findCourse(1));
+        bob.enroll(registry.findCourse(2));
+        bob.enroll(registry.findCourse(4));
+
+        List<Timetable.Conflict> conflicts = engine.findConflicts();
+        assertEquals(1, conflicts.size());
+        Timetable.Conflict conflict = conflicts.get(0);
+        assertEquals(2, conflict.getMemberId());
+        assertEquals(3, conflict.getCourseId() + conflict.getOtherCourseId());
+    }
+
+    @Test
+    void wrongTimesAreNotParsed() {
+        assertEquals(slot(DayOfWeek.SUNDAY, 0, 0, 0, 15), TimeSlot.parse("Sun 0:00-0:15"));
+        for (String text : new String[] {"", "mon", "mon 09:00", "monday 09:00-10:00", "mon 09:00-09:00",
+                "mon 24:00-24:00", "mon 23:00-00:00", "mon 9:60-10:00", "mon 09:00-10:0", "mon +9:00-10:00",
+                "mon 09:00-10:00 "}) {
+            assertNull(TimeSlot.parse(text), text);
+        }
+        assertNull(TimeSlot.parseAll("mon 09:00-10:00;"));
+        assertEquals(2, TimeSlot.parseAll("mon 09:00-10:00;mon 09:00-10:00").size());
+    }
+
+    @Test
+    void importRejectsWhatCommandsReject() {
+        for (int seed = 0; seed < 5; seed++) {
+            List<String> lines = randomLines(new Random(seed));
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < lines.size(); i++) {
+                text.append(lines.get(i));
+                if (i < lines.size() - 1 || seed % 2 == 0) {
+                    text.append(i % 3 == 0 ? "\r\n" : "\n");
+                }
+            }
+            byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            existingState();
+            int[] expectedRejected = runAsCommands(lines);
+            String expected = StateDump.of();
+            for (int chunkSize = 1; chunkSize <= 300; chunkSize++) {
+                existingState();
+                BulkImport.Result result = BulkImport.importData(data, chunkSize,
+                        UniversityCourseManagementSystem.getEngine());
+                assertArrayEquals(expectedRejected, result.getRejectedLines(), "seed " + seed + " chunk " + chunkSize);
+                assertEquals(expected, StateDump.of(), "seed " + seed + " chunk " + chunkSize);
+            }
+        }
+    }
+
+    // a course and a member whose names come again in the files
+    private static void existingState() {
+        UniversityCourseManagementSystem.resetState();
+        EnrollmentEngine engine = UniversityCourseManagementSystem.getEngine();
+        engine.addCourse("algebra", CourseLevel.BACHELOR);
+        engine.addStudent("alice");
+    }
+
+    // gives every line which looks like a command as one, returns numbers of lines which are rejected
+    private static int[] runAsCommands(List<String> lines) {
+        List<Integer> rejected = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isEmpty()) {
+                continue;
+            }
+            String[] fields = lines.get(i).split(",", -1);
+            boolean course = fields[0].equals("course") && fields.length == 3;
+            boolean member = (fields[0].equals("student") || fields[0].equals("professor")) && fields.length == 2;
+            List<String> results = new ArrayList<>();
+            if (course || member) {
+                UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(
+                        String.join("\n", fields) + "\n")), new CommandOutput() {
+                            @Override
+                            public void println(String line) {
+                                results.add(line);
+                            }
+
+                            @Override
+                            public void flush() {
+                            }
+                        });
+            }
+            if (!results.equals(List.of(Outcome.ADDED.getMessage()))) {
+                rejected.add(i + 1);
+            }
+        }
+        return rejected.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // lines with wrong and repeated names, command words, wrong levels, wrong field counts and empty lines
+    private static List<String> randomLines(Random random) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String name = NAMES[random.nextInt(NAMES.length)];
+            StringBuilder line = new StringBuilder(word);
+            if (random.nextInt(10) > 0) {
+                line.append(',').append(name);
+            }
+            if (word.equalsIgnoreCase("course") && random.nextInt(10) > 0 || random.nextInt(10) == 0) {
+                line.append(',').append(LEVELS[random.nextInt(LEVELS.length)]);
+            }
+            lines.add(random.nextInt(15) == 0 ? "" : line.toString());
+        }
+        return lines;
+    }
+
+    private static TimeSlot slot(DayOfWeek day, int startHour, int startMinute, int endHour, int endMinute) {
+        return new TimeSlot(day, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute));
+    }
+}
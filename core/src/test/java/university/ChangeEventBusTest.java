@@ -0,0 +1,256 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ChangeEventBusTest publishes changes of the engine and checks what
+ * subscribers get: every event in order while they keep up, counted lost
+ * events and a jump to the oldest kept event with SKIP, a stop with
+ * DISCONNECT, reported failures of handlers and all events published before
+ * detach
+ */
+class ChangeEventBusTest {
+    private static final int CAPACITY = 16;
+
+    private EnrollmentEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        engine.addCourse("algebra", CourseLevel.BACHELOR);
+        engine.addCourse("geometry", CourseLevel.BACHELOR);
+        engine.addStudent("alice");
+        engine.addProfessor("bob");
+    }
+
+    @Test
+    void eventsComeInOrderOfChanges() throws InterruptedException {
+        ChangeEventBus bus = ChangeEventBus.attach(engine, CAPACITY);
+        List<String> events = new ArrayList<>();
+        ChangeEventBus.Subscription subscription = bus.subscribe("order", ChangeEventBus.Overflow.SKIP,
+                event -> events.add(event.getSequence() + " " + event.getType() + " " + event.getMemberId() + " "
+                        + event.getCourseId()));
+        assertEquals(Outcome.ENROLLED, engine.enroll(1, 1));
+        assertEquals(Outcome.ASSIGNED, engine.teach(2, 2));
+        assertEquals(Outcome.WRONG_INPUTS, engine.enroll(2, 1));
+        assertEquals(Outcome.DROPPED, engine.drop(1, 1));
+        assertEquals(Outcome.EXEMPTED, engine.exempt(2, 2));
+        bus.detach();
+
+        assertEquals(List.of("0 ENROLLED 1 1", "1 ASSIGNED 2 2", "2 DROPPED 1 1", "3 EXEMPTED 2 2"), events);
+        assertEquals(4, bus.getPublished());
+        assertEquals(4, subscription.getCursor());
+        assertEquals(0, subscription.getLost());
+        assertFalse(subscription.isConnected());
+    }
+
+    @Test
+    void changesOfOneMemberComeInOrderFromManyThreads() throws Exception {
+        int threads = 4;
+        int rounds = 5_000;
+        for (int i = 0; i < threads; i++) {
+            engine.addStudent("student" + (char) ('a' + i));
+        }
+        ChangeEventBus bus = ChangeEventBus.attach(engine, 1 << 16);
+        long[] expected = {0};
+        boolean[] enrolled = new boolean[threads + 3];
+        List<String> errors = new ArrayList<>();
+        bus.subscribe("members", ChangeEventBus.Overflow.SKIP, event -> {
+            if (event.getSequence() != expected[0]++) {
+                errors.add("sequence " + event.getSequence());
+            }
+            boolean enroll = event.getType() == ChangeEventBus.Type.ENROLLED;
+            if (enrolled[event.getMemberId()] == enroll) {
+                errors.add("member " + event.getMemberId() + " at " + event.getSequence());
+            }
+            enrolled[event.getMemberId()] = enroll;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int memberId = 3 + i;
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < rounds; round++) {
+                        engine.enroll(memberId, 1 + round % 2);
+                        engine.drop(memberId, 1 + round % 2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        bus.detach();
+        assertEquals(List.of(), errors);
+        assertEquals(bus.getPublished(), expected[0]);
+        assertTrue(expected[0] > 0);
+    }
+
+    @Test
+    void skipJumpsOverLostEvents() throws InterruptedException {
+        ChangeEventBus bus = ChangeEventBus.attach(engine, CAPACITY);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> sequences = new ArrayList<>();
+        AtomicLong reported = new AtomicLong();
+        ChangeEventBus.Subscription subscription = bus.subscribe("skip", ChangeEventBus.Overflow.SKIP,
+                new ChangeEventBus.Handler() {
+                    @Override
+                    public void onEvent(ChangeEventBus.Event event) {
+                        sequences.add(event.getSequence());
+                        entered.countDown();
+                        await(release);
+                    }
+
+                    @Override
+                    public void onLost(long count) {
+                        reported.addAndGet(count);
+                    }
+                });
+        enrollAndDrop(1);
+        assertTrue(entered.await(60, TimeUnit.SECONDS));
+        // the subscriber holds event 0 while the ring is overwritten three times
+        enrollAndDrop(CAPACITY * 3 / 2);
+        release.countDown();
+        bus.detach();
+
+        long published = bus.getPublished();
+        assertEquals(CAPACITY * 3 + 2, published);
+        assertTrue(subscription.getLost() > 0);
+        assertEquals(subscription.getLost(), reported.get());
+        assertEquals(published, sequences.size() + subscription.getLost());
+        assertEquals(published - 1, (long) sequences.get(sequences.size() - 1));
+        for (int i = 1; i < sequences.size(); i++) {
+            assertTrue(sequences.get(i) > sequences.get(i - 1));
+        }
+        // after the jump the subscriber keeps up again and reads a whole ring without a gap
+        assertEquals(published - CAPACITY, (long) sequences.get(1));
+    }
+
+    @Test
+    void disconnectStopsTheSubscriber() throws InterruptedException {
+        ChangeEventBus bus = ChangeEventBus.attach(engine, CAPACITY);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> sequences = new ArrayList<>();
+        List<Long> reported = new ArrayList<>();
+        ChangeEventBus.Subscription subscription = bus.subscribe("disconnect", ChangeEventBus.Overflow.DISCONNECT,
+                new ChangeEventBus.Handler() {
+                    @Override
+                    public void onEvent(ChangeEventBus.Event event) {
+                        sequences.add(event.getSequence());
+                        entered.countDown();
+                        await(release);
+                    }
+
+                    @Override
+                    public void onLost(long count) {
+                        reported.add(count);
+                    }
+                });
+        enrollAndDrop(1);
+        assertTrue(entered.await(60, TimeUnit.SECONDS));
+        enrollAndDrop(CAPACITY);
+        release.countDown();
+        for (int i = 0; i < 1_000 && subscription.isConnected(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(subscription.isConnected());
+        enrollAndDrop(1);
+        bus.detach();
+
+        assertEquals(List.of(0L), sequences);
+        assertEquals(List.of(subscription.getLost()), reported);
+        assertEquals(2 + CAPACITY * 2 - CAPACITY - 1, subscription.getLost());
+        assertEquals(1, subscription.getCursor());
+    }
+
+    @Test
+    void failingHandlerIsReportedAndGoesOn() throws InterruptedException {
+        ChangeEventBus bus = ChangeEventBus.attach(engine, CAPACITY);
+        List<Long> handled = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        ChangeEventBus.Subscription subscription = bus.subscribe("failing", ChangeEventBus.Overflow.SKIP,
+                new ChangeEventBus.Handler() {
+                    @Override
+                    public void onEvent(ChangeEventBus.Event event) {
+                        handled.add(event.getSequence());
+                        if (event.getType() == ChangeEventBus.Type.DROPPED) {
+                            throw new IllegalStateException("drop " + event.getSequence());
+                        }
+                    }
+
+                    @Override
+                    public void onError(RuntimeException e) {
+                        errors.add(e.getMessage());
+                    }
+                });
+        enrollAndDrop(3);
+        bus.detach();
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), handled);
+        assertEquals(List.of("drop 1", "drop 3", "drop 5"), errors);
+        assertEquals(3, subscription.getFailed());
+    }
+
+    @Test
+    void detachDeliversEventsPublishedBefore() throws InterruptedException {
+        ChangeEventBus bus = ChangeEventBus.attach(engine, 1 << 10);
+        AtomicLong handled = new AtomicLong();
+        ChangeEventBus.Subscription subscription = bus.subscribe("drain", ChangeEventBus.Overflow.SKIP, event -> {
+            sleep();
+            handled.incrementAndGet();
+        });
+        enrollAndDrop(100);
+        bus.detach();
+        assertEquals(200, handled.get());
+        assertEquals(0, subscription.getLost());
+        assertFalse(subscription.isConnected());
+
+        enrollAndDrop(1);
+        assertEquals(200, bus.getPublished());
+        assertEquals(200, handled.get());
+    }
+
+    // every round gives two events
+    private void enrollAndDrop(int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            assertEquals(Outcome.ENROLLED, engine.enroll(1, 1));
+            assertEquals(Outcome.DROPPED, engine.drop(1, 1));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(60, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(0, 100_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CommandMetricsTest checks that a recorder keeps its counts until a timed
+ * command or the end of the loop, and that the command loop times every
+ * command whose number is a multiple of the sample
+ */
+class CommandMetricsTest {
+    @AfterEach
+    void tearDown() {
+        UniversityCourseManagementSystem.setMetrics(null);
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void recorderFlushesOnTimedCommand() {
+        CommandMetrics metrics = new CommandMetrics();
+        CommandMetrics.Recorder recorder = metrics.newRecorder();
+        recorder.record(CommandMetrics.Command.STUDENT, Outcome.ADDED, -1);
+        recorder.record(CommandMetrics.Command.OTHER, Outcome.WRONG_INPUTS, -1);
+        assertEquals(0L, metrics.getCommandCounts().get("student"));
+        assertEquals(0.0, metrics.getLatencyPercentiles().get("student.p50"));
+
+        recorder.record(CommandMetrics.Command.STUDENT, Outcome.ADDED, 5_000);
+        assertEquals(2L, metrics.getCommandCounts().get("student"));
+        assertEquals(1L, metrics.getCommandCounts().get("other"));
+        assertEquals(2L, metrics.getOutcomeCounts().get(Outcome.ADDED.getMessage()));
+        assertEquals(LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(5_000)) / 1000.0,
+                metrics.getLatencyPercentiles().get("student.p50"));
+
+        recorder.record(CommandMetrics.Command.DROP, Outcome.NOT_ENROLLED, -1);
+        assertEquals(0L, metrics.getCommandCounts().get("drop"));
+        recorder.flush();
+        recorder.flush();
+        assertEquals(1L, metrics.getCommandCounts().get("drop"));
+        assertEquals(1L, metrics.getOutcomeCounts().get(Outcome.NOT_ENROLLED.getMessage()));
+    }
+
+    @Test
+    void loopPublishesCountsAtEverySampledCommand() {
+        UniversityCourseManagementSystem.resetState();
+        CommandMetrics metrics = new CommandMetrics();
+        UniversityCourseManagementSystem.setMetrics(metrics);
+        int commands = 3 * (CommandMetrics.SAMPLE_MASK + 1) + 5;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            text.append("other\n");
+        }
+        List<Long> published = new ArrayList<>();
+        UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(text.toString())),
+                new CommandOutput() {
+                    @Override
+                    public void println(String line) {
+                        published.add(metrics.getCommandCounts().get("other"));
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                });
+        for (int i = 1; i <= commands; i++) {
+            long expected = i / (CommandMetrics.SAMPLE_MASK + 1) * (CommandMetrics.SAMPLE_MASK + 1);
+            assertEquals(expected, published.get(i - 1), "after command " + i);
+        }
+        // the rest is published when the loop ends
+        assertEquals((long) commands, metrics.getCommandCounts().get("other"));
+    }
+}
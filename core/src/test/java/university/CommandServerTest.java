@@ -0,0 +1,174 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static university.RandomWorkload.letters;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CommandServerTest sends commands of many clients at once to a server on
+ * the loopback address and compares the answers of every connection with
+ * the answers of the same lines given to the command loop like System.in.
+ * Clients change only their own members and courses, so their answers do
+ * not depend on the order in which the server runs them.
+ */
+class CommandServerTest {
+    private static final int CLIENTS = 16;
+    private static final int COURSES_PER_CLIENT = 3;
+    private static final int STUDENTS_PER_CLIENT = 5;
+    private static final int COMMANDS = 300;
+
+    private CommandServer server;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        UniversityCourseManagementSystem.resetState();
+        server = new CommandServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        executor = Executors.newFixedThreadPool(CLIENTS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    void concurrentClientsGetTheAnswersOfTheCommandLoop() throws Exception {
+        String setup = setupCommands();
+        List<String> clients = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            clients.add(clientCommands(client));
+        }
+
+        List<String> setupAnswers = send(setup);
+        List<Future<List<String>>> answers = new ArrayList<>();
+        for (String commands : clients) {
+            answers.add(executor.submit(() -> send(commands)));
+        }
+        List<List<String>> served = new ArrayList<>();
+        for (Future<List<String>> future : answers) {
+            served.add(future.get(60, TimeUnit.SECONDS));
+        }
+
+        UniversityCourseManagementSystem.resetState();
+        assertEquals(processLocally(setup), setupAnswers);
+        for (int client = 0; client < CLIENTS; client++) {
+            assertEquals(processLocally(clients.get(client)), served.get(client), "client " + client);
+        }
+    }
+
+    @Test
+    void connectionEndsLikeInputOfTheCommandLoop() throws Exception {
+        String[] sessions = {
+            "course\nalgebra\nbachelor\n\ncourse\ngeometry\nbachelor\n",
+            "student\nalice\nenroll\n",
+            "professor\nbob\nfly\nteach\n",
+        };
+        List<List<String>> served = new ArrayList<>();
+        for (String session : sessions) {
+            served.add(send(session));
+        }
+
+        UniversityCourseManagementSystem.resetState();
+        for (int i = 0; i < sessions.length; i++) {
+            assertEquals(processLocally(sessions[i]), served.get(i), sessions[i]);
+        }
+    }
+
+    // courses of every client and then its students and its professor
+    private static String setupCommands() {
+        StringBuilder commands = new StringBuilder();
+        for (int i = 0; i < CLIENTS * COURSES_PER_CLIENT; i++) {
+            commands.append("course\ncourse").append(letters(i)).append('\n')
+                    .append(i % 2 == 0 ? "bachelor" : "master").append('\n');
+        }
+        for (int client = 0; client < CLIENTS; client++) {
+            for (int i = 0; i < STUDENTS_PER_CLIENT; i++) {
+                commands.append("student\nstudent").append(letters(client * STUDENTS_PER_CLIENT + i)).append('\n');
+            }
+            commands.append("professor\nprofessor").append(letters(client)).append('\n');
+        }
+        return commands.toString();
+    }
+
+    // enrollments, drops, assignments and wrong inputs about the members and courses of one client
+    private static String clientCommands(int client) {
+        Random random = new Random(client);
+        int firstCourse = client * COURSES_PER_CLIENT + 1;
+        int firstMember = client * (STUDENTS_PER_CLIENT + 1) + 1;
+        int professor = firstMember + STUDENTS_PER_CLIENT;
+        StringBuilder commands = new StringBuilder();
+        for (int i = 0; i < COMMANDS; i++) {
+            int student = firstMember + random.nextInt(STUDENTS_PER_CLIENT);
+            int course = firstCourse + random.nextInt(COURSES_PER_CLIENT);
+            int kind = random.nextInt(10);
+            if (kind < 4) {
+                commands.append("enroll\n").append(student).append('\n').append(course).append('\n');
+            } else if (kind < 7) {
+                commands.append("drop\n").append(student).append('\n').append(course).append('\n');
+            } else if (kind == 7) {
+                commands.append("teach\n").append(professor).append('\n').append(course).append('\n');
+            } else if (kind == 8) {
+                commands.append("exempt\n").append(professor).append('\n').append(course).append('\n');
+            } else {
+                commands.append("enroll\n").append(professor).append("\nx").append(course).append('\n');
+            }
+        }
+        return commands.toString();
+    }
+
+    // sends all lines, closes the output and reads answers until the server closes the connection
+    private List<String> send(String commands) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(commands.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            socket.shutdownOutput();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            List<String> answers = new ArrayList<>();
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                answers.add(line);
+            }
+            return answers;
+        }
+    }
+
+    private static List<String> processLocally(String commands) {
+        List<String> answers = new ArrayList<>();
+        UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(commands)),
+                new CommandOutput() {
+                    @Override
+                    public void println(String line) {
+                        answers.add(line);
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                });
+        return answers;
+    }
+}
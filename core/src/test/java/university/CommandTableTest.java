@@ -0,0 +1,88 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CommandTableTest registers a command with its own handler and checks that
+ * the command loop dispatches it without a change of the loop, that its
+ * word is refused as a name, and that commands of the target still read
+ * their arguments like before
+ */
+class CommandTableTest {
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @AfterEach
+    void restoreCommands() {
+        CommandTable.setInstance(CommandTable.withDefaults());
+    }
+
+    @Test
+    void registeredHandlerIsDispatchedByTheLoop() {
+        CommandTable table = CommandTable.withDefaults();
+        List<String> seen = new ArrayList<>();
+        table.register("echo", CommandMetrics.Command.OTHER, new CommandHandler() {
+            @Override
+            Outcome handle(CommandInput s, CommandTarget target) {
+                seen.add(s.nextLine());
+                return Outcome.ADDED;
+            }
+        });
+        CommandTable.setInstance(table);
+        assertTrue(table.isCommandWord("echo"));
+        assertNull(UniversityCourseManagementSystem.allowedMemberName("Echo"));
+        assertNull(UniversityCourseManagementSystem.allowedCourseName("echo"));
+
+        assertEquals(List.of(Outcome.ADDED.getMessage(), Outcome.ADDED.getMessage(), Outcome.WRONG_INPUTS.getMessage(),
+                Outcome.ADDED.getMessage()), run("echo\nfirst line\nstudent\nalice\nstudent\necho\necho\nlast\n"));
+        assertEquals(List.of("first line", "last"), seen);
+    }
+
+    @Test
+    void commandsOfTheTargetReadTheirArguments() {
+        // a wrong member ID leaves the course line to be read as a command
+        assertEquals(List.of(Outcome.ADDED.getMessage(), Outcome.ADDED.getMessage(), Outcome.ENROLLED.getMessage(),
+                Outcome.WRONG_INPUTS.getMessage(), Outcome.WRONG_INPUTS.getMessage(), Outcome.DROPPED.getMessage(),
+                Outcome.WRONG_INPUTS.getMessage()),
+                run("course\nalgebra\nBachelor\nstudent\nalice\nenroll\n1\n1\nenroll\nx\n1\ndrop\n1\n1\n"
+                        + "teach\n1\n1\n"));
+        assertFalse(CommandTable.getInstance().isCommandWord("waitlist"));
+        assertEquals("waitlist", UniversityCourseManagementSystem.allowedMemberName("Waitlist"));
+    }
+
+    @Test
+    void otherIsNotACommandOfTheTarget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CommandTable().register("other", CommandMetrics.Command.OTHER));
+    }
+
+    private static List<String> run(String commands) {
+        List<String> results = new ArrayList<>();
+        UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(commands)),
+                new CommandOutput() {
+                    @Override
+                    public void println(String line) {
+                        results.add(line);
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                });
+        return results;
+    }
+}
@@ -0,0 +1,113 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * EnrollmentAggregatesTest runs the RandomWorkload from many threads and
+ * compares the totals with a count over the registry and the store after
+ * every round, also when they are attached to a loaded snapshot
+ * whose members stay pending
+ */
+class EnrollmentAggregatesTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 5;
+    private static final int CHANGES = 20_000;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void totalsMatchCountAfterConcurrentChanges() throws Exception {
+        Random setup = new Random(1);
+        RandomWorkload.fill(setup, 40, 150, 0);
+        // changes before attach are counted by attach
+        RandomWorkload.change(setup, 400);
+        EnrollmentAggregates aggregates = attach();
+        assertTotals(aggregates.read());
+        RandomWorkload.rounds(THREADS, ROUNDS, CHANGES, () -> assertTotals(aggregates.read()));
+    }
+
+    @Test
+    void attachDoesNotLoadPendingMembers(@TempDir Path directory) throws IOException {
+        Random random = new Random(2);
+        RandomWorkload.fill(random, 20, 100, 0);
+        RandomWorkload.change(random, CHANGES);
+        RandomWorkload.reload(directory);
+
+        // a loaded student is counted from the store, the others from the snapshot
+        Registry registry = Registry.getInstance();
+        assertTrue(registry.findStudent(7) != null);
+        EnrollmentAggregates.Totals totals = attach().read();
+        assertFalse(registry.isPending(7));
+        for (int memberId = 1; memberId <= UniversityMember.getNumberOfMembers(); memberId++) {
+            if (memberId != 7) {
+                assertTrue(registry.isPending(memberId), "member " + memberId);
+            }
+        }
+        assertTotals(totals);
+    }
+
+    @Test
+    void recentTotalsAreReadOncePerSecond() {
+        RandomWorkload.fill(new Random(3), 2, 2, 0);
+        EnrollmentAggregates aggregates = attach();
+        long now = System.nanoTime();
+        EnrollmentAggregates.Totals first = aggregates.recent(now);
+        assertEquals(Outcome.ENROLLED, UniversityCourseManagementSystem.getEngine().enroll(1, 1));
+        assertSame(first, aggregates.recent(now + TimeUnit.MILLISECONDS.toNanos(999)));
+        assertEquals(0, first.getTakenSeats());
+
+        EnrollmentAggregates.Totals next = aggregates.recent(now + TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, next.getTakenSeats());
+        assertTotals(next);
+    }
+
+    private static EnrollmentAggregates attach() {
+        return EnrollmentAggregates.attach(UniversityCourseManagementSystem.getEngine(), Registry.getInstance(),
+                EnrollmentStore.getInstance());
+    }
+
+    // compares totals with a count of the state at the same moment, no change runs meanwhile
+    private static void assertTotals(EnrollmentAggregates.Totals totals) {
+        long[] courses = new long[CourseLevel.values().length];
+        long[] takenSeats = new long[courses.length];
+        long[] fullCourses = new long[courses.length];
+        long[] studentsByLoad = new long[Student.MAX_ENROLLMENT + 1];
+        Registry registry = Registry.getInstance();
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        UniversityCourseManagementSystem.getEngine().exclusive(() -> {
+            for (Course course : registry.getCourses()) {
+                int level = course.getCourseLevel().ordinal();
+                int students = store.countStudents(course.getCourseId());
+                courses[level]++;
+                takenSeats[level] += students;
+                fullCourses[level] += students == Course.getCapacity() ? 1 : 0;
+            }
+            for (Student student : registry.getStudents()) {
+                studentsByLoad[store.countCourses(student.getMemberId())]++;
+            }
+        });
+        for (CourseLevel level : CourseLevel.values()) {
+            assertEquals(courses[level.ordinal()], totals.getCourses(level), level::name);
+            assertEquals(takenSeats[level.ordinal()], totals.getTakenSeats(level), level::name);
+            assertEquals(fullCourses[level.ordinal()], totals.getFullCourses(level), level::name);
+        }
+        for (int load = 0; load < studentsByLoad.length; load++) {
+            assertEquals(studentsByLoad[load], totals.getStudentsTaking(load), "load " + load);
+        }
+    }
+}
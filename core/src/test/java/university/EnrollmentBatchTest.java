@@ -0,0 +1,107 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * EnrollmentBatchTest applies random batches once with apply and once with
+ * single enroll and drop calls in the order of the batch, both from the same
+ * state, and checks that results and states are the same. States have full
+ * courses, waitlists, courses which meet at the same time and students who
+ * repeat in a batch.
+ */
+class EnrollmentBatchTest {
+    private static final String[] SLOTS = {"mon 09:00-10:30", "mon 10:00-11:00", "tue 09:00-10:00", "wed 14:00-16:00"};
+
+    @AfterEach
+    void tearDown() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void entriesOfAStudentAreAppliedInTheOrderOfTheBatch() {
+        UniversityCourseManagementSystem.resetState();
+        EnrollmentEngine engine = UniversityCourseManagementSystem.getEngine();
+        for (int i = 0; i < 9; i++) {
+            engine.addCourse("course" + (char) ('a' + i), CourseLevel.BACHELOR);
+        }
+        int memberId = engine.addStudent("alice").getMemberId();
+        engine.enroll(memberId, 1);
+
+        EnrollmentBatch batch = new EnrollmentBatch();
+        batch.add(memberId, 9, EnrollmentBatch.Operation.ENROLL);
+        batch.add(memberId, 5, EnrollmentBatch.Operation.ENROLL);
+        batch.add(memberId, 7, EnrollmentBatch.Operation.ENROLL);
+        assertArrayEquals(new Outcome[] {Outcome.ENROLLED, Outcome.ENROLLED, Outcome.MAX_ENROLLMENT_REACHED},
+                engine.apply(batch));
+    }
+
+    @Test
+    void batchGivesTheResultsOfSingleCalls() {
+        for (int seed = 0; seed < 200; seed++) {
+            EnrollmentBatch batch = randomBatch(new Random(seed));
+
+            fill(seed);
+            Outcome[] expected = new Outcome[batch.size()];
+            EnrollmentEngine engine = UniversityCourseManagementSystem.getEngine();
+            for (int i = 0; i < batch.size(); i++) {
+                expected[i] = batch.operationAt(i) == EnrollmentBatch.Operation.ENROLL
+                        ? engine.enroll(batch.memberIdAt(i), batch.courseIdAt(i))
+                        : engine.drop(batch.memberIdAt(i), batch.courseIdAt(i));
+            }
+            String expectedState = StateDump.of() + waitlists();
+
+            fill(seed);
+            assertArrayEquals(expected, UniversityCourseManagementSystem.getEngine().apply(batch), "seed " + seed);
+            assertEquals(expectedState, StateDump.of() + waitlists(), "seed " + seed);
+        }
+    }
+
+    // courses with a few time slots, students enrolled at random and waiting for full courses
+    private static void fill(int seed) {
+        Random random = new Random(seed);
+        UniversityCourseManagementSystem.resetState();
+        EnrollmentEngine engine = UniversityCourseManagementSystem.getEngine();
+        for (int i = 0; i < 8; i++) {
+            List<TimeSlot> slots = random.nextInt(3) == 0 ? List.of()
+                    : TimeSlot.parseAll(SLOTS[random.nextInt(SLOTS.length)]);
+            engine.addCourse("course" + (char) ('a' + i), CourseLevel.BACHELOR, slots);
+        }
+        for (int i = 0; i < 12; i++) {
+            engine.addStudent("student" + (char) ('a' + i));
+        }
+        for (int i = 0; i < 40; i++) {
+            engine.enrollOrWaitlist(1 + random.nextInt(12), 1 + random.nextInt(8));
+        }
+    }
+
+    // entries with wrong IDs, students and courses which repeat and drops of courses with waitlists
+    private static EnrollmentBatch randomBatch(Random random) {
+        EnrollmentBatch batch = new EnrollmentBatch();
+        int size = 1 + random.nextInt(40);
+        for (int i = 0; i < size; i++) {
+            batch.add(random.nextInt(14), random.nextInt(10), random.nextInt(3) == 0
+                    ? EnrollmentBatch.Operation.DROP : EnrollmentBatch.Operation.ENROLL);
+        }
+        return batch;
+    }
+
+    // position of every student in every waitlist
+    private static String waitlists() {
+        StringBuilder text = new StringBuilder();
+        for (int courseId = 1; courseId <= Course.getNumberOfCourses(); courseId++) {
+            for (int memberId = 1; memberId <= UniversityMember.getNumberOfMembers(); memberId++) {
+                text.append(UniversityCourseManagementSystem.getEngine().waitlistPosition(memberId, courseId))
+                        .append(' ');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static university.RandomWorkload.letters;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * EnrollmentTransactionTest checks that transactions are all or nothing:
+ * a failed change rolls back the changes before it in reverse order and
+ * nothing reaches listeners or the journal, and swaps in opposite
+ * directions from many threads neither deadlock nor lose seats
+ */
+class EnrollmentTransactionTest {
+    private EnrollmentEngine engine;
+    private EnrollmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        store = EnrollmentStore.getInstance();
+    }
+
+    @Test
+    void swapWorksAtEnrollmentLimit() {
+        int memberId = addStudent();
+        int[] courseIds = new int[Student.MAX_ENROLLMENT + 1];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseIds[i] = addCourse();
+        }
+        for (int i = 0; i < Student.MAX_ENROLLMENT; i++) {
+            assertEquals(Outcome.ENROLLED, engine.enroll(memberId, courseIds[i]));
+        }
+        int target = courseIds[Student.MAX_ENROLLMENT];
+        assertEquals(Outcome.MAX_ENROLLMENT_REACHED, engine.enroll(memberId, target));
+
+        EnrollmentTransaction.Result result = engine.commit(EnrollmentTransaction.swap(memberId, courseIds[0], target));
+        assertTrue(result.isCommitted(), result::toString);
+        assertFalse(store.isEnrolled(memberId, courseIds[0]));
+        assertTrue(store.isEnrolled(memberId, target));
+        assertEquals(Student.MAX_ENROLLMENT, store.countCourses(memberId));
+
+        // in the other order the enroll comes first and sees the limit
+        EnrollmentTransaction enrollFirst = new EnrollmentTransaction()
+                .add(memberId, courseIds[0], EnrollmentTransaction.Operation.ENROLL)
+                .add(memberId, target, EnrollmentTransaction.Operation.DROP);
+        result = engine.commit(enrollFirst);
+        assertEquals(0, result.getFailedIndex());
+        assertEquals(Outcome.MAX_ENROLLMENT_REACHED, result.getFailure());
+        assertTrue(store.isEnrolled(memberId, target));
+    }
+
+    @Test
+    void failedChangeRollsBackInReverseOrderUnseen(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("state.journal");
+        Journal journal = Journal.open(path, false, engine, 0);
+        int memberId = addStudent();
+        int from = addCourse();
+        int other = addCourse();
+        int full = addCourse();
+        engine.enroll(memberId, from);
+        for (int i = 0; i < Course.getCapacity(); i++) {
+            engine.enroll(addStudent(), full);
+        }
+        List<String> changes = new ArrayList<>();
+        engine.addListener(new RecordingListener(changes));
+        journal.awaitWritten();
+        long journalSize = Files.size(path);
+
+        // undoing the drop before the enroll of the same course would leave the student in it
+        EnrollmentTransaction transaction = new EnrollmentTransaction()
+                .add(memberId, from, EnrollmentTransaction.Operation.DROP)
+                .add(memberId, other, EnrollmentTransaction.Operation.ENROLL)
+                .add(memberId, other, EnrollmentTransaction.Operation.DROP)
+                .add(memberId, full, EnrollmentTransaction.Operation.ENROLL);
+        EnrollmentTransaction.Result result = engine.commit(transaction);
+        assertFalse(result.isCommitted());
+        assertEquals(3, result.getFailedIndex());
+        assertEquals(Outcome.COURSE_FULL, result.getFailure());
+        assertTrue(store.isEnrolled(memberId, from));
+        assertFalse(store.isEnrolled(memberId, other));
+        assertEquals(1, store.countCourses(memberId));
+        assertEquals(1, store.countStudents(from));
+        assertEquals(0, store.countStudents(other));
+        assertEquals(Course.getCapacity(), store.countStudents(full));
+        assertEquals(List.of(), changes);
+        journal.awaitWritten();
+        assertEquals(journalSize, Files.size(path));
+
+        assertTrue(engine.commit(EnrollmentTransaction.swap(memberId, from, other)).isCommitted());
+        assertEquals(List.of("dropped " + memberId + " " + from, "enrolled " + memberId + " " + other,
+                "committed"), changes);
+        journal.close();
+        assertTrue(Files.size(path) > journalSize);
+
+        UniversityCourseManagementSystem.resetState();
+        Journal.open(path, false, UniversityCourseManagementSystem.getEngine(), 0).close();
+        EnrollmentStore replayed = EnrollmentStore.getInstance();
+        assertEquals(1, replayed.countCourses(memberId));
+        assertTrue(replayed.isEnrolled(memberId, other));
+        assertEquals(Course.getCapacity(), replayed.countStudents(full));
+    }
+
+    @Test
+    void opposingSwapsKeepSeatsWithoutDeadlock() throws Exception {
+        int courses = 12;
+        int threads = 8;
+        int studentsPerThread = 3;
+        int[] courseIds = new int[courses];
+        for (int i = 0; i < courses; i++) {
+            courseIds[i] = addCourse();
+        }
+        // two thirds of the seats are taken, every student has one course
+        int[][] members = new int[threads][studentsPerThread];
+        int[][] current = new int[threads][studentsPerThread];
+        int seat = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int s = 0; s < studentsPerThread; s++) {
+                members[t][s] = addStudent();
+                current[t][s] = courseIds[seat++ % courses];
+                assertEquals(Outcome.ENROLLED, engine.enroll(members[t][s], current[t][s]));
+            }
+        }
+        AtomicLong committed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(thread);
+                    for (int i = 0; i < 20_000; i++) {
+                        int s = random.nextInt(studentsPerThread);
+                        // even threads move forward and odd ones backward through the courses
+                        int index = indexOf(courseIds, current[thread][s]);
+                        int target = courseIds[Math.floorMod(index + (thread % 2 == 0 ? 1 : -1), courses)];
+                        EnrollmentTransaction.Result result = engine.commit(
+                                EnrollmentTransaction.swap(members[thread][s], current[thread][s], target));
+                        if (result.isCommitted()) {
+                            current[thread][s] = target;
+                            committed.incrementAndGet();
+                        } else {
+                            assertEquals(Outcome.COURSE_FULL, result.getFailure());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(committed.get() > 0);
+        int[] seats = new int[courses];
+        for (int t = 0; t < threads; t++) {
+            for (int s = 0; s < studentsPerThread; s++) {
+                assertEquals(1, store.countCourses(members[t][s]));
+                assertTrue(store.isEnrolled(members[t][s], current[t][s]));
+                seats[indexOf(courseIds, current[t][s])]++;
+            }
+        }
+        for (int i = 0; i < courses; i++) {
+            assertEquals(seats[i], store.countStudents(courseIds[i]));
+            assertTrue(seats[i] <= Course.getCapacity());
+        }
+    }
+
+    private int addCourse() {
+        assertEquals(Outcome.ADDED, engine.addCourse("course" + letters(Course.getNumberOfCourses()),
+                CourseLevel.BACHELOR));
+        return Course.getNumberOfCourses();
+    }
+
+    private int addStudent() {
+        return engine.addStudent("student" + letters(UniversityMember.getNumberOfMembers())).getMemberId();
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * RecordingListener writes every change it hears about as a line
+     */
+    private static final class RecordingListener implements MutationListener {
+        private final List<String> changes;
+
+        private RecordingListener(List<String> changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void enrolled(int memberId, int courseId) {
+            changes.add("enrolled " + memberId + " " + courseId);
+        }
+
+        @Override
+        public void dropped(int memberId, int courseId) {
+            changes.add("dropped " + memberId + " " + courseId);
+        }
+
+        @Override
+        public void committed() {
+            changes.add("committed");
+        }
+    }
+}
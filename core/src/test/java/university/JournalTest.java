@@ -0,0 +1,154 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JournalTest writes changes to a journal, replays it into a fresh state
+ * and compares the states, also after the tail of the file was torn or a
+ * record was damaged
+ */
+class JournalTest {
+    // length, type, member ID, course ID and CRC
+    private static final int PAIR_RECORD_SIZE = 4 + 1 + 4 + 4 + 4;
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+    private EnrollmentEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        path = directory.resolve("state.journal");
+    }
+
+    @Test
+    void replayRebuildsTheState() throws IOException {
+        Journal journal = Journal.open(path, true, engine, 0);
+        applyChanges();
+        String state = StateDump.of();
+        journal.close();
+
+        assertEquals(state, reopen());
+
+        // a replayed journal goes on after its last record
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        journal = Journal.open(path, false, engine, 0);
+        engine.drop(4, 1);
+        engine.enroll(6, 3);
+        state = StateDump.of();
+        journal.close();
+        assertEquals(state, reopen());
+    }
+
+    @Test
+    void tornTailIsCutOff() throws IOException {
+        Journal journal = Journal.open(path, false, engine, 0);
+        applyChanges();
+        journal.awaitWritten();
+        long size = Files.size(path);
+        String state = StateDump.of();
+        engine.enroll(6, 3);
+        journal.close();
+        assertEquals(size + PAIR_RECORD_SIZE, Files.size(path));
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size + PAIR_RECORD_SIZE - 5);
+        }
+        assertEquals(state, reopen());
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test
+    void damagedRecordIsCutOffWithAllAfterIt() throws IOException {
+        Journal journal = Journal.open(path, false, engine, 0);
+        applyChanges();
+        journal.awaitWritten();
+        long size = Files.size(path);
+        String state = StateDump.of();
+        engine.enroll(6, 3);
+        engine.drop(4, 1);
+        journal.close();
+
+        // the member ID of the first of the two records no longer matches its CRC
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(size + 4 + 1 + 3);
+            int value = file.read();
+            file.seek(size + 4 + 1 + 3);
+            file.write(value ^ 1);
+        }
+        assertEquals(state, reopen());
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test
+    void journalContainedInSnapshotIsNotReplayed() throws IOException {
+        Journal journal = Journal.open(path, false, engine, 0);
+        applyChanges();
+        assertEquals(1, journal.getEpoch());
+        journal.close();
+
+        UniversityCourseManagementSystem.resetState();
+        String empty = StateDump.of();
+        journal = Journal.open(path, false, UniversityCourseManagementSystem.getEngine(), 1);
+        assertEquals(2, journal.getEpoch());
+        journal.close();
+        assertEquals(empty, StateDump.of());
+    }
+
+    @Test
+    void otherVersionIsRejected() throws IOException {
+        Files.write(path, ByteBuffer.allocate(16).putInt(0x554D534A).putInt(2).putLong(1).array());
+        assertThrows(IOException.class, () -> Journal.open(path, false, engine, 0));
+    }
+
+    // every kind of record, a name longer than 65535 bytes and courses with time slots
+    private void applyChanges() {
+        TimeSlot morning = new TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 30));
+        TimeSlot late = new TimeSlot(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        assertEquals(Outcome.ADDED, engine.addCourse("algebra", CourseLevel.BACHELOR, List.of(morning)));
+        assertEquals(Outcome.ADDED, engine.addCourse("geometry", CourseLevel.MASTER));
+        assertEquals(Outcome.ADDED, engine.addCourse("physics", CourseLevel.BACHELOR, List.of(late)));
+        engine.addStudent("alice");
+        engine.addStudent("bob");
+        engine.addProfessor("carol");
+        engine.addStudent("d".repeat(70_000));
+        engine.addProfessor("eve");
+        engine.addStudent("frank");
+        assertEquals(Outcome.ENROLLED, engine.enroll(1, 1));
+        assertEquals(Outcome.ENROLLED, engine.enroll(2, 1));
+        assertEquals(Outcome.TIME_CONFLICT, engine.enroll(1, 3));
+        assertEquals(Outcome.ENROLLED, engine.enroll(4, 1));
+        assertEquals(Outcome.ENROLLED, engine.enroll(4, 2));
+        assertEquals(Outcome.DROPPED, engine.drop(2, 1));
+        assertEquals(Outcome.ASSIGNED, engine.teach(3, 1));
+        assertEquals(Outcome.ASSIGNED, engine.teach(3, 2));
+        assertEquals(Outcome.ASSIGNED, engine.teach(5, 3));
+        assertEquals(Outcome.EXEMPTED, engine.exempt(3, 1));
+    }
+
+    // replays the journal into a fresh state
+    private String reopen() throws IOException {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        Journal.open(path, false, engine, 0).close();
+        return StateDump.of();
+    }
+}
@@ -0,0 +1,98 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * LatencyHistogramTest walks the edges of all buckets, checks the error of
+ * a bucket and the rank which a percentile picks, also while many threads
+ * record
+ */
+class LatencyHistogramTest {
+    @Test
+    void bucketsFollowEachOtherWithoutGaps() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestValueOf(value));
+        }
+        long lowest = 16;
+        for (int index = 16; index < LatencyHistogram.BUCKETS; index++) {
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertEquals(index - 1, LatencyHistogram.indexOf(lowest - 1), "below bucket " + index);
+            assertEquals(index, LatencyHistogram.indexOf(lowest), "lowest of bucket " + index);
+            assertEquals(index, LatencyHistogram.indexOf(highest), "highest of bucket " + index);
+            assertEquals(index, LatencyHistogram.indexOf(lowest + (highest - lowest) / 2));
+            // a value is kept with an error below 1/16
+            assertTrue((highest - lowest) * 16 < lowest, "bucket " + index);
+            lowest = highest + 1;
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.BUCKETS - 1));
+        assertEquals(Long.MIN_VALUE, lowest);
+    }
+
+    @Test
+    void percentilePicksTheBucketOfItsRank() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(50));
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value * 1_000L);
+        }
+        assertEquals(100, histogram.getCount());
+        // rank ceil(100 * p / 100), at least the first value
+        assertEquals(bucketOf(1_000), histogram.valueAtPercentile(0));
+        assertEquals(bucketOf(1_000), histogram.valueAtPercentile(-5));
+        assertEquals(bucketOf(1_000), histogram.valueAtPercentile(1));
+        assertEquals(bucketOf(2_000), histogram.valueAtPercentile(1.01));
+        assertEquals(bucketOf(50_000), histogram.valueAtPercentile(50));
+        assertEquals(bucketOf(99_000), histogram.valueAtPercentile(99));
+        assertEquals(bucketOf(100_000), histogram.valueAtPercentile(99.9));
+        assertEquals(bucketOf(100_000), histogram.valueAtPercentile(100));
+        assertEquals(bucketOf(100_000), histogram.valueAtPercentile(250));
+
+        LatencyHistogram outlier = new LatencyHistogram();
+        for (int i = 0; i < 1_000; i++) {
+            outlier.record(5);
+        }
+        outlier.record(-3);
+        outlier.record(Long.MAX_VALUE);
+        assertEquals(0, outlier.valueAtPercentile(0));
+        assertEquals(5, outlier.valueAtPercentile(99.9));
+        assertEquals(Long.MAX_VALUE, outlier.valueAtPercentile(100));
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(i % 3);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(1, histogram.valueAtPercentile(50));
+    }
+
+    private static long bucketOf(long value) {
+        return LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+    }
+}
@@ -0,0 +1,83 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * MemberTableTest keeps names in the Latin-1 arena and in the side store of
+ * other names, grows the arena and the columns past their first capacity
+ * and checks that every member keeps its kind, name and courses
+ */
+class MemberTableTest {
+    private static final String[] NAMES = {"alice", "", "élise", "ÿves", "日本", "😀", "zoë日", "aĀ", "bob"};
+
+    @Test
+    void namesOfBothStoresAreKept() {
+        MemberTable table = new MemberTable();
+        for (int i = 0; i < NAMES.length; i++) {
+            table.add(i + 1, i % 2 == 0 ? MemberTable.STUDENT : MemberTable.PROFESSOR, NAMES[i]);
+        }
+        for (int i = 0; i < NAMES.length; i++) {
+            assertEquals(NAMES[i], table.nameOf(i + 1));
+            assertEquals(i % 2 == 0 ? MemberTable.STUDENT : MemberTable.PROFESSOR, table.kindOf(i + 1));
+        }
+        assertEquals(NAMES.length, table.size());
+        assertFalse(table.contains(0));
+        assertFalse(table.contains(-1));
+        assertFalse(table.contains(NAMES.length + 1));
+        assertFalse(table.contains(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void arenaAndColumnsGrowWithoutLosingNames() {
+        Random random = new Random(1);
+        MemberTable table = new MemberTable();
+        Map<Integer, String> expected = new HashMap<>();
+        int memberId = 0;
+        for (int i = 0; i < 2_000; i++) {
+            // IDs with gaps grow the columns by more than twice at times
+            memberId += random.nextInt(20) == 0 ? 100 : 1;
+            StringBuilder name = new StringBuilder();
+            int length = random.nextInt(10) == 0 ? 300 + random.nextInt(300) : random.nextInt(12);
+            for (int k = 0; k < length; k++) {
+                name.append(random.nextInt(8) == 0 ? NAMES[random.nextInt(NAMES.length)] : (char) ('a' + k % 26));
+            }
+            table.add(memberId, MemberTable.STUDENT, name.toString());
+            expected.put(memberId, name.toString());
+        }
+        assertEquals(expected.size(), table.size());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertTrue(table.contains(entry.getKey()));
+            assertEquals(entry.getValue(), table.nameOf(entry.getKey()), "member " + entry.getKey());
+        }
+    }
+
+    @Test
+    void coursesOfMembersAreKeptApart() {
+        MemberTable table = new MemberTable();
+        table.add(1, MemberTable.PROFESSOR, "carol");
+        table.add(2, MemberTable.PROFESSOR, "dave");
+        table.addCourse(1, 5);
+        table.addCourse(1, 6);
+        table.addCourse(2, 5);
+        // more courses than the slots of a member go to the overflow
+        table.addCourse(1, 7);
+        assertEquals(3, table.countCourses(1));
+        assertEquals(1, table.countCourses(2));
+        assertTrue(table.hasCourse(1, 7));
+        assertTrue(table.removeCourse(1, 5));
+        assertFalse(table.removeCourse(1, 5));
+        assertFalse(table.hasCourse(1, 5));
+        assertTrue(table.hasCourse(2, 5));
+        assertEquals(7, table.courseAt(1, 0));
+        assertEquals(6, table.courseAt(1, 1));
+        assertEquals(0, table.countCourses(3));
+    }
+}
@@ -0,0 +1,145 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ModelVersionsTest reads views while the RandomWorkload runs from other
+ * threads: an open view keeps the rosters of the moment it was opened,
+ * views opened meanwhile are consistent, and a view opened after the
+ * changes matches the store. An export of a loaded snapshot keeps its
+ * members pending.
+ */
+class ModelVersionsTest {
+    private static final int WRITERS = 6;
+    private static final int READERS = 2;
+    private static final int CHANGES = 20_000;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void viewStaysFixedWhileChangesRun() throws Exception {
+        Random random = new Random(1);
+        RandomWorkload.fill(random, 20, 80, 5);
+        RandomWorkload.change(random, 600);
+        ModelVersions versions = attach();
+        int[][] rosters = rostersOfStore();
+        ModelVersions.View fixed = versions.open();
+
+        RandomWorkload.run(WRITERS, 10, CHANGES, READERS, () -> {
+            for (int courseId = 1; courseId < rosters.length; courseId++) {
+                assertArrayEquals(rosters[courseId], sorted(fixed.getStudents(courseId)));
+            }
+            try (ModelVersions.View view = versions.open()) {
+                assertConsistent(view);
+            }
+        });
+
+        for (int courseId = 1; courseId < rosters.length; courseId++) {
+            assertArrayEquals(rosters[courseId], sorted(fixed.getStudents(courseId)));
+        }
+        fixed.close();
+        int[][] current = rostersOfStore();
+        try (ModelVersions.View view = versions.open()) {
+            assertEquals(current.length - 1, view.getNumberOfCourses());
+            for (int courseId = 1; courseId < current.length; courseId++) {
+                assertArrayEquals(current[courseId], sorted(view.getStudents(courseId)));
+            }
+            assertConsistent(view);
+        }
+        versions.detach();
+    }
+
+    @Test
+    void exportOfLoadedSnapshotKeepsMembersPending(@TempDir Path directory) throws IOException {
+        Random random = new Random(2);
+        RandomWorkload.fill(random, 20, 80, 5);
+        RandomWorkload.change(random, CHANGES);
+        Path export = directory.resolve("rosters.csv");
+        RosterExport.write(export, attach());
+        List<String> lines = Files.readAllLines(export);
+        RandomWorkload.reload(directory);
+
+        Registry registry = Registry.getInstance();
+        ModelVersions versions = attach();
+        for (int memberId = 1; memberId <= UniversityMember.getNumberOfMembers(); memberId++) {
+            assertTrue(registry.isPending(memberId), "member " + memberId);
+        }
+        RosterExport.write(export, versions);
+        assertEquals(lines, Files.readAllLines(export));
+
+        // a loaded member goes on from the courses of its row
+        assertTrue(registry.findStudent(2) != null);
+        try (ModelVersions.View view = versions.open()) {
+            assertArrayEquals(sorted(coursesOfStore(2)), sorted(view.getCourses(2)));
+        }
+    }
+
+    private static ModelVersions attach() {
+        return ModelVersions.attach(UniversityCourseManagementSystem.getEngine(), Registry.getInstance(),
+                EnrollmentStore.getInstance());
+    }
+
+    // every enrollment of the view is seen from the course and from the student
+    private static void assertConsistent(ModelVersions.View view) {
+        int pairs = 0;
+        for (int courseId = 1; courseId <= view.getNumberOfCourses(); courseId++) {
+            for (int memberId : view.getStudents(courseId)) {
+                assertEquals(MemberTable.STUDENT, view.kindOf(memberId));
+                assertTrue(Arrays.binarySearch(sorted(view.getCourses(memberId)), courseId) >= 0);
+                pairs++;
+            }
+        }
+        for (int memberId = 1; memberId <= view.getNumberOfMembers(); memberId++) {
+            if (view.kindOf(memberId) == MemberTable.STUDENT) {
+                pairs -= view.getCourses(memberId).length;
+            }
+        }
+        assertEquals(0, pairs);
+    }
+
+    private static int[][] rostersOfStore() {
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        int[][] rosters = new int[Course.getNumberOfCourses() + 1][];
+        UniversityCourseManagementSystem.getEngine().exclusive(() -> {
+            for (int courseId = 1; courseId < rosters.length; courseId++) {
+                int[] students = new int[store.countStudents(courseId)];
+                for (int i = 0; i < students.length; i++) {
+                    students[i] = store.studentAt(courseId, i);
+                }
+                rosters[courseId] = sorted(students);
+            }
+        });
+        return rosters;
+    }
+
+    private static int[] coursesOfStore(int memberId) {
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        int[] courseIds = new int[store.countCourses(memberId)];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseIds[i] = store.courseAt(memberId, i);
+        }
+        return courseIds;
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,181 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * NameValidatorTest compares the one-pass validator with the rules it
+ * replaced: toLowerCase in the default locale, then matches("[a-zA-Z]+")
+ * for members, split("_") for courses and a switch for levels. Lines are
+ * random ASCII and non-ASCII text, the byte forms also get malformed UTF-8
+ * and are read from the middle of a larger array.
+ */
+class NameValidatorTest {
+    private static final int LINES = 50_000;
+    // ASCII letters, underscores and other ASCII first, then characters which toLowerCase treats specially
+    private static final String ASCII = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ___ 09-\t";
+    private static final String SPECIAL = "\u0131\u0130\u212A\u017F\u00DF\u00E9\u00C9\u0307\u00A0\u1E9E\u2C6F\u0345";
+    private static final String[] LEVELS = {"bachelor", "master", "BACHELOR", "Master", "MASTER", "bAchelor", "MIster"};
+
+    private final Locale defaultLocale = Locale.getDefault();
+
+    @AfterEach
+    void restoreLocale() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"und", "en", "tr", "az", "lt"})
+    void stringsMatchOldRules(String languageTag) {
+        Locale.setDefault(Locale.forLanguageTag(languageTag));
+        Random random = new Random(languageTag.hashCode());
+        for (int i = 0; i < LINES; i++) {
+            String line = randomLine(random);
+            String lowercased = line.toLowerCase();
+            assertEquals(oldCourseName(lowercased), NameValidator.toCourseName(line), () -> describe(line));
+            assertEquals(oldMemberName(lowercased), NameValidator.toMemberName(line), () -> describe(line));
+            assertEquals(oldCourseLevel(lowercased), NameValidator.toCourseLevel(line), () -> describe(line));
+            assertEquals(isOldCourseName(line), NameValidator.isCourseName(line), () -> describe(line));
+            assertEquals(isOldLetters(line), NameValidator.isLetters(line), () -> describe(line));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"und", "en", "tr", "az", "lt"})
+    void bytesMatchOldRules(String languageTag) {
+        Locale.setDefault(Locale.forLanguageTag(languageTag));
+        Random random = new Random(~languageTag.hashCode());
+        for (int i = 0; i < LINES; i++) {
+            byte[] bytes = randomLine(random).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0 && random.nextInt(8) == 0) {
+                bytes[random.nextInt(bytes.length)] = (byte) (0x80 + random.nextInt(0x80));
+            }
+            // the slice is surrounded by an uppercase I and a byte which starts a UTF-8 sequence
+            byte[] data = new byte[bytes.length + 4];
+            System.arraycopy(bytes, 0, data, 2, bytes.length);
+            data[0] = 'X';
+            data[1] = 'I';
+            data[data.length - 2] = 'Z';
+            data[data.length - 1] = (byte) 0xC4;
+            int from = 2;
+            int to = from + bytes.length;
+            String lowercased = new String(bytes, StandardCharsets.UTF_8).toLowerCase();
+            assertEquals(oldCourseName(lowercased), NameValidator.toCourseName(data, from, to), () -> describe(bytes));
+            assertEquals(oldMemberName(lowercased), NameValidator.toMemberName(data, from, to), () -> describe(bytes));
+            assertEquals(oldCourseLevel(lowercased), NameValidator.toCourseLevel(data, from, to),
+                    () -> describe(bytes));
+        }
+    }
+
+    @Test
+    void turkicCapitalIIsNotAnEnglishLetter() {
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        assertNull(NameValidator.toMemberName("IVAN"));
+        assertNull(NameValidator.toCourseName("LINEAR_ALGEBRA".getBytes(StandardCharsets.US_ASCII), 0, 14));
+        assertEquals("van", NameValidator.toMemberName("VAN"));
+        Locale.setDefault(Locale.ROOT);
+        assertEquals("ivan", NameValidator.toMemberName("IVAN"));
+    }
+
+    @Test
+    void kelvinSignBecomesLetterK() {
+        Locale.setDefault(Locale.ROOT);
+        assertEquals("kate", NameValidator.toMemberName("\u212Aate"));
+        assertEquals("kate", NameValidator.toMemberName("\u212Aate".getBytes(StandardCharsets.UTF_8), 0, 6));
+    }
+
+    @Test
+    void underscoresJoinWordsOfCourseNames() {
+        Locale.setDefault(Locale.ROOT);
+        assertEquals("data_structures", NameValidator.toCourseName("Data_Structures"));
+        assertNull(NameValidator.toCourseName("_data"));
+        assertNull(NameValidator.toCourseName("data_"));
+        assertNull(NameValidator.toCourseName("data__structures"));
+        assertNull(NameValidator.toCourseName(""));
+        assertNull(NameValidator.toMemberName("data_structures"));
+    }
+
+    // lines are mostly short ASCII, some are levels with one character changed
+    private static String randomLine(Random random) {
+        if (random.nextInt(10) == 0) {
+            StringBuilder level = new StringBuilder(LEVELS[random.nextInt(LEVELS.length)]);
+            if (random.nextInt(3) == 0) {
+                String pool = ASCII + SPECIAL;
+                level.setCharAt(random.nextInt(level.length()), pool.charAt(random.nextInt(pool.length())));
+            }
+            return level.toString();
+        }
+        String pool = random.nextInt(3) == 0 ? ASCII + SPECIAL : ASCII;
+        int length = random.nextInt(4) == 0 ? random.nextInt(3) : random.nextInt(14);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int kind = random.nextInt(100);
+            if (kind < 98) {
+                line.append(pool.charAt(random.nextInt(pool.length())));
+            } else if (kind < 99) {
+                line.append((char) random.nextInt(0x3000));
+            } else {
+                line.appendCodePoint(0x1F600 + random.nextInt(50));
+            }
+        }
+        return line.toString();
+    }
+
+    private static boolean isOldLetters(String name) {
+        return name.matches("[a-zA-Z]+");
+    }
+
+    private static boolean isOldCourseName(String name) {
+        if (name.isEmpty() || name.charAt(0) == '_' || name.charAt(name.length() - 1) == '_') {
+            return false;
+        }
+        for (String part : name.split("_")) {
+            if (part.isEmpty() || !isOldLetters(part)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String oldCourseName(String lowercased) {
+        return isOldCourseName(lowercased) ? lowercased : null;
+    }
+
+    private static String oldMemberName(String lowercased) {
+        return isOldLetters(lowercased) ? lowercased : null;
+    }
+
+    private static CourseLevel oldCourseLevel(String lowercased) {
+        switch (lowercased) {
+            case "bachelor":
+                return CourseLevel.BACHELOR;
+            case "master":
+                return CourseLevel.MASTER;
+            default:
+                return null;
+        }
+    }
+
+    private static String describe(String line) {
+        StringBuilder codePoints = new StringBuilder(Locale.getDefault().toLanguageTag()).append(':');
+        line.codePoints().forEach(c -> codePoints.append(' ').append(Integer.toHexString(c)));
+        return codePoints.toString();
+    }
+
+    private static String describe(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(Locale.getDefault().toLanguageTag()).append(':');
+        for (byte b : bytes) {
+            hex.append(' ').append(Integer.toHexString(b & 0xFF));
+        }
+        return hex.toString();
+    }
+}
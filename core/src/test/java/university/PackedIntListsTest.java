@@ -0,0 +1,97 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * PackedIntListsTest moves lists from their slots to the overflow and back
+ * to fewer elements and compares random adds and removes with lists which
+ * swap the last element into the place of a removed one
+ */
+class PackedIntListsTest {
+    @Test
+    void listGoesToOverflowWhenItsSlotsAreFull() {
+        PackedIntLists lists = new PackedIntLists(2);
+        lists.ensureKey(3);
+        assertEquals(0, lists.add(3, 10));
+        assertEquals(1, lists.add(3, 11));
+        assertEquals(0, lists.add(4, 20));
+        assertEquals(2, lists.add(3, 12));
+        assertEquals(3, lists.add(3, 13));
+        assertEquals(List.of(10, 11, 12, 13), elements(lists, 3));
+        assertEquals(List.of(20), elements(lists, 4));
+        assertEquals(2, lists.indexOf(3, 12));
+        assertEquals(-1, lists.indexOf(3, 20));
+
+        // the list stays in the overflow when it gets short again
+        assertEquals(0, lists.removeAt(3, 0));
+        assertEquals(-1, lists.removeAt(3, 2));
+        assertEquals(List.of(13, 11), elements(lists, 3));
+        assertEquals(-1, lists.removeAt(3, 1));
+        assertEquals(-1, lists.removeAt(3, 0));
+        assertEquals(0, lists.size(3));
+        assertEquals(-1, lists.indexOf(3, 13));
+        assertEquals(0, lists.add(3, 14));
+        assertEquals(List.of(14), elements(lists, 3));
+        assertEquals(List.of(20), elements(lists, 4));
+    }
+
+    @Test
+    void keysWithoutListsAreEmpty() {
+        PackedIntLists lists = new PackedIntLists(1);
+        assertEquals(0, lists.size(-1));
+        assertEquals(0, lists.size(1_000));
+        assertEquals(-1, lists.indexOf(1_000, 0));
+        assertEquals(0, lists.add(1_000, 7));
+        assertEquals(7, lists.get(1_000, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> lists.get(1_000, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> lists.get(999, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PackedIntLists(0));
+        assertThrows(IllegalArgumentException.class, () -> new PackedIntLists(Byte.MAX_VALUE + 1));
+    }
+
+    @Test
+    void randomChangesMatchSwapRemoveLists() {
+        for (int slots = 1; slots <= 3; slots++) {
+            Random random = new Random(slots);
+            PackedIntLists lists = new PackedIntLists(slots);
+            Map<Integer, List<Integer>> expected = new HashMap<>();
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(random.nextBoolean() ? 8 : 200);
+                List<Integer> list = expected.computeIfAbsent(key, k -> new ArrayList<>());
+                if (list.isEmpty() || random.nextInt(5) < 3) {
+                    int value = random.nextInt(10);
+                    assertEquals(list.size(), lists.add(key, value));
+                    list.add(value);
+                } else {
+                    int index = random.nextInt(list.size());
+                    int last = list.size() - 1;
+                    assertEquals(index == last ? -1 : index, lists.removeAt(key, index));
+                    list.set(index, list.get(last));
+                    list.remove(last);
+                }
+                int value = random.nextInt(10);
+                assertEquals(list.indexOf(value), lists.indexOf(key, value));
+            }
+            for (Map.Entry<Integer, List<Integer>> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), elements(lists, entry.getKey()), "key " + entry.getKey());
+            }
+        }
+    }
+
+    private static List<Integer> elements(PackedIntLists lists, int key) {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < lists.size(key); i++) {
+            elements.add(lists.get(key, i));
+        }
+        return elements;
+    }
+}
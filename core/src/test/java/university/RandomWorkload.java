@@ -0,0 +1,206 @@
+package university;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RandomWorkload builds a random state and changes it with a random mix of
+ * all commands of the engine from many threads: enroll, drop, waitlist,
+ * teach, exempt, swap transactions, batches and new courses and members.
+ * IDs may be missing or of another kind, so every kind of result happens.
+ * Tests of views and totals which follow the engine run the workload in
+ * rounds and recount the state after every round. The engine is taken from
+ * UniversityCourseManagementSystem on every call, so it may be reset in
+ * between.
+ */
+final class RandomWorkload {
+    private RandomWorkload() {
+    }
+
+    /**
+     * fill adds courses with random levels and members
+     * @param random         source of levels and names
+     * @param courses        amount of courses
+     * @param members        amount of members
+     * @param professorEvery every member with an index divisible by it is
+     *                       a professor, 0 adds only students
+     */
+    static void fill(Random random, int courses, int members, int professorEvery) {
+        EnrollmentEngine engine = UniversityCourseManagementSystem.getEngine();
+        for (int i = 0; i < courses; i++) {
+            addCourse(random);
+        }
+        for (int i = 0; i < members; i++) {
+            if (professorEvery > 0 && i % professorEvery == 0) {
+                engine.addProfessor("professor" + letters(i));
+            } else {
+                engine.addStudent("student" + letters(i));
+            }
+        }
+    }
+
+    /**
+     * change applies random commands
+     * @param random  source of commands and IDs
+     * @param changes amount of commands
+     */
+    static void change(Random random, int changes) {
+        EnrollmentEngine engine = UniversityCourseManagementSystem.getEngine();
+        for (int i = 0; i < changes; i++) {
+            int memberId = randomMember(random);
+            int courseId = randomCourse(random);
+            int kind = random.nextInt(100);
+            if (kind < 25) {
+                engine.enroll(memberId, courseId);
+            } else if (kind < 45) {
+                engine.drop(memberId, courseId);
+            } else if (kind < 52) {
+                engine.enrollOrWaitlist(memberId, courseId);
+            } else if (kind < 64) {
+                engine.teach(memberId, courseId);
+            } else if (kind < 72) {
+                engine.exempt(memberId, courseId);
+            } else if (kind < 84) {
+                engine.commit(EnrollmentTransaction.swap(memberId, courseId, randomCourse(random)));
+            } else if (kind < 99) {
+                EnrollmentBatch batch = new EnrollmentBatch();
+                for (int k = random.nextInt(8); k >= 0; k--) {
+                    batch.add(randomMember(random), randomCourse(random), random.nextBoolean()
+                            ? EnrollmentBatch.Operation.ENROLL : EnrollmentBatch.Operation.DROP);
+                }
+                engine.apply(batch);
+            } else {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        engine.addStudent("student" + letters(random.nextInt(1 << 20)));
+                        break;
+                    case 1:
+                        engine.addProfessor("professor" + letters(random.nextInt(1 << 20)));
+                        break;
+                    default:
+                        addCourse(random);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * rounds runs changes from many threads and calls a check after every
+     * round, when no change runs
+     * @param threads amount of threads, each has its own seed
+     * @param rounds  amount of rounds
+     * @param changes amount of commands of every thread in a round
+     * @param check   check of the state after a round
+     * @throws Exception in case a thread fails or a round takes too long
+     */
+    static void rounds(int threads, int rounds, int changes, Runnable check) throws Exception {
+        for (int round = 0; round < rounds; round++) {
+            run(threads, round * threads, changes, 0, null);
+            check.run();
+        }
+    }
+
+    /**
+     * run runs changes from writer threads while reader threads call read
+     * again and again, until all changes are done
+     * @param writers amount of threads which change the state
+     * @param seed    seed of the first writer, the next ones take the next
+     *                seeds
+     * @param changes amount of commands of every writer
+     * @param readers amount of threads which read
+     * @param read    read of the state, null in case there are no readers
+     * @throws Exception in case a thread fails or the changes take too long
+     */
+    static void run(int writers, long seed, int changes, int readers, Runnable read) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        try {
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Future<?>> writes = new ArrayList<>();
+            for (int thread = 0; thread < writers; thread++) {
+                Random random = new Random(seed + thread);
+                writes.add(executor.submit(() -> change(random, changes)));
+            }
+            List<Future<?>> reads = new ArrayList<>();
+            for (int thread = 0; thread < readers; thread++) {
+                reads.add(executor.submit(() -> {
+                    while (running.get()) {
+                        read.run();
+                    }
+                }));
+            }
+            try {
+                for (Future<?> future : writes) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                running.set(false);
+            }
+            for (Future<?> future : reads) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * reload saves the state to a snapshot, resets the program and loads
+     * the snapshot, its members stay pending
+     * @param directory directory of the snapshot file
+     * @throws IOException in case the snapshot cannot be written or read
+     */
+    static void reload(Path directory) throws IOException {
+        Path path = directory.resolve("state.snapshot");
+        Snapshot.save(path, Registry.getInstance(), UniversityCourseManagementSystem.getEngine(), null);
+        UniversityCourseManagementSystem.resetState();
+        Snapshot.load(path, Registry.getInstance(), EnrollmentStore.getInstance());
+    }
+
+    /**
+     * randomMember returns an ID of a member, one of the two IDs after the
+     * last member or an ID of another kind of member
+     * @param random source of the ID
+     * @return this ID
+     */
+    static int randomMember(Random random) {
+        return 1 + random.nextInt(UniversityMember.getNumberOfMembers() + 2);
+    }
+
+    /**
+     * randomCourse returns an ID of a course or one of the two IDs after the
+     * last course
+     * @param random source of the ID
+     * @return this ID
+     */
+    static int randomCourse(Random random) {
+        return 1 + random.nextInt(Course.getNumberOfCourses() + 2);
+    }
+
+    /**
+     * letters writes a number with letters, names must have only letters
+     * @param number number which must be written
+     * @return letters of the number, lowest first
+     */
+    static String letters(int number) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return name.toString();
+    }
+
+    private static void addCourse(Random random) {
+        CourseLevel level = random.nextBoolean() ? CourseLevel.BACHELOR : CourseLevel.MASTER;
+        UniversityCourseManagementSystem.getEngine().addCourse("course" + letters(random.nextInt(1 << 20)), level);
+    }
+}
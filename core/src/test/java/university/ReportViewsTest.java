@@ -0,0 +1,88 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ReportViewsTest runs the RandomWorkload from many threads and compares
+ * courses with a free seat and professors with spare load, as the metrics
+ * publish them, with a count over the registry and the store after every
+ * round, also right after a snapshot is loaded
+ */
+class ReportViewsTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 4;
+    private static final int CHANGES = 10_000;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void viewsMatchCountAfterConcurrentChanges() throws Exception {
+        RandomWorkload.fill(new Random(1), 30, 120, 4);
+        CommandMetrics metrics = attach();
+        assertViews(metrics);
+        RandomWorkload.rounds(THREADS, ROUNDS, CHANGES, () -> assertViews(metrics));
+    }
+
+    @Test
+    void viewsOfLoadedSnapshotMatchCount(@TempDir Path directory) throws IOException {
+        Random random = new Random(2);
+        RandomWorkload.fill(random, 10, 40, 4);
+        RandomWorkload.change(random, CHANGES);
+        RandomWorkload.reload(directory);
+        assertViews(attach());
+    }
+
+    private static CommandMetrics attach() {
+        CommandMetrics metrics = new CommandMetrics();
+        metrics.attach(UniversityCourseManagementSystem.getEngine(), Registry.getInstance(),
+                EnrollmentStore.getInstance());
+        return metrics;
+    }
+
+    // compares the views with a count of the state at the same moment, no change runs meanwhile
+    private static void assertViews(CommandMetrics metrics) {
+        Registry registry = Registry.getInstance();
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        UniversityCourseManagementSystem.getEngine().exclusive(() -> {
+            int[] professors = metrics.listProfessorsWithSpareLoad();
+            List<Integer> expected = new ArrayList<>();
+            for (Professor professor : registry.getProfessors()) {
+                if (professor.getAssignedCourses().size() < Professor.MAX_LOAD) {
+                    expected.add(professor.getMemberId());
+                }
+            }
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), professors);
+            assertEquals(expected.size(), metrics.getProfessorsWithSpareLoad());
+
+            for (CourseLevel level : CourseLevel.values()) {
+                String name = level.name().toLowerCase(Locale.ROOT);
+                List<Integer> available = new ArrayList<>();
+                for (Course course : registry.getCourses()) {
+                    if (course.getCourseLevel() == level && store.countStudents(course.getCourseId())
+                            < Course.getCapacity()) {
+                        available.add(course.getCourseId());
+                    }
+                }
+                available.sort(null);
+                assertArrayEquals(available.stream().mapToInt(Integer::intValue).toArray(),
+                        metrics.listAvailableCourses(level.name()), name);
+                assertEquals((long) available.size(), metrics.getAvailableCourses().get(name), name);
+            }
+        });
+    }
+}
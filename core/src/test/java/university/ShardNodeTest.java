@@ -0,0 +1,55 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ShardNodeTest sends requests to a shard in this process and checks that
+ * every request gets one answer, so a router which reads answers later
+ * stays in step, and that a wrong release does not end the session
+ */
+class ShardNodeTest {
+    @AfterEach
+    void tearDown() {
+        UniversityCourseManagementSystem.resetState();
+    }
+
+    @Test
+    void releaseIsAnsweredAndWrongReleaseKeepsTheSession() {
+        UniversityCourseManagementSystem.resetState();
+        ShardNode node = new ShardNode(0, 1);
+        assertEquals(List.of(ShardNode.OK, ShardNode.WRONG, ShardNode.OK, ShardNode.OK, ShardNode.WRONG,
+                ShardNode.WRONG, "0 1 0 3"),
+                serve(node, "member 3 student bob", "release 3", "reserve 3 student", "release 3", "release 3",
+                        "release 7", "status"));
+    }
+
+    @Test
+    void unclaimedNameCanBeClaimedAgain() {
+        UniversityCourseManagementSystem.resetState();
+        ShardNode node = new ShardNode(0, 1);
+        assertEquals(List.of(ShardNode.OK, ShardNode.EXISTS, ShardNode.OK, ShardNode.OK, ShardNode.EXISTS),
+                serve(node, "claim algebra", "claim Algebra", "unclaim ALGEBRA", "claim algebra", "claim algebra"));
+    }
+
+    private static List<String> serve(ShardNode node, String... requests) {
+        List<String> answers = new ArrayList<>();
+        node.serve(new ScannerCommandInput(new Scanner(String.join("\n", requests) + "\n")), new CommandOutput() {
+            @Override
+            public void println(String line) {
+                answers.add(line);
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+        return answers;
+    }
+}
@@ -0,0 +1,231 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static university.RandomWorkload.letters;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ShardRouterTest starts shards as separate processes on the loopback
+ * address, as every shard keeps its state in the singletons of its own
+ * program, and routes commands to them from this process. Answers of the
+ * router are compared with the answers of the engine of one process, and
+ * clients which enroll one student or assign one professor at once through
+ * courses of all shards never get past the limit of the member.
+ */
+class ShardRouterTest {
+    private static final int SHARDS = 3;
+    private static final int CLIENTS = 6;
+    private static final int COMMANDS = 2_000;
+
+    private final List<Process> shards = new ArrayList<>();
+    private ShardRouter router;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException, URISyntaxException {
+        UniversityCourseManagementSystem.resetState();
+        Path classes = Paths.get(UniversityCourseManagementSystem.class.getProtectionDomain().getCodeSource()
+                .getLocation().toURI());
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            Process process = new ProcessBuilder(java, "-cp", classes.toString(),
+                    UniversityCourseManagementSystem.class.getName(), "--shard", shard + "/" + SHARDS,
+                    "--serve", "0").redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            shards.add(process);
+            addresses.add(new InetSocketAddress("127.0.0.1", listeningPort(process)));
+        }
+        router = ShardRouter.connect(addresses);
+        executor = Executors.newFixedThreadPool(CLIENTS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Process process : shards) {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void routedCommandsGetTheAnswersOfOneProcess() {
+        String commands = randomCommands(new Random(1));
+        List<String> routed = route(commands);
+
+        UniversityCourseManagementSystem.resetState();
+        UniversityCourseManagementSystem.fillInitialData();
+        assertEquals(processLocally(commands), routed);
+    }
+
+    @Test
+    void limitsHoldAcrossShards() throws Exception {
+        int courses = CLIENTS * Professor.MAX_LOAD;
+        StringBuilder setup = new StringBuilder("student\nzoe\nprofessor\nyves\n");
+        for (int i = 0; i < courses; i++) {
+            setup.append("course\nseminar").append(letters(i)).append("\nbachelor\n");
+        }
+        route(setup.toString());
+        // IDs follow the initial data which the router gave to the shards
+        UniversityCourseManagementSystem.fillInitialData();
+        int student = UniversityMember.getNumberOfMembers() + 1;
+        int professor = student + 1;
+        int firstCourse = Course.getNumberOfCourses() + 1;
+
+        // every client takes its own courses, which lie on all shards
+        List<Future<List<String>>> answers = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            StringBuilder commands = new StringBuilder();
+            for (int courseId = firstCourse + client; courseId < firstCourse + courses; courseId += CLIENTS) {
+                commands.append("enroll\n").append(student).append('\n').append(courseId).append('\n');
+                commands.append("teach\n").append(professor).append('\n').append(courseId).append('\n');
+            }
+            answers.add(executor.submit(() -> route(commands.toString())));
+        }
+        List<Integer> enrolled = new ArrayList<>();
+        List<Integer> assigned = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            List<String> lines = answers.get(client).get(60, TimeUnit.SECONDS);
+            for (int i = 0; i < lines.size(); i++) {
+                int courseId = firstCourse + client + i / 2 * CLIENTS;
+                if (lines.get(i).equals(Outcome.ENROLLED.getMessage())) {
+                    enrolled.add(courseId);
+                } else if (lines.get(i).equals(Outcome.ASSIGNED.getMessage())) {
+                    assigned.add(courseId);
+                } else {
+                    assertEquals(i % 2 == 0 ? Outcome.MAX_ENROLLMENT_REACHED.getMessage()
+                            : Outcome.LOAD_COMPLETE.getMessage(), lines.get(i));
+                }
+            }
+        }
+        assertEquals(Student.MAX_ENROLLMENT, enrolled.size());
+        assertEquals(Professor.MAX_LOAD, assigned.size());
+
+        // places come back after drop and exempt
+        StringBuilder commands = new StringBuilder();
+        commands.append("drop\n").append(student).append('\n').append(enrolled.get(0)).append('\n');
+        commands.append("exempt\n").append(professor).append('\n').append(assigned.get(0)).append('\n');
+        int other = firstCourse;
+        while (enrolled.contains(other) || assigned.contains(other)) {
+            other++;
+        }
+        commands.append("enroll\n").append(student).append('\n').append(other).append('\n');
+        commands.append("teach\n").append(professor).append('\n').append(other).append('\n');
+        commands.append("enroll\n").append(student).append('\n').append(enrolled.get(0)).append('\n');
+        assertEquals(List.of(Outcome.DROPPED.getMessage(), Outcome.EXEMPTED.getMessage(),
+                Outcome.ENROLLED.getMessage(), Outcome.ASSIGNED.getMessage(),
+                Outcome.MAX_ENROLLMENT_REACHED.getMessage()), route(commands.toString()));
+    }
+
+    // new courses and members, then changes with IDs which are sometimes missing or of another kind
+    private static String randomCommands(Random random) {
+        StringBuilder commands = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            commands.append("course\ncourse").append(letters(random.nextInt(10))).append('\n')
+                    .append(random.nextBoolean() ? "bachelor" : "master").append('\n');
+        }
+        for (int i = 0; i < 20; i++) {
+            commands.append(i % 4 == 0 ? "professor\nprofessor" : "student\nstudent").append(letters(i)).append('\n');
+        }
+        String[] operations = {"enroll", "drop", "teach", "exempt"};
+        for (int i = 0; i < COMMANDS; i++) {
+            commands.append(operations[random.nextInt(operations.length)]).append('\n')
+                    .append(1 + random.nextInt(32)).append('\n').append(1 + random.nextInt(20)).append('\n');
+        }
+        return commands.toString();
+    }
+
+    @Test
+    void failedCourseLeavesItsNameFree() throws InterruptedException {
+        UniversityCourseManagementSystem.fillInitialData();
+        int courseId = Course.getNumberOfCourses() + 1;
+        int courseShard = ShardNode.shardOf(courseId, SHARDS);
+        String name = "seminar";
+        for (int i = 0; ShardNode.shardOfName(name, SHARDS) == courseShard; i++) {
+            name = "seminar" + letters(i);
+        }
+        Process process = shards.get(courseShard);
+        process.destroy();
+        process.waitFor(10, TimeUnit.SECONDS);
+
+        String command = "course\n" + name + "\nbachelor\n";
+        assertNotEquals(List.of(Outcome.ADDED.getMessage()), route(command));
+        // the next ID lies on another shard, which takes the name
+        assertEquals(List.of(Outcome.ADDED.getMessage(), Outcome.COURSE_EXISTS.getMessage()),
+                route(command + command));
+    }
+
+    // the shard prints its port when it listens
+    private static int listeningPort(Process process) throws IOException {
+        BufferedReader errors = new BufferedReader(new InputStreamReader(process.getErrorStream(),
+                StandardCharsets.UTF_8));
+        for (String line = errors.readLine(); line != null; line = errors.readLine()) {
+            if (line.startsWith("Listening on ")) {
+                Thread drain = new Thread(() -> {
+                    try {
+                        errors.transferTo(Writer.nullWriter());
+                    } catch (IOException e) {
+                        // the shard is stopped
+                    }
+                });
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.substring(line.lastIndexOf(':') + 1));
+            }
+        }
+        throw new IOException("Shard stopped before it listened");
+    }
+
+    private List<String> route(String commands) {
+        List<String> answers = new ArrayList<>();
+        try (ShardRouter.Session session = router.openSession()) {
+            UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(commands)),
+                    collect(answers), session);
+        }
+        return answers;
+    }
+
+    private static List<String> processLocally(String commands) {
+        List<String> answers = new ArrayList<>();
+        UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(commands)),
+                collect(answers));
+        return answers;
+    }
+
+    private static CommandOutput collect(List<String> answers) {
+        return new CommandOutput() {
+            @Override
+            public void println(String line) {
+                answers.add(line);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+}
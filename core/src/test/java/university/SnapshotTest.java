@@ -0,0 +1,148 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * SnapshotTest saves the state to a snapshot, loads it into a fresh state
+ * and compares both, checks that loaded members stay in the mapped file
+ * until a command needs them and that a snapshot and the journal after it
+ * give back the state
+ */
+class SnapshotTest {
+    @TempDir
+    Path directory;
+
+    private Path path;
+    private EnrollmentEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        path = directory.resolve("state.snapshot");
+    }
+
+    @Test
+    void loadRestoresTheSavedState() throws IOException {
+        buildState();
+        Snapshot.save(path, Registry.getInstance(), engine, null);
+        String state = StateDump.of();
+
+        load();
+        assertEquals(state, StateDump.of());
+
+        // the counters of IDs go on after the saved ones
+        assertEquals(Outcome.ADDED, engine.addCourse("chemistry", CourseLevel.MASTER));
+        assertEquals(5, Course.getNumberOfCourses());
+        assertEquals(8, engine.addStudent("grace").getMemberId());
+    }
+
+    @Test
+    void membersAreLoadedWhenACommandNeedsThem() throws IOException {
+        buildState();
+        Snapshot.save(path, Registry.getInstance(), engine, null);
+        String state = StateDump.of();
+
+        load();
+        Registry registry = Registry.getInstance();
+        for (int memberId = 1; memberId <= UniversityMember.getNumberOfMembers(); memberId++) {
+            assertTrue(registry.isPending(memberId), "member " + memberId);
+        }
+        // rosters of courses are restored without members
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        assertEquals(Course.getCapacity(), store.countStudents(1));
+        assertTrue(store.isEnrolled(4, 2));
+
+        assertEquals(Outcome.DROPPED, engine.drop(4, 2));
+        assertFalse(registry.isPending(4));
+        assertTrue(registry.isPending(1));
+        assertEquals(Outcome.LOAD_COMPLETE, engine.teach(3, 4));
+        assertFalse(registry.isPending(3));
+        assertTrue(registry.isPending(5));
+
+        assertEquals(Outcome.ENROLLED, engine.enroll(4, 2));
+        assertEquals(state, StateDump.of());
+    }
+
+    @Test
+    void snapshotAndLaterJournalRestoreTheState() throws IOException {
+        Path journalPath = directory.resolve("state.journal");
+        Journal journal = Journal.open(journalPath, false, engine, 0);
+        buildState();
+        Snapshot.save(path, Registry.getInstance(), engine, journal);
+        assertEquals(2, journal.getEpoch());
+        engine.drop(1, 1);
+        engine.addStudent("h".repeat(70_000));
+        engine.enroll(8, 1);
+        Snapshot.save(path, Registry.getInstance(), engine, journal);
+        engine.exempt(3, 1);
+        String state = StateDump.of();
+        journal.close();
+
+        long epoch = load().getJournalEpoch();
+        assertEquals(2, epoch);
+        Journal.open(journalPath, false, engine, epoch).close();
+        assertEquals(state, StateDump.of());
+    }
+
+    @Test
+    void damagedSnapshotIsRejected() throws IOException {
+        buildState();
+        Snapshot.save(path, Registry.getInstance(), engine, null);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() / 2);
+            int value = file.read();
+            file.seek(file.length() / 2);
+            file.write(value ^ 1);
+        }
+
+        UniversityCourseManagementSystem.resetState();
+        assertThrows(IOException.class,
+                () -> Snapshot.load(path, Registry.getInstance(), EnrollmentStore.getInstance()));
+    }
+
+    // a full course, courses with time slots, a name longer than 65535 bytes and one which is not Latin-1
+    private void buildState() {
+        TimeSlot morning = new TimeSlot(DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(10, 30));
+        assertEquals(Outcome.ADDED, engine.addCourse("algebra", CourseLevel.BACHELOR));
+        assertEquals(Outcome.ADDED, engine.addCourse("geometry", CourseLevel.MASTER, List.of(morning)));
+        assertEquals(Outcome.ADDED, engine.addCourse("physics", CourseLevel.BACHELOR, List.of(morning)));
+        assertEquals(Outcome.ADDED, engine.addCourse("biology", CourseLevel.MASTER));
+        engine.addStudent("alice");
+        engine.addStudent("bob");
+        engine.addProfessor("carol");
+        engine.addStudent("d".repeat(70_000));
+        engine.addProfessor("émileć");
+        engine.addStudent("frank");
+        engine.addStudent("gina");
+        for (int memberId : new int[] {1, 2, 4}) {
+            assertEquals(Outcome.ENROLLED, engine.enroll(memberId, 1));
+        }
+        assertEquals(Outcome.ENROLLED, engine.enroll(4, 2));
+        assertEquals(Outcome.TIME_CONFLICT, engine.enroll(4, 3));
+        assertEquals(Outcome.ENROLLED, engine.enroll(6, 3));
+        assertEquals(Outcome.ASSIGNED, engine.teach(3, 1));
+        assertEquals(Outcome.ASSIGNED, engine.teach(3, 2));
+        assertEquals(Outcome.ASSIGNED, engine.teach(5, 3));
+    }
+
+    private Snapshot load() throws IOException {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        return Snapshot.load(path, Registry.getInstance(), EnrollmentStore.getInstance());
+    }
+}
@@ -0,0 +1,243 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * StaffingSolverTest staffs small cases which are checked by hand: a course
+ * which needs an augmenting path, free load under MAX_LOAD, courses
+ * without a qualification, and courses meeting at the same time as another
+ * course of the professor. Random cases without meeting times are compared
+ * with the size of a maximum matching found by simple augmenting paths.
+ */
+class StaffingSolverTest {
+    private EnrollmentEngine engine;
+    private Registry registry;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        registry = Registry.getInstance();
+    }
+
+    @Test
+    void courseOfTheFirstProfessorMovesToAnother() {
+        addCourses(4);
+        int anna = engine.addProfessor("anna").getMemberId();
+        int boris = engine.addProfessor("boris").getMemberId();
+        // both have one free course, the first course is taken first in the order of IDs
+        assertEquals(Outcome.ASSIGNED, engine.teach(anna, 3));
+        assertEquals(Outcome.ASSIGNED, engine.teach(boris, 4));
+        StaffingSolver.Result result = StaffingSolver.staff(engine, new StaffingSolver.Qualifications()
+                .add(anna, 1).add(anna, 2).add(boris, 1));
+
+        assertEquals(2, result.getAssigned());
+        assertArrayEquals(new int[0], result.getUnstaffedCourses());
+        assertArrayEquals(new int[] {2, 3}, coursesOf(anna));
+        assertArrayEquals(new int[] {1, 4}, coursesOf(boris));
+    }
+
+    @Test
+    void professorsDoNotGetMoreCoursesThanMaxLoad() {
+        addCourses(6);
+        int anna = engine.addProfessor("anna").getMemberId();
+        int boris = engine.addProfessor("boris").getMemberId();
+        assertEquals(Outcome.ASSIGNED, engine.teach(anna, 1));
+        assertEquals(Outcome.ASSIGNED, engine.teach(boris, 5));
+        assertEquals(Outcome.ASSIGNED, engine.teach(boris, 6));
+        // course 1 has a professor already, boris has no free load
+        StaffingSolver.Result result = StaffingSolver.staff(engine, new StaffingSolver.Qualifications()
+                .add(anna, 1).add(anna, 2).add(anna, 3).add(anna, 4).add(boris, 2).add(boris, 3));
+
+        assertEquals(Professor.MAX_LOAD - 1, result.getAssigned());
+        assertArrayEquals(new int[] {1, 2}, coursesOf(anna));
+        assertArrayEquals(new int[] {5, 6}, coursesOf(boris));
+        assertArrayEquals(new int[] {3, 4}, result.getUnstaffedCourses());
+    }
+
+    @Test
+    void onlyQualifiedProfessorsAreAssigned() {
+        addCourses(3);
+        int anna = engine.addProfessor("anna").getMemberId();
+        int student = engine.addStudent("carl").getMemberId();
+        int boris = engine.addProfessor("boris").getMemberId();
+        // pairs with a student, unknown IDs or twice the same pair are skipped
+        StaffingSolver.Result result = StaffingSolver.staff(engine, new StaffingSolver.Qualifications()
+                .add(anna, 2).add(anna, 2).add(student, 1).add(boris, 99).add(99, 1).add(boris, 3));
+
+        assertEquals(2, result.getAssigned());
+        assertArrayEquals(new int[] {2}, coursesOf(anna));
+        assertArrayEquals(new int[] {3}, coursesOf(boris));
+        assertArrayEquals(new int[] {1}, result.getUnstaffedCourses());
+        assertEquals(0, EnrollmentStore.getInstance().countCourses(student));
+    }
+
+    @Test
+    void coursesMeetingAtOnceGoToDifferentProfessors() {
+        // 1 and 2 overlap on monday, 3 is on tuesday, 4 overlaps with 5 which anna teaches
+        addCourse(DayOfWeek.MONDAY, 9, 10);
+        addCourse(DayOfWeek.MONDAY, 9, 11);
+        addCourse(DayOfWeek.TUESDAY, 9, 10);
+        addCourse(DayOfWeek.WEDNESDAY, 9, 10);
+        addCourse(DayOfWeek.WEDNESDAY, 8, 10);
+        addCourse(DayOfWeek.THURSDAY, 9, 10);
+        addCourse(DayOfWeek.THURSDAY, 9, 10);
+        int anna = engine.addProfessor("anna").getMemberId();
+        int boris = engine.addProfessor("boris").getMemberId();
+        int carl = engine.addProfessor("carl").getMemberId();
+        assertEquals(Outcome.ASSIGNED, engine.teach(carl, 5));
+        // without meeting times anna could take 1 and 2, then boris had nothing
+        StaffingSolver.Result result = StaffingSolver.staff(engine, new StaffingSolver.Qualifications()
+                .add(anna, 1).add(anna, 2).add(anna, 3).add(boris, 2).add(carl, 4).add(carl, 6).add(carl, 7));
+
+        assertArrayEquals(new int[] {1, 3}, coursesOf(anna));
+        assertArrayEquals(new int[] {2}, coursesOf(boris));
+        // carl has one free course, 4 overlaps with 5 and only one of 6 and 7 fits
+        assertArrayEquals(new int[] {5, 6}, coursesOf(carl));
+        assertEquals(4, result.getAssigned());
+        assertArrayEquals(new int[] {4, 7}, result.getUnstaffedCourses());
+        assertTrue(engine.findConflicts().isEmpty());
+    }
+
+    @Test
+    void professorWithOverlappingCoursesKeepsTheFirst() {
+        addCourse(DayOfWeek.FRIDAY, 9, 11);
+        addCourse(DayOfWeek.FRIDAY, 10, 12);
+        int anna = engine.addProfessor("anna").getMemberId();
+        StaffingSolver.Result result = StaffingSolver.staff(engine, new StaffingSolver.Qualifications()
+                .add(anna, 2).add(anna, 1));
+
+        assertEquals(1, result.getAssigned());
+        assertArrayEquals(new int[] {1}, coursesOf(anna));
+        assertArrayEquals(new int[] {2}, result.getUnstaffedCourses());
+    }
+
+    @Test
+    void randomCasesGetMaximumMatching() {
+        for (int seed = 0; seed < 200; seed++) {
+            UniversityCourseManagementSystem.resetState();
+            engine = UniversityCourseManagementSystem.getEngine();
+            registry = Registry.getInstance();
+            Random random = new Random(seed);
+            int courses = 2 + random.nextInt(12);
+            int professors = 1 + random.nextInt(8);
+            addCourses(courses);
+            for (int i = 0; i < professors; i++) {
+                engine.addProfessor("professor" + (char) ('a' + i));
+            }
+            for (int i = random.nextInt(professors + 1); i > 0; i--) {
+                engine.teach(1 + random.nextInt(professors), 1 + random.nextInt(courses));
+            }
+            StaffingSolver.Qualifications qualifications = new StaffingSolver.Qualifications();
+            boolean[][] qualified = new boolean[professors + 1][courses + 1];
+            for (int i = random.nextInt(3 * courses); i > 0; i--) {
+                int memberId = 1 + random.nextInt(professors);
+                int courseId = 1 + random.nextInt(courses);
+                qualifications.add(memberId, courseId);
+                qualified[memberId][courseId] = true;
+            }
+            int[] loads = new int[professors + 1];
+            boolean[] staffed = new boolean[courses + 1];
+            for (int memberId = 1; memberId <= professors; memberId++) {
+                loads[memberId] = coursesOf(memberId).length;
+                for (int courseId : coursesOf(memberId)) {
+                    staffed[courseId] = true;
+                }
+            }
+            int expected = maximumMatching(qualified, loads, staffed);
+
+            StaffingSolver.Result result = StaffingSolver.staff(engine, qualifications);
+            assertEquals(expected, result.getAssigned(), "seed " + seed);
+            int assigned = 0;
+            for (int memberId = 1; memberId <= professors; memberId++) {
+                int[] courseIds = coursesOf(memberId);
+                assertTrue(courseIds.length <= Professor.MAX_LOAD);
+                for (int courseId : courseIds) {
+                    if (!staffed[courseId]) {
+                        assertTrue(qualified[memberId][courseId], "seed " + seed);
+                        staffed[courseId] = true;
+                        assigned++;
+                    }
+                }
+            }
+            assertEquals(expected, assigned, "seed " + seed);
+            int unstaffed = 0;
+            for (int courseId = 1; courseId <= courses; courseId++) {
+                unstaffed += staffed[courseId] ? 0 : 1;
+            }
+            assertEquals(unstaffed, result.getUnstaffedCourses().length, "seed " + seed);
+        }
+    }
+
+    // grows the matching by one augmenting path per course, professors take up to their free load
+    private static int maximumMatching(boolean[][] qualified, int[] loads, boolean[] staffed) {
+        List<List<Integer>> matched = new ArrayList<>();
+        for (int memberId = 0; memberId < qualified.length; memberId++) {
+            matched.add(new ArrayList<>());
+        }
+        int size = 0;
+        for (int courseId = 1; courseId < staffed.length; courseId++) {
+            if (!staffed[courseId] && augment(courseId, qualified, loads, matched,
+                    new boolean[qualified.length])) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private static boolean augment(int courseId, boolean[][] qualified, int[] loads, List<List<Integer>> matched,
+            boolean[] visited) {
+        for (int memberId = 1; memberId < qualified.length; memberId++) {
+            if (!qualified[memberId][courseId] || visited[memberId]) {
+                continue;
+            }
+            visited[memberId] = true;
+            List<Integer> courses = matched.get(memberId);
+            if (loads[memberId] + courses.size() < Professor.MAX_LOAD) {
+                courses.add(courseId);
+                return true;
+            }
+            for (int i = 0; i < courses.size(); i++) {
+                if (augment(courses.get(i), qualified, loads, matched, visited)) {
+                    courses.set(i, courseId);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addCourses(int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(Outcome.ADDED, engine.addCourse("course" + (char) ('a' + i), CourseLevel.BACHELOR));
+        }
+    }
+
+    private void addCourse(DayOfWeek day, int startHour, int endHour) {
+        String name = "course" + (char) ('a' + Course.getNumberOfCourses());
+        assertEquals(Outcome.ADDED, engine.addCourse(name, CourseLevel.BACHELOR,
+                List.of(new TimeSlot(day, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0)))));
+    }
+
+    private int[] coursesOf(int memberId) {
+        List<Course> courses = registry.findProfessor(memberId).getAssignedCourses();
+        int[] courseIds = new int[courses.size()];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseIds[i] = courses.get(i).getCourseId();
+        }
+        Arrays.sort(courseIds);
+        return courseIds;
+    }
+}
@@ -0,0 +1,53 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StateDump writes the whole state of the program as text: counters of IDs,
+ * every course with its level, time slots and students, and every member
+ * with its name and courses. Lists are ordered by ID, so two states which
+ * were built in different ways give the same text exactly when they are
+ * the same. Pending members of a member source are added before.
+ */
+final class StateDump {
+    private StateDump() {
+    }
+
+    /**
+     * of describes the state of the program
+     * @return lines of the state
+     */
+    static String of() {
+        Registry registry = Registry.getInstance();
+        EnrollmentStore store = EnrollmentStore.getInstance();
+        StringBuilder text = new StringBuilder();
+        text.append("courses ").append(Course.getNumberOfCourses()).append(" members ")
+                .append(UniversityMember.getNumberOfMembers()).append('\n');
+        List<Course> courses = new ArrayList<>(registry.getCourses());
+        courses.sort((a, b) -> Integer.compare(a.getCourseId(), b.getCourseId()));
+        for (Course course : courses) {
+            int[] students = new int[store.countStudents(course.getCourseId())];
+            for (int i = 0; i < students.length; i++) {
+                students[i] = store.studentAt(course.getCourseId(), i);
+            }
+            Arrays.sort(students);
+            text.append("course ").append(course.getCourseId()).append(' ').append(course.getCourseName())
+                    .append(' ').append(course.getCourseLevel()).append(' ').append(course.getTimeSlots())
+                    .append(' ').append(Arrays.toString(students)).append('\n');
+        }
+        List<UniversityMember> members = new ArrayList<>(registry.getStudents());
+        members.addAll(registry.getProfessors());
+        members.sort((a, b) -> Integer.compare(a.getMemberId(), b.getMemberId()));
+        for (UniversityMember member : members) {
+            List<Course> links = member instanceof Student ? ((Student) member).getEnrolledCourses()
+                    : ((Professor) member).getAssignedCourses();
+            int[] courseIds = links.stream().mapToInt(Course::getCourseId).sorted().toArray();
+            text.append(member instanceof Student ? "student " : "professor ").append(member.getMemberId())
+                    .append(' ').append(member.getMemberName()).append(' ').append(Arrays.toString(courseIds))
+                    .append('\n');
+        }
+        return text.toString();
+    }
+}
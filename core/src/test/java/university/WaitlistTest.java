@@ -0,0 +1,144 @@
+package university;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * WaitlistTest fills a course, queues students in its waitlist and checks
+ * that drops give the free seats to them in the order they came
+ */
+class WaitlistTest {
+    private EnrollmentEngine engine;
+    private EnrollmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        UniversityCourseManagementSystem.resetState();
+        engine = UniversityCourseManagementSystem.getEngine();
+        store = EnrollmentStore.getInstance();
+    }
+
+    @AfterEach
+    void restoreCommands() {
+        CommandTable.setInstance(CommandTable.withDefaults());
+    }
+
+    @Test
+    void dropsPromoteInOrderOfArrival() {
+        int courseId = addCourse("algebra");
+        int[] seated = addStudents(Course.getCapacity());
+        for (int memberId : seated) {
+            assertEquals(Outcome.ENROLLED, engine.enrollOrWaitlist(memberId, courseId));
+        }
+        int[] waiting = addStudents(3);
+        for (int i = 0; i < waiting.length; i++) {
+            assertEquals(Outcome.WAITLISTED, engine.enrollOrWaitlist(waiting[i], courseId));
+            assertEquals(i + 1, engine.waitlistPosition(waiting[i], courseId));
+        }
+        assertEquals(Outcome.ALREADY_WAITLISTED, engine.enrollOrWaitlist(waiting[1], courseId));
+        assertEquals(Outcome.COURSE_FULL, engine.enroll(waiting[1], courseId));
+
+        assertEquals(Outcome.DROPPED, engine.drop(seated[0], courseId));
+        assertTrue(store.isEnrolled(waiting[0], courseId));
+        assertFalse(store.isEnrolled(waiting[1], courseId));
+        assertEquals(0, engine.waitlistPosition(waiting[0], courseId));
+        assertEquals(1, engine.waitlistPosition(waiting[1], courseId));
+        assertEquals(2, engine.waitlistPosition(waiting[2], courseId));
+
+        assertEquals(Outcome.DROPPED, engine.drop(seated[1], courseId));
+        assertTrue(store.isEnrolled(waiting[1], courseId));
+        assertEquals(1, engine.waitlistPosition(waiting[2], courseId));
+        assertEquals(Course.getCapacity(), store.countStudents(courseId));
+    }
+
+    @Test
+    void studentsWhoCannotTakeTheCourseLeaveTheWaitlist() {
+        int courseId = addCourse("algebra");
+        for (int memberId : addStudents(Course.getCapacity())) {
+            engine.enroll(memberId, courseId);
+        }
+        int[] waiting = addStudents(2);
+        engine.enrollOrWaitlist(waiting[0], courseId);
+        engine.enrollOrWaitlist(waiting[1], courseId);
+        for (int i = 0; i < Student.MAX_ENROLLMENT; i++) {
+            assertEquals(Outcome.ENROLLED, engine.enroll(waiting[0], addCourse("course" + (char) ('a' + i))));
+        }
+
+        engine.drop(1, courseId);
+        assertFalse(store.isEnrolled(waiting[0], courseId));
+        assertEquals(0, engine.waitlistPosition(waiting[0], courseId));
+        assertTrue(store.isEnrolled(waiting[1], courseId));
+    }
+
+    @Test
+    void waitlistCommandAnswersLikeEnroll() {
+        CommandTable table = CommandTable.withDefaults();
+        table.register("waitlist", CommandMetrics.Command.WAITLIST);
+        CommandTable.setInstance(table);
+        StringBuilder commands = new StringBuilder("course\nalgebra\nbachelor\n");
+        int students = Course.getCapacity() + 2;
+        for (int i = 0; i < students; i++) {
+            commands.append("student\n").append("student").append((char) ('a' + i)).append('\n');
+        }
+        for (int memberId = 1; memberId <= students; memberId++) {
+            commands.append("waitlist\n").append(memberId).append("\n1\n");
+        }
+        commands.append("waitlist\n").append(students).append("\n1\n");
+        commands.append("drop\n1\n1\nwaitlist\nx\n1\n");
+
+        List<String> results = new ArrayList<>();
+        UniversityCourseManagementSystem.processCommands(new ScannerCommandInput(new Scanner(commands.toString())),
+                new CommandOutput() {
+                    @Override
+                    public void println(String line) {
+                        results.add(line);
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                });
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i <= students; i++) {
+            expected.add(Outcome.ADDED.getMessage());
+        }
+        for (int i = 0; i < Course.getCapacity(); i++) {
+            expected.add(Outcome.ENROLLED.getMessage());
+        }
+        expected.add(Outcome.WAITLISTED.getMessage());
+        expected.add(Outcome.WAITLISTED.getMessage());
+        expected.add(Outcome.ALREADY_WAITLISTED.getMessage());
+        expected.add(Outcome.DROPPED.getMessage());
+        expected.add(Outcome.WRONG_INPUTS.getMessage());
+        expected.add(Outcome.WRONG_INPUTS.getMessage());
+        assertEquals(expected, results);
+        assertTrue(store.isEnrolled(students - 1, 1));
+        assertEquals(1, engine.waitlistPosition(students, 1));
+        assertNull(UniversityCourseManagementSystem.allowedMemberName("Waitlist"));
+    }
+
+    private int addCourse(String name) {
+        assertEquals(Outcome.ADDED, engine.addCourse(name, CourseLevel.BACHELOR));
+        return Course.getNumberOfCourses();
+    }
+
+    private int[] addStudents(int count) {
+        int[] memberIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            memberIds[i] = engine.addStudent("student" + (char) ('a' + UniversityMember.getNumberOfMembers()))
+                    .getMemberId();
+        }
+        return memberIds;
+    }
+}